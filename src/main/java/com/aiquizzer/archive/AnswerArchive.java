@@ -0,0 +1,202 @@
+package com.aiquizzer.archive;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Read side of the answer archive. Live segments are the ones registered in
+ * {@code answer_archive_segments}; their files are memory-mapped once and decoded segments are
+ * kept in a small cache, so repeated reviews of recent archive pages do not inflate again. The
+ * registered set is re-read every {@code refresh-interval-ms} to pick up segments written or
+ * compacted by other instances.
+ */
+@Component
+public class AnswerArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(AnswerArchive.class);
+
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Path directory;
+    private final List<AnswerSegment> segments = new CopyOnWriteArrayList<>();
+    private final Cache<Path, Map<Long, List<ArchivedAnswer>>> decoded;
+
+    public AnswerArchive(@Value("${quizzer.archive.directory:./data/answer-archive}") String directory,
+                         @Value("${quizzer.archive.decoded-segment-cache-size:16}") long decodedSegmentCacheSize) {
+        this.directory = Paths.get(directory);
+        this.decoded = Caffeine.newBuilder()
+            .maximumSize(decodedSegmentCacheSize)
+            .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() throws IOException {
+        Files.createDirectories(directory);
+        Set<String> registered = new HashSet<>(
+            jdbcTemplate.queryForList("SELECT file_name FROM answer_archive_segments", String.class));
+        for (String fileName : registered) {
+            Path path = directory.resolve(fileName);
+            if (Files.exists(path)) {
+                segments.add(AnswerSegment.open(path));
+            } else {
+                log.error("Answer archive segment {} is registered but missing; its answers cannot be reviewed", path);
+            }
+        }
+        // Files from runs whose transaction never committed
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path path : files) {
+                if (!registered.contains(path.getFileName().toString())) {
+                    log.info("Removing unregistered answer archive segment {}", path);
+                    Files.delete(path);
+                }
+            }
+        }
+        log.info("Answer archive loaded with {} segments", segments.size());
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    synchronized void register(AnswerSegment segment) {
+        if (find(segment.getPath()) == null) {
+            segments.add(segment);
+        }
+    }
+
+    // Swaps a compacted segment for its rewrite, or drops it when no attempt was left
+    synchronized void replace(AnswerSegment compacted, AnswerSegment rewritten) {
+        segments.remove(compacted);
+        decoded.invalidate(compacted.getPath());
+        if (rewritten != null && find(rewritten.getPath()) == null) {
+            segments.add(rewritten);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${quizzer.archive.refresh-interval-ms:60000}",
+               fixedDelayString = "${quizzer.archive.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        Set<String> registered = new HashSet<>(
+            jdbcTemplate.queryForList("SELECT file_name FROM answer_archive_segments", String.class));
+        Set<String> loaded = new HashSet<>();
+        for (AnswerSegment segment : segments) {
+            String fileName = segment.getPath().getFileName().toString();
+            if (registered.contains(fileName)) {
+                loaded.add(fileName);
+            } else {
+                segments.remove(segment);
+                decoded.invalidate(segment.getPath());
+            }
+        }
+        for (String fileName : registered) {
+            Path path = directory.resolve(fileName);
+            if (!loaded.contains(fileName) && Files.exists(path)) {
+                try {
+                    segments.add(AnswerSegment.open(path));
+                } catch (IOException e) {
+                    log.warn("Could not open answer archive segment {}, will retry", path, e);
+                }
+            }
+        }
+    }
+
+    // The segment of each given attempt that has one
+    public Map<AnswerSegment, List<Long>> groupBySegment(Collection<Long> attemptIds) {
+        Map<AnswerSegment, List<Long>> bySegment = new HashMap<>();
+        for (Long attemptId : attemptIds) {
+            AnswerSegment segment = segmentOf(attemptId);
+            if (segment != null) {
+                bySegment.computeIfAbsent(segment, key -> new ArrayList<>()).add(attemptId);
+            }
+        }
+        return bySegment;
+    }
+
+    // Purged attempts have no quiz_attempts row left to be reviewed or exported through
+    public List<ArchivedAnswer> findByAttemptId(long attemptId) {
+        AnswerSegment segment = segmentOf(attemptId);
+        if (segment == null) {
+            return Collections.emptyList();
+        }
+        return decoded.get(segment.getPath(), path -> segment.readAll())
+            .getOrDefault(attemptId, Collections.emptyList());
+    }
+
+    /**
+     * Returns {@code [answered, correct]} per user over the whole archive, without purged
+     * attempts whose segment was not rewritten yet. Scans every segment, so it is meant for
+     * rebuilds and backfills rather than request paths.
+     */
+    public Map<Long, long[]> countAnswersByUserIds(Collection<Long> userIds) {
+        Set<Long> filter = new HashSet<>(userIds);
+        Set<Long> purged = new HashSet<>(
+            jdbcTemplate.queryForList("SELECT attempt_id FROM answer_archive_purged_attempts", Long.class));
+        Map<Long, long[]> counts = new HashMap<>();
+        for (AnswerSegment segment : segments) {
+            segment.countAnswersByUser(filter, purged, counts);
+        }
+        return counts;
+    }
+
+    private AnswerSegment segmentOf(long attemptId) {
+        for (AnswerSegment segment : segments) {
+            if (attemptId >= segment.getMinAttemptId() && attemptId <= segment.getMaxAttemptId()
+                    && segment.contains(attemptId)) {
+                return segment;
+            }
+        }
+        return null;
+    }
+
+    private AnswerSegment find(Path path) {
+        for (AnswerSegment segment : segments) {
+            if (segment.getPath().equals(path)) {
+                return segment;
+            }
+        }
+        return null;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    static String fileName(long minAttemptId, long maxAttemptId, long createdAtMillis) {
+        return "answers-" + minAttemptId + "-" + maxAttemptId + "-" + createdAtMillis + SEGMENT_SUFFIX;
+    }
+
+    static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete answer archive segment {}", path, e);
+        }
+    }
+}
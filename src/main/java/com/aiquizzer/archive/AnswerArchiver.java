@@ -0,0 +1,241 @@
+package com.aiquizzer.archive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Moves the answers of finished attempts older than {@code quizzer.archive.older-than} out of
+ * {@code user_answers} into {@link AnswerSegment} files. The file is written and synced first;
+ * registering it, stamping the attempts and deleting the rows then commit in one transaction.
+ * Segments holding attempts purged by {@code DeletionPurger} are rewritten without them the same
+ * way, the new file replacing the old one's registration.
+ */
+@Component
+public class AnswerArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(AnswerArchiver.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${quizzer.archive.older-than:P90D}")
+    private Duration olderThan;
+
+    @Value("${quizzer.archive.attempts-per-segment:1000}")
+    private int attemptsPerSegment;
+
+    @Value("${quizzer.archive.max-segments-per-run:10}")
+    private int maxSegmentsPerRun;
+
+    @Value("${quizzer.archive.refresh-interval-ms:60000}")
+    private long refreshIntervalMillis;
+
+    private final AnswerArchive answerArchive;
+    private final Counter archivedAnswers;
+
+    public AnswerArchiver(MeterRegistry meterRegistry, AnswerArchive answerArchive) {
+        this.answerArchive = answerArchive;
+        this.archivedAnswers = Counter.builder("quizzer.archive.answers")
+            .description("Answers moved from user_answers into archive segments")
+            .register(meterRegistry);
+        Gauge.builder("quizzer.archive.segments", answerArchive, AnswerArchive::getSegmentCount)
+            .description("Live answer archive segments")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${quizzer.archive.interval-ms:3600000}",
+               fixedDelayString = "${quizzer.archive.interval-ms:3600000}")
+    public void archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(olderThan);
+        try {
+            for (int run = 0; run < maxSegmentsPerRun; run++) {
+                List<Long> attemptIds = findArchivableAttemptIds(cutoff);
+                if (attemptIds.isEmpty()) {
+                    break;
+                }
+                archiveSegment(attemptIds);
+                if (attemptIds.size() < attemptsPerSegment) {
+                    break;
+                }
+            }
+            compact();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Answer archive run failed, will retry on the next run", e);
+        }
+    }
+
+    private void compact() throws IOException {
+        List<Long> purged = jdbcTemplate.queryForList(
+            "SELECT attempt_id FROM answer_archive_purged_attempts WHERE compacted_at IS NULL ORDER BY attempt_id LIMIT ?",
+            Long.class, attemptsPerSegment * maxSegmentsPerRun);
+        if (!purged.isEmpty()) {
+            // Read after the purged attempts: a segment is registered before its attempts can be purged
+            answerArchive.refresh();
+            Map<AnswerSegment, List<Long>> bySegment = answerArchive.groupBySegment(purged);
+            Set<Long> unarchived = new HashSet<>(purged);
+            bySegment.values().forEach(unarchived::removeAll);
+            if (!unarchived.isEmpty()) {
+                // Their segment file is missing; there is nothing to rewrite
+                markCompacted(unarchived);
+            }
+            int rewritten = 0;
+            for (Map.Entry<AnswerSegment, List<Long>> entry : bySegment.entrySet()) {
+                if (rewritten++ == maxSegmentsPerRun) {
+                    break;
+                }
+                compactSegment(entry.getKey(), new HashSet<>(entry.getValue()));
+            }
+        }
+        // By now every instance has re-read the registered segments and dropped the old files
+        jdbcTemplate.update("DELETE FROM answer_archive_purged_attempts WHERE compacted_at < ?",
+            LocalDateTime.now().minus(Duration.ofMillis(2 * refreshIntervalMillis)));
+    }
+
+    private void compactSegment(AnswerSegment segment, Set<Long> purged) throws IOException {
+        List<Long> attemptIds = new ArrayList<>();
+        List<ArchivedAnswer> answers = new ArrayList<>();
+        new TreeMap<>(segment.readAll()).forEach((attemptId, attemptAnswers) -> {
+            if (!purged.contains(attemptId)) {
+                attemptIds.add(attemptId);
+                answers.addAll(attemptAnswers);
+            }
+        });
+        String compactedName = segment.getPath().getFileName().toString();
+
+        String fileName = null;
+        Path path = null;
+        AnswerSegment rewritten = null;
+        if (!attemptIds.isEmpty()) {
+            fileName = AnswerArchive.fileName(attemptIds.get(0), attemptIds.get(attemptIds.size() - 1), System.currentTimeMillis());
+            path = answerArchive.getDirectory().resolve(fileName);
+            AnswerSegment.write(path, attemptIds, answers);
+        }
+        try {
+            if (path != null) {
+                rewritten = AnswerSegment.open(path);
+            }
+            String rewrittenName = fileName;
+            transactionTemplate.executeWithoutResult(status -> {
+                // Guards against a second instance compacting the same segment concurrently
+                if (jdbcTemplate.update("DELETE FROM answer_archive_segments WHERE file_name = ?", compactedName) != 1) {
+                    throw new IllegalStateException("Answer archive segment " + compactedName + " was compacted concurrently");
+                }
+                if (rewrittenName != null) {
+                    jdbcTemplate.update(
+                        "INSERT INTO answer_archive_segments (file_name, min_attempt_id, max_attempt_id, attempt_count, answer_count, created_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)",
+                        rewrittenName, attemptIds.get(0), attemptIds.get(attemptIds.size() - 1), attemptIds.size(), answers.size(),
+                        LocalDateTime.now());
+                }
+                markCompacted(purged);
+            });
+        } catch (IOException | RuntimeException e) {
+            if (path != null) {
+                AnswerArchive.deleteQuietly(path);
+            }
+            throw e;
+        }
+        answerArchive.replace(segment, rewritten);
+        // Instances still holding the old file keep reading their mapping until their next refresh
+        AnswerArchive.deleteQuietly(segment.getPath());
+        log.info("Compacted answer archive segment {}, dropping {} purged attempts", compactedName, purged.size());
+    }
+
+    private void markCompacted(Collection<Long> attemptIds) {
+        namedParameterJdbcTemplate.update(
+            "UPDATE answer_archive_purged_attempts SET compacted_at = :now WHERE attempt_id IN (:ids)",
+            new MapSqlParameterSource("ids", attemptIds).addValue("now", LocalDateTime.now()));
+    }
+
+    private List<Long> findArchivableAttemptIds(LocalDateTime cutoff) {
+        return jdbcTemplate.queryForList(
+            "SELECT id FROM quiz_attempts WHERE answers_archived_at IS NULL AND completed_at < ? " +
+            "AND status <> 'IN_PROGRESS' ORDER BY id LIMIT ?", Long.class, cutoff, attemptsPerSegment);
+    }
+
+    private void archiveSegment(List<Long> attemptIds) throws IOException {
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", attemptIds);
+        List<ArchivedAnswer> answers = namedParameterJdbcTemplate.query(
+            "SELECT id, quiz_attempt_id, user_id, question_id, user_answer, is_correct, points_earned, " +
+            "time_taken_seconds, answered_at FROM user_answers WHERE quiz_attempt_id IN (:ids) " +
+            "ORDER BY quiz_attempt_id, answered_at, id", ids, (rs, rowNum) -> mapAnswer(rs));
+
+        long now = System.currentTimeMillis();
+        long minAttemptId = attemptIds.get(0);
+        long maxAttemptId = attemptIds.get(attemptIds.size() - 1);
+        String fileName = AnswerArchive.fileName(minAttemptId, maxAttemptId, now);
+        Path path = answerArchive.getDirectory().resolve(fileName);
+        Files.createDirectories(path.getParent());
+        AnswerSegment.write(path, attemptIds, answers);
+
+        try {
+            AnswerSegment segment = AnswerSegment.open(path);
+            transactionTemplate.executeWithoutResult(status -> {
+                // Guards against a second instance archiving the same attempts concurrently
+                int stamped = namedParameterJdbcTemplate.update(
+                    "UPDATE quiz_attempts SET answers_archived_at = :now WHERE id IN (:ids) AND answers_archived_at IS NULL",
+                    new MapSqlParameterSource("ids", attemptIds).addValue("now", LocalDateTime.now()));
+                if (stamped != attemptIds.size()) {
+                    throw new IllegalStateException("Attempts " + minAttemptId + ".." + maxAttemptId + " were archived concurrently");
+                }
+                jdbcTemplate.update(
+                    "INSERT INTO answer_archive_segments (file_name, min_attempt_id, max_attempt_id, attempt_count, answer_count, created_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)",
+                    fileName, minAttemptId, maxAttemptId, attemptIds.size(), answers.size(), LocalDateTime.now());
+                namedParameterJdbcTemplate.update("DELETE FROM user_answers WHERE quiz_attempt_id IN (:ids)", ids);
+            });
+            answerArchive.register(segment);
+        } catch (IOException | RuntimeException e) {
+            AnswerArchive.deleteQuietly(path);
+            throw e;
+        }
+
+        archivedAnswers.increment(answers.size());
+        log.info("Archived {} answers of {} attempts into {}", answers.size(), attemptIds.size(), fileName);
+    }
+
+    private static ArchivedAnswer mapAnswer(ResultSet rs) throws SQLException {
+        boolean isCorrect = rs.getBoolean("is_correct");
+        Boolean correct = rs.wasNull() ? null : isCorrect;
+        return new ArchivedAnswer(
+            rs.getLong("id"),
+            rs.getLong("quiz_attempt_id"),
+            rs.getLong("user_id"),
+            rs.getLong("question_id"),
+            rs.getString("user_answer"),
+            correct,
+            rs.getObject("points_earned", Integer.class),
+            rs.getObject("time_taken_seconds", Long.class),
+            rs.getObject("answered_at", LocalDateTime.class));
+    }
+}
@@ -0,0 +1,397 @@
+package com.aiquizzer.archive;
+
+import lombok.Getter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Immutable, column-oriented file holding the answers of a set of attempts. Each column is
+ * varint-encoded and deflated on its own, so a scan that needs two columns inflates only those
+ * two. The file is memory-mapped for reading and nothing but the attempt directory is kept on the
+ * heap; row columns are inflated on demand.
+ *
+ * <p>Layout: a header ({@code magic, version, attemptCount, rowCount, minAttemptId,
+ * maxAttemptId}), a directory of {@code (offset, compressedLength, rawLength)} per column, then
+ * the column data. Rows are grouped by attempt in ascending attempt id order.
+ */
+public class AnswerSegment {
+
+    private static final int MAGIC = 0x515A4131; // "QZA1"
+    private static final int VERSION = 1;
+
+    static final int ATTEMPT_IDS = 0;
+    static final int ATTEMPT_ROWS = 1;
+    static final int ANSWER_IDS = 2;
+    static final int USER_IDS = 3;
+    static final int QUESTION_IDS = 4;
+    static final int CORRECT = 5;
+    static final int POINTS = 6;
+    static final int TIME_TAKEN = 7;
+    static final int ANSWERED_AT = 8;
+    static final int TEXT = 9;
+    private static final int COLUMNS = 10;
+
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 4 + 8 + 8;
+    private static final int DIRECTORY_ENTRY_BYTES = 8 + 4 + 4;
+
+    @Getter
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final long[] attemptIds;
+    // rowStarts[i] is the first row of attemptIds[i]; rowStarts[attemptCount] is the row count
+    private final int[] rowStarts;
+    private final long[] offsets = new long[COLUMNS];
+    private final int[] compressedLengths = new int[COLUMNS];
+    private final int[] rawLengths = new int[COLUMNS];
+
+    private AnswerSegment(Path path, MappedByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not an answer segment: " + path);
+        }
+        int attemptCount = buffer.getInt(8);
+        int rowCount = buffer.getInt(12);
+        for (int column = 0; column < COLUMNS; column++) {
+            int entry = HEADER_BYTES + column * DIRECTORY_ENTRY_BYTES;
+            offsets[column] = buffer.getLong(entry);
+            compressedLengths[column] = buffer.getInt(entry + 8);
+            rawLengths[column] = buffer.getInt(entry + 12);
+        }
+
+        this.attemptIds = new long[attemptCount];
+        this.rowStarts = new int[attemptCount + 1];
+        ColumnReader ids = column(ATTEMPT_IDS);
+        ColumnReader rows = column(ATTEMPT_ROWS);
+        long previous = 0;
+        for (int i = 0; i < attemptCount; i++) {
+            previous += ids.readVarLong();
+            attemptIds[i] = previous;
+            rowStarts[i + 1] = rowStarts[i] + (int) rows.readVarLong();
+        }
+        if (rowStarts[attemptCount] != rowCount) {
+            throw new IllegalStateException("Corrupt answer segment: " + path);
+        }
+    }
+
+    public static AnswerSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new AnswerSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public long getMinAttemptId() {
+        return attemptIds.length > 0 ? attemptIds[0] : 0;
+    }
+
+    public long getMaxAttemptId() {
+        return attemptIds.length > 0 ? attemptIds[attemptIds.length - 1] : 0;
+    }
+
+    public int getAttemptCount() {
+        return attemptIds.length;
+    }
+
+    public int getRowCount() {
+        return rowStarts[attemptIds.length];
+    }
+
+    public boolean contains(long attemptId) {
+        return Arrays.binarySearch(attemptIds, attemptId) >= 0;
+    }
+
+    /**
+     * Decodes every row of the segment, grouped by attempt id. Callers cache the result; it is
+     * the unit a review request pays for once.
+     */
+    public Map<Long, List<ArchivedAnswer>> readAll() {
+        ColumnReader answerIds = column(ANSWER_IDS);
+        ColumnReader userIds = column(USER_IDS);
+        ColumnReader questionIds = column(QUESTION_IDS);
+        ColumnReader correct = column(CORRECT);
+        ColumnReader points = column(POINTS);
+        ColumnReader timeTaken = column(TIME_TAKEN);
+        ColumnReader answeredAt = column(ANSWERED_AT);
+        ColumnReader text = column(TEXT);
+
+        Map<Long, List<ArchivedAnswer>> byAttempt = new HashMap<>(attemptIds.length * 2);
+        long answerId = 0;
+        long answeredMicros = 0;
+        for (int i = 0; i < attemptIds.length; i++) {
+            List<ArchivedAnswer> answers = new ArrayList<>(rowStarts[i + 1] - rowStarts[i]);
+            for (int row = rowStarts[i]; row < rowStarts[i + 1]; row++) {
+                answerId += zigzagDecode(answerIds.readVarLong());
+                long answeredEncoded = answeredAt.readVarLong();
+                LocalDateTime answered = null;
+                if (answeredEncoded != 0) {
+                    answeredMicros += zigzagDecode(answeredEncoded - 1);
+                    answered = fromMicros(answeredMicros);
+                }
+                Long pointsValue = readNullable(points);
+                answers.add(new ArchivedAnswer(
+                    answerId,
+                    attemptIds[i],
+                    userIds.readVarLong(),
+                    questionIds.readVarLong(),
+                    text.readString(),
+                    readBoolean(correct),
+                    pointsValue != null ? pointsValue.intValue() : null,
+                    readNullable(timeTaken),
+                    answered));
+            }
+            byAttempt.put(attemptIds[i], Collections.unmodifiableList(answers));
+        }
+        return byAttempt;
+    }
+
+    /**
+     * Adds {@code [answered, correct]} per user to {@code counts} for the given users, skipping
+     * the answers of {@code excludedAttemptIds} and inflating only the user and correctness columns.
+     */
+    public void countAnswersByUser(Set<Long> userIdFilter, Set<Long> excludedAttemptIds, Map<Long, long[]> counts) {
+        ColumnReader userIds = column(USER_IDS);
+        ColumnReader correct = column(CORRECT);
+        int rowCount = getRowCount();
+        int attempt = 0;
+        for (int row = 0; row < rowCount; row++) {
+            while (row >= rowStarts[attempt + 1]) {
+                attempt++;
+            }
+            long userId = userIds.readVarLong();
+            Boolean isCorrect = readBoolean(correct);
+            if (userIdFilter.contains(userId) && !excludedAttemptIds.contains(attemptIds[attempt])) {
+                long[] total = counts.computeIfAbsent(userId, key -> new long[2]);
+                total[0]++;
+                if (Boolean.TRUE.equals(isCorrect)) {
+                    total[1]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a segment for {@code attemptIds} (ascending, distinct) and their {@code answers}
+     * (grouped by attempt in the same order). Attempts without answers are recorded too so they
+     * count as archived.
+     */
+    public static void write(Path path, List<Long> attemptIds, List<ArchivedAnswer> answers) throws IOException {
+        ColumnWriter[] columns = new ColumnWriter[COLUMNS];
+        for (int column = 0; column < COLUMNS; column++) {
+            columns[column] = new ColumnWriter();
+        }
+
+        int row = 0;
+        long previousAttemptId = 0;
+        long previousAnswerId = 0;
+        long previousAnsweredMicros = 0;
+        for (Long attemptId : attemptIds) {
+            columns[ATTEMPT_IDS].writeVarLong(attemptId - previousAttemptId);
+            previousAttemptId = attemptId;
+            int start = row;
+            while (row < answers.size() && answers.get(row).getAttemptId().equals(attemptId)) {
+                ArchivedAnswer answer = answers.get(row);
+                columns[ANSWER_IDS].writeVarLong(zigzagEncode(answer.getId() - previousAnswerId));
+                previousAnswerId = answer.getId();
+                columns[USER_IDS].writeVarLong(answer.getUserId());
+                columns[QUESTION_IDS].writeVarLong(answer.getQuestionId());
+                columns[CORRECT].write(answer.getIsCorrect() == null ? 0 : answer.getIsCorrect() ? 2 : 1);
+                writeNullable(columns[POINTS], answer.getPointsEarned() != null ? answer.getPointsEarned().longValue() : null);
+                writeNullable(columns[TIME_TAKEN], answer.getTimeTakenSeconds());
+                if (answer.getAnsweredAt() == null) {
+                    columns[ANSWERED_AT].writeVarLong(0);
+                } else {
+                    long micros = toMicros(answer.getAnsweredAt());
+                    columns[ANSWERED_AT].writeVarLong(zigzagEncode(micros - previousAnsweredMicros) + 1);
+                    previousAnsweredMicros = micros;
+                }
+                columns[TEXT].writeString(answer.getUserAnswer());
+                row++;
+            }
+            columns[ATTEMPT_ROWS].writeVarLong(row - start);
+        }
+        if (row != answers.size()) {
+            throw new IllegalArgumentException("Answers are not grouped by the given attempt ids");
+        }
+
+        byte[][] compressed = new byte[COLUMNS][];
+        for (int column = 0; column < COLUMNS; column++) {
+            compressed[column] = deflate(columns[column].toByteArray());
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + COLUMNS * DIRECTORY_ENTRY_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putInt(attemptIds.size()).putInt(answers.size())
+            .putLong(attemptIds.isEmpty() ? 0 : attemptIds.get(0))
+            .putLong(attemptIds.isEmpty() ? 0 : attemptIds.get(attemptIds.size() - 1));
+        long offset = header.capacity();
+        for (int column = 0; column < COLUMNS; column++) {
+            header.putLong(offset).putInt(compressed[column].length).putInt(columns[column].size());
+            offset += compressed[column].length;
+        }
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+            for (byte[] column : compressed) {
+                writeFully(channel, ByteBuffer.wrap(column));
+            }
+            channel.force(true);
+        }
+    }
+
+    private ColumnReader column(int column) {
+        byte[] raw = new byte[rawLengths[column]];
+        Inflater inflater = new Inflater();
+        try {
+            // Inflates straight from the mapped pages, without copying the compressed bytes
+            inflater.setInput(buffer.slice((int) offsets[column], compressedLengths[column]));
+            int read = 0;
+            while (read < raw.length) {
+                int n = inflater.inflate(raw, read, raw.length - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != raw.length) {
+                throw new IllegalStateException("Truncated column " + column + " in " + path);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt column " + column + " in " + path, e);
+        } finally {
+            inflater.end();
+        }
+        return new ColumnReader(raw);
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+
+    private static void writeNullable(ColumnWriter column, Long value) {
+        column.writeVarLong(value == null ? 0 : zigzagEncode(value) + 1);
+    }
+
+    private static Long readNullable(ColumnReader column) {
+        long encoded = column.readVarLong();
+        return encoded == 0 ? null : zigzagDecode(encoded - 1);
+    }
+
+    private static Boolean readBoolean(ColumnReader column) {
+        int value = column.read();
+        return value == 0 ? null : value == 2;
+    }
+
+    private static long zigzagEncode(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long zigzagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), time);
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+            (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+
+    private static class ColumnWriter extends ByteArrayOutputStream {
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    private static class ColumnReader {
+
+        private final byte[] data;
+        private int position;
+
+        ColumnReader(byte[] data) {
+            this.data = data;
+        }
+
+        int read() {
+            return data[position++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = read();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        String readString() {
+            long length = readVarLong();
+            if (length == 0) {
+                return null;
+            }
+            String value = new String(data, position, (int) length - 1, StandardCharsets.UTF_8);
+            position += (int) length - 1;
+            return value;
+        }
+    }
+}
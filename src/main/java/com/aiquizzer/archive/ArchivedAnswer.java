@@ -0,0 +1,21 @@
+package com.aiquizzer.archive;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class ArchivedAnswer {
+
+    private final Long id;
+    private final Long attemptId;
+    private final Long userId;
+    private final Long questionId;
+    private final String userAnswer;
+    private final Boolean isCorrect;
+    private final Integer pointsEarned;
+    private final Long timeTakenSeconds;
+    private final LocalDateTime answeredAt;
+}
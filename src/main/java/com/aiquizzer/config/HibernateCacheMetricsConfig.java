@@ -0,0 +1,34 @@
+package com.aiquizzer.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HibernateCacheMetricsConfig {
+
+    // Raw hit/miss counters are published by hibernate-micrometer; these add the ratios
+    @Bean
+    public MeterBinder hibernateCacheHitRatio(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> {
+            Gauge.builder("hibernate.second.level.cache.hit.ratio", statistics,
+                    s -> ratio(s.getSecondLevelCacheHitCount(), s.getSecondLevelCacheMissCount()))
+                .description("Share of second-level cache lookups served from the cache")
+                .register(registry);
+            Gauge.builder("hibernate.query.cache.hit.ratio", statistics,
+                    s -> ratio(s.getQueryCacheHitCount(), s.getQueryCacheMissCount()))
+                .description("Share of query cache lookups served from the cache")
+                .register(registry);
+        };
+    }
+
+    private static double ratio(long hits, long misses) {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
@@ -1,10 +1,15 @@
 package com.aiquizzer.config;
 
+import com.aiquizzer.security.CurrentUser;
+import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Contact;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.info.License;
+import io.swagger.v3.oas.models.security.SecurityRequirement;
+import io.swagger.v3.oas.models.security.SecurityScheme;
 import io.swagger.v3.oas.models.servers.Server;
+import org.springdoc.core.utils.SpringDocUtils;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -13,6 +18,13 @@ import java.util.List;
 @Configuration
 public class OpenApiConfig {
 
+    private static final String BEARER_AUTH = "bearerAuth";
+
+    static {
+        // Resolved from the bearer token, not a request parameter
+        SpringDocUtils.getConfig().addRequestWrapperToIgnore(CurrentUser.class);
+    }
+
     @Bean
     public OpenAPI customOpenAPI() {
         return new OpenAPI()
@@ -34,6 +46,12 @@ public class OpenApiConfig {
                 new Server()
                     .url("https://api.dev.com")
                     .description("Production server")
-            ));
+            ))
+            .components(new Components()
+                .addSecuritySchemes(BEARER_AUTH, new SecurityScheme()
+                    .type(SecurityScheme.Type.HTTP)
+                    .scheme("bearer")
+                    .bearerFormat("JWT")))
+            .addSecurityItem(new SecurityRequirement().addList(BEARER_AUTH));
     }
 }
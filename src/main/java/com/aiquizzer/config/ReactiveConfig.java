@@ -0,0 +1,22 @@
+package com.aiquizzer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Scheduler for the blocking JPA work behind the reactive endpoints. It is capped at the
+ * connection pool size so queued saves wait here rather than holding threads on the pool.
+ */
+@Configuration
+public class ReactiveConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler persistenceScheduler(
+            @Value("${quizzer.reactive.persistence.threads:${spring.datasource.hikari.maximum-pool-size:10}}") int threads,
+            @Value("${quizzer.reactive.persistence.queue-capacity:10000}") int queueCapacity) {
+        return Schedulers.newBoundedElastic(threads, queueCapacity, "quizzer-persistence");
+    }
+}
@@ -1,12 +1,28 @@
 package com.aiquizzer.config;
 
+import com.aiquizzer.security.ActiveUserTokenValidator;
+import com.aiquizzer.security.CachingJwtDecoder;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Base64;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
@@ -15,15 +31,63 @@ public class SecurityConfig {
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
             .csrf(AbstractHttpConfigurer::disable)
+            // Stateless: every request carries a signed bearer token, no HTTP session is created
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers("/api-docs/**", "/swagger-ui/**", "/swagger-ui.html", "/h2-console/**").permitAll()
-                .requestMatchers("/api/**").permitAll() // For demo purposes, allow all API access
-                .requestMatchers("/actuator/**").permitAll() // Allow actuator endpoints
-                .anyRequest().permitAll() // Allow all other requests for demo
+                .requestMatchers("/actuator/health/**", "/actuator/info", "/health/**").permitAll()
+                .requestMatchers("/auth/**").permitAll()
+                // The STOMP CONNECT frame carries the bearer token instead of the handshake
+                .requestMatchers("/ws/**").permitAll()
+                .requestMatchers(HttpMethod.POST, "/users/register").permitAll()
+                .requestMatchers(HttpMethod.GET, "/users/check-username/**", "/users/check-email/**").permitAll()
+                // Public catalog reads
+                .requestMatchers(HttpMethod.GET, "/quizzes", "/quizzes/public/**", "/quizzes/feed", "/quizzes/search",
+                    "/quizzes/questions/search", "/quizzes/topic/**", "/quizzes/difficulty/**", "/quizzes/topics/**",
+                    "/quizzes/topics", "/quizzes/stats").permitAll()
+                .requestMatchers(HttpMethod.GET, "/quiz-attempts/quiz/*/leaderboard", "/quiz-attempts/quiz/*/stats").permitAll()
+                .anyRequest().authenticated()
             )
+            .oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt -> { }))
             .headers(headers -> headers.frameOptions().disable()) // For H2 console
             .cors(AbstractHttpConfigurer::disable); // Disable CORS for demo
         
         return http.build();
     }
+
+    @Bean
+    public JwtDecoder jwtDecoder(SecretKey jwtSigningKey, ActiveUserTokenValidator activeUserTokenValidator,
+                                 @Value("${quizzer.security.jwt.issuer:ai-quizzer}") String issuer,
+                                 @Value("${quizzer.security.jwt.verified-cache-size:100000}") long verifiedCacheSize) {
+        // HMAC verification is CPU-only; verified tokens are then served from memory until they expire
+        NimbusJwtDecoder decoder = NimbusJwtDecoder.withSecretKey(jwtSigningKey)
+            .macAlgorithm(MacAlgorithm.HS256)
+            .build();
+        // Expiry and not-before, plus tokens must come from this service's issuer
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuer));
+        // Deleted users are checked on every request, cached tokens included
+        return new CachingJwtDecoder(decoder, verifiedCacheSize, activeUserTokenValidator);
+    }
+
+    @Bean
+    public JwtEncoder jwtEncoder(SecretKey jwtSigningKey) {
+        return new NimbusJwtEncoder(new ImmutableSecret<>(jwtSigningKey));
+    }
+
+    @Bean
+    public SecretKey jwtSigningKey(@Value("${quizzer.security.jwt.secret:}") String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("quizzer.security.jwt.secret is not set; provide a base64 key of at least 256 bits in JWT_SECRET");
+        }
+        byte[] key;
+        try {
+            key = Base64.getDecoder().decode(secret.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("quizzer.security.jwt.secret is not valid base64", e);
+        }
+        if (key.length < 32) {
+            throw new IllegalStateException("quizzer.security.jwt.secret must be at least 256 bits (base64)");
+        }
+        return new SecretKeySpec(key, "HmacSHA256");
+    }
 }
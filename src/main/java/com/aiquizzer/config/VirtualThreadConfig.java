@@ -0,0 +1,52 @@
+package com.aiquizzer.config;
+
+import com.aiquizzer.datasource.ConnectionLimitingDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Settings that only apply when {@code spring.threads.virtual.enabled} is on: request and task
+ * threads are then virtual, so the application {@link DataSource} is fronted by a semaphore sized
+ * to the pool.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingPostProcessor(
+            @Value("${quizzer.datasource.max-concurrent-connections:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConnections,
+            @Value("${quizzer.datasource.acquire-timeout-ms:30000}") long acquireTimeoutMillis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource) {
+                    return new ConnectionLimitingDataSource((DataSource) bean, maxConnections, acquireTimeoutMillis);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder connectionLimitMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ConnectionLimitingDataSource) {
+                ConnectionLimitingDataSource limited = (ConnectionLimitingDataSource) dataSource;
+                Gauge.builder("quizzer.datasource.permit.waiting", limited, ConnectionLimitingDataSource::getWaitingThreads)
+                    .description("Threads queued for a database connection permit")
+                    .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,145 @@
+package com.aiquizzer.config;
+
+import com.aiquizzer.room.QuizRoomService;
+import com.aiquizzer.security.CurrentUser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+/**
+ * STOMP over WebSocket for live quiz rooms. Clients connect to {@code /ws} and authenticate the
+ * CONNECT frame with the same bearer token as the REST API. Clients may only SEND to {@code /app}
+ * handlers and may only subscribe to the topics of rooms they host or joined. Room broadcasts go
+ * through the in-memory broker, so every subscriber of a room must be connected to the instance
+ * hosting it.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String APP_PREFIX = "/app/";
+    private static final String USER_PREFIX = "/user/";
+    private static final String ROOM_TOPIC_PREFIX = "/topic/rooms/";
+    private static final String LEADERBOARD_SUFFIX = "/leaderboard";
+
+    @Autowired
+    private JwtDecoder jwtDecoder;
+    // Lazy: the room service needs the messaging template, which is built from this configuration
+    @Autowired
+    @Lazy
+    private QuizRoomService quizRoomService;
+
+    @Value("${quizzer.rooms.outbound-threads:16}")
+    private int outboundThreads;
+
+    @Value("${quizzer.rooms.send-buffer-bytes:524288}")
+    private int sendBufferBytes;
+
+    @Value("${quizzer.rooms.send-time-limit-ms:10000}")
+    private int sendTimeLimitMillis;
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws");
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker("/topic", "/queue");
+        registry.setApplicationDestinationPrefixes("/app");
+        registry.setUserDestinationPrefix("/user");
+    }
+
+    // A slow client's session is closed once its backlog exceeds the limits, instead of holding an outbound thread
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendBufferSizeLimit(sendBufferBytes);
+        registration.setSendTimeLimit(sendTimeLimitMillis);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor().corePoolSize(outboundThreads).maxPoolSize(outboundThreads);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+                if (accessor == null || accessor.getCommand() == null) {
+                    return message;
+                }
+                switch (accessor.getCommand()) {
+                    case CONNECT:
+                        String authorization = accessor.getFirstNativeHeader("Authorization");
+                        if (authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+                            throw new AuthenticationCredentialsNotFoundException("A bearer token is required");
+                        }
+                        // Later frames on the session carry this user
+                        accessor.setUser(new JwtAuthenticationToken(jwtDecoder.decode(authorization.substring(BEARER_PREFIX.length()))));
+                        break;
+                    case SEND:
+                        // Only the server publishes to broker destinations; clients send to application handlers
+                        if (!startsWith(accessor.getDestination(), APP_PREFIX)) {
+                            throw new AccessDeniedException("Clients may only send to " + APP_PREFIX);
+                        }
+                        break;
+                    case SUBSCRIBE:
+                        authorizeSubscription(accessor.getDestination(), userIdOf(accessor));
+                        break;
+                    default:
+                        break;
+                }
+                return message;
+            }
+        });
+    }
+
+    // A room's topics are open to its host and participants; private replies come through /user
+    private void authorizeSubscription(String destination, Long userId) {
+        if (userId == null) {
+            throw new AuthenticationCredentialsNotFoundException("Not authenticated");
+        }
+        if (startsWith(destination, USER_PREFIX)) {
+            return;
+        }
+        if (startsWith(destination, ROOM_TOPIC_PREFIX)) {
+            String rest = destination.substring(ROOM_TOPIC_PREFIX.length());
+            String code = rest.endsWith(LEADERBOARD_SUFFIX) ? rest.substring(0, rest.length() - LEADERBOARD_SUFFIX.length()) : rest;
+            if (!code.isEmpty() && code.indexOf('/') < 0 && quizRoomService.isMember(code, userId)) {
+                return;
+            }
+        }
+        throw new AccessDeniedException("Cannot subscribe to " + destination);
+    }
+
+    private static Long userIdOf(StompHeaderAccessor accessor) {
+        if (accessor.getUser() instanceof JwtAuthenticationToken) {
+            return CurrentUser.from(((JwtAuthenticationToken) accessor.getUser()).getToken()).getId();
+        }
+        return null;
+    }
+
+    private static boolean startsWith(String destination, String prefix) {
+        return destination != null && destination.startsWith(prefix);
+    }
+}
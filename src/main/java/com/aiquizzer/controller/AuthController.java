@@ -0,0 +1,54 @@
+package com.aiquizzer.controller;
+
+import com.aiquizzer.model.User;
+import com.aiquizzer.security.TokenService;
+import com.aiquizzer.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/auth")
+@Tag(name = "Authentication", description = "APIs for obtaining access tokens")
+public class AuthController {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TokenService tokenService;
+
+    @PostMapping("/token")
+    @Operation(summary = "Issue an access token", description = "Exchange username and password for a bearer token")
+    public ResponseEntity<TokenResponse> issueToken(@Valid @RequestBody TokenRequest request) {
+        Optional<User> userOpt = userService.getUserByUsername(request.getUsername());
+        if (userOpt.isEmpty() || !userService.validatePassword(request.getPassword(), userOpt.get().getPassword())) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        String token = tokenService.issueToken(userOpt.get());
+        return ResponseEntity.ok(new TokenResponse(token, "Bearer", tokenService.getTtl().getSeconds()));
+    }
+
+    // DTOs for request/response
+    @Data
+    public static class TokenRequest {
+        private String username;
+        private String password;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class TokenResponse {
+        private String accessToken;
+        private String tokenType;
+        private long expiresIn;
+    }
+}
@@ -1,10 +1,24 @@
 package com.aiquizzer.controller;
 
+import com.aiquizzer.dto.AnswerDistributionDto;
+import com.aiquizzer.dto.AnswerReviewDto;
+import com.aiquizzer.dto.CursorSlice;
+import com.aiquizzer.dto.KeysetCursor;
+import com.aiquizzer.dto.LeaderboardEntry;
+import com.aiquizzer.dto.QuizAttemptDto;
+import com.aiquizzer.dto.QuizStatisticsDto;
+import com.aiquizzer.dto.UserAnswerDto;
+import com.aiquizzer.dto.UserStatisticsDto;
+import com.aiquizzer.export.AttemptExporter;
+import com.aiquizzer.export.ExportFormat;
 import com.aiquizzer.model.*;
+import com.aiquizzer.security.CurrentUser;
 import com.aiquizzer.service.AIQuizGenerationService;
+import com.aiquizzer.service.AnswerDistributionService;
 import com.aiquizzer.service.QuizAttemptService;
 import com.aiquizzer.service.QuizService;
-import com.aiquizzer.service.UserService;
+import com.aiquizzer.service.QuizStatisticsService;
+import com.aiquizzer.service.UserStatisticsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -15,36 +29,54 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/quiz-attempts")
 @Tag(name = "Quiz Attempt Management", description = "APIs for managing quiz attempts")
 public class QuizAttemptController {
+    // Every sort key must be backed by a matching composite index
+    private static final Set<String> ATTEMPT_SORT_KEYS = Set.of("startedAt");
+    private static final int MAX_PAGE_SIZE = 100;
+    
     @Autowired
     private  QuizAttemptService quizAttemptService;
     @Autowired
-    private  UserService userService;
-    @Autowired
     private QuizService quizService;
     @Autowired
     private AIQuizGenerationService aiQuizGenerationService;
+    @Autowired
+    private QuizStatisticsService quizStatisticsService;
+    @Autowired
+    private UserStatisticsService userStatisticsService;
+    @Autowired
+    private AnswerDistributionService answerDistributionService;
+    @Autowired
+    private AttemptExporter attemptExporter;
 
 
     
     @PostMapping("/start/{quizId}")
     @Operation(summary = "Start a quiz attempt", description = "Start a new quiz attempt for a specific quiz")
-    public ResponseEntity<QuizAttempt> startQuizAttempt(@PathVariable Long quizId) {
-        User user=userService.getUserById(1L).orElse(new User());
+    public ResponseEntity<QuizAttemptDto> startQuizAttempt(@PathVariable Long quizId, CurrentUser currentUser) {
+        User user = currentUser.toUser();
         
         try {
             QuizAttempt attempt = quizAttemptService.startQuizAttempt(quizId, user);
-            return ResponseEntity.status(HttpStatus.CREATED).body(attempt);
+            return ResponseEntity.status(HttpStatus.CREATED).body(QuizAttemptDto.from(attempt));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
@@ -52,11 +84,11 @@ public class QuizAttemptController {
     
     @PostMapping("/{attemptId}/submit-answer")
     @Operation(summary = "Submit an answer", description = "Submit an answer for a specific question in a quiz attempt")
-    public ResponseEntity<UserAnswer> submitAnswer(
+    public ResponseEntity<UserAnswerDto> submitAnswer(
             @PathVariable Long attemptId,
-            @Valid @RequestBody SubmitAnswerRequest request) {
+            @Valid @RequestBody SubmitAnswerRequest request, CurrentUser currentUser) {
         
-        User user=userService.getUserById(1L).orElse(new User());
+        User user = currentUser.toUser();
         try {
             UserAnswer answer = quizAttemptService.submitAnswer(
                 attemptId, 
@@ -64,15 +96,19 @@ public class QuizAttemptController {
                 request.getUserAnswer(),
                 user
             );
-            return ResponseEntity.ok(answer);
+            return ResponseEntity.ok(UserAnswerDto.from(answer));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
 
     @PostMapping("/{userAnswerId}")
-    public ResponseEntity<String> getHint(@PathVariable Long userAnswerId){
-        UserAnswer userAnswer=quizAttemptService.getById(userAnswerId);
+    public ResponseEntity<String> getHint(@PathVariable Long userAnswerId, CurrentUser currentUser){
+        Optional<UserAnswer> found = quizAttemptService.getAnswerForUser(userAnswerId, currentUser.toUser());
+        if (found.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        UserAnswer userAnswer=found.get();
         Question question=userAnswer.getQuestion();
         String correct=question.getCorrectAnswer();
         String uanswer=userAnswer.getUserAnswer();
@@ -83,11 +119,11 @@ public class QuizAttemptController {
     
     @PostMapping("/{attemptId}/complete")
     @Operation(summary = "Complete quiz attempt", description = "Mark a quiz attempt as completed")
-    public ResponseEntity<QuizAttempt> completeQuizAttempt(@PathVariable Long attemptId) {
-        User user=userService.getUserById(1L).orElse(new User());
+    public ResponseEntity<QuizAttemptDto> completeQuizAttempt(@PathVariable Long attemptId, CurrentUser currentUser) {
+        User user = currentUser.toUser();
         try {
             QuizAttempt attempt = quizAttemptService.completeQuizAttempt(attemptId, user);
-            return ResponseEntity.ok(attempt);
+            return ResponseEntity.ok(QuizAttemptDto.from(attempt));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
@@ -95,11 +131,11 @@ public class QuizAttemptController {
     
     @PostMapping("/{attemptId}/abandon")
     @Operation(summary = "Abandon quiz attempt", description = "Abandon a quiz attempt")
-    public ResponseEntity<QuizAttempt> abandonQuizAttempt(@PathVariable Long attemptId) {
-       User user=userService.getUserById(1L).orElse(new User());
+    public ResponseEntity<QuizAttemptDto> abandonQuizAttempt(@PathVariable Long attemptId, CurrentUser currentUser) {
+       User user = currentUser.toUser();
         try {
             QuizAttempt attempt = quizAttemptService.abandonQuizAttempt(attemptId, user);
-            return ResponseEntity.ok(attempt);
+            return ResponseEntity.ok(QuizAttemptDto.from(attempt));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
@@ -107,52 +143,75 @@ public class QuizAttemptController {
     
     @GetMapping("/{id}")
     @Operation(summary = "Get quiz attempt by ID", description = "Retrieve a quiz attempt by its ID")
-    public ResponseEntity<QuizAttempt> getQuizAttemptById(@PathVariable Long id) {
-        return quizAttemptService.getQuizAttemptById(id)
-            .map(attempt -> ResponseEntity.ok(attempt))
+    public ResponseEntity<QuizAttemptDto> getQuizAttemptById(@PathVariable Long id, CurrentUser currentUser) {
+        return quizAttemptService.getQuizAttemptForUser(id, currentUser.toUser())
+            .map(attempt -> ResponseEntity.ok(QuizAttemptDto.from(attempt)))
             .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping
     @Operation(summary = "Get user's quiz attempts", description = "Retrieve all quiz attempts for the current user")
-    public ResponseEntity<Page<QuizAttempt>> getUserQuizAttempts(
+    public ResponseEntity<Page<QuizAttemptDto>> getUserQuizAttempts(
             @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
             @Parameter(description = "Sort by field") @RequestParam(defaultValue = "startedAt") String sortBy,
-            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "desc") String sortDir) {
+            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "desc") String sortDir, CurrentUser currentUser) {
         
-        User user=userService.getUserById(1L).orElse(new User());
+        User user = currentUser.toUser();
 
+        if (!ATTEMPT_SORT_KEYS.contains(sortBy)) {
+            return ResponseEntity.badRequest().build();
+        }
         Sort sort = sortDir.equalsIgnoreCase("desc") ? 
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
-        Pageable pageable = PageRequest.of(page, size, sort);
+        Pageable pageable = PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE), sort);
         
         Page<QuizAttempt> attempts = quizAttemptService.getQuizAttemptsByUser(user, pageable);
-        return ResponseEntity.ok(attempts);
+        return ResponseEntity.ok(attempts.map(QuizAttemptDto::from));
     }
     
-    @GetMapping("/quiz/{quizId}")
-    @Operation(summary = "Get quiz attempts by quiz", description = "Retrieve all attempts for a specific quiz")
-    public ResponseEntity<List<QuizAttempt>> getQuizAttemptsByQuiz(@PathVariable Long quizId) {
-         Quiz quiz=quizService.getQuizById(quizId).orElse(new Quiz());
+    @GetMapping("/feed")
+    @Operation(summary = "Get user's quiz attempts by cursor", description = "Retrieve the current user's attempts ordered by start time using keyset pagination")
+    public ResponseEntity<CursorSlice<QuizAttemptDto>> getUserQuizAttemptFeed(
+            @Parameter(description = "Cursor returned by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "desc") String sortDir, CurrentUser currentUser) {
+        
+        User user = currentUser.toUser();
         
-        List<QuizAttempt> attempts = quizAttemptService.getQuizAttemptsByQuiz(quiz);
-        return ResponseEntity.ok(attempts);
+        KeysetCursor after;
+        try {
+            after = cursor != null ? KeysetCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(quizAttemptService.getQuizAttemptsByUser(user, after, !sortDir.equalsIgnoreCase("asc"), pageSize)
+            .map(QuizAttemptDto::from));
+    }
+    
+    @GetMapping("/quiz/{quizId}")
+    @Operation(summary = "Get quiz attempts by quiz", description = "Retrieve all attempts for one of your quizzes")
+    public ResponseEntity<List<QuizAttemptDto>> getQuizAttemptsByQuiz(@PathVariable Long quizId, CurrentUser currentUser) {
+        // Only the quiz owner sees everyone's attempts
+        return quizService.getQuizByIdAndUser(quizId, currentUser.toUser())
+            .map(quiz -> ResponseEntity.ok(toDtos(quizAttemptService.getQuizAttemptsByQuiz(quiz))))
+            .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/status/{status}")
-    @Operation(summary = "Get quiz attempts by status", description = "Retrieve quiz attempts by status")
-    public ResponseEntity<List<QuizAttempt>> getQuizAttemptsByStatus(@PathVariable AttemptStatus status) {
-        List<QuizAttempt> attempts = quizAttemptService.getQuizAttemptsByStatus(status);
-        return ResponseEntity.ok(attempts);
+    @Operation(summary = "Get quiz attempts by status", description = "Retrieve your quiz attempts by status")
+    public ResponseEntity<List<QuizAttemptDto>> getQuizAttemptsByStatus(@PathVariable AttemptStatus status, CurrentUser currentUser) {
+        List<QuizAttempt> attempts = quizAttemptService.getQuizAttemptsByUserAndStatus(currentUser.toUser(), status);
+        return ResponseEntity.ok(toDtos(attempts));
     }
     
     @GetMapping("/{attemptId}/answers")
     @Operation(summary = "Get user answers for attempt", description = "Retrieve all user answers for a quiz attempt")
-    public ResponseEntity<List<UserAnswer>> getUserAnswersByAttempt(@PathVariable Long attemptId) {
-        return quizAttemptService.getQuizAttemptById(attemptId)
+    public ResponseEntity<List<AnswerReviewDto>> getUserAnswersByAttempt(@PathVariable Long attemptId, CurrentUser currentUser) {
+        return quizAttemptService.getQuizAttemptForUser(attemptId, currentUser.toUser())
             .map(attempt -> {
-                List<UserAnswer> answers = quizAttemptService.getUserAnswersByAttempt(attempt);
+                List<AnswerReviewDto> answers = quizAttemptService.getAnswerReview(attempt);
                 return ResponseEntity.ok(answers);
             })
             .orElse(ResponseEntity.notFound().build());
@@ -160,38 +219,110 @@ public class QuizAttemptController {
     
     @GetMapping("/quiz/{quizId}/leaderboard")
     @Operation(summary = "Get quiz leaderboard", description = "Get top scores for a specific quiz")
-    public ResponseEntity<List<QuizAttempt>> getQuizLeaderboard(@PathVariable Long quizId) {
-        Quiz quiz=quizService.getQuizById(quizId).orElse(new Quiz());
+    public ResponseEntity<List<LeaderboardEntry>> getQuizLeaderboard(
+            @PathVariable Long quizId,
+            @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
+            @Parameter(hidden = true) Optional<CurrentUser> currentUser) {
+        // Public endpoint: private quizzes are only found by their owner
+        if (!quizService.isVisibleTo(quizId, currentUser.map(CurrentUser::toUser).orElse(null))) {
+            return ResponseEntity.notFound().build();
+        }
+        return quizService.getQuizById(quizId)
+            .map(quiz -> ResponseEntity.ok(quizAttemptService.getLeaderboard(quiz, page, size)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/quiz/{quizId}/leaderboard/me")
+    @Operation(summary = "Get my leaderboard rank", description = "Get the current user's best score and rank for a specific quiz")
+    public ResponseEntity<LeaderboardEntry> getMyLeaderboardRank(@PathVariable Long quizId, CurrentUser currentUser) {
+        User user = currentUser.toUser();
+        if (!quizService.isVisibleTo(quizId, user)) {
+            return ResponseEntity.notFound().build();
+        }
         
-        List<QuizAttempt> leaderboard = quizAttemptService.getTopScoresByQuiz(quiz);
-        return ResponseEntity.ok(leaderboard);
+        return quizService.getQuizById(quizId)
+            .flatMap(quiz -> quizAttemptService.getLeaderboardEntryForUser(user, quiz))
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/quiz/{quizId}/stats")
     @Operation(summary = "Get quiz statistics", description = "Get statistics for a specific quiz")
-    public ResponseEntity<Map<String, Object>> getQuizStats(@PathVariable Long quizId) {
-         Quiz quiz=quizService.getQuizById(quizId).orElse(new Quiz());
-        
-        Map<String, Object> stats = Map.of(
-            "totalAttempts", quizAttemptService.getAttemptCountByQuiz(quiz),
-            "completedAttempts", quizAttemptService.getCompletedAttemptCountByQuiz(quiz),
-            "averageScore", quizAttemptService.getAverageScoreByQuiz(quiz)
-        );
-        
-        return ResponseEntity.ok(stats);
+    public ResponseEntity<QuizStatisticsDto> getQuizStats(@PathVariable Long quizId, @Parameter(hidden = true) Optional<CurrentUser> currentUser) {
+        if (!quizService.isVisibleTo(quizId, currentUser.map(CurrentUser::toUser).orElse(null))) {
+            return ResponseEntity.notFound().build();
+        }
+        return quizStatisticsService.getStatistics(quizId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/quiz/{quizId}/questions/{questionId}/distribution")
+    @Operation(summary = "Get answer distribution", description = "Get how often each option or answer was chosen for a question of your quiz")
+    public ResponseEntity<AnswerDistributionDto> getAnswerDistribution(
+            @PathVariable Long quizId, @PathVariable Long questionId, CurrentUser currentUser) {
+        return answerDistributionService.getDistribution(quizId, questionId, currentUser.toUser())
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/quiz/{quizId}/export")
+    @Operation(summary = "Export quiz attempts", description = "Stream the attempts of your quiz as NDJSON or CSV, gzipped when accepted")
+    public ResponseEntity<StreamingResponseBody> exportQuizAttempts(
+            @PathVariable Long quizId,
+            @Parameter(description = "NDJSON or CSV") @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @Parameter(description = "Attempts started at or after (ISO date-time)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Attempts started before (ISO date-time)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            CurrentUser currentUser) {
+        if (!quizService.isQuizOwner(quizId, currentUser.toUser())) {
+            return ResponseEntity.notFound().build();
+        }
+        return exportResponse("quiz-" + quizId + "-attempts", format, acceptEncoding,
+            out -> attemptExporter.exportAttempts(quizId, from, to, format, out));
+    }
+    
+    @GetMapping("/quiz/{quizId}/answers/export")
+    @Operation(summary = "Export quiz answers", description = "Stream the answers given in attempts of your quiz as NDJSON or CSV, gzipped when accepted")
+    public ResponseEntity<StreamingResponseBody> exportQuizAnswers(
+            @PathVariable Long quizId,
+            @Parameter(description = "NDJSON or CSV") @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @Parameter(description = "Attempts started at or after (ISO date-time)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Attempts started before (ISO date-time)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            CurrentUser currentUser) {
+        if (!quizService.isQuizOwner(quizId, currentUser.toUser())) {
+            return ResponseEntity.notFound().build();
+        }
+        return exportResponse("quiz-" + quizId + "-answers", format, acceptEncoding,
+            out -> attemptExporter.exportAnswers(quizId, from, to, format, out));
     }
     
     @GetMapping("/user/stats")
     @Operation(summary = "Get user statistics", description = "Get statistics for the current user")
-    public ResponseEntity<Map<String, Object>> getUserStats() {
-        User user=userService.getUserById(1L).orElse(new User());
-
-        Map<String, Object> stats = Map.of(
-            "totalAttempts", quizAttemptService.getAttemptCountByUser(user),
-            "correctAnswers", quizAttemptService.getCorrectAnswerCountByUser(user)
-        );
-        
-        return ResponseEntity.ok(stats);
+    public ResponseEntity<UserStatisticsDto> getUserStats(CurrentUser currentUser) {
+        return ResponseEntity.ok(userStatisticsService.getStatistics(currentUser.getId()));
+    }
+    
+    // Written straight to the response as records are read; nothing is buffered beyond one page
+    private ResponseEntity<StreamingResponseBody> exportResponse(String name, ExportFormat format, String acceptEncoding, StreamingResponseBody body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(format.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(name + "." + format.getExtension()).build().toString())
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null || !acceptEncoding.contains("gzip")) {
+            return response.body(body);
+        }
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(out -> {
+            GZIPOutputStream gzip = new GZIPOutputStream(out, 8192);
+            body.writeTo(gzip);
+            gzip.finish();
+        });
+    }
+    
+    private List<QuizAttemptDto> toDtos(List<QuizAttempt> attempts) {
+        return attempts.stream().map(QuizAttemptDto::from).collect(Collectors.toList());
     }
     
     // DTOs for request/response
@@ -1,10 +1,26 @@
 package com.aiquizzer.controller;
 
+import com.aiquizzer.dto.CursorSlice;
+import com.aiquizzer.dto.KeysetCursor;
+import com.aiquizzer.dto.PublicQuestionDto;
+import com.aiquizzer.dto.PublicQuizDetailDto;
+import com.aiquizzer.dto.QuestionDto;
+import com.aiquizzer.dto.QuestionStatisticsDto;
+import com.aiquizzer.dto.QuestionSummaryDto;
+import com.aiquizzer.dto.QuizDetailDto;
+import com.aiquizzer.dto.QuizSummaryDto;
+import com.aiquizzer.dto.TopicCountDto;
 import com.aiquizzer.model.*;
+import com.aiquizzer.security.CurrentUser;
+import com.aiquizzer.service.QuizContentVersions;
+import com.aiquizzer.service.QuizPayloadCache;
 import com.aiquizzer.service.QuizService;
-import com.aiquizzer.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.Data;
@@ -12,10 +28,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.*;
 
@@ -24,15 +45,21 @@ import java.util.*;
 @Tag(name = "Quiz Management", description = "APIs for managing quizzes")
 public class QuizController {
 
+    // Every sort key must be backed by a matching composite index
+    private static final Set<String> PUBLIC_QUIZ_SORT_KEYS = Set.of("createdAt");
+    private static final int MAX_PAGE_SIZE = 100;
+    
     @Autowired
     private QuizService quizService;
     @Autowired
-    private UserService userService;
+    private QuizPayloadCache quizPayloadCache;
+    @Autowired
+    private QuizContentVersions quizContentVersions;
     
     @PostMapping
     @Operation(summary = "Create a new quiz", description = "Create a new quiz with AI-generated questions")
-    public ResponseEntity<Quiz> createQuiz(@Valid @RequestBody CreateQuizRequest request) {
-         User user=userService.getUserById(1L).orElse(new User());
+    public ResponseEntity<QuizDetailDto> createQuiz(@Valid @RequestBody CreateQuizRequest request, CurrentUser currentUser) {
+         User user = currentUser.toUser();
         Quiz quiz = quizService.createQuiz(
             request.getTitle(),
             request.getDescription(),
@@ -43,13 +70,13 @@ public class QuizController {
             request.getQuestionType()
         );
         
-        return ResponseEntity.status(HttpStatus.CREATED).body(quiz);
+        return ResponseEntity.status(HttpStatus.CREATED).body(getCreatedQuiz(quiz));
     }
     
     @PostMapping("/ai-generate")
     @Operation(summary = "Generate quiz with AI", description = "Generate a complete quiz using AI")
-    public ResponseEntity<Quiz> generateQuizWithAI(@Valid @RequestBody GenerateQuizRequest request) {
-        User user=userService.getUserById(1L).orElse(new User());
+    public ResponseEntity<QuizDetailDto> generateQuizWithAI(@Valid @RequestBody GenerateQuizRequest request, CurrentUser currentUser) {
+        User user = currentUser.toUser();
 
             Quiz quiz = quizService.createQuizWithAI(
                     request.getTopic(),
@@ -59,93 +86,181 @@ public class QuizController {
                     request.getQuestionType()
             );
 
-            return ResponseEntity.status(HttpStatus.CREATED).body(quiz);
+            return ResponseEntity.status(HttpStatus.CREATED).body(getCreatedQuiz(quiz));
 
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get quiz by ID", description = "Retrieve a quiz by its ID")
-    public ResponseEntity<Quiz> getQuizById(@PathVariable Long id) {
-        return quizService.getQuizById(id)
-            .map(quiz -> ResponseEntity.ok(quiz))
-            .orElse(ResponseEntity.notFound().build());
+    @ApiResponse(responseCode = "200", description = "With answer keys for the quiz's owner",
+        content = @Content(schema = @Schema(oneOf = {QuizDetailDto.class, PublicQuizDetailDto.class})))
+    public ResponseEntity<byte[]> getQuizById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest,
+            CurrentUser currentUser) {
+        if (!quizService.isVisibleTo(id, currentUser.toUser())) {
+            return ResponseEntity.notFound().build();
+        }
+        if (isNotModified(webRequest, quizContentVersions.quizStamp(id))) {
+            return null;
+        }
+        // Answer keys only for the owner; anyone else sees the quiz as a taker
+        QuizPayloadCache.View view = quizService.isQuizOwner(id, currentUser.toUser())
+            ? QuizPayloadCache.View.DETAIL : QuizPayloadCache.View.PUBLIC_DETAIL;
+        return payloadResponse(quizPayloadCache.get(id, view), acceptEncoding);
     }
     
     @GetMapping("/public/{id}")
     @Operation(summary = "Get public quiz by ID", description = "Retrieve a public quiz by its ID")
-    public ResponseEntity<Quiz> getPublicQuizById(@PathVariable Long id) {
-        return quizService.getPublicQuizById(id)
-            .map(ResponseEntity::ok)
-            .orElse(ResponseEntity.notFound().build());
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = PublicQuizDetailDto.class)))
+    public ResponseEntity<byte[]> getPublicQuizById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
+        if (!quizService.isVisibleTo(id, null)) {
+            return ResponseEntity.notFound().build();
+        }
+        if (isNotModified(webRequest, quizContentVersions.quizStamp(id))) {
+            return null;
+        }
+        return payloadResponse(quizPayloadCache.get(id, QuizPayloadCache.View.PUBLIC_DETAIL), acceptEncoding);
     }
     
     @GetMapping
     @Operation(summary = "Get public quizzes", description = "Retrieve all public quizzes with pagination")
-    public ResponseEntity<Page<Quiz>> getPublicQuizzes(
+    public ResponseEntity<Page<QuizSummaryDto>> getPublicQuizzes(
             @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
             @Parameter(description = "Sort by field") @RequestParam(defaultValue = "createdAt") String sortBy,
-            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "desc") String sortDir) {
+            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "desc") String sortDir,
+            WebRequest webRequest) {
         
+        if (!PUBLIC_QUIZ_SORT_KEYS.contains(sortBy)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (isNotModified(webRequest, quizContentVersions.catalogStamp())) {
+            return null;
+        }
         Sort sort = sortDir.equalsIgnoreCase("desc") ? 
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
-        Pageable pageable = PageRequest.of(page, size, sort);
+        Pageable pageable = PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE), sort);
         
-        Page<Quiz> quizzes = quizService.getPublicQuizzes(pageable);
-        return ResponseEntity.ok(quizzes);
+        Page<QuizSummaryDto> quizzes = quizService.getPublicQuizzes(pageable);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(quizzes);
+    }
+    
+    @GetMapping("/feed")
+    @Operation(summary = "Get public quizzes by cursor", description = "Retrieve public quizzes ordered by creation time using keyset pagination")
+    public ResponseEntity<CursorSlice<QuizSummaryDto>> getPublicQuizFeed(
+            @Parameter(description = "Cursor returned by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "desc") String sortDir) {
+        
+        KeysetCursor after;
+        try {
+            after = cursor != null ? KeysetCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(quizService.getPublicQuizzes(after, !sortDir.equalsIgnoreCase("asc"), pageSize));
     }
     
     @GetMapping("/search")
     @Operation(summary = "Search public quizzes", description = "Search public quizzes by keyword")
-    public ResponseEntity<Page<Quiz>> searchPublicQuizzes(
+    public ResponseEntity<Page<QuizSummaryDto>> searchPublicQuizzes(
             @Parameter(description = "Search keyword") @RequestParam String keyword,
             @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size) {
         
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<Quiz> quizzes = quizService.searchPublicQuizzes(keyword, pageable);
+        Pageable pageable = PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE), Sort.by("createdAt").descending());
+        Page<QuizSummaryDto> quizzes = quizService.searchPublicQuizzes(keyword, pageable);
         return ResponseEntity.ok(quizzes);
     }
     
+    @GetMapping("/questions/search")
+    @Operation(summary = "Search questions", description = "Search the questions of public quizzes, optionally within one quiz")
+    public ResponseEntity<Slice<QuestionSummaryDto>> searchQuestions(
+            @Parameter(description = "Search keyword") @RequestParam String keyword,
+            @Parameter(description = "Restrict to one quiz") @RequestParam(required = false) Long quizId,
+            @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
+        
+        Pageable pageable = PageRequest.of(page, Math.min(size, 100));
+        Slice<QuestionSummaryDto> questions = quizService.searchQuestions(keyword, quizId, pageable);
+        return ResponseEntity.ok(questions);
+    }
+    
     @GetMapping("/topic/{topic}")
     @Operation(summary = "Get quizzes by topic", description = "Retrieve quizzes by topic")
-    public ResponseEntity<List<Quiz>> getQuizzesByTopic(@PathVariable String topic) {
-        List<Quiz> quizzes = quizService.getQuizzesByTopic(topic);
+    public ResponseEntity<List<QuizSummaryDto>> getQuizzesByTopic(@PathVariable String topic) {
+        List<QuizSummaryDto> quizzes = quizService.getQuizzesByTopic(topic);
         return ResponseEntity.ok(quizzes);
     }
     
     @GetMapping("/difficulty/{difficulty}")
     @Operation(summary = "Get quizzes by difficulty", description = "Retrieve quizzes by difficulty level")
-    public ResponseEntity<List<Quiz>> getQuizzesByDifficulty(@PathVariable DifficultyLevel difficulty) {
-        List<Quiz> quizzes = quizService.getQuizzesByDifficulty(difficulty);
+    public ResponseEntity<List<QuizSummaryDto>> getQuizzesByDifficulty(@PathVariable DifficultyLevel difficulty) {
+        List<QuizSummaryDto> quizzes = quizService.getQuizzesByDifficulty(difficulty);
         return ResponseEntity.ok(quizzes);
     }
     
     @GetMapping("/topics")
     @Operation(summary = "Get available topics", description = "Get list of available quiz topics")
-    public ResponseEntity<List<String>> getAvailableTopics() {
+    public ResponseEntity<List<String>> getAvailableTopics(WebRequest webRequest) {
+        if (isNotModified(webRequest, quizContentVersions.catalogStamp())) {
+            return null;
+        }
         List<String> topics = quizService.getAvailableTopics();
-        return ResponseEntity.ok(topics);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(topics);
+    }
+    
+    @GetMapping("/topics/counts")
+    @Operation(summary = "Get topic counts", description = "Get public quiz counts per topic, broken down by difficulty")
+    public ResponseEntity<List<TopicCountDto>> getTopicCounts(WebRequest webRequest) {
+        if (isNotModified(webRequest, quizContentVersions.catalogStamp())) {
+            return null;
+        }
+        List<TopicCountDto> topicCounts = quizService.getTopicCounts();
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(topicCounts);
     }
     
     @GetMapping("/{id}/questions")
     @Operation(summary = "Get quiz questions", description = "Retrieve all questions for a quiz")
-    public ResponseEntity<List<Question>> getQuizQuestions(@PathVariable Long id) {
-        return quizService.getQuizById(id)
-            .map(quiz -> {
-                List<Question> questions = quizService.getQuestionsByQuiz(quiz);
-                return ResponseEntity.ok(questions);
-            })
+    @ApiResponse(responseCode = "200", description = "With answer keys for the quiz's owner",
+        content = @Content(array = @ArraySchema(schema = @Schema(oneOf = {QuestionDto.class, PublicQuestionDto.class}))))
+    public ResponseEntity<byte[]> getQuizQuestions(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest,
+            CurrentUser currentUser) {
+        if (!quizService.isVisibleTo(id, currentUser.toUser())) {
+            return ResponseEntity.notFound().build();
+        }
+        if (isNotModified(webRequest, quizContentVersions.quizStamp(id))) {
+            return null;
+        }
+        QuizPayloadCache.View view = quizService.isQuizOwner(id, currentUser.toUser())
+            ? QuizPayloadCache.View.QUESTIONS : QuizPayloadCache.View.PUBLIC_QUESTIONS;
+        return payloadResponse(quizPayloadCache.get(id, view), acceptEncoding);
+    }
+    
+    @GetMapping("/{id}/question-stats")
+    @Operation(summary = "Get question statistics", description = "Difficulty and discrimination of each question of your quiz, refreshed periodically")
+    public ResponseEntity<List<QuestionStatisticsDto>> getQuestionStatistics(@PathVariable Long id, CurrentUser currentUser) {
+        return quizService.getQuestionStatistics(id, currentUser.toUser())
+            .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
     
     @PutMapping("/{id}")
     @Operation(summary = "Update quiz", description = "Update quiz details")
-    public ResponseEntity<Quiz> updateQuiz(@PathVariable Long id, @Valid @RequestBody UpdateQuizRequest request) {
-        User user=userService.getUserById(1L).orElse(new User());
+    public ResponseEntity<QuizSummaryDto> updateQuiz(@PathVariable Long id, @Valid @RequestBody UpdateQuizRequest request, CurrentUser currentUser) {
+        User user = currentUser.toUser();
         try {
             Quiz updatedQuiz = quizService.updateQuiz(id, request.getTitle(), request.getDescription(), request.getIsPublic(), user);
-            return ResponseEntity.ok(updatedQuiz);
+            return ResponseEntity.ok(QuizSummaryDto.from(updatedQuiz));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
@@ -153,8 +268,8 @@ public class QuizController {
     
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete quiz", description = "Delete a quiz")
-    public ResponseEntity<Void> deleteQuiz(@PathVariable Long id) {
-        User user=userService.getUserById(1L).orElse(new User());
+    public ResponseEntity<Void> deleteQuiz(@PathVariable Long id, CurrentUser currentUser) {
+        User user = currentUser.toUser();
         try {
             quizService.deleteQuiz(id, user);
             return ResponseEntity.noContent().build();
@@ -168,10 +283,42 @@ public class QuizController {
     public ResponseEntity<Map<String, Object>> getQuizStats() {
         Map<String, Object> stats = new HashMap<>();
         stats.put("totalPublicQuizzes", quizService.getPublicQuizCount());
-        stats.put("availableTopics", quizService.getAvailableTopics().size());
+        stats.put("availableTopics", quizService.getTopicCount());
         return ResponseEntity.ok(stats);
     }
     
+    /**
+     * Answers conditional requests from the in-memory content version alone. When this returns
+     * true the 304 status and validators are already on the response and the handler returns null;
+     * otherwise the validators are added to the full response. Per-quiz callers check that the
+     * quiz exists and the caller may read it first, since the stamp alone says neither.
+     */
+    private boolean isNotModified(WebRequest webRequest, QuizContentVersions.Stamp stamp) {
+        return webRequest.checkNotModified(stamp.getEtag(), stamp.getLastModified());
+    }
+    
+    // Writes the cached bytes as-is, pre-compressed when the client accepts gzip
+    private ResponseEntity<byte[]> payloadResponse(Optional<QuizPayloadCache.Payload> payload, String acceptEncoding) {
+        if (payload.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .cacheControl(CacheControl.noCache())
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        byte[] gzip = payload.get().getGzip();
+        if (gzip != null && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzip);
+        }
+        return response.body(payload.get().getJson());
+    }
+    
+    private QuizDetailDto getCreatedQuiz(Quiz quiz) {
+        return quizService.getQuizDetail(quiz.getId())
+            .orElseThrow(() -> new RuntimeException("Quiz not found"));
+    }
+    
     // DTOs for request/response
     @Data
     public static class CreateQuizRequest {
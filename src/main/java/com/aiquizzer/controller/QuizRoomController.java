@@ -0,0 +1,112 @@
+package com.aiquizzer.controller;
+
+import com.aiquizzer.dto.GradedAnswer;
+import com.aiquizzer.dto.RoomDto;
+import com.aiquizzer.room.QuizRoomService;
+import com.aiquizzer.security.CurrentUser;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+
+@RestController
+@RequestMapping("/rooms")
+@Tag(name = "Live Quiz Rooms", description = "APIs for hosting and joining live quiz rooms")
+public class QuizRoomController {
+
+    @Autowired
+    private QuizRoomService quizRoomService;
+
+    @PostMapping
+    @Operation(summary = "Create a room", description = "Open a live room for one of your quizzes or a public quiz")
+    public ResponseEntity<RoomDto> createRoom(@Valid @RequestBody CreateRoomRequest request, CurrentUser currentUser) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(quizRoomService.createRoom(request.getQuizId(), currentUser.toUser()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @PostMapping("/{code}/join")
+    @Operation(summary = "Join a room", description = "Join a live room and start its quiz attempt")
+    public ResponseEntity<RoomDto> joinRoom(@PathVariable String code, CurrentUser currentUser) {
+        try {
+            return ResponseEntity.ok(quizRoomService.joinRoom(code, currentUser.toUser()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @PostMapping("/{code}/start")
+    @Operation(summary = "Start a room", description = "Release the first question; only the host can start the room")
+    public ResponseEntity<RoomDto> startRoom(@PathVariable String code, CurrentUser currentUser) {
+        try {
+            return ResponseEntity.ok(quizRoomService.startRoom(code, currentUser.toUser()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @GetMapping("/{code}")
+    @Operation(summary = "Get a room", description = "Get a live room's phase and participant count")
+    public ResponseEntity<RoomDto> getRoom(@PathVariable String code, CurrentUser currentUser) {
+        try {
+            return ResponseEntity.ok(quizRoomService.getRoomInfo(code, currentUser.toUser()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // STOMP: SEND /app/rooms/{code}/answer; the acknowledgement goes to /user/queue/rooms
+    @MessageMapping("/rooms/{code}/answer")
+    @SendToUser(destinations = "/queue/rooms", broadcast = false)
+    public RoomAnswerAck submitAnswer(@DestinationVariable String code, @Payload RoomAnswerRequest request, Principal principal) {
+        CurrentUser currentUser = CurrentUser.from(((JwtAuthenticationToken) principal).getToken());
+        GradedAnswer answer = quizRoomService.submitAnswer(code, request.getQuestionId(), request.getUserAnswer(), currentUser.toUser());
+        // Correctness is revealed to the whole room when the question closes
+        return new RoomAnswerAck(answer.getQuestionId(), true, null);
+    }
+
+    @MessageExceptionHandler
+    @SendToUser(destinations = "/queue/rooms", broadcast = false)
+    public RoomAnswerAck handleAnswerError(RuntimeException e) {
+        return new RoomAnswerAck(null, false, e.getMessage());
+    }
+
+    // DTOs for request/response
+    @Data
+    public static class CreateRoomRequest {
+        @NotNull(message = "Quiz ID is required")
+        private Long quizId;
+    }
+
+    @Data
+    public static class RoomAnswerRequest {
+        private Long questionId;
+        private String userAnswer;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RoomAnswerAck {
+        private Long questionId;
+        private boolean accepted;
+        private String error;
+    }
+}
@@ -0,0 +1,78 @@
+package com.aiquizzer.controller;
+
+import com.aiquizzer.dto.QuizDetailDto;
+import com.aiquizzer.model.Quiz;
+import com.aiquizzer.model.User;
+import com.aiquizzer.security.CurrentUser;
+import com.aiquizzer.service.AIQuizGenerationService;
+import com.aiquizzer.service.QuizAttemptService;
+import com.aiquizzer.service.QuizService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+@RestController
+@RequestMapping("/reactive")
+@Tag(name = "Reactive AI", description = "Non-blocking variants of the AI endpoints")
+public class ReactiveAIController {
+
+    @Autowired
+    private AIQuizGenerationService aiQuizGenerationService;
+    @Autowired
+    private QuizService quizService;
+    @Autowired
+    private QuizAttemptService quizAttemptService;
+    @Autowired
+    @Qualifier("persistenceScheduler")
+    private Scheduler persistenceScheduler;
+
+    @PostMapping("/quizzes/ai-generate")
+    @Operation(summary = "Generate quiz with AI (non-blocking)",
+               description = "Same as /quizzes/ai-generate, but no request thread waits on the model")
+    public Mono<ResponseEntity<QuizDetailDto>> generateQuizWithAI(@Valid @RequestBody QuizController.GenerateQuizRequest request, CurrentUser currentUser) {
+        return Mono.zip(
+                aiQuizGenerationService.generateQuizTitleReactive(request.getTopic(), request.getDifficulty()),
+                aiQuizGenerationService.generateQuizDescriptionReactive(
+                    request.getTopic(), request.getDifficulty(), request.getNumberOfQuestions()),
+                aiQuizGenerationService.generateQuestionsReactive(
+                    request.getTopic(), request.getDifficulty(), request.getNumberOfQuestions(), request.getQuestionType()))
+            .flatMap(generated -> Mono.fromCallable(() -> {
+                User user = currentUser.toUser();
+                Quiz quiz = quizService.saveGeneratedQuiz(
+                    generated.getT1(),
+                    generated.getT2(),
+                    request.getTopic(),
+                    request.getDifficulty(),
+                    user,
+                    request.getNumberOfQuestions(),
+                    generated.getT3()
+                );
+                return quizService.getQuizDetail(quiz.getId())
+                    .orElseThrow(() -> new RuntimeException("Quiz not found"));
+            }).subscribeOn(persistenceScheduler))
+            .map(detail -> ResponseEntity.status(HttpStatus.CREATED).body(detail));
+    }
+
+    @PostMapping(value = "/quiz-attempts/{userAnswerId}/hint", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream a hint", description = "Streams the hint for one of your answers as the model produces it. " +
+        "Answers still waiting to be written behind, or already moved to the archive, are not found.")
+    public Flux<String> streamHint(@PathVariable Long userAnswerId, CurrentUser currentUser) {
+        // Same lookup as the blocking hint: another user's answer is a 404 like a missing one
+        return Mono.fromCallable(() -> quizAttemptService.getAnswerForUser(userAnswerId, currentUser.toUser()))
+            .subscribeOn(persistenceScheduler)
+            .flatMap(Mono::justOrEmpty)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .flatMapMany(userAnswer -> aiQuizGenerationService.streamHint(
+                userAnswer.getUserAnswer(), userAnswer.getQuestion().getCorrectAnswer(), userAnswer.getQuestion()));
+    }
+}
@@ -1,6 +1,9 @@
 package com.aiquizzer.controller;
 
+import com.aiquizzer.dto.UserDto;
+import com.aiquizzer.dto.UserSummaryDto;
 import com.aiquizzer.model.User;
+import com.aiquizzer.security.CurrentUser;
 import com.aiquizzer.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -8,11 +11,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -25,10 +29,10 @@ public class UserController {
     
     @PostMapping("/register")
     @Operation(summary = "Register a new user", description = "Create a new user account")
-    public ResponseEntity<User> registerUser(@Valid @RequestBody RegisterUserRequest request) {
+    public ResponseEntity<UserDto> registerUser(@Valid @RequestBody RegisterUserRequest request) {
         try {
             User user = userService.createUser(request.getUsername(), request.getEmail(), request.getPassword());
-            return ResponseEntity.status(HttpStatus.CREATED).body(user);
+            return ResponseEntity.status(HttpStatus.CREATED).body(UserDto.from(user));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
@@ -36,50 +40,58 @@ public class UserController {
     
     @GetMapping("/{id}")
     @Operation(summary = "Get user by ID", description = "Retrieve a user by their ID")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
+    public ResponseEntity<UserDto> getUserById(@PathVariable Long id) {
         return userService.getUserById(id)
-            .map(ResponseEntity::ok)
+            .map(user -> ResponseEntity.ok(UserDto.from(user)))
             .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/username/{username}")
     @Operation(summary = "Get user by username", description = "Retrieve a user by their username")
-    public ResponseEntity<User> getUserByUsername(@PathVariable String username) {
+    public ResponseEntity<UserDto> getUserByUsername(@PathVariable String username) {
         return userService.getUserByUsername(username)
-            .map(ResponseEntity::ok)
+            .map(user -> ResponseEntity.ok(UserDto.from(user)))
             .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/email/{email}")
     @Operation(summary = "Get user by email", description = "Retrieve a user by their email")
-    public ResponseEntity<User> getUserByEmail(@PathVariable String email) {
+    public ResponseEntity<UserDto> getUserByEmail(@PathVariable String email) {
         return userService.getUserByEmail(email)
-            .map(ResponseEntity::ok)
+            .map(user -> ResponseEntity.ok(UserDto.from(user)))
             .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/search")
-    @Operation(summary = "Search users", description = "Search users by username or email")
-    public ResponseEntity<List<User>> searchUsers(
-            @Parameter(description = "Search keyword") @RequestParam String keyword) {
-        List<User> users = userService.searchUsers(keyword);
-        return ResponseEntity.ok(users);
+    @Operation(summary = "Search users", description = "Search users by username")
+    public ResponseEntity<Slice<UserSummaryDto>> searchUsers(
+            @Parameter(description = "Search keyword") @RequestParam String keyword,
+            @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
+        Slice<User> users = userService.searchUsers(keyword, PageRequest.of(page, Math.min(size, 100)));
+        return ResponseEntity.ok(users.map(UserSummaryDto::from));
     }
     
     @PutMapping("/{id}")
-    @Operation(summary = "Update user", description = "Update user information")
-    public ResponseEntity<User> updateUser(@PathVariable Long id, @Valid @RequestBody UpdateUserRequest request) {
+    @Operation(summary = "Update user", description = "Update your own account")
+    public ResponseEntity<UserDto> updateUser(@PathVariable Long id, @Valid @RequestBody UpdateUserRequest request, CurrentUser currentUser) {
+        if (!id.equals(currentUser.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         try {
             User updatedUser = userService.updateUser(id, request.getUsername(), request.getEmail(), request.getPassword());
-            return ResponseEntity.ok(updatedUser);
+            return ResponseEntity.ok(UserDto.from(updatedUser));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
     }
     
     @DeleteMapping("/{id}")
-    @Operation(summary = "Delete user", description = "Delete a user account")
-    public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
+    @Operation(summary = "Delete user", description = "Delete your own account")
+    public ResponseEntity<Void> deleteUser(@PathVariable Long id, CurrentUser currentUser) {
+        if (!id.equals(currentUser.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         try {
             userService.deleteUser(id);
             return ResponseEntity.noContent().build();
@@ -0,0 +1,106 @@
+package com.aiquizzer.datasource;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread routing state for {@link ReplicaRoutingDataSource}. Reads are pinned to the primary
+ * for the rest of a request once it has committed a write, and for {@code pinWindowMillis} on
+ * later requests from the same client through the {@link #PIN_COOKIE} cookie.
+ */
+public final class DataSourceRouting {
+
+    public static final String PIN_COOKIE = "quizzer-primary-until";
+
+    private static final String PINNED_ATTRIBUTE = DataSourceRouting.class.getName() + ".PINNED";
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private static volatile long pinWindowMillis = 5000;
+
+    private DataSourceRouting() {
+    }
+
+    static void setPinWindowMillis(long millis) {
+        pinWindowMillis = millis;
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PINNED.get());
+    }
+
+    /**
+     * Runs {@code action} with every connection it acquires taken from the primary, for loads
+     * that seed in-memory read models and so must not miss a recently committed write.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = PINNED.get();
+        PINNED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                PINNED.remove();
+            } else {
+                PINNED.set(previous);
+            }
+        }
+    }
+
+    static void pin() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    static void clear() {
+        PINNED.remove();
+    }
+
+    static void recordWriteOnCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || RequestContextHolder.getRequestAttributes() == null) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                // Before the AFTER_COMMIT listeners, which may read back what was just written
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCommit() {
+                pinCurrentRequest();
+            }
+        });
+    }
+
+    private static void pinCurrentRequest() {
+        pin();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return;
+        }
+        if (attributes.getAttribute(PINNED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+            return;
+        }
+        attributes.setAttribute(PINNED_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+
+        HttpServletResponse response = ((ServletRequestAttributes) attributes).getResponse();
+        if (response == null || response.isCommitted()) {
+            return;
+        }
+        Cookie cookie = new Cookie(PIN_COOKIE, Long.toString(System.currentTimeMillis() + pinWindowMillis));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, (pinWindowMillis + 999) / 1000));
+        response.addCookie(cookie);
+    }
+}
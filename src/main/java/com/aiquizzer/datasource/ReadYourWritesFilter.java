@@ -0,0 +1,51 @@
+package com.aiquizzer.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Pins a request to the primary while the client's last write may not have reached the replica,
+ * and clears the routing state when the request completes.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public ReadYourWritesFilter(long pinWindowMillis) {
+        DataSourceRouting.setPinWindowMillis(pinWindowMillis);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (hasRecentWrite(request)) {
+            DataSourceRouting.pin();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            DataSourceRouting.clear();
+        }
+    }
+
+    private static boolean hasRecentWrite(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (DataSourceRouting.PIN_COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
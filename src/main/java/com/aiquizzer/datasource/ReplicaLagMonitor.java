@@ -0,0 +1,85 @@
+package com.aiquizzer.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Polls the replica's replication delay and takes it out of rotation while it is unreachable,
+ * not replicating, or further behind than {@code maxLagMillis}. The lag query is either MySQL's
+ * {@code SHOW REPLICA STATUS} or any query whose first column is the delay in seconds.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String[] LAG_COLUMNS = { "Seconds_Behind_Source", "Seconds_Behind_Master" };
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final long maxLagMillis;
+
+    // Out of rotation until the first check passes
+    private volatile boolean available;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, long maxLagMillis) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    public boolean isReplicaAvailable() {
+        return available;
+    }
+
+    @Scheduled(fixedDelayString = "${quizzer.datasource.replica.check-interval-ms:1000}")
+    public void check() {
+        Long lagSeconds;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            lagSeconds = readLag(resultSet);
+        } catch (SQLException e) {
+            if (available) {
+                log.warn("Replica check failed, routing reads to the primary", e);
+            }
+            available = false;
+            return;
+        }
+
+        boolean healthy = lagSeconds != null && lagSeconds * 1000 <= maxLagMillis;
+        if (healthy != available) {
+            if (healthy) {
+                log.info("Replica lag {}s is within {}ms, routing read-only transactions to it", lagSeconds, maxLagMillis);
+            } else {
+                log.warn("Replica lag {}s exceeds {}ms or replication is stopped, routing reads to the primary", lagSeconds, maxLagMillis);
+            }
+        }
+        available = healthy;
+    }
+
+    private static Long readLag(ResultSet resultSet) throws SQLException {
+        if (!resultSet.next()) {
+            return null;
+        }
+        int column = 1;
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            String label = metaData.getColumnLabel(i);
+            for (String lagColumn : LAG_COLUMNS) {
+                if (lagColumn.equalsIgnoreCase(label)) {
+                    column = i;
+                }
+            }
+        }
+        long lag = resultSet.getLong(column);
+        return resultSet.wasNull() ? null : lag;
+    }
+}
@@ -0,0 +1,30 @@
+package com.aiquizzer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnswerDistributionDto {
+
+    private Long questionId;
+    private Long totalAnswers;
+    // The question's options in order, then other answers given, most frequent first
+    private List<Entry> answers;
+    // Answers beyond the distinct answers tracked per question
+    private Long otherAnswers;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private String answer;
+        private Long count;
+        private Boolean correct;
+        private Boolean option;
+    }
+}
@@ -0,0 +1,21 @@
+package com.aiquizzer.dto;
+
+import com.aiquizzer.model.Answer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnswerDto {
+
+    private Long id;
+    private String text;
+    private Boolean isCorrect;
+    private Integer orderIndex;
+
+    public static AnswerDto from(Answer answer) {
+        return new AnswerDto(answer.getId(), answer.getText(), answer.getIsCorrect(), answer.getOrderIndex());
+    }
+}
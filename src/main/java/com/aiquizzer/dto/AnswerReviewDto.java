@@ -0,0 +1,56 @@
+package com.aiquizzer.dto;
+
+import com.aiquizzer.archive.ArchivedAnswer;
+import com.aiquizzer.model.Question;
+import com.aiquizzer.model.UserAnswer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnswerReviewDto {
+
+    private Long id;
+    private Long questionId;
+    private String questionContent;
+    private String userAnswer;
+    private String correctAnswer;
+    private String explanation;
+    private Boolean isCorrect;
+    private Integer pointsEarned;
+    private LocalDateTime answeredAt;
+
+    // Expects the question to be fetched with the answer
+    public static AnswerReviewDto from(UserAnswer answer) {
+        Question question = answer.getQuestion();
+        return new AnswerReviewDto(
+            answer.getId(),
+            question.getId(),
+            question.getContent(),
+            answer.getUserAnswer(),
+            question.getCorrectAnswer(),
+            question.getExplanation(),
+            answer.getIsCorrect(),
+            answer.getPointsEarned(),
+            answer.getAnsweredAt()
+        );
+    }
+
+    public static AnswerReviewDto from(ArchivedAnswer answer, Question question) {
+        return new AnswerReviewDto(
+            answer.getId(),
+            answer.getQuestionId(),
+            question != null ? question.getContent() : null,
+            answer.getUserAnswer(),
+            question != null ? question.getCorrectAnswer() : null,
+            question != null ? question.getExplanation() : null,
+            answer.getIsCorrect(),
+            answer.getPointsEarned(),
+            answer.getAnsweredAt()
+        );
+    }
+}
@@ -0,0 +1,37 @@
+package com.aiquizzer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorSlice<T> {
+
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+
+    /**
+     * Builds a slice from a query that fetched one row more than {@code size} to detect a next page.
+     */
+    public static <T> CursorSlice<T> of(List<T> rows, int size, Function<T, KeysetCursor> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(content.get(content.size() - 1)).encode() : null;
+        return new CursorSlice<>(content, nextCursor, hasNext);
+    }
+
+    public <R> CursorSlice<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = new ArrayList<>(content.size());
+        for (T item : content) {
+            mapped.add(mapper.apply(item));
+        }
+        return new CursorSlice<>(mapped, nextCursor, hasNext);
+    }
+}
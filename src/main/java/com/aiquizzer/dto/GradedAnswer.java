@@ -0,0 +1,32 @@
+package com.aiquizzer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * An answer graded in memory and waiting to be written to {@code user_answers}.
+ * {@code correctAnswers} is the attempt's correct count after this answer, so the last answer of
+ * an attempt in a batch is enough to bring {@code quiz_attempts} up to date.
+ */
+@Getter
+@AllArgsConstructor
+public class GradedAnswer {
+
+    // Assigned by the answer journal on append; zero for answers that are not journaled
+    @Setter
+    private long sequence;
+    private final long attemptId;
+    private final long userId;
+    private final long questionId;
+    private final String userAnswer;
+    private final boolean correct;
+    private final Boolean previousCorrect;
+    // Null for answers replayed from records journaled before the replaced text was kept
+    private final String previousAnswer;
+    private final int pointsEarned;
+    private final LocalDateTime answeredAt;
+    private final int correctAnswers;
+}
@@ -0,0 +1,51 @@
+package com.aiquizzer.dto;
+
+import com.aiquizzer.event.QuizAttemptEvent;
+import com.aiquizzer.model.QuizAttempt;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntry {
+
+    private Long rank;
+    private Long attemptId;
+    private Long userId;
+    private String username;
+    private Double score;
+    private LocalDateTime completedAt;
+    private Long timeTakenSeconds;
+
+    public static LeaderboardEntry from(QuizAttempt attempt) {
+        return new LeaderboardEntry(
+            null,
+            attempt.getId(),
+            attempt.getUser().getId(),
+            attempt.getUser().getUsername(),
+            attempt.getScore(),
+            attempt.getCompletedAt(),
+            attempt.getTimeTakenSeconds()
+        );
+    }
+
+    public static LeaderboardEntry from(QuizAttemptEvent event) {
+        return new LeaderboardEntry(
+            null,
+            event.getAttemptId(),
+            event.getUserId(),
+            event.getUsername(),
+            event.getScore(),
+            event.getCompletedAt(),
+            event.getTimeTakenSeconds()
+        );
+    }
+
+    public LeaderboardEntry withRank(long rank) {
+        return new LeaderboardEntry(rank, attemptId, userId, username, score, completedAt, timeTakenSeconds);
+    }
+}
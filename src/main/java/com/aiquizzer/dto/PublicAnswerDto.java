@@ -0,0 +1,21 @@
+package com.aiquizzer.dto;
+
+import com.aiquizzer.model.Answer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A choice as shown to quiz takers: without whether it is correct
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublicAnswerDto {
+
+    private Long id;
+    private String text;
+    private Integer orderIndex;
+
+    public static PublicAnswerDto from(Answer answer) {
+        return new PublicAnswerDto(answer.getId(), answer.getText(), answer.getOrderIndex());
+    }
+}
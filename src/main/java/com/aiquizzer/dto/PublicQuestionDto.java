@@ -0,0 +1,39 @@
+package com.aiquizzer.dto;
+
+import com.aiquizzer.model.Question;
+import com.aiquizzer.model.QuestionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// A question as shown to quiz takers: no answer key or explanation, which AnswerReviewDto shows once the attempt is done
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublicQuestionDto {
+
+    private Long id;
+    private String content;
+    private QuestionType questionType;
+    private Integer points;
+    private Integer timeLimitSeconds;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private List<PublicAnswerDto> answers;
+
+    public static PublicQuestionDto from(Question question, List<PublicAnswerDto> answers) {
+        return new PublicQuestionDto(
+            question.getId(),
+            question.getContent(),
+            question.getQuestionType(),
+            question.getPoints(),
+            question.getTimeLimitSeconds(),
+            question.getCreatedAt(),
+            question.getUpdatedAt(),
+            answers
+        );
+    }
+}
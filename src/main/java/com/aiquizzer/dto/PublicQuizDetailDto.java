@@ -0,0 +1,45 @@
+package com.aiquizzer.dto;
+
+import com.aiquizzer.model.DifficultyLevel;
+import com.aiquizzer.model.Quiz;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// QuizDetailDto for anyone but the quiz's owner: its questions carry no answer keys
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublicQuizDetailDto {
+
+    private Long id;
+    private String title;
+    private String description;
+    private String topic;
+    private DifficultyLevel difficulty;
+    private Integer totalQuestions;
+    private Integer timeLimitMinutes;
+    private Boolean isPublic;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private List<PublicQuestionDto> questions;
+
+    public static PublicQuizDetailDto from(Quiz quiz, List<PublicQuestionDto> questions) {
+        return new PublicQuizDetailDto(
+            quiz.getId(),
+            quiz.getTitle(),
+            quiz.getDescription(),
+            quiz.getTopic(),
+            quiz.getDifficulty(),
+            quiz.getTotalQuestions(),
+            quiz.getTimeLimitMinutes(),
+            quiz.getIsPublic(),
+            quiz.getCreatedAt(),
+            quiz.getUpdatedAt(),
+            questions
+        );
+    }
+}
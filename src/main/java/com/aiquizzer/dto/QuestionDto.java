@@ -0,0 +1,42 @@
+package com.aiquizzer.dto;
+
+import com.aiquizzer.model.Question;
+import com.aiquizzer.model.QuestionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionDto {
+
+    private Long id;
+    private String content;
+    private String correctAnswer;
+    private String explanation;
+    private QuestionType questionType;
+    private Integer points;
+    private Integer timeLimitSeconds;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private List<AnswerDto> answers;
+
+    public static QuestionDto from(Question question, List<AnswerDto> answers) {
+        return new QuestionDto(
+            question.getId(),
+            question.getContent(),
+            question.getCorrectAnswer(),
+            question.getExplanation(),
+            question.getQuestionType(),
+            question.getPoints(),
+            question.getTimeLimitSeconds(),
+            question.getCreatedAt(),
+            question.getUpdatedAt(),
+            answers
+        );
+    }
+}
@@ -0,0 +1,26 @@
+package com.aiquizzer.dto;
+
+import com.aiquizzer.model.QuestionStatistics;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionStatisticsDto {
+
+    private Long questionId;
+    private Long responses;
+    // p-value: share of responses that were correct
+    private Double difficultyIndex;
+    // Point-biserial correlation with the rest of the attempt's score; null while undefined
+    private Double discriminationIndex;
+    private Double averageTimeTakenSeconds;
+    private Boolean needsReview;
+
+    public static QuestionStatisticsDto from(QuestionStatistics statistics, boolean needsReview) {
+        return new QuestionStatisticsDto(statistics.getQuestionId(), statistics.getResponses(), statistics.getPValue(),
+            statistics.getDiscrimination(), statistics.getAverageTimeTakenSeconds(), needsReview);
+    }
+}
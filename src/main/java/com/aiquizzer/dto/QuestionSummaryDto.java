@@ -0,0 +1,31 @@
+package com.aiquizzer.dto;
+
+import com.aiquizzer.model.Question;
+import com.aiquizzer.model.QuestionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A question without its answer key, for listings open to anyone
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionSummaryDto {
+
+    private Long id;
+    private Long quizId;
+    private String content;
+    private QuestionType questionType;
+    private Integer points;
+
+    public static QuestionSummaryDto from(Question question) {
+        return new QuestionSummaryDto(
+            question.getId(),
+            // Reading the id of a lazy association does not initialize it
+            question.getQuiz().getId(),
+            question.getContent(),
+            question.getQuestionType(),
+            question.getPoints()
+        );
+    }
+}
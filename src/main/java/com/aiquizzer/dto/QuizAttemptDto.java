@@ -0,0 +1,40 @@
+package com.aiquizzer.dto;
+
+import com.aiquizzer.model.AttemptStatus;
+import com.aiquizzer.model.QuizAttempt;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizAttemptDto {
+
+    private Long id;
+    private Long quizId;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private Double score;
+    private Integer totalQuestions;
+    private Integer correctAnswers;
+    private Long timeTakenSeconds;
+    private AttemptStatus status;
+
+    public static QuizAttemptDto from(QuizAttempt attempt) {
+        return new QuizAttemptDto(
+            attempt.getId(),
+            // Reading the id of a lazy association does not initialize it
+            attempt.getQuiz().getId(),
+            attempt.getStartedAt(),
+            attempt.getCompletedAt(),
+            attempt.getScore(),
+            attempt.getTotalQuestions(),
+            attempt.getCorrectAnswers(),
+            attempt.getTimeTakenSeconds(),
+            attempt.getStatus()
+        );
+    }
+}
@@ -0,0 +1,44 @@
+package com.aiquizzer.dto;
+
+import com.aiquizzer.model.DifficultyLevel;
+import com.aiquizzer.model.Quiz;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizDetailDto {
+
+    private Long id;
+    private String title;
+    private String description;
+    private String topic;
+    private DifficultyLevel difficulty;
+    private Integer totalQuestions;
+    private Integer timeLimitMinutes;
+    private Boolean isPublic;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private List<QuestionDto> questions;
+
+    public static QuizDetailDto from(Quiz quiz, List<QuestionDto> questions) {
+        return new QuizDetailDto(
+            quiz.getId(),
+            quiz.getTitle(),
+            quiz.getDescription(),
+            quiz.getTopic(),
+            quiz.getDifficulty(),
+            quiz.getTotalQuestions(),
+            quiz.getTimeLimitMinutes(),
+            quiz.getIsPublic(),
+            quiz.getCreatedAt(),
+            quiz.getUpdatedAt(),
+            questions
+        );
+    }
+}
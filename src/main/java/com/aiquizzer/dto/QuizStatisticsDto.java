@@ -0,0 +1,19 @@
+package com.aiquizzer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizStatisticsDto {
+
+    private Long quizId;
+    private long totalAttempts;
+    private long completedAttempts;
+    private long abandonedAttempts;
+    private Double averageScore;
+    // Completed attempts per 10-point score band, lowest band first
+    private long[] scoreHistogram;
+}
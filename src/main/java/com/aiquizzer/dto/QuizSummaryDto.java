@@ -0,0 +1,41 @@
+package com.aiquizzer.dto;
+
+import com.aiquizzer.model.DifficultyLevel;
+import com.aiquizzer.model.Quiz;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizSummaryDto {
+
+    private Long id;
+    private String title;
+    private String description;
+    private String topic;
+    private DifficultyLevel difficulty;
+    private Integer totalQuestions;
+    private Integer timeLimitMinutes;
+    private Boolean isPublic;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public static QuizSummaryDto from(Quiz quiz) {
+        return new QuizSummaryDto(
+            quiz.getId(),
+            quiz.getTitle(),
+            quiz.getDescription(),
+            quiz.getTopic(),
+            quiz.getDifficulty(),
+            quiz.getTotalQuestions(),
+            quiz.getTimeLimitMinutes(),
+            quiz.getIsPublic(),
+            quiz.getCreatedAt(),
+            quiz.getUpdatedAt()
+        );
+    }
+}
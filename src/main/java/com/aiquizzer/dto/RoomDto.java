@@ -0,0 +1,35 @@
+package com.aiquizzer.dto;
+
+import com.aiquizzer.room.QuizRoom;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomDto {
+
+    private String code;
+    private Long quizId;
+    private String quizTitle;
+    private Long hostId;
+    private QuizRoom.Phase phase;
+    private Integer questionCount;
+    private Integer participantCount;
+    // Set for the caller once they have joined
+    private Long attemptId;
+
+    public static RoomDto from(QuizRoom room, Long attemptId) {
+        return new RoomDto(
+            room.getCode(),
+            room.getQuizId(),
+            room.getQuizTitle(),
+            room.getHostId(),
+            room.getPhase(),
+            room.getQuestionCount(),
+            room.getParticipantCount(),
+            attemptId
+        );
+    }
+}
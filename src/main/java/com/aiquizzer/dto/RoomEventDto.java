@@ -0,0 +1,41 @@
+package com.aiquizzer.dto;
+
+import com.aiquizzer.room.QuizRoom;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Broadcast to {@code /topic/rooms/{code}} on every phase change. {@code phaseEndsAt} is in epoch
+ * milliseconds so clients can count down regardless of when the message arrives. The correct
+ * answer is only sent once the question has closed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomEventDto {
+
+    private String code;
+    private QuizRoom.Phase phase;
+    private Integer questionIndex;
+    private Integer questionCount;
+    private RoomQuestionDto question;
+    private Long phaseEndsAt;
+    private String correctAnswer;
+    private String explanation;
+
+    public static RoomEventDto from(QuizRoom room, QuizRoom.Phase phase, int questionIndex, QuestionDto question, long phaseEndsAt) {
+        boolean open = phase == QuizRoom.Phase.QUESTION;
+        boolean revealed = phase == QuizRoom.Phase.REVEAL;
+        return new RoomEventDto(
+            room.getCode(),
+            phase,
+            questionIndex >= 0 ? questionIndex : null,
+            room.getQuestionCount(),
+            open || revealed ? RoomQuestionDto.from(question) : null,
+            open || revealed ? phaseEndsAt : null,
+            revealed ? question.getCorrectAnswer() : null,
+            revealed ? question.getExplanation() : null
+        );
+    }
+}
@@ -0,0 +1,32 @@
+package com.aiquizzer.dto;
+
+import com.aiquizzer.model.QuestionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// A question as shown to room participants: the choices without which one is correct
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomQuestionDto {
+
+    private Long id;
+    private String content;
+    private QuestionType questionType;
+    private Integer points;
+    private List<String> choices;
+
+    public static RoomQuestionDto from(QuestionDto question) {
+        return new RoomQuestionDto(
+            question.getId(),
+            question.getContent(),
+            question.getQuestionType(),
+            question.getPoints(),
+            question.getAnswers().stream().map(AnswerDto::getText).collect(Collectors.toList())
+        );
+    }
+}
@@ -0,0 +1,28 @@
+package com.aiquizzer.dto;
+
+import com.aiquizzer.room.QuizRoom;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomStandingDto {
+
+    private Long rank;
+    private Long userId;
+    private String username;
+    private Integer points;
+    private Integer correctAnswers;
+
+    public static RoomStandingDto from(QuizRoom.Participant participant) {
+        return new RoomStandingDto(
+            null,
+            participant.getUserId(),
+            participant.getUsername(),
+            participant.getPoints(),
+            participant.getCorrectAnswers()
+        );
+    }
+}
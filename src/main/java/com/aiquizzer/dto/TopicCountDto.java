@@ -0,0 +1,18 @@
+package com.aiquizzer.dto;
+
+import com.aiquizzer.model.DifficultyLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopicCountDto {
+
+    private String topic;
+    private long publicQuizzes;
+    private Map<DifficultyLevel, Long> difficulties;
+}
@@ -0,0 +1,34 @@
+package com.aiquizzer.dto;
+
+import com.aiquizzer.model.UserAnswer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserAnswerDto {
+
+    private Long id;
+    private Long questionId;
+    private String userAnswer;
+    private Boolean isCorrect;
+    private Integer pointsEarned;
+    private Long timeTakenSeconds;
+    private LocalDateTime answeredAt;
+
+    public static UserAnswerDto from(UserAnswer answer) {
+        return new UserAnswerDto(
+            answer.getId(),
+            answer.getQuestion().getId(),
+            answer.getUserAnswer(),
+            answer.getIsCorrect(),
+            answer.getPointsEarned(),
+            answer.getTimeTakenSeconds(),
+            answer.getAnsweredAt()
+        );
+    }
+}
@@ -0,0 +1,36 @@
+package com.aiquizzer.dto;
+
+import com.aiquizzer.model.DifficultyLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserStatisticsDto {
+
+    private Long userId;
+    private long totalAttempts;
+    private long completedAttempts;
+    private long answeredQuestions;
+    private long correctAnswers;
+    private int currentStreak;
+    private int bestStreak;
+    private LocalDateTime lastActivityAt;
+    private List<ScoreSummary> topics;
+    private Map<DifficultyLevel, ScoreSummary> difficulties;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ScoreSummary {
+        private String name;
+        private long completedAttempts;
+        private Double averageScore;
+    }
+}
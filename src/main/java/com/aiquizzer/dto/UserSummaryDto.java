@@ -0,0 +1,20 @@
+package com.aiquizzer.dto;
+
+import com.aiquizzer.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Public view of another user; never carries the email
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummaryDto {
+
+    private Long id;
+    private String username;
+
+    public static UserSummaryDto from(User user) {
+        return new UserSummaryDto(user.getId(), user.getUsername());
+    }
+}
@@ -0,0 +1,43 @@
+package com.aiquizzer.event;
+
+import com.aiquizzer.model.AttemptStatus;
+import com.aiquizzer.model.QuizAttempt;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published whenever a quiz attempt changes status (started, completed, abandoned).
+ * Listeners that maintain read models consume it after the surrounding transaction commits.
+ */
+@Getter
+@AllArgsConstructor
+public class QuizAttemptEvent {
+
+    private final Long attemptId;
+    private final Long quizId;
+    private final Long userId;
+    private final String username;
+    private final AttemptStatus previousStatus;
+    private final AttemptStatus status;
+    private final Double score;
+    private final LocalDateTime completedAt;
+    private final Long timeTakenSeconds;
+    private final LocalDateTime deadlineAt;
+
+    public static QuizAttemptEvent of(QuizAttempt attempt, AttemptStatus previousStatus) {
+        return new QuizAttemptEvent(
+            attempt.getId(),
+            attempt.getQuiz().getId(),
+            attempt.getUser().getId(),
+            attempt.getUser().getUsername(),
+            previousStatus,
+            attempt.getStatus(),
+            attempt.getScore(),
+            attempt.getCompletedAt(),
+            attempt.getTimeTakenSeconds(),
+            attempt.getDeadlineAt()
+        );
+    }
+}
@@ -0,0 +1,34 @@
+package com.aiquizzer.event;
+
+import com.aiquizzer.model.DifficultyLevel;
+import com.aiquizzer.model.Quiz;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a quiz or its questions change. {@code publicBefore}/{@code publicAfter}
+ * carry the visibility around the change so listeners can maintain public-only views.
+ */
+@Getter
+@AllArgsConstructor
+public class QuizChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        QUESTIONS_CHANGED
+    }
+
+    private final Long quizId;
+    private final Type type;
+    private final String topic;
+    private final DifficultyLevel difficulty;
+    private final boolean publicBefore;
+    private final boolean publicAfter;
+
+    public static QuizChangedEvent of(Quiz quiz, Type type, boolean publicBefore) {
+        boolean publicAfter = type != Type.DELETED && Boolean.TRUE.equals(quiz.getIsPublic());
+        return new QuizChangedEvent(quiz.getId(), type, quiz.getTopic(), quiz.getDifficulty(), publicBefore, publicAfter);
+    }
+}
@@ -0,0 +1,22 @@
+package com.aiquizzer.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a submitted answer has been graded. {@code previousCorrect} is null for a
+ * first submission and holds the earlier grading when an answer is resubmitted;
+ * {@code previousAnswer} is the replaced answer's text when it is known.
+ */
+@Getter
+@AllArgsConstructor
+public class UserAnswerGradedEvent {
+
+    private final Long userId;
+    private final Long quizAttemptId;
+    private final Long questionId;
+    private final Boolean previousCorrect;
+    private final boolean correct;
+    private final String previousAnswer;
+    private final String userAnswer;
+}
@@ -0,0 +1,221 @@
+package com.aiquizzer.export;
+
+import com.aiquizzer.archive.AnswerArchive;
+import com.aiquizzer.archive.ArchivedAnswer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams a quiz's attempts, or their answers, to an output stream. Attempts are read in keyset
+ * pages on {@code (quiz_id, started_at, id)}, each page in its own short read-only transaction, so
+ * a slow client never holds a pooled connection and memory stays bounded by the page size however
+ * many attempts the quiz has. Answers of archived attempts are read back from the archive.
+ */
+@Component
+public class AttemptExporter {
+
+    private static final String[] ATTEMPT_COLUMNS = {
+        "attemptId", "userId", "username", "status", "score", "correctAnswers", "totalQuestions",
+        "timeTakenSeconds", "startedAt", "completedAt" };
+
+    private static final String[] ANSWER_COLUMNS = {
+        "attemptId", "userId", "questionId", "userAnswer", "correct", "pointsEarned", "timeTakenSeconds", "answeredAt" };
+
+    private static final String ATTEMPT_PAGE =
+        "SELECT qa.id, qa.user_id, u.username, qa.status, qa.score, qa.correct_answers, qa.total_questions, " +
+        "qa.time_taken_seconds, qa.started_at, qa.completed_at, qa.answers_archived_at " +
+        "FROM quiz_attempts qa JOIN users u ON u.id = qa.user_id " +
+        "WHERE qa.quiz_id = ? AND qa.started_at < ? AND (qa.started_at > ? OR (qa.started_at = ? AND qa.id > ?)) " +
+        "ORDER BY qa.started_at, qa.id LIMIT ?";
+
+    // Before any attempt; an export without a lower bound starts here
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    @Autowired
+    private AnswerArchive answerArchive;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${quizzer.export.page-size:500}")
+    private int pageSize;
+
+    private final TransactionTemplate readTransaction;
+    private final Counter exportedRows;
+
+    public AttemptExporter(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        // Read-only, so pages are served by the replica when one is configured
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.exportedRows = Counter.builder("quizzer.export.rows")
+            .description("Attempt and answer records written to exports")
+            .register(meterRegistry);
+    }
+
+    // Attempts started in [from, to); a missing bound leaves that side open, up to the time of the request
+    public void exportAttempts(Long quizId, LocalDateTime from, LocalDateTime to, ExportFormat format, OutputStream out) throws IOException {
+        try (ExportWriter writer = ExportWriter.open(format, out, objectMapper, ATTEMPT_COLUMNS)) {
+            forEachPage(quizId, from, to, false, page -> {
+                for (AttemptRow attempt : page.attempts) {
+                    writer.write(attempt.id, attempt.userId, attempt.username, attempt.status, attempt.score,
+                        attempt.correctAnswers, attempt.totalQuestions, attempt.timeTakenSeconds, attempt.startedAt,
+                        attempt.completedAt);
+                }
+                exportedRows.increment(page.attempts.size());
+            });
+        }
+    }
+
+    // Answers of the attempts started in [from, to), attempt by attempt in the order they were given
+    public void exportAnswers(Long quizId, LocalDateTime from, LocalDateTime to, ExportFormat format, OutputStream out) throws IOException {
+        try (ExportWriter writer = ExportWriter.open(format, out, objectMapper, ANSWER_COLUMNS)) {
+            forEachPage(quizId, from, to, true, page -> {
+                int written = 0;
+                for (AttemptRow attempt : page.attempts) {
+                    List<ArchivedAnswer> answers = attempt.answersArchivedAt != null
+                        ? answerArchive.findByAttemptId(attempt.id)
+                        : page.answers.getOrDefault(attempt.id, Collections.emptyList());
+                    for (ArchivedAnswer answer : answers) {
+                        writer.write(answer.getAttemptId(), answer.getUserId(), answer.getQuestionId(), answer.getUserAnswer(),
+                            answer.getIsCorrect(), answer.getPointsEarned(), answer.getTimeTakenSeconds(), answer.getAnsweredAt());
+                    }
+                    written += answers.size();
+                }
+                exportedRows.increment(written);
+            });
+        }
+    }
+
+    private void forEachPage(Long quizId, LocalDateTime from, LocalDateTime to, boolean withAnswers, PageConsumer consumer) throws IOException {
+        LocalDateTime until = to != null ? to : LocalDateTime.now();
+        LocalDateTime afterStartedAt = from != null ? from : EARLIEST;
+        long afterId = 0;
+        while (true) {
+            LocalDateTime startedAt = afterStartedAt;
+            long id = afterId;
+            // Attempts and their answers come from one snapshot, so an attempt archived in between is not missed
+            Page page = readTransaction.execute(status -> {
+                List<AttemptRow> attempts = jdbcTemplate.query(ATTEMPT_PAGE, (rs, rowNum) -> AttemptRow.from(rs),
+                    quizId, until, startedAt, startedAt, id, pageSize);
+                return new Page(attempts, withAnswers ? loadAnswers(attempts) : Collections.emptyMap());
+            });
+            if (page.attempts.isEmpty()) {
+                return;
+            }
+            consumer.accept(page);
+            if (page.attempts.size() < pageSize) {
+                return;
+            }
+            AttemptRow last = page.attempts.get(page.attempts.size() - 1);
+            afterStartedAt = last.startedAt;
+            afterId = last.id;
+        }
+    }
+
+    private Map<Long, List<ArchivedAnswer>> loadAnswers(List<AttemptRow> attempts) {
+        List<Long> attemptIds = new ArrayList<>();
+        for (AttemptRow attempt : attempts) {
+            if (attempt.answersArchivedAt == null) {
+                attemptIds.add(attempt.id);
+            }
+        }
+        if (attemptIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, List<ArchivedAnswer>> answers = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+            "SELECT id, quiz_attempt_id, user_id, question_id, user_answer, is_correct, points_earned, " +
+            "time_taken_seconds, answered_at FROM user_answers WHERE quiz_attempt_id IN (:ids) " +
+            "ORDER BY quiz_attempt_id, answered_at, id",
+            new MapSqlParameterSource("ids", attemptIds),
+            rs -> {
+                ArchivedAnswer answer = mapAnswer(rs);
+                answers.computeIfAbsent(answer.getAttemptId(), attemptId -> new ArrayList<>()).add(answer);
+            });
+        return answers;
+    }
+
+    private static ArchivedAnswer mapAnswer(ResultSet rs) throws SQLException {
+        return new ArchivedAnswer(
+            rs.getLong("id"),
+            rs.getLong("quiz_attempt_id"),
+            rs.getLong("user_id"),
+            rs.getLong("question_id"),
+            rs.getString("user_answer"),
+            rs.getObject("is_correct", Boolean.class),
+            rs.getObject("points_earned", Integer.class),
+            rs.getObject("time_taken_seconds", Long.class),
+            rs.getObject("answered_at", LocalDateTime.class));
+    }
+
+    @FunctionalInterface
+    private interface PageConsumer {
+        void accept(Page page) throws IOException;
+    }
+
+    private static class Page {
+
+        final List<AttemptRow> attempts;
+        // Answers of the page's attempts still in user_answers, by attempt
+        final Map<Long, List<ArchivedAnswer>> answers;
+
+        Page(List<AttemptRow> attempts, Map<Long, List<ArchivedAnswer>> answers) {
+            this.attempts = attempts;
+            this.answers = answers;
+        }
+    }
+
+    private static class AttemptRow {
+
+        long id;
+        long userId;
+        String username;
+        String status;
+        Double score;
+        Integer correctAnswers;
+        Integer totalQuestions;
+        Long timeTakenSeconds;
+        LocalDateTime startedAt;
+        LocalDateTime completedAt;
+        LocalDateTime answersArchivedAt;
+
+        static AttemptRow from(ResultSet rs) throws SQLException {
+            AttemptRow row = new AttemptRow();
+            row.id = rs.getLong("id");
+            row.userId = rs.getLong("user_id");
+            row.username = rs.getString("username");
+            row.status = rs.getString("status");
+            row.score = rs.getObject("score", Double.class);
+            row.correctAnswers = rs.getObject("correct_answers", Integer.class);
+            row.totalQuestions = rs.getObject("total_questions", Integer.class);
+            row.timeTakenSeconds = rs.getObject("time_taken_seconds", Long.class);
+            row.startedAt = rs.getObject("started_at", LocalDateTime.class);
+            row.completedAt = rs.getObject("completed_at", LocalDateTime.class);
+            row.answersArchivedAt = rs.getObject("answers_archived_at", LocalDateTime.class);
+            return row;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.aiquizzer.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes export records one at a time to an output stream, as NDJSON objects or CSV rows with a
+ * header. Nothing is kept after a record is written. Closing flushes but leaves the stream open.
+ */
+public abstract class ExportWriter implements Closeable {
+
+    protected final String[] columns;
+
+    protected ExportWriter(String[] columns) {
+        this.columns = columns;
+    }
+
+    public static ExportWriter open(ExportFormat format, OutputStream out, ObjectMapper objectMapper, String... columns) throws IOException {
+        return format == ExportFormat.CSV ? new CsvWriter(out, columns) : new NdjsonWriter(out, objectMapper, columns);
+    }
+
+    // One value per column, in column order
+    public abstract void write(Object... values) throws IOException;
+
+    private static class NdjsonWriter extends ExportWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonWriter(OutputStream out, ObjectMapper objectMapper, String[] columns) throws IOException {
+            super(columns);
+            // The mapper's codec writes dates the way the API does
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            this.generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(Object... values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                generator.writeFieldName(columns[i]);
+                generator.writeObject(values[i]);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static class CsvWriter extends ExportWriter {
+
+        private final Writer writer;
+
+        CsvWriter(OutputStream out, String[] columns) throws IOException {
+            super(columns);
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            write((Object[]) columns);
+        }
+
+        @Override
+        public void write(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    writeField(values[i]);
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        // Quoted per RFC 4180 when needed; text a spreadsheet would run as a formula is prefixed with '
+        private void writeField(Object value) throws IOException {
+            String text = value.toString();
+            if (value instanceof String && !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+                text = "'" + text;
+            }
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(text.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(text);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.aiquizzer.journal;
+
+import com.aiquizzer.dto.GradedAnswer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of graded answers in memory-mapped segment files. Appends copy the record
+ * into the mapping under a short lock; one sync thread forces the written range to disk and wakes
+ * every appender it covered, so concurrent submissions share an fsync instead of paying one each.
+ * A record counts as acknowledged only once {@link #awaitDurable} returns for it.
+ *
+ * <p>Record layout: {@code length, crc32, body}, where the body holds the sequence, the answer
+ * fields, the answer text and the text of the answer it replaced. Records written before the
+ * replaced text was journaled end after the answer text and replay with none. A zero length marks the end of a segment's records; a record whose checksum does not
+ * match is a torn write that was never acknowledged and ends the replay of its segment.
+ *
+ * <p>Waiting uses {@link ReentrantLock} conditions rather than monitors so that virtual threads
+ * blocked on a sync release their carrier.
+ */
+public class AnswerJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(AnswerJournal.class);
+
+    private static final String SEGMENT_PREFIX = "answers-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int RECORD_HEADER_BYTES = 4 + 4;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition dirty = lock.newCondition();
+    private final Condition durable = lock.newCondition();
+    // Closed segments still holding records above the checkpoint, oldest first
+    private final Deque<Segment> retained = new ArrayDeque<>();
+
+    private Segment current;
+    private long writtenSequence;
+    private long syncedSequence;
+    private int syncedPosition;
+    private boolean closed;
+    private Thread syncer;
+
+    public AnswerJournal(Path directory, int segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Reads every segment, returns the records with a sequence above {@code checkpoint} in order,
+     * and starts a fresh segment for new appends.
+     */
+    public List<GradedAnswer> open(long checkpoint) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            files.forEach(paths::add);
+        }
+        paths.sort(Comparator.comparingLong(AnswerJournal::firstSequenceOf));
+
+        List<GradedAnswer> replay = new ArrayList<>();
+        long lastSequence = checkpoint;
+        for (Path path : paths) {
+            long firstSequence = firstSequenceOf(path);
+            Segment segment = Segment.map(path, firstSequence, (int) Files.size(path));
+            lastSequence = Math.max(lastSequence, segment.read(checkpoint, replay));
+            if (segment.lastSequence < firstSequence) {
+                // Created just before a shutdown; the new segment may need its name
+                Files.delete(path);
+            } else {
+                retained.add(segment);
+            }
+        }
+
+        lock.lock();
+        try {
+            writtenSequence = lastSequence;
+            syncedSequence = lastSequence;
+            current = createSegment(lastSequence + 1);
+            syncer = new Thread(this::syncLoop, "answer-journal-sync");
+            syncer.setDaemon(true);
+            syncer.start();
+        } finally {
+            lock.unlock();
+        }
+        log.info("Answer journal opened with {} answers to replay above sequence {}", replay.size(), checkpoint);
+        return replay;
+    }
+
+    /**
+     * Assigns the next sequence to {@code answer} and copies it into the journal. {@code onAppended}
+     * runs under the journal lock, so whatever it records sees answers in sequence order.
+     */
+    public void append(GradedAnswer answer, Consumer<GradedAnswer> onAppended) throws IOException {
+        byte[] text = answer.getUserAnswer() != null ? answer.getUserAnswer().getBytes(StandardCharsets.UTF_8) : null;
+        byte[] previousText = answer.getPreviousAnswer() != null ? answer.getPreviousAnswer().getBytes(StandardCharsets.UTF_8) : null;
+        int bodyBytes = 8 + 8 + 8 + 8 + 1 + 1 + 4 + 8 + 4
+            + 4 + (text != null ? text.length : 0)
+            + 4 + (previousText != null ? previousText.length : 0);
+        int recordBytes = RECORD_HEADER_BYTES + bodyBytes;
+        if (recordBytes + 4 > segmentBytes) {
+            throw new IllegalArgumentException("Answer of " + recordBytes + " bytes exceeds the journal segment size");
+        }
+
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IOException("Answer journal is closed");
+            }
+            // Keeps room for the zero length that ends the segment
+            if (current.position + recordBytes + 4 > segmentBytes) {
+                roll();
+            }
+            answer.setSequence(writtenSequence + 1);
+
+            MappedByteBuffer buffer = current.buffer;
+            int start = current.position;
+            int body = start + RECORD_HEADER_BYTES;
+            buffer.position(body);
+            buffer.putLong(answer.getSequence())
+                .putLong(answer.getAttemptId())
+                .putLong(answer.getUserId())
+                .putLong(answer.getQuestionId())
+                .put((byte) (answer.isCorrect() ? 1 : 0))
+                .put((byte) (answer.getPreviousCorrect() == null ? 0 : answer.getPreviousCorrect() ? 2 : 1))
+                .putInt(answer.getPointsEarned())
+                .putLong(toMicros(answer.getAnsweredAt()))
+                .putInt(answer.getCorrectAnswers())
+                .putInt(text != null ? text.length : -1);
+            if (text != null) {
+                buffer.put(text);
+            }
+            buffer.putInt(previousText != null ? previousText.length : -1);
+            if (previousText != null) {
+                buffer.put(previousText);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(body, bodyBytes));
+            buffer.putInt(start, bodyBytes);
+            buffer.putInt(start + 4, (int) crc.getValue());
+
+            current.position = start + recordBytes;
+            current.lastSequence = answer.getSequence();
+            writtenSequence = answer.getSequence();
+            onAppended.accept(answer);
+            dirty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void awaitDurable(long sequence) throws IOException {
+        lock.lock();
+        try {
+            while (syncedSequence < sequence) {
+                if (closed) {
+                    throw new IOException("Answer journal closed before sequence " + sequence + " was synced");
+                }
+                durable.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for the answer journal sync");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes closed segments whose records are all at or below {@code checkpoint}.
+     */
+    public void truncate(long checkpoint) {
+        List<Segment> obsolete = new ArrayList<>();
+        lock.lock();
+        try {
+            while (!retained.isEmpty() && retained.peekFirst().lastSequence <= checkpoint) {
+                obsolete.add(retained.pollFirst());
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Segment segment : obsolete) {
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                log.warn("Could not delete answer journal segment {}", segment.path, e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            dirty.signalAll();
+            durable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (syncer != null) {
+            try {
+                syncer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void syncLoop() {
+        while (true) {
+            Segment segment;
+            long target;
+            int from;
+            int to;
+            lock.lock();
+            try {
+                while (syncedSequence == writtenSequence && !closed) {
+                    dirty.awaitUninterruptibly();
+                }
+                if (syncedSequence == writtenSequence) {
+                    return;
+                }
+                segment = current;
+                target = writtenSequence;
+                from = syncedPosition;
+                to = segment.position;
+            } finally {
+                lock.unlock();
+            }
+
+            // Outside the lock: appenders keep filling the next group while this one is forced
+            segment.buffer.force(from, to - from);
+
+            lock.lock();
+            try {
+                // A roll in the meantime already forced the rest of this segment
+                if (segment == current) {
+                    syncedPosition = Math.max(syncedPosition, to);
+                }
+                syncedSequence = Math.max(syncedSequence, target);
+                durable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Called with the lock held
+    private void roll() throws IOException {
+        current.buffer.force();
+        syncedSequence = writtenSequence;
+        durable.signalAll();
+        retained.add(current);
+        current = createSegment(writtenSequence + 1);
+        syncedPosition = 0;
+    }
+
+    private Segment createSegment(long firstSequence) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        Segment segment = Segment.map(path, firstSequence, segmentBytes);
+        segment.lastSequence = firstSequence - 1;
+        return segment;
+    }
+
+    private static long firstSequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+            (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static class Segment {
+
+        final Path path;
+        final MappedByteBuffer buffer;
+        int position;
+        long lastSequence;
+
+        private Segment(Path path, MappedByteBuffer buffer, long firstSequence) {
+            this.path = path;
+            this.buffer = buffer;
+            this.lastSequence = firstSequence - 1;
+        }
+
+        static Segment map(Path path, long firstSequence, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // Mapping past the end grows the file; the unwritten tail reads as zero lengths
+                return new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size), firstSequence);
+            }
+        }
+
+        // Adds records above checkpoint to out and returns the last sequence read
+        long read(long checkpoint, List<GradedAnswer> out) {
+            int limit = buffer.capacity();
+            while (position + RECORD_HEADER_BYTES <= limit) {
+                int bodyBytes = buffer.getInt(position);
+                if (bodyBytes <= 0 || position + RECORD_HEADER_BYTES + bodyBytes > limit) {
+                    break;
+                }
+                int body = position + RECORD_HEADER_BYTES;
+                CRC32 crc = new CRC32();
+                crc.update(buffer.slice(body, bodyBytes));
+                if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                    log.warn("Answer journal segment {} ends in a torn record at offset {}", path, position);
+                    break;
+                }
+                GradedAnswer answer = decode(body, bodyBytes);
+                lastSequence = answer.getSequence();
+                if (answer.getSequence() > checkpoint) {
+                    out.add(answer);
+                }
+                position = body + bodyBytes;
+            }
+            return lastSequence;
+        }
+
+        private GradedAnswer decode(int offset, int bodyBytes) {
+            buffer.position(offset);
+            long sequence = buffer.getLong();
+            long attemptId = buffer.getLong();
+            long userId = buffer.getLong();
+            long questionId = buffer.getLong();
+            boolean correct = buffer.get() == 1;
+            byte previous = buffer.get();
+            int points = buffer.getInt();
+            LocalDateTime answeredAt = fromMicros(buffer.getLong());
+            int correctAnswers = buffer.getInt();
+            String text = readText();
+            // Absent from records journaled before the replaced answer was kept
+            String previousText = buffer.position() < offset + bodyBytes ? readText() : null;
+            return new GradedAnswer(sequence, attemptId, userId, questionId, text, correct,
+                previous == 0 ? null : previous == 2, previousText, points, answeredAt, correctAnswers);
+        }
+
+        private String readText() {
+            int textBytes = buffer.getInt();
+            if (textBytes < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[textBytes];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.aiquizzer.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Item-analysis sums for one question, written only by {@code QuestionStatisticsJob}.
+ * The rest score of a response is the percentage of the attempt's other questions answered correctly.
+ */
+@Entity
+@Table(name = "question_statistics")
+@Getter
+public class QuestionStatistics {
+    
+    @Id
+    @Column(name = "question_id")
+    private Long questionId;
+    
+    @Column(name = "quiz_id", nullable = false)
+    private Long quizId;
+    
+    @Column(name = "responses", nullable = false)
+    private Long responses;
+    
+    @Column(name = "correct_responses", nullable = false)
+    private Long correctResponses;
+    
+    @Column(name = "scored_responses", nullable = false)
+    private Long scoredResponses;
+    
+    @Column(name = "scored_correct_responses", nullable = false)
+    private Long scoredCorrectResponses;
+    
+    @Column(name = "rest_score_sum", nullable = false)
+    private Double restScoreSum;
+    
+    @Column(name = "rest_score_square_sum", nullable = false)
+    private Double restScoreSquareSum;
+    
+    @Column(name = "correct_rest_score_sum", nullable = false)
+    private Double correctRestScoreSum;
+    
+    @Column(name = "time_taken_sum", nullable = false)
+    private Long timeTakenSum;
+    
+    @Column(name = "timed_responses", nullable = false)
+    private Long timedResponses;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Share of responses that were correct
+    public Double getPValue() {
+        return responses > 0 ? (double) correctResponses / responses : null;
+    }
+    
+    // Point-biserial correlation between answering correctly and the rest score; null while undefined
+    public Double getDiscrimination() {
+        double n = scoredResponses;
+        double correct = scoredCorrectResponses;
+        double covariance = n * correctRestScoreSum - correct * restScoreSum;
+        double correctVariance = n * correct - correct * correct;
+        double restVariance = n * restScoreSquareSum - restScoreSum * restScoreSum;
+        if (correctVariance <= 0 || restVariance <= 0) {
+            return null;
+        }
+        return covariance / Math.sqrt(correctVariance * restVariance);
+    }
+    
+    public Double getAverageTimeTakenSeconds() {
+        return timedResponses > 0 ? (double) timeTakenSum / timedResponses : null;
+    }
+}
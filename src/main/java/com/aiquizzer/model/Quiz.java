@@ -5,7 +5,11 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -13,7 +17,11 @@ import java.util.List;
 
 @Entity
 @Table(name = "quizzes")
-@Data
+@SQLRestriction("deleted_at IS NULL")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Getter
+@Setter
 public class Quiz {
     
     @Id
@@ -54,12 +62,19 @@ public class Quiz {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Set on delete; the row and its descendants are purged in the background
+    @Column(name = "deleted_at")
+    @JsonIgnore
+    private LocalDateTime deletedAt;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     @JsonIgnore
     private User user;
     
     @OneToMany(mappedBy = "quiz", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OrderBy("id ASC")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Question> questions = new ArrayList<>();
     
     @OneToMany(mappedBy = "quiz", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
@@ -67,8 +82,6 @@ public class Quiz {
     
     // Constructors
     public Quiz() {
-        this.createdAt = LocalDateTime.now();
-        this.updatedAt = LocalDateTime.now();
     }
     
     public Quiz(String title, String topic, DifficultyLevel difficulty, User user) {
@@ -80,11 +93,39 @@ public class Quiz {
     }
 
 
+    @PrePersist
+    public void prePersist() {
+        LocalDateTime now = LocalDateTime.now();
+        if (this.createdAt == null) {
+            this.createdAt = now;
+        }
+        if (this.updatedAt == null) {
+            this.updatedAt = now;
+        }
+    }
+    
     @PreUpdate
     public void preUpdate() {
         this.updatedAt = LocalDateTime.now();
     }
     
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Quiz)) {
+            return false;
+        }
+        Quiz other = (Quiz) o;
+        return id != null && id.equals(other.getId());
+    }
+    
+    @Override
+    public int hashCode() {
+        return Quiz.class.hashCode();
+    }
+    
     @Override
     public String toString() {
         return "Quiz{" +
@@ -3,7 +3,8 @@ package com.aiquizzer.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -11,7 +12,8 @@ import java.util.List;
 
 @Entity
 @Table(name = "quiz_attempts")
-@Data
+@Getter
+@Setter
 public class QuizAttempt {
     
     @Id
@@ -36,6 +38,10 @@ public class QuizAttempt {
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
     
+    // Null when neither the quiz nor its questions set a time limit
+    @Column(name = "deadline_at")
+    private LocalDateTime deadlineAt;
+    
     @Column(name = "score")
     private Double score;
     
@@ -52,12 +58,16 @@ public class QuizAttempt {
     @Column(name = "status")
     private AttemptStatus status = AttemptStatus.IN_PROGRESS;
     
+    // Set once the answers were moved from user_answers into the answer archive
+    @Column(name = "answers_archived_at")
+    @JsonIgnore
+    private LocalDateTime answersArchivedAt;
+    
     @OneToMany(mappedBy = "quizAttempt", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<UserAnswer> userAnswers = new ArrayList<>();
     
     // Constructors
     public QuizAttempt() {
-        this.startedAt = LocalDateTime.now();
     }
     
     public QuizAttempt(User user, Quiz quiz) {
@@ -70,19 +80,59 @@ public class QuizAttempt {
 
     // Helper methods
     public void completeAttempt() {
-        this.completedAt = LocalDateTime.now();
+        completeAttempt(LocalDateTime.now());
+    }
+    
+    public void completeAttempt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
         this.status = AttemptStatus.COMPLETED;
         if (this.startedAt != null) {
             this.timeTakenSeconds = java.time.Duration.between(this.startedAt, this.completedAt).getSeconds();
         }
     }
     
+    // Stamped with the time it is actually completed, however late after the deadline; time taken stops at the deadline
+    public void completeAfterDeadline() {
+        completeAttempt();
+        if (this.startedAt != null && this.deadlineAt != null && this.deadlineAt.isBefore(this.completedAt)) {
+            this.timeTakenSeconds = java.time.Duration.between(this.startedAt, this.deadlineAt).getSeconds();
+        }
+    }
+    
     public void calculateScore() {
         if (totalQuestions != null && totalQuestions > 0) {
             this.score = (double) (correctAnswers != null ? correctAnswers : 0) / totalQuestions * 100;
         }
     }
     
+    public boolean isPastDeadline(LocalDateTime time) {
+        return deadlineAt != null && time.isAfter(deadlineAt);
+    }
+    
+    @PrePersist
+    public void prePersist() {
+        if (this.startedAt == null) {
+            this.startedAt = LocalDateTime.now();
+        }
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof QuizAttempt)) {
+            return false;
+        }
+        QuizAttempt other = (QuizAttempt) o;
+        return id != null && id.equals(other.getId());
+    }
+    
+    @Override
+    public int hashCode() {
+        return QuizAttempt.class.hashCode();
+    }
+    
     @Override
     public String toString() {
         return "QuizAttempt{" +
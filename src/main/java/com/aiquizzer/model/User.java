@@ -1,10 +1,13 @@
 package com.aiquizzer.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -12,7 +15,9 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
-@Data
+@SQLRestriction("deleted_at IS NULL")
+@Getter
+@Setter
 public class User {
     
     @Id
@@ -40,6 +45,11 @@ public class User {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Set on delete; the row and its descendants are purged in the background
+    @Column(name = "deleted_at")
+    @JsonIgnore
+    private LocalDateTime deletedAt;
+    
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Quiz> quizzes = new ArrayList<>();
     
@@ -48,8 +58,6 @@ public class User {
     
     // Constructors
     public User() {
-        this.createdAt = LocalDateTime.now();
-        this.updatedAt = LocalDateTime.now();
     }
     
     public User(String username, String email, String password) {
@@ -60,11 +68,40 @@ public class User {
     }
     
 
+    @PrePersist
+    public void prePersist() {
+        LocalDateTime now = LocalDateTime.now();
+        if (this.createdAt == null) {
+            this.createdAt = now;
+        }
+        if (this.updatedAt == null) {
+            this.updatedAt = now;
+        }
+    }
+    
     @PreUpdate
     public void preUpdate() {
         this.updatedAt = LocalDateTime.now();
     }
     
+    // Identity is the database id: never touches lazy state, and the hash stays stable across persist
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof User)) {
+            return false;
+        }
+        User other = (User) o;
+        return id != null && id.equals(other.getId());
+    }
+    
+    @Override
+    public int hashCode() {
+        return User.class.hashCode();
+    }
+    
     @Override
     public String toString() {
         return "User{" +
@@ -3,13 +3,15 @@ package com.aiquizzer.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "user_answers")
-@Data
+@Getter
+@Setter
 public class UserAnswer {
     
     @Id
@@ -51,7 +53,6 @@ public class UserAnswer {
     
     // Constructors
     public UserAnswer() {
-        this.answeredAt = LocalDateTime.now();
     }
     
     public UserAnswer(User user, Question question, QuizAttempt quizAttempt, String userAnswer) {
@@ -65,7 +66,7 @@ public class UserAnswer {
     // Helper methods
     public void checkAnswer() {
         if (userAnswer != null && question != null && question.getCorrectAnswer() != null) {
-            this.isCorrect = userAnswer.trim().equalsIgnoreCase(question.getCorrectAnswer().trim());
+            this.isCorrect = isCorrect(userAnswer, question.getCorrectAnswer());
             this.pointsEarned = isCorrect ? (question.getPoints() != null ? question.getPoints() : 1) : 0;
         } else {
             this.isCorrect = false;
@@ -73,6 +74,34 @@ public class UserAnswer {
         }
     }
     
+    public static boolean isCorrect(String userAnswer, String correctAnswer) {
+        return userAnswer.trim().equalsIgnoreCase(correctAnswer.trim());
+    }
+    
+    @PrePersist
+    public void prePersist() {
+        if (this.answeredAt == null) {
+            this.answeredAt = LocalDateTime.now();
+        }
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UserAnswer)) {
+            return false;
+        }
+        UserAnswer other = (UserAnswer) o;
+        return id != null && id.equals(other.getId());
+    }
+    
+    @Override
+    public int hashCode() {
+        return UserAnswer.class.hashCode();
+    }
+    
     @Override
     public String toString() {
         return "UserAnswer{" +
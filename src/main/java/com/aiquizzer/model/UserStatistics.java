@@ -0,0 +1,84 @@
+package com.aiquizzer.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "user_statistics")
+@Getter
+@Setter
+public class UserStatistics {
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "total_attempts", nullable = false)
+    private Long totalAttempts = 0L;
+    
+    @Column(name = "completed_attempts", nullable = false)
+    private Long completedAttempts = 0L;
+    
+    @Column(name = "answered_questions", nullable = false)
+    private Long answeredQuestions = 0L;
+    
+    @Column(name = "correct_answers", nullable = false)
+    private Long correctAnswers = 0L;
+    
+    // Consecutive correct answers, reset by the next incorrect one
+    @Column(name = "current_streak", nullable = false)
+    private Integer currentStreak = 0;
+    
+    @Column(name = "best_streak", nullable = false)
+    private Integer bestStreak = 0;
+    
+    @Column(name = "last_activity_at")
+    private LocalDateTime lastActivityAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public UserStatistics() {}
+    
+    public UserStatistics(Long userId) {
+        this.userId = userId;
+    }
+    
+    @PrePersist
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UserStatistics)) {
+            return false;
+        }
+        UserStatistics other = (UserStatistics) o;
+        return userId != null && userId.equals(other.getUserId());
+    }
+    
+    @Override
+    public int hashCode() {
+        return UserStatistics.class.hashCode();
+    }
+    
+    @Override
+    public String toString() {
+        return "UserStatistics{" +
+                "userId=" + userId +
+                ", totalAttempts=" + totalAttempts +
+                ", completedAttempts=" + completedAttempts +
+                ", correctAnswers=" + correctAnswers +
+                ", updatedAt=" + updatedAt +
+                '}';
+    }
+}
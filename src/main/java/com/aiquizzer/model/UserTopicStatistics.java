@@ -0,0 +1,72 @@
+package com.aiquizzer.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+@Entity
+@Table(name = "user_topic_statistics",
+       uniqueConstraints = @UniqueConstraint(name = "uk_user_topic_statistics", columnNames = {"user_id", "topic", "difficulty"}))
+@Getter
+@Setter
+public class UserTopicStatistics {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(nullable = false, length = 100)
+    private String topic;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private DifficultyLevel difficulty;
+    
+    @Column(name = "completed_attempts", nullable = false)
+    private Long completedAttempts = 0L;
+    
+    @Column(name = "score_sum", nullable = false)
+    private Double scoreSum = 0.0;
+    
+    // Constructors
+    public UserTopicStatistics() {}
+    
+    public UserTopicStatistics(Long userId, String topic, DifficultyLevel difficulty, long completedAttempts, double scoreSum) {
+        this.userId = userId;
+        this.topic = topic;
+        this.difficulty = difficulty;
+        this.completedAttempts = completedAttempts;
+        this.scoreSum = scoreSum;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UserTopicStatistics)) {
+            return false;
+        }
+        UserTopicStatistics other = (UserTopicStatistics) o;
+        return id != null && id.equals(other.getId());
+    }
+    
+    @Override
+    public int hashCode() {
+        return UserTopicStatistics.class.hashCode();
+    }
+    
+    @Override
+    public String toString() {
+        return "UserTopicStatistics{" +
+                "id=" + id +
+                ", userId=" + userId +
+                ", topic='" + topic + '\'' +
+                ", difficulty=" + difficulty +
+                ", completedAttempts=" + completedAttempts +
+                '}';
+    }
+}
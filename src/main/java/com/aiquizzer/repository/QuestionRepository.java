@@ -3,11 +3,17 @@ package com.aiquizzer.repository;
 import com.aiquizzer.model.Question;
 import com.aiquizzer.model.QuestionType;
 import com.aiquizzer.model.Quiz;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -15,6 +21,8 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
     
     List<Question> findByQuiz(Quiz quiz);
     
+    // Result ids come from the query cache, the rows themselves from the entity cache
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Question> findByQuizOrderById(Quiz quiz);
     
     List<Question> findByQuestionType(QuestionType questionType);
@@ -28,9 +36,26 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
     @Query("SELECT q FROM Question q WHERE q.quiz = :quiz AND q.questionType = :questionType")
     List<Question> findByQuizAndQuestionType(@Param("quiz") Quiz quiz, @Param("questionType") QuestionType questionType);
     
-    @Query("SELECT q FROM Question q WHERE q.content LIKE %:keyword%")
-    List<Question> findByContentContaining(@Param("keyword") String keyword);
+    // Search only ever sees questions of public, non-deleted quizzes
+    @Query("SELECT q FROM Question q JOIN q.quiz z WHERE z.isPublic = true AND z.deletedAt IS NULL " +
+           "AND q.content LIKE %:keyword% ORDER BY q.id")
+    Slice<Question> findPublicByContentContaining(@Param("keyword") String keyword, Pageable pageable);
     
-    @Query("SELECT q FROM Question q WHERE q.quiz = :quiz AND q.content LIKE %:keyword%")
-    List<Question> findByQuizAndContentContaining(@Param("quiz") Quiz quiz, @Param("keyword") String keyword);
+    @Query("SELECT q FROM Question q JOIN q.quiz z WHERE z.id = :quizId AND z.isPublic = true AND z.deletedAt IS NULL " +
+           "AND q.content LIKE %:keyword% ORDER BY q.id")
+    Slice<Question> findPublicByQuizIdAndContentContaining(@Param("quizId") Long quizId, @Param("keyword") String keyword, Pageable pageable);
+    
+    @Query("SELECT q FROM Question q JOIN q.quiz z WHERE q.id IN :ids AND z.isPublic = true AND z.deletedAt IS NULL")
+    List<Question> findPublicByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT q.id, z.id, q.content FROM Question q JOIN q.quiz z WHERE q.id > :afterId " +
+           "AND z.isPublic = true AND z.deletedAt IS NULL ORDER BY q.id")
+    List<Object[]> findPublicContentAfterId(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT q.id, q.content FROM Question q WHERE q.quiz.id = :quizId")
+    List<Object[]> findContentByQuizId(@Param("quizId") Long quizId);
+    
+    @Query("SELECT q.id, q.content FROM Question q JOIN q.quiz z WHERE z.id = :quizId " +
+           "AND z.isPublic = true AND z.deletedAt IS NULL")
+    List<Object[]> findPublicContentByQuizId(@Param("quizId") Long quizId);
 }
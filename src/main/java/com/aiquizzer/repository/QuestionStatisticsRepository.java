@@ -0,0 +1,13 @@
+package com.aiquizzer.repository;
+
+import com.aiquizzer.model.QuestionStatistics;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface QuestionStatisticsRepository extends JpaRepository<QuestionStatistics, Long> {
+    
+    List<QuestionStatistics> findByQuizId(Long quizId);
+}
@@ -4,13 +4,17 @@ import com.aiquizzer.model.AttemptStatus;
 import com.aiquizzer.model.Quiz;
 import com.aiquizzer.model.QuizAttempt;
 import com.aiquizzer.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,9 +32,42 @@ public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long>
     @Query("SELECT qa FROM QuizAttempt qa WHERE qa.user = :user ORDER BY qa.startedAt DESC")
     Page<QuizAttempt> findByUserOrderByStartedAtDesc(@Param("user") User user, Pageable pageable);
     
+    @Query("SELECT qa FROM QuizAttempt qa WHERE qa.user = :user ORDER BY qa.startedAt DESC, qa.id DESC")
+    List<QuizAttempt> findByUserNewestFirst(@Param("user") User user, Pageable pageable);
+    
+    @Query("SELECT qa FROM QuizAttempt qa WHERE qa.user = :user AND (qa.startedAt < :startedAt OR (qa.startedAt = :startedAt AND qa.id < :id)) " +
+           "ORDER BY qa.startedAt DESC, qa.id DESC")
+    List<QuizAttempt> findByUserNewestFirstAfter(@Param("user") User user, @Param("startedAt") LocalDateTime startedAt,
+                                                 @Param("id") Long id, Pageable pageable);
+    
+    @Query("SELECT qa FROM QuizAttempt qa WHERE qa.user = :user ORDER BY qa.startedAt ASC, qa.id ASC")
+    List<QuizAttempt> findByUserOldestFirst(@Param("user") User user, Pageable pageable);
+    
+    @Query("SELECT qa FROM QuizAttempt qa WHERE qa.user = :user AND (qa.startedAt > :startedAt OR (qa.startedAt = :startedAt AND qa.id > :id)) " +
+           "ORDER BY qa.startedAt ASC, qa.id ASC")
+    List<QuizAttempt> findByUserOldestFirstAfter(@Param("user") User user, @Param("startedAt") LocalDateTime startedAt,
+                                                 @Param("id") Long id, Pageable pageable);
+    
     @Query("SELECT qa FROM QuizAttempt qa WHERE qa.quiz = :quiz ORDER BY qa.score DESC")
     List<QuizAttempt> findByQuizOrderByScoreDesc(@Param("quiz") Quiz quiz);
     
+    @Query("SELECT qa FROM QuizAttempt qa JOIN FETCH qa.user WHERE qa.quiz = :quiz AND qa.status = 'COMPLETED' AND qa.score IS NOT NULL " +
+           "ORDER BY qa.score DESC, qa.completedAt ASC, qa.id ASC")
+    List<QuizAttempt> findTopCompletedByQuiz(@Param("quiz") Quiz quiz, Pageable pageable);
+    
+    @Query("SELECT qa.id, qa.score FROM QuizAttempt qa WHERE qa.quiz = :quiz AND qa.status = 'COMPLETED' AND qa.score IS NOT NULL")
+    List<Object[]> findCompletedScoresByQuiz(@Param("quiz") Quiz quiz);
+    
+    @Query("SELECT qa.user.id, qa.status, COUNT(qa) FROM QuizAttempt qa WHERE qa.user.id IN :userIds GROUP BY qa.user.id, qa.status")
+    List<Object[]> countByUserIdsGroupedByStatus(@Param("userIds") Collection<Long> userIds);
+    
+    @Query("SELECT qa.user.id, q.topic, q.difficulty, COUNT(qa), SUM(qa.score) FROM QuizAttempt qa JOIN qa.quiz q " +
+           "WHERE qa.user.id IN :userIds AND qa.status = 'COMPLETED' GROUP BY qa.user.id, q.topic, q.difficulty")
+    List<Object[]> summarizeCompletedByUserIdsGroupedByTopicAndDifficulty(@Param("userIds") Collection<Long> userIds);
+    
+    @Query("SELECT MAX(qa.score) FROM QuizAttempt qa WHERE qa.user = :user AND qa.quiz = :quiz AND qa.status = 'COMPLETED'")
+    Double findBestScoreByUserAndQuiz(@Param("user") User user, @Param("quiz") Quiz quiz);
+    
     @Query("SELECT qa FROM QuizAttempt qa WHERE qa.user = :user AND qa.status = :status ORDER BY qa.startedAt DESC")
     List<QuizAttempt> findByUserAndStatusOrderByStartedAtDesc(@Param("user") User user, @Param("status") AttemptStatus status);
     
@@ -46,6 +83,18 @@ public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long>
     @Query("SELECT COUNT(qa) FROM QuizAttempt qa WHERE qa.quiz = :quiz AND qa.status = 'COMPLETED'")
     long countCompletedAttemptsByQuiz(@Param("quiz") Quiz quiz);
     
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT qa FROM QuizAttempt qa WHERE qa.id = :id")
+    Optional<QuizAttempt> findByIdForUpdate(@Param("id") Long id);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT qa FROM QuizAttempt qa WHERE qa.id IN :ids")
+    List<QuizAttempt> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT qa.id, qa.deadlineAt FROM QuizAttempt qa WHERE qa.status = 'IN_PROGRESS' AND qa.deadlineAt IS NOT NULL " +
+           "AND qa.id > :afterId ORDER BY qa.id")
+    List<Object[]> findInProgressDeadlines(@Param("afterId") Long afterId, Pageable pageable);
+    
     @Query("SELECT qa FROM QuizAttempt qa WHERE qa.user = :user AND qa.quiz = :quiz AND qa.status = 'IN_PROGRESS'")
     Optional<QuizAttempt> findInProgressAttemptByUserAndQuiz(@Param("user") User user, @Param("quiz") Quiz quiz);
     
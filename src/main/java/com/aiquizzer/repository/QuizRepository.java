@@ -10,6 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,15 +32,35 @@ public interface QuizRepository extends JpaRepository<Quiz, Long> {
     @Query("SELECT q FROM Quiz q WHERE q.isPublic = true AND (q.title LIKE %:keyword% OR q.description LIKE %:keyword% OR q.topic LIKE %:keyword%)")
     Page<Quiz> findPublicQuizzesByKeyword(@Param("keyword") String keyword, Pageable pageable);
     
+    @Query("SELECT q FROM Quiz q WHERE q.isPublic = true AND q.id > :afterId ORDER BY q.id")
+    List<Quiz> findPublicQuizzesAfterId(@Param("afterId") Long afterId, Pageable pageable);
+    
     @Query("SELECT q FROM Quiz q WHERE q.isPublic = true ORDER BY q.createdAt DESC")
     Page<Quiz> findPublicQuizzesOrderByCreatedAt(Pageable pageable);
     
+    @Query("SELECT q FROM Quiz q WHERE q.isPublic = true ORDER BY q.createdAt DESC, q.id DESC")
+    List<Quiz> findPublicQuizzesNewestFirst(Pageable pageable);
+    
+    @Query("SELECT q FROM Quiz q WHERE q.isPublic = true AND (q.createdAt < :createdAt OR (q.createdAt = :createdAt AND q.id < :id)) " +
+           "ORDER BY q.createdAt DESC, q.id DESC")
+    List<Quiz> findPublicQuizzesNewestFirstAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    @Query("SELECT q FROM Quiz q WHERE q.isPublic = true ORDER BY q.createdAt ASC, q.id ASC")
+    List<Quiz> findPublicQuizzesOldestFirst(Pageable pageable);
+    
+    @Query("SELECT q FROM Quiz q WHERE q.isPublic = true AND (q.createdAt > :createdAt OR (q.createdAt = :createdAt AND q.id > :id)) " +
+           "ORDER BY q.createdAt ASC, q.id ASC")
+    List<Quiz> findPublicQuizzesOldestFirstAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
     @Query("SELECT q FROM Quiz q WHERE q.user = :user ORDER BY q.createdAt DESC")
     Page<Quiz> findByUserOrderByCreatedAt(@Param("user") User user, Pageable pageable);
     
     @Query("SELECT DISTINCT q.topic FROM Quiz q WHERE q.isPublic = true")
     List<String> findDistinctTopics();
     
+    @Query("SELECT q.topic, q.difficulty, COUNT(q) FROM Quiz q WHERE q.isPublic = true GROUP BY q.topic, q.difficulty")
+    List<Object[]> countPublicQuizzesGroupedByTopicAndDifficulty();
+    
     @Query("SELECT COUNT(q) FROM Quiz q WHERE q.user = :user")
     long countByUser(@Param("user") User user);
     
@@ -4,11 +4,15 @@ import com.aiquizzer.model.Question;
 import com.aiquizzer.model.QuizAttempt;
 import com.aiquizzer.model.User;
 import com.aiquizzer.model.UserAnswer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +30,12 @@ public interface UserAnswerRepository extends JpaRepository<UserAnswer, Long> {
     @Query("SELECT ua FROM UserAnswer ua WHERE ua.quizAttempt = :quizAttempt ORDER BY ua.answeredAt ASC")
     List<UserAnswer> findByQuizAttemptOrderByAnsweredAtAsc(@Param("quizAttempt") QuizAttempt quizAttempt);
     
+    @Query("SELECT ua FROM UserAnswer ua JOIN FETCH ua.question WHERE ua.quizAttempt = :quizAttempt ORDER BY ua.answeredAt ASC")
+    List<UserAnswer> findWithQuestionByQuizAttempt(@Param("quizAttempt") QuizAttempt quizAttempt);
+    
+    @EntityGraph(attributePaths = "question")
+    Optional<UserAnswer> findWithQuestionById(Long id);
+    
     @Query("SELECT ua FROM UserAnswer ua WHERE ua.user = :user AND ua.question = :question")
     List<UserAnswer> findByUserAndQuestion(@Param("user") User user, @Param("question") Question question);
     
@@ -41,9 +51,13 @@ public interface UserAnswerRepository extends JpaRepository<UserAnswer, Long> {
     @Query("SELECT SUM(ua.pointsEarned) FROM UserAnswer ua WHERE ua.quizAttempt = :quizAttempt")
     Integer sumPointsEarnedByQuizAttempt(@Param("quizAttempt") QuizAttempt quizAttempt);
     
-    @Query("SELECT ua FROM UserAnswer ua WHERE ua.user = :user AND ua.isCorrect = true")
-    List<UserAnswer> findCorrectAnswersByUser(@Param("user") User user);
+    @Query("SELECT ua FROM UserAnswer ua WHERE ua.user = :user AND ua.isCorrect = true ORDER BY ua.answeredAt DESC")
+    Slice<UserAnswer> findCorrectAnswersByUser(@Param("user") User user, Pageable pageable);
     
     @Query("SELECT COUNT(ua) FROM UserAnswer ua WHERE ua.user = :user AND ua.isCorrect = true")
     long countCorrectAnswersByUser(@Param("user") User user);
+    
+    @Query("SELECT ua.user.id, COUNT(ua), SUM(CASE WHEN ua.isCorrect = true THEN 1 ELSE 0 END) FROM UserAnswer ua " +
+           "WHERE ua.user.id IN :userIds GROUP BY ua.user.id")
+    List<Object[]> countAnswersByUserIds(@Param("userIds") Collection<Long> userIds);
 }
@@ -1,6 +1,8 @@
 package com.aiquizzer.repository;
 
 import com.aiquizzer.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -20,9 +22,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     boolean existsByEmail(String email);
     
-    @Query("SELECT u FROM User u WHERE u.username LIKE %:keyword% OR u.email LIKE %:keyword%")
-    List<User> findByUsernameOrEmailContaining(@Param("keyword") String keyword);
+    @Query("SELECT u FROM User u WHERE u.username LIKE %:keyword% ORDER BY u.id")
+    Slice<User> findByUsernameContaining(@Param("keyword") String keyword, Pageable pageable);
+    
+    List<User> findByIdGreaterThanOrderById(Long id, Pageable pageable);
     
     @Query("SELECT COUNT(u) FROM User u")
     long countAllUsers();
+    
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId " +
+           "AND NOT EXISTS (SELECT s.userId FROM UserStatistics s WHERE s.userId = u.id) ORDER BY u.id")
+    List<Long> findIdsWithoutStatistics(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -0,0 +1,39 @@
+package com.aiquizzer.repository;
+
+import com.aiquizzer.model.UserStatistics;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface UserStatisticsRepository extends JpaRepository<UserStatistics, Long> {
+    
+    @Modifying
+    @Query("UPDATE UserStatistics s SET s.totalAttempts = s.totalAttempts + :started, " +
+           "s.completedAttempts = s.completedAttempts + :completed, s.lastActivityAt = :now, s.updatedAt = :now " +
+           "WHERE s.userId = :userId")
+    int incrementAttempts(@Param("userId") Long userId, @Param("started") long started,
+                          @Param("completed") long completed, @Param("now") LocalDateTime now);
+    
+    // bestStreak is assigned before currentStreak so it reads the old streak on every database
+    @Modifying
+    @Query("UPDATE UserStatistics s SET s.answeredQuestions = s.answeredQuestions + :answered, " +
+           "s.correctAnswers = s.correctAnswers + :correct, " +
+           "s.bestStreak = CASE WHEN :streakHit = 1 AND s.currentStreak + 1 > s.bestStreak THEN s.currentStreak + 1 ELSE s.bestStreak END, " +
+           "s.currentStreak = CASE WHEN :streakHit = 1 THEN s.currentStreak + 1 ELSE 0 END, " +
+           "s.lastActivityAt = :now, s.updatedAt = :now WHERE s.userId = :userId")
+    int recordAnswer(@Param("userId") Long userId, @Param("answered") long answered, @Param("correct") long correct,
+                     @Param("streakHit") int streakHit, @Param("now") LocalDateTime now);
+    
+    // 1 when the row was created, 0 when the user already had one or does not exist
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_statistics (user_id, total_attempts, completed_attempts, answered_questions, " +
+                   "correct_answers, current_streak, best_streak, updated_at) " +
+                   "SELECT id, 0, 0, 0, 0, 0, 0, :now FROM users WHERE id = :userId",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+}
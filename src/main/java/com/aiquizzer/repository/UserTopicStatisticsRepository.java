@@ -0,0 +1,36 @@
+package com.aiquizzer.repository;
+
+import com.aiquizzer.model.DifficultyLevel;
+import com.aiquizzer.model.UserTopicStatistics;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserTopicStatisticsRepository extends JpaRepository<UserTopicStatistics, Long> {
+    
+    List<UserTopicStatistics> findByUserId(Long userId);
+    
+    @Modifying
+    @Query("UPDATE UserTopicStatistics t SET t.completedAttempts = t.completedAttempts + :completed, t.scoreSum = t.scoreSum + :score " +
+           "WHERE t.userId = :userId AND t.topic = :topic AND t.difficulty = :difficulty")
+    int incrementCompleted(@Param("userId") Long userId, @Param("topic") String topic, @Param("difficulty") DifficultyLevel difficulty,
+                           @Param("completed") long completed, @Param("score") double score);
+    
+    // Creates the row on the first completion, so concurrent first completions never collide on the unique key
+    @Modifying
+    @Query(value = "INSERT INTO user_topic_statistics (user_id, topic, difficulty, completed_attempts, score_sum) " +
+                   "VALUES (:userId, :topic, :difficulty, :completed, :score) ON DUPLICATE KEY UPDATE " +
+                   "completed_attempts = completed_attempts + VALUES(completed_attempts), score_sum = score_sum + VALUES(score_sum)",
+           nativeQuery = true)
+    int addCompleted(@Param("userId") Long userId, @Param("topic") String topic, @Param("difficulty") String difficulty,
+                     @Param("completed") long completed, @Param("score") double score);
+    
+    @Modifying
+    @Query("DELETE FROM UserTopicStatistics t WHERE t.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
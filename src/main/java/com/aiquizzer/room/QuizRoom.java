@@ -0,0 +1,283 @@
+package com.aiquizzer.room;
+
+import com.aiquizzer.dto.GradedAnswer;
+import com.aiquizzer.dto.QuestionDto;
+import com.aiquizzer.dto.RoomEventDto;
+import com.aiquizzer.dto.RoomStandingDto;
+import com.aiquizzer.model.UserAnswer;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * State of one live room: its question snapshot, the participants' running scores and the
+ * answers graded since the last flush. Phase and scores are guarded by the room's lock; the
+ * pending answers and the change flags are taken by the tick without it.
+ */
+public class QuizRoom {
+
+    public enum Phase { LOBBY, QUESTION, REVEAL, FINISHED }
+
+    // Most points first, then the faster total response time on correct answers
+    private static final Comparator<Participant> STANDING_ORDER = Comparator
+        .comparingInt((Participant p) -> p.points).reversed()
+        .thenComparingLong(p -> p.responseMillis)
+        .thenComparingLong(p -> p.userId);
+
+    @Getter
+    private final String code;
+    @Getter
+    private final Long quizId;
+    @Getter
+    private final String quizTitle;
+    @Getter
+    private final Long hostId;
+    private final List<QuestionDto> questions;
+    private final long defaultQuestionMillis;
+    private final long revealMillis;
+    @Getter
+    private final long createdAtMillis = System.currentTimeMillis();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, Participant> participants = new ConcurrentHashMap<>();
+    private final Queue<GradedAnswer> pending = new ConcurrentLinkedQueue<>();
+    // Drained from pending but not written yet; only touched by the tick
+    private final List<GradedAnswer> unflushed = new ArrayList<>();
+    private final AtomicBoolean phaseChanged = new AtomicBoolean();
+    private final AtomicBoolean standingsChanged = new AtomicBoolean();
+
+    private Phase phase = Phase.LOBBY;
+    private int questionIndex = -1;
+    private long questionOpenedAt;
+    private long phaseEndsAt;
+    private int answeredCount;
+
+    public QuizRoom(String code, Long quizId, String quizTitle, Long hostId, List<QuestionDto> questions,
+                    long defaultQuestionMillis, long revealMillis) {
+        this.code = code;
+        this.quizId = quizId;
+        this.quizTitle = quizTitle;
+        this.hostId = hostId;
+        this.questions = questions;
+        this.defaultQuestionMillis = defaultQuestionMillis;
+        this.revealMillis = revealMillis;
+    }
+
+    public Phase getPhase() {
+        lock.lock();
+        try {
+            return phase;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQuestionCount() {
+        return questions.size();
+    }
+
+    public int getParticipantCount() {
+        return participants.size();
+    }
+
+    public Participant getParticipant(Long userId) {
+        return participants.get(userId);
+    }
+
+    // Returns the participant already registered for the user, if a concurrent join won
+    public Participant addParticipant(Long userId, String username, Long attemptId) {
+        Participant participant = participants.putIfAbsent(userId, new Participant(userId, username, attemptId));
+        standingsChanged.set(true);
+        return participant != null ? participant : participants.get(userId);
+    }
+
+    public List<Long> getAttemptIds() {
+        List<Long> attemptIds = new ArrayList<>(participants.size());
+        for (Participant participant : participants.values()) {
+            attemptIds.add(participant.attemptId);
+        }
+        return attemptIds;
+    }
+
+    public void start(long now) {
+        lock.lock();
+        try {
+            if (phase != Phase.LOBBY) {
+                throw new RuntimeException("Room has already started");
+            }
+            openQuestion(0, now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Grades the participant's answer to the open question. Each participant answers a question
+     * once; the answer is queued for the next flush.
+     */
+    public GradedAnswer answer(Long userId, Long questionId, String userAnswer, long now) {
+        lock.lock();
+        try {
+            Participant participant = participants.get(userId);
+            if (participant == null) {
+                throw new RuntimeException("Not a participant of this room");
+            }
+            if (phase != Phase.QUESTION || now > phaseEndsAt) {
+                throw new RuntimeException("No question is open");
+            }
+            QuestionDto question = questions.get(questionIndex);
+            if (!question.getId().equals(questionId)) {
+                throw new RuntimeException("Question is not open");
+            }
+            if (participant.lastAnsweredIndex == questionIndex) {
+                throw new RuntimeException("Question already answered");
+            }
+
+            boolean correct = userAnswer != null && UserAnswer.isCorrect(userAnswer, question.getCorrectAnswer());
+            int points = correct ? (question.getPoints() != null ? question.getPoints() : 1) : 0;
+            participant.lastAnsweredIndex = questionIndex;
+            if (correct) {
+                participant.points += points;
+                participant.correctAnswers++;
+                participant.responseMillis += now - questionOpenedAt;
+                standingsChanged.set(true);
+            }
+            // Close early once everyone has answered
+            if (++answeredCount >= participants.size()) {
+                phaseEndsAt = now;
+            }
+
+            GradedAnswer graded = new GradedAnswer(0, participant.attemptId, userId, questionId, userAnswer,
+                correct, null, null, points, LocalDateTime.now(), participant.correctAnswers);
+            pending.add(graded);
+            return graded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Moves to the next phase once the current one has run out
+    public void advance(long now) {
+        lock.lock();
+        try {
+            if (phase == Phase.QUESTION && now >= phaseEndsAt) {
+                phase = Phase.REVEAL;
+                phaseEndsAt = now + revealMillis;
+                phaseChanged.set(true);
+            } else if (phase == Phase.REVEAL && now >= phaseEndsAt) {
+                if (questionIndex + 1 < questions.size()) {
+                    openQuestion(questionIndex + 1, now);
+                } else {
+                    phase = Phase.FINISHED;
+                    phaseChanged.set(true);
+                    standingsChanged.set(true);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void openQuestion(int index, long now) {
+        Integer seconds = questions.get(index).getTimeLimitSeconds();
+        questionIndex = index;
+        questionOpenedAt = now;
+        phaseEndsAt = now + (seconds != null && seconds > 0 ? seconds * 1000L : defaultQuestionMillis);
+        answeredCount = 0;
+        phase = Phase.QUESTION;
+        phaseChanged.set(true);
+    }
+
+    public RoomEventDto toEvent() {
+        lock.lock();
+        try {
+            QuestionDto question = questionIndex >= 0 ? questions.get(questionIndex) : null;
+            return RoomEventDto.from(this, phase, questionIndex, question, phaseEndsAt);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The best {@code limit} participants, selected with a bounded heap so a tick costs
+     * O(participants · log limit) however large the room is.
+     */
+    public List<RoomStandingDto> topStandings(int limit) {
+        PriorityQueue<Participant> heap = new PriorityQueue<>(limit + 1, STANDING_ORDER.reversed());
+        List<RoomStandingDto> standings = new ArrayList<>(limit);
+        lock.lock();
+        try {
+            for (Participant participant : participants.values()) {
+                heap.add(participant);
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+            while (!heap.isEmpty()) {
+                standings.add(RoomStandingDto.from(heap.poll()));
+            }
+        } finally {
+            lock.unlock();
+        }
+        // The heap yields the worst first
+        Collections.reverse(standings);
+        for (int i = 0; i < standings.size(); i++) {
+            standings.get(i).setRank(i + 1L);
+        }
+        return standings;
+    }
+
+    public boolean takePhaseChanged() {
+        return phaseChanged.getAndSet(false);
+    }
+
+    public boolean takeStandingsChanged() {
+        return standingsChanged.getAndSet(false);
+    }
+
+    // Everything graded and not yet written, oldest first; cleared by markFlushed
+    public List<GradedAnswer> drainPending() {
+        GradedAnswer next;
+        while ((next = pending.poll()) != null) {
+            unflushed.add(next);
+        }
+        return unflushed;
+    }
+
+    public void markFlushed() {
+        unflushed.clear();
+    }
+
+    public boolean hasUnflushed() {
+        return !unflushed.isEmpty() || !pending.isEmpty();
+    }
+
+    @Getter
+    public static class Participant {
+
+        private final Long userId;
+        private final String username;
+        private final Long attemptId;
+        private int points;
+        private int correctAnswers;
+        private long responseMillis;
+        private int lastAnsweredIndex = -1;
+
+        Participant(Long userId, String username, Long attemptId) {
+            this.userId = userId;
+            this.username = username;
+            this.attemptId = attemptId;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.aiquizzer.room;
+
+import com.aiquizzer.dto.GradedAnswer;
+import com.aiquizzer.dto.QuizDetailDto;
+import com.aiquizzer.dto.RoomDto;
+import com.aiquizzer.model.QuizAttempt;
+import com.aiquizzer.model.User;
+import com.aiquizzer.service.AnswerBatchWriter;
+import com.aiquizzer.service.QuizAttemptService;
+import com.aiquizzer.service.QuizService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hosts live quiz rooms. The host starts the room and the server releases questions on its own
+ * clock; participants answer over STOMP and are graded in memory. A single tick per
+ * {@code quizzer.rooms.tick-ms} advances every room, writes the answers graded since the last tick
+ * in one JDBC batch, and broadcasts each changed room's top standings once, so the cost of a tick
+ * grows with the number of rooms rather than with the number of answers.
+ *
+ * <p>Rooms live in this instance's memory. An instance that stops loses its running rooms; their
+ * attempts stay in progress until the stale-attempt sweep times them out.
+ */
+@Service
+public class QuizRoomService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizRoomService.class);
+
+    private static final String CODE_ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+    private static final int CODE_LENGTH = 6;
+
+    @Autowired
+    private QuizService quizService;
+    @Autowired
+    private QuizAttemptService quizAttemptService;
+    @Autowired
+    private AnswerBatchWriter answerBatchWriter;
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Value("${quizzer.rooms.question-seconds:20}")
+    private int questionSeconds;
+
+    @Value("${quizzer.rooms.reveal-seconds:5}")
+    private int revealSeconds;
+
+    @Value("${quizzer.rooms.leaderboard-size:10}")
+    private int leaderboardSize;
+
+    @Value("${quizzer.rooms.max-participants:5000}")
+    private int maxParticipants;
+
+    @Value("${quizzer.rooms.lobby-timeout:PT30M}")
+    private Duration lobbyTimeout;
+
+    @Value("${quizzer.rooms.completion-batch-size:500}")
+    private int completionBatchSize;
+
+    private final Map<String, QuizRoom> rooms = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final TransactionTemplate flushTransaction;
+    private final Counter broadcasts;
+
+    public QuizRoomService(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.broadcasts = Counter.builder("quizzer.rooms.broadcasts")
+            .description("Room events and leaderboards sent to room topics")
+            .register(meterRegistry);
+        Gauge.builder("quizzer.rooms.active", rooms, Map::size)
+            .description("Live quiz rooms hosted by this instance")
+            .register(meterRegistry);
+        Gauge.builder("quizzer.rooms.participants", rooms,
+                r -> r.values().stream().mapToInt(QuizRoom::getParticipantCount).sum())
+            .description("Participants across the live rooms of this instance")
+            .register(meterRegistry);
+    }
+
+    public RoomDto createRoom(Long quizId, User host) {
+        if (!quizService.isQuizOwner(quizId, host) && quizService.getPublicQuizById(quizId).isEmpty()) {
+            throw new RuntimeException("Quiz not found");
+        }
+        QuizDetailDto quiz = quizService.getQuizDetail(quizId)
+            .orElseThrow(() -> new RuntimeException("Quiz not found"));
+        if (quiz.getQuestions().isEmpty()) {
+            throw new RuntimeException("Quiz has no questions");
+        }
+
+        while (true) {
+            QuizRoom room = new QuizRoom(newCode(), quiz.getId(), quiz.getTitle(), host.getId(), quiz.getQuestions(),
+                questionSeconds * 1000L, revealSeconds * 1000L);
+            if (rooms.putIfAbsent(room.getCode(), room) == null) {
+                return RoomDto.from(room, null);
+            }
+        }
+    }
+
+    public RoomDto joinRoom(String code, User user) {
+        QuizRoom room = getRoom(code);
+        QuizRoom.Participant participant = room.getParticipant(user.getId());
+        if (participant == null) {
+            if (room.getPhase() == QuizRoom.Phase.FINISHED) {
+                throw new RuntimeException("Room has finished");
+            }
+            if (room.getParticipantCount() >= maxParticipants) {
+                throw new RuntimeException("Room is full");
+            }
+            // Late joiners can answer the questions still to come
+            QuizAttempt attempt = quizAttemptService.startRoomAttempt(room.getQuizId(), user);
+            participant = room.addParticipant(user.getId(), user.getUsername(), attempt.getId());
+        }
+        return RoomDto.from(room, participant.getAttemptId());
+    }
+
+    public RoomDto startRoom(String code, User user) {
+        QuizRoom room = getRoom(code);
+        if (!room.getHostId().equals(user.getId())) {
+            throw new RuntimeException("Access denied");
+        }
+        room.start(System.currentTimeMillis());
+        return RoomDto.from(room, null);
+    }
+
+    public RoomDto getRoomInfo(String code, User user) {
+        QuizRoom room = getRoom(code);
+        QuizRoom.Participant participant = room.getParticipant(user.getId());
+        return RoomDto.from(room, participant != null ? participant.getAttemptId() : null);
+    }
+
+    // Whether the user may follow the room's broadcasts
+    public boolean isMember(String code, Long userId) {
+        QuizRoom room = rooms.get(code.toUpperCase());
+        return room != null && (room.getHostId().equals(userId) || room.getParticipant(userId) != null);
+    }
+
+    public GradedAnswer submitAnswer(String code, Long questionId, String userAnswer, User user) {
+        return getRoom(code).answer(user.getId(), questionId, userAnswer, System.currentTimeMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${quizzer.rooms.tick-ms:500}")
+    public void tick() {
+        long now = System.currentTimeMillis();
+        for (QuizRoom room : rooms.values()) {
+            try {
+                tick(room, now);
+            } catch (RuntimeException e) {
+                log.warn("Tick failed for room {}, will retry", room.getCode(), e);
+            }
+        }
+    }
+
+    private void tick(QuizRoom room, long now) {
+        if (room.getPhase() == QuizRoom.Phase.LOBBY && now - room.getCreatedAtMillis() > lobbyTimeout.toMillis()) {
+            // Never started; the joined attempts have no answers and are left to the stale-attempt sweep
+            rooms.remove(room.getCode());
+            return;
+        }
+
+        room.advance(now);
+        flush(room);
+        if (room.takePhaseChanged()) {
+            send("/topic/rooms/" + room.getCode(), room.toEvent());
+        }
+        if (room.takeStandingsChanged()) {
+            send("/topic/rooms/" + room.getCode() + "/leaderboard", room.topStandings(leaderboardSize));
+        }
+        if (room.getPhase() == QuizRoom.Phase.FINISHED && !room.hasUnflushed()) {
+            finish(room);
+        }
+    }
+
+    // Answers graded since the last tick go out in one batch; a failed batch is retried on the next tick
+    private void flush(QuizRoom room) {
+        List<GradedAnswer> batch = room.drainPending();
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            flushTransaction.executeWithoutResult(status -> answerBatchWriter.write(batch));
+            room.markFlushed();
+        } catch (RuntimeException e) {
+            log.warn("Could not write {} answers for room {}, will retry", batch.size(), room.getCode(), e);
+        }
+    }
+
+    private void finish(QuizRoom room) {
+        rooms.remove(room.getCode());
+        List<Long> attemptIds = room.getAttemptIds();
+        taskExecutor.execute(() -> {
+            for (int from = 0; from < attemptIds.size(); from += completionBatchSize) {
+                List<Long> chunk = attemptIds.subList(from, Math.min(from + completionBatchSize, attemptIds.size()));
+                try {
+                    quizAttemptService.completeRoomAttempts(chunk);
+                } catch (RuntimeException e) {
+                    log.warn("Could not complete {} attempts of room {}", chunk.size(), room.getCode(), e);
+                }
+            }
+        });
+    }
+
+    private void send(String destination, Object payload) {
+        messagingTemplate.convertAndSend(destination, payload);
+        broadcasts.increment();
+    }
+
+    private QuizRoom getRoom(String code) {
+        QuizRoom room = rooms.get(code.toUpperCase());
+        if (room == null) {
+            throw new RuntimeException("Room not found");
+        }
+        return room;
+    }
+
+    private String newCode() {
+        StringBuilder code = new StringBuilder(CODE_LENGTH);
+        for (int i = 0; i < CODE_LENGTH; i++) {
+            code.append(CODE_ALPHABET.charAt(random.nextInt(CODE_ALPHABET.length())));
+        }
+        return code.toString();
+    }
+}
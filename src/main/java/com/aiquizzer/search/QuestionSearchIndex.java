@@ -0,0 +1,112 @@
+package com.aiquizzer.search;
+
+import com.aiquizzer.event.QuizChangedEvent;
+import com.aiquizzer.repository.QuestionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trigram index over the question content of public quizzes, grouped by quiz. Built in the
+ * background after startup and refreshed per quiz whenever its questions or visibility change.
+ * Quizzes changed while the build runs are read again once it finishes, so a batch read before
+ * the change cannot leave stale questions behind. Hits are still checked against the database.
+ */
+@Component
+public class QuestionSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionSearchIndex.class);
+
+    @Autowired
+    private QuestionRepository questionRepository;
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Value("${quizzer.search.build-batch-size:1000}")
+    private int batchSize;
+    @Value("${quizzer.search.trigram.max-results:1000}")
+    private int maxResults;
+
+    private final TrigramIndex index = new TrigramIndex();
+    private volatile boolean ready;
+    private final Set<Long> changedDuringBuild = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleBuild() {
+        taskExecutor.execute(this::build);
+    }
+
+    public void build() {
+        long afterId = 0;
+        while (true) {
+            List<Object[]> batch = questionRepository.findPublicContentAfterId(afterId, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (Object[] row : batch) {
+                index.put((Long) row[0], (Long) row[1], (String) row[2]);
+            }
+            afterId = (Long) batch.get(batch.size() - 1)[0];
+        }
+        reindexChangedDuringBuild();
+        ready = true;
+        // Changes recorded while ready was being set
+        reindexChangedDuringBuild();
+        log.info("Question search index built with {} questions", index.size());
+    }
+
+    public Optional<TrigramIndex.SearchResult> search(String keyword, Long quizId, int offset, int limit) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        return index.search(keyword, quizId, offset, limit, maxResults);
+    }
+
+    @TransactionalEventListener
+    public void onQuizChanged(QuizChangedEvent event) {
+        if (!ready) {
+            changedDuringBuild.add(event.getQuizId());
+        }
+        if (event.getType() == QuizChangedEvent.Type.DELETED || !event.isPublicAfter()) {
+            index.removeGroup(event.getQuizId());
+            return;
+        }
+        if (event.getType() == QuizChangedEvent.Type.UPDATED && event.isPublicBefore()) {
+            return;
+        }
+        // Created, questions changed, or just made public
+        index.removeGroup(event.getQuizId());
+        for (Object[] row : questionRepository.findContentByQuizId(event.getQuizId())) {
+            index.put((Long) row[0], event.getQuizId(), (String) row[1]);
+        }
+    }
+
+    private void reindexChangedDuringBuild() {
+        while (!changedDuringBuild.isEmpty()) {
+            List<Long> changed = new ArrayList<>(changedDuringBuild);
+            changedDuringBuild.removeAll(changed);
+            for (Long quizId : changed) {
+                // Nothing for quizzes deleted or made private since
+                index.removeGroup(quizId);
+                for (Object[] row : questionRepository.findPublicContentByQuizId(quizId)) {
+                    index.put((Long) row[0], quizId, (String) row[1]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.aiquizzer.search;
+
+import com.aiquizzer.event.QuizChangedEvent;
+import com.aiquizzer.model.Quiz;
+import com.aiquizzer.repository.QuizRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over public quizzes. Title, topic and description are analyzed into
+ * weighted term frequencies, posting lists are kept as sorted primitive arrays, and queries are
+ * ranked with BM25. The index is built in the background after startup and kept current from
+ * {@link QuizChangedEvent}s; until it is ready callers fall back to the database. Quizzes changed
+ * while the build runs are read again once it has finished, since a batch read before the change
+ * may be indexed after the change's event was applied.
+ */
+@Component
+public class QuizSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizSearchIndex.class);
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int TITLE_WEIGHT = 3;
+    private static final int TOPIC_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    @Autowired
+    private QuizRepository quizRepository;
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Value("${quizzer.search.build-batch-size:1000}")
+    private int batchSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> docIdsByQuiz = new HashMap<>();
+    private final Deque<Integer> freeDocIds = new ArrayDeque<>();
+    private long[] quizIds = new long[1024];
+    private String[][] docTerms = new String[1024][];
+    private int[] docLengths = new int[1024];
+    private int nextDocId;
+    private int liveDocs;
+    private long totalLength;
+    private volatile boolean ready;
+    private final Set<Long> changedDuringBuild = ConcurrentHashMap.newKeySet();
+
+    @Getter
+    @AllArgsConstructor
+    public static class SearchResult {
+        private final List<Long> quizIds;
+        private final long totalHits;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleBuild() {
+        taskExecutor.execute(this::build);
+    }
+
+    public void build() {
+        long afterId = 0;
+        int indexed = 0;
+        while (true) {
+            List<Quiz> batch = quizRepository.findPublicQuizzesAfterId(afterId, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (Quiz quiz : batch) {
+                index(quiz);
+            }
+            indexed += batch.size();
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+        reindexChangedDuringBuild();
+        ready = true;
+        // Changes recorded while ready was being set
+        reindexChangedDuringBuild();
+        log.info("Quiz search index built with {} public quizzes", indexed);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns one page of public quiz ids ranked by BM25, or empty when the index cannot answer
+     * the query (still building, or the keyword has no indexable terms).
+     */
+    public Optional<SearchResult> search(String keyword, int offset, int limit) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(TextAnalyzer.analyze(keyword)));
+        if (terms.isEmpty()) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            float averageLength = liveDocs == 0 ? 1f : (float) totalLength / liveDocs;
+            float[] scores = new float[nextDocId];
+            int[] matched = new int[16];
+            int matchedCount = 0;
+
+            for (String term : terms) {
+                Postings termPostings = postings.get(term);
+                if (termPostings == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (liveDocs - termPostings.size + 0.5) / (termPostings.size + 0.5));
+                for (int i = 0; i < termPostings.size; i++) {
+                    int docId = termPostings.docs[i];
+                    int frequency = termPostings.freqs[i];
+                    float norm = K1 * (1 - B + B * docLengths[docId] / averageLength);
+                    if (scores[docId] == 0f) {
+                        if (matchedCount == matched.length) {
+                            matched = Arrays.copyOf(matched, matchedCount * 2);
+                        }
+                        matched[matchedCount++] = docId;
+                    }
+                    scores[docId] += (float) (idf * frequency * (K1 + 1) / (frequency + norm));
+                }
+            }
+
+            int wanted = offset + limit;
+            if (matchedCount == 0 || offset >= matchedCount || limit <= 0) {
+                return Optional.of(new SearchResult(Collections.emptyList(), matchedCount));
+            }
+
+            // Bounded min-heap keeps only the best offset + limit documents
+            PriorityQueue<Integer> best = new PriorityQueue<>(Math.min(wanted, matchedCount),
+                (left, right) -> compareHits(scores, left, right));
+            for (int i = 0; i < matchedCount; i++) {
+                best.offer(matched[i]);
+                if (best.size() > wanted) {
+                    best.poll();
+                }
+            }
+
+            List<Long> ranked = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                ranked.add(quizIds[best.poll()]);
+            }
+            Collections.reverse(ranked);
+            List<Long> page = new ArrayList<>(ranked.subList(Math.min(offset, ranked.size()), ranked.size()));
+            return Optional.of(new SearchResult(page, matchedCount));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(Quiz quiz) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        addTerms(frequencies, quiz.getTitle(), TITLE_WEIGHT);
+        addTerms(frequencies, quiz.getTopic(), TOPIC_WEIGHT);
+        addTerms(frequencies, quiz.getDescription(), DESCRIPTION_WEIGHT);
+        int length = 0;
+        for (int frequency : frequencies.values()) {
+            length += frequency;
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(quiz.getId());
+            if (frequencies.isEmpty()) {
+                return;
+            }
+
+            int docId = freeDocIds.isEmpty() ? nextDocId++ : freeDocIds.pop();
+            ensureCapacity(docId + 1);
+            String[] terms = frequencies.keySet().toArray(new String[0]);
+            for (String term : terms) {
+                postings.computeIfAbsent(term, key -> new Postings()).add(docId, frequencies.get(term));
+            }
+            quizIds[docId] = quiz.getId();
+            docTerms[docId] = terms;
+            docLengths[docId] = length;
+            docIdsByQuiz.put(quiz.getId(), docId);
+            liveDocs++;
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long quizId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(quizId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onQuizChanged(QuizChangedEvent event) {
+        if (!ready && event.getType() != QuizChangedEvent.Type.QUESTIONS_CHANGED) {
+            changedDuringBuild.add(event.getQuizId());
+        }
+        switch (event.getType()) {
+            case QUESTIONS_CHANGED:
+                return;
+            case DELETED:
+                remove(event.getQuizId());
+                return;
+            default:
+                if (!event.isPublicAfter()) {
+                    remove(event.getQuizId());
+                    return;
+                }
+                quizRepository.findById(event.getQuizId()).ifPresent(this::index);
+        }
+    }
+
+    private void reindexChangedDuringBuild() {
+        while (!changedDuringBuild.isEmpty()) {
+            List<Long> changed = new ArrayList<>(changedDuringBuild);
+            changedDuringBuild.removeAll(changed);
+            for (Long quizId : changed) {
+                // Deleted quizzes are not found
+                Optional<Quiz> quiz = quizRepository.findById(quizId)
+                    .filter(found -> Boolean.TRUE.equals(found.getIsPublic()));
+                if (quiz.isPresent()) {
+                    index(quiz.get());
+                } else {
+                    remove(quizId);
+                }
+            }
+        }
+    }
+
+    private void removeLocked(Long quizId) {
+        Integer docId = docIdsByQuiz.remove(quizId);
+        if (docId == null) {
+            return;
+        }
+        for (String term : docTerms[docId]) {
+            Postings termPostings = postings.get(term);
+            if (termPostings != null) {
+                termPostings.remove(docId);
+                if (termPostings.size == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+        liveDocs--;
+        totalLength -= docLengths[docId];
+        docTerms[docId] = null;
+        docLengths[docId] = 0;
+        freeDocIds.push(docId);
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > quizIds.length) {
+            int newLength = Math.max(size, quizIds.length * 2);
+            quizIds = Arrays.copyOf(quizIds, newLength);
+            docTerms = Arrays.copyOf(docTerms, newLength);
+            docLengths = Arrays.copyOf(docLengths, newLength);
+        }
+    }
+
+    private int compareHits(float[] scores, int left, int right) {
+        int byScore = Float.compare(scores[left], scores[right]);
+        // Equal scores: the newer (higher id) quiz ranks first
+        return byScore != 0 ? byScore : Long.compare(quizIds[left], quizIds[right]);
+    }
+
+    private static void addTerms(Map<String, Integer> frequencies, String text, int weight) {
+        for (String term : TextAnalyzer.analyze(text)) {
+            frequencies.merge(term, weight, Integer::sum);
+        }
+    }
+
+    private static final class Postings {
+
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+
+        void add(int docId, int frequency) {
+            int position = Arrays.binarySearch(docs, 0, size, docId);
+            if (position >= 0) {
+                freqs[position] = frequency;
+                return;
+            }
+            position = -position - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            System.arraycopy(docs, position, docs, position + 1, size - position);
+            System.arraycopy(freqs, position, freqs, position + 1, size - position);
+            docs[position] = docId;
+            freqs[position] = frequency;
+            size++;
+        }
+
+        void remove(int docId) {
+            int position = Arrays.binarySearch(docs, 0, size, docId);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(docs, position + 1, docs, position, size - position - 1);
+            System.arraycopy(freqs, position + 1, freqs, position, size - position - 1);
+            size--;
+        }
+    }
+}
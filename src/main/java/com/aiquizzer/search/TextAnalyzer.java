@@ -0,0 +1,71 @@
+package com.aiquizzer.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits text into lowercased, stop-word filtered and lightly stemmed terms. The same analysis
+ * is applied to indexed documents and to queries.
+ */
+public final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "how", "in", "is", "it",
+        "of", "on", "or", "that", "the", "this", "to", "was", "what", "when", "where", "which",
+        "who", "why", "will", "with", "your", "you", "about", "quiz"
+    );
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean tokenChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                String token = lower.substring(start, i);
+                if (token.length() > 1 && !STOP_WORDS.contains(token)) {
+                    terms.add(stem(token));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    static String stem(String token) {
+        int length = token.length();
+        if (length <= 3 || !Character.isLetter(token.charAt(length - 1))) {
+            return token;
+        }
+        if (token.endsWith("ies") && length > 4) {
+            return token.substring(0, length - 3) + "y";
+        }
+        if (token.endsWith("sses")) {
+            return token.substring(0, length - 2);
+        }
+        if (token.endsWith("ing") && length > 5) {
+            return token.substring(0, length - 3);
+        }
+        if (token.endsWith("ed") && length > 4) {
+            return token.substring(0, length - 2);
+        }
+        if (token.endsWith("ly") && length > 4) {
+            return token.substring(0, length - 2);
+        }
+        if (token.endsWith("s") && !token.endsWith("ss") && !token.endsWith("us") && !token.endsWith("is")) {
+            return token.substring(0, length - 1);
+        }
+        return token;
+    }
+}
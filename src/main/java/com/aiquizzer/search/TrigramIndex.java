@@ -0,0 +1,218 @@
+package com.aiquizzer.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Substring index mapping every trigram of a lowercased text to a sorted array of ids. A query
+ * intersects the posting lists of its trigrams and verifies the surviving candidates against the
+ * stored text, so it answers {@code LIKE '%keyword%'} without scanning. Ids can belong to a group
+ * (for example the quiz a question belongs to) to restrict a search.
+ */
+public class TrigramIndex {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, LongPostings> postings = new HashMap<>();
+    private final Map<Long, String> texts = new HashMap<>();
+    private final Map<Long, Long> groups = new HashMap<>();
+    private final Map<Long, Set<Long>> groupMembers = new HashMap<>();
+
+    @Getter
+    @AllArgsConstructor
+    public static class SearchResult {
+        private final List<Long> ids;
+        // Number of matches found, capped at the search's maxResults
+        private final int totalHits;
+    }
+
+    public void put(long id, long group, String text) {
+        String normalized = normalize(text);
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            texts.put(id, normalized);
+            groups.put(id, group);
+            groupMembers.computeIfAbsent(group, key -> new HashSet<>()).add(id);
+            for (long trigram : trigrams(normalized)) {
+                postings.computeIfAbsent(trigram, key -> new LongPostings()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeGroup(long group) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> members = groupMembers.get(group);
+            if (members != null) {
+                for (Long id : new ArrayList<>(members)) {
+                    removeLocked(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns ids (ascending) whose text contains the keyword, or empty when the keyword is too
+     * short to be served by trigrams.
+     */
+    public Optional<SearchResult> search(String keyword, Long group, int offset, int limit, int maxResults) {
+        String needle = normalize(keyword);
+        if (needle.length() < 3) {
+            return Optional.empty();
+        }
+        Set<Long> needleTrigrams = trigrams(needle);
+
+        lock.readLock().lock();
+        try {
+            List<LongPostings> lists = new ArrayList<>(needleTrigrams.size());
+            for (long trigram : needleTrigrams) {
+                LongPostings list = postings.get(trigram);
+                if (list == null) {
+                    return Optional.of(new SearchResult(Collections.emptyList(), 0));
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            long[] candidates;
+            int candidateCount;
+            if (group != null) {
+                Set<Long> members = groupMembers.getOrDefault(group, Collections.emptySet());
+                candidates = members.stream().mapToLong(Long::longValue).sorted().toArray();
+                candidateCount = candidates.length;
+            } else {
+                candidates = lists.get(0).ids;
+                candidateCount = lists.get(0).size;
+            }
+
+            List<Long> page = new ArrayList<>(Math.max(0, Math.min(limit, maxResults)));
+            int matched = 0;
+            for (int i = 0; i < candidateCount && matched < maxResults; i++) {
+                long id = candidates[i];
+                if (!containsAll(lists, id) || !texts.get(id).contains(needle)) {
+                    continue;
+                }
+                if (matched >= offset && page.size() < limit) {
+                    page.add(id);
+                }
+                matched++;
+            }
+            return Optional.of(new SearchResult(page, matched));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return texts.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(long id) {
+        String text = texts.remove(id);
+        if (text == null) {
+            return;
+        }
+        Long group = groups.remove(id);
+        Set<Long> members = groupMembers.get(group);
+        if (members != null) {
+            members.remove(id);
+            if (members.isEmpty()) {
+                groupMembers.remove(group);
+            }
+        }
+        for (long trigram : trigrams(text)) {
+            LongPostings list = postings.get(trigram);
+            if (list != null) {
+                list.remove(id);
+                if (list.size == 0) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    private static boolean containsAll(List<LongPostings> lists, long id) {
+        for (LongPostings list : lists) {
+            if (!list.contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    // Three UTF-16 chars packed into one long key
+    static Set<Long> trigrams(String normalized) {
+        Set<Long> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= normalized.length(); i++) {
+            trigrams.add(((long) normalized.charAt(i) << 32) | ((long) normalized.charAt(i + 1) << 16) | normalized.charAt(i + 2));
+        }
+        return trigrams;
+    }
+
+    private static final class LongPostings {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        void remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+                size--;
+            }
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
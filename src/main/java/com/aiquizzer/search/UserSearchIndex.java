@@ -0,0 +1,82 @@
+package com.aiquizzer.search;
+
+import com.aiquizzer.event.UserChangedEvent;
+import com.aiquizzer.model.User;
+import com.aiquizzer.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Trigram index over usernames, so user search can match substrings. Emails are not indexed:
+ * a match would confirm whose address it is.
+ */
+@Component
+public class UserSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Value("${quizzer.search.build-batch-size:1000}")
+    private int batchSize;
+    @Value("${quizzer.search.trigram.max-results:1000}")
+    private int maxResults;
+
+    private final TrigramIndex index = new TrigramIndex();
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleBuild() {
+        taskExecutor.execute(this::build);
+    }
+
+    public void build() {
+        long afterId = 0;
+        while (true) {
+            List<User> batch = userRepository.findByIdGreaterThanOrderById(afterId, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            batch.forEach(this::put);
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+        ready = true;
+        log.info("User search index built with {} users", index.size());
+    }
+
+    public Optional<TrigramIndex.SearchResult> search(String keyword, int offset, int limit) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        return index.search(keyword, null, offset, limit, maxResults);
+    }
+
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getType() == UserChangedEvent.Type.DELETED) {
+            index.remove(event.getUserId());
+        } else {
+            userRepository.findById(event.getUserId()).ifPresent(this::put);
+        }
+    }
+
+    private void put(User user) {
+        index.put(user.getId(), 0L, user.getUsername());
+    }
+}
@@ -0,0 +1,71 @@
+package com.aiquizzer.security;
+
+import com.aiquizzer.event.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Rejects tokens whose subject has been deleted, so a soft-deleted user's tokens stop working
+ * before they expire. Whether a user exists is cached for {@code quizzer.security.jwt.user-check-ttl};
+ * deletions on this instance apply at once, on other instances within that time.
+ */
+@Component
+public class ActiveUserTokenValidator implements OAuth2TokenValidator<Jwt> {
+
+    private static final OAuth2Error USER_DELETED = new OAuth2Error(OAuth2ErrorCodes.INVALID_TOKEN, "The token's user no longer exists", null);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Cache<Long, Boolean> active;
+
+    public ActiveUserTokenValidator(@Value("${quizzer.security.jwt.user-check-ttl:PT1M}") Duration userCheckTtl,
+                                    @Value("${quizzer.security.jwt.verified-cache-size:100000}") long maximumSize) {
+        this.active = Caffeine.newBuilder()
+            .expireAfterWrite(userCheckTtl)
+            .maximumSize(maximumSize)
+            .build();
+    }
+
+    @Override
+    public OAuth2TokenValidatorResult validate(Jwt jwt) {
+        Long userId;
+        try {
+            userId = Long.valueOf(jwt.getSubject());
+        } catch (NumberFormatException e) {
+            return OAuth2TokenValidatorResult.failure(USER_DELETED);
+        }
+        return isActive(userId) ? OAuth2TokenValidatorResult.success() : OAuth2TokenValidatorResult.failure(USER_DELETED);
+    }
+
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getType() == UserChangedEvent.Type.DELETED) {
+            active.put(event.getUserId(), Boolean.FALSE);
+        }
+    }
+
+    private boolean isActive(Long userId) {
+        Boolean cached = active.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+        // Queried outside the cache's compute: a query under its bin lock pins a virtual thread's carrier
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE id = ? AND deleted_at IS NULL", Long.class, userId);
+        boolean exists = count != null && count > 0;
+        active.put(userId, exists);
+        return exists;
+    }
+}
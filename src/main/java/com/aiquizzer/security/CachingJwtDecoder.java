@@ -0,0 +1,68 @@
+package com.aiquizzer.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Remembers tokens that already passed signature and claim validation until they expire, so a
+ * client reusing its token is authenticated with a map lookup instead of an HMAC per request.
+ * {@code everyRequest} runs on cached tokens too, for checks that can fail before a token expires.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final OAuth2TokenValidator<Jwt> everyRequest;
+    private final Cache<String, Jwt> verified;
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maximumSize, OAuth2TokenValidator<Jwt> everyRequest) {
+        this.delegate = delegate;
+        this.everyRequest = everyRequest;
+        this.verified = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new Expiry<String, Jwt>() {
+                @Override
+                public long expireAfterCreate(String token, Jwt jwt, long currentTime) {
+                    Instant expiresAt = jwt.getExpiresAt();
+                    if (expiresAt == null) {
+                        return 0;
+                    }
+                    return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+                }
+
+                @Override
+                public long expireAfterUpdate(String token, Jwt jwt, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+
+                @Override
+                public long expireAfterRead(String token, Jwt jwt, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        Jwt jwt = verified.getIfPresent(token);
+        if (jwt == null) {
+            jwt = delegate.decode(token);
+            verified.put(token, jwt);
+        }
+        OAuth2TokenValidatorResult result = everyRequest.validate(jwt);
+        if (result.hasErrors()) {
+            throw new JwtValidationException(result.getErrors().iterator().next().getDescription(), result.getErrors());
+        }
+        return jwt;
+    }
+}
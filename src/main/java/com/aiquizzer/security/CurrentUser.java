@@ -0,0 +1,29 @@
+package com.aiquizzer.security;
+
+import com.aiquizzer.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * The authenticated caller, taken from the verified token's claims without loading the user row.
+ */
+@Getter
+@AllArgsConstructor
+public class CurrentUser {
+
+    private final Long id;
+    private final String username;
+
+    public static CurrentUser from(Jwt jwt) {
+        return new CurrentUser(Long.valueOf(jwt.getSubject()), jwt.getClaimAsString(TokenService.USERNAME_CLAIM));
+    }
+
+    // Detached reference for associations and id-based ownership checks; only id and username are set
+    public User toUser() {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        return user;
+    }
+}
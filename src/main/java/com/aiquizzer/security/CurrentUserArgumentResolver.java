@@ -0,0 +1,61 @@
+package com.aiquizzer.security;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.util.Optional;
+
+/**
+ * Resolves {@link CurrentUser} handler parameters from the bearer token's claims, once per request.
+ * {@code Optional<CurrentUser>} parameters are empty for anonymous callers of public endpoints.
+ */
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final String ATTRIBUTE = CurrentUser.class.getName();
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        if (CurrentUser.class.equals(parameter.getParameterType())) {
+            return true;
+        }
+        return Optional.class.equals(parameter.getParameterType())
+            && CurrentUser.class.equals(ResolvableType.forMethodParameter(parameter).resolveGeneric(0));
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        CurrentUser currentUser = resolve(webRequest);
+        if (Optional.class.equals(parameter.getParameterType())) {
+            return Optional.ofNullable(currentUser);
+        }
+        if (currentUser == null) {
+            throw new AuthenticationCredentialsNotFoundException("A bearer token is required");
+        }
+        return currentUser;
+    }
+
+    private CurrentUser resolve(NativeWebRequest webRequest) {
+        Object resolved = webRequest.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (resolved != null) {
+            return (CurrentUser) resolved;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof Jwt)) {
+            return null;
+        }
+        CurrentUser currentUser = CurrentUser.from((Jwt) authentication.getPrincipal());
+        webRequest.setAttribute(ATTRIBUTE, currentUser, RequestAttributes.SCOPE_REQUEST);
+        return currentUser;
+    }
+}
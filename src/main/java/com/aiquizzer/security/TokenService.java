@@ -0,0 +1,46 @@
+package com.aiquizzer.security;
+
+import com.aiquizzer.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@Service
+public class TokenService {
+
+    public static final String USERNAME_CLAIM = "username";
+
+    @Autowired
+    private JwtEncoder jwtEncoder;
+
+    @Value("${quizzer.security.jwt.issuer:ai-quizzer}")
+    private String issuer;
+
+    @Value("${quizzer.security.jwt.ttl:PT1H}")
+    private Duration ttl;
+
+    public String issueToken(User user) {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+            .issuer(issuer)
+            .subject(String.valueOf(user.getId()))
+            .claim(USERNAME_CLAIM, user.getUsername())
+            .issuedAt(now)
+            .expiresAt(now.plus(ttl))
+            .build();
+        JwsHeader header = JwsHeader.with(MacAlgorithm.HS256).build();
+        return jwtEncoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+}
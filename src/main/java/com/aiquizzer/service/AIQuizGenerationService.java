@@ -12,9 +12,12 @@ import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 
 @Service
@@ -40,21 +43,59 @@ public class AIQuizGenerationService {
     }
     
     public String generateQuizTitle(String topic, DifficultyLevel difficulty) {
-        String prompt = String.format(
+        Prompt aiPrompt = new Prompt(buildTitlePrompt(topic, difficulty));
+        ChatResponse response = chatClient.prompt(aiPrompt).call().chatResponse();
+        return response.getResult().getOutput().getContent().trim();
+    }
+    
+    public String generateQuizDescription(String topic, DifficultyLevel difficulty, int numberOfQuestions) {
+        Prompt aiPrompt = new Prompt(buildDescriptionPrompt(topic, difficulty, numberOfQuestions));
+        ChatResponse response = chatClient.prompt(aiPrompt).call().chatResponse();
+        return response.getResult().getOutput().getContent().trim();
+    }
+    public String getHint(String userAnswer, String correctAnswer,Question question){
+        Prompt aiPrompt = new Prompt(buildHintPrompt(userAnswer, correctAnswer, question));
+        ChatResponse response = chatClient.prompt(aiPrompt).call().chatResponse();
+        return response.getResult().getOutput().getContent().trim();
+
+    }
+    
+    // Streaming variants: completions arrive over the non-blocking client, so no thread waits on the model
+    
+    public Mono<List<Question>> generateQuestionsReactive(String topic, DifficultyLevel difficulty, int numberOfQuestions, QuestionType questionType) {
+        String prompt = buildQuestionGenerationPrompt(topic, difficulty, numberOfQuestions, questionType);
+        return complete(prompt).map(aiResponse -> parseQuestionsFromAIResponse(aiResponse, questionType));
+    }
+    
+    public Mono<String> generateQuizTitleReactive(String topic, DifficultyLevel difficulty) {
+        return complete(buildTitlePrompt(topic, difficulty)).map(String::trim);
+    }
+    
+    public Mono<String> generateQuizDescriptionReactive(String topic, DifficultyLevel difficulty, int numberOfQuestions) {
+        return complete(buildDescriptionPrompt(topic, difficulty, numberOfQuestions)).map(String::trim);
+    }
+    
+    public Flux<String> streamHint(String userAnswer, String correctAnswer, Question question) {
+        return chatClient.prompt(new Prompt(buildHintPrompt(userAnswer, correctAnswer, question))).stream().content();
+    }
+    
+    private Mono<String> complete(String prompt) {
+        return chatClient.prompt(new Prompt(prompt)).stream().content()
+            .collect(Collectors.joining());
+    }
+    
+    private String buildTitlePrompt(String topic, DifficultyLevel difficulty) {
+        return String.format(
             "Generate a creative and engaging quiz title for a %s level quiz about %s. " +
             "The title should be concise (max 50 characters) and appealing. " +
             "Return only the title, no additional text.",
             difficulty.getDisplayName().toLowerCase(),
             topic
         );
-        
-        Prompt aiPrompt = new Prompt(prompt);
-        ChatResponse response = chatClient.prompt(aiPrompt).call().chatResponse();
-        return response.getResult().getOutput().getContent().trim();
     }
     
-    public String generateQuizDescription(String topic, DifficultyLevel difficulty, int numberOfQuestions) {
-        String prompt = String.format(
+    private String buildDescriptionPrompt(String topic, DifficultyLevel difficulty, int numberOfQuestions) {
+        return String.format(
             "Generate a brief description (max 200 characters) for a %s level quiz about %s with %d questions. " +
             "The description should be engaging and informative. " +
             "Return only the description, no additional text.",
@@ -62,18 +103,12 @@ public class AIQuizGenerationService {
             topic,
             numberOfQuestions
         );
-        
-        Prompt aiPrompt = new Prompt(prompt);
-        ChatResponse response = chatClient.prompt(aiPrompt).call().chatResponse();
-        return response.getResult().getOutput().getContent().trim();
     }
-    public String getHint(String userAnswer, String correctAnswer,Question question){
-        String prompt="Generate a hint for "+question+" with answer "+correctAnswer+" and " +
+    
+    private String buildHintPrompt(String userAnswer, String correctAnswer, Question question) {
+        // The question's content, not the entity: its lazy associations are not loaded outside a session
+        return "Generate a hint for "+question.getContent()+" with answer "+correctAnswer+" and " +
                 "user gave the answer "+userAnswer;
-        Prompt aiPrompt = new Prompt(prompt);
-        ChatResponse response = chatClient.prompt(aiPrompt).call().chatResponse();
-        return response.getResult().getOutput().getContent().trim();
-
     }
     
     private String buildQuestionGenerationPrompt(String topic, DifficultyLevel difficulty, int numberOfQuestions, QuestionType questionType) {
@@ -0,0 +1,89 @@
+package com.aiquizzer.service;
+
+import com.aiquizzer.dto.GradedAnswer;
+import com.aiquizzer.event.UserAnswerGradedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes answers graded in memory to {@code user_answers} and their attempts' scores with JDBC
+ * batches, and publishes {@link UserAnswerGradedEvent} for each stored answer in the caller's
+ * transaction, as a synchronous submission would.
+ */
+@Component
+public class AnswerBatchWriter {
+
+    // Inserts nothing when the attempt or question was purged in the meantime
+    private static final String UPSERT_ANSWER =
+        "INSERT INTO user_answers (user_id, question_id, quiz_attempt_id, user_answer, is_correct, points_earned, answered_at) " +
+        "SELECT ?, q.id, qa.id, ?, ?, ?, ? FROM quiz_attempts qa JOIN questions q ON q.id = ? WHERE qa.id = ? " +
+        "ON DUPLICATE KEY UPDATE user_answer = VALUES(user_answer), is_correct = VALUES(is_correct), " +
+        "points_earned = VALUES(points_earned), answered_at = VALUES(answered_at)";
+
+    private static final String UPDATE_ATTEMPT =
+        "UPDATE quiz_attempts SET correct_answers = ?, " +
+        "score = CASE WHEN total_questions > 0 THEN ? * 100.0 / total_questions ELSE score END " +
+        "WHERE id = ? AND status = 'IN_PROGRESS'";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Answers in the order they were graded
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void write(List<GradedAnswer> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<String, GradedAnswer> latestAnswers = new LinkedHashMap<>();
+        Map<Long, GradedAnswer> latestByAttempt = new LinkedHashMap<>();
+        for (GradedAnswer answer : batch) {
+            latestAnswers.put(key(answer), answer);
+            latestByAttempt.put(answer.getAttemptId(), answer);
+        }
+        List<GradedAnswer> answers = new ArrayList<>(latestAnswers.values());
+        List<GradedAnswer> attempts = new ArrayList<>(latestByAttempt.values());
+
+        int[] upserted = jdbcTemplate.batchUpdate(UPSERT_ANSWER, answers, answers.size(), (ps, answer) -> {
+            ps.setLong(1, answer.getUserId());
+            ps.setString(2, answer.getUserAnswer());
+            ps.setBoolean(3, answer.isCorrect());
+            ps.setInt(4, answer.getPointsEarned());
+            ps.setObject(5, answer.getAnsweredAt());
+            ps.setLong(6, answer.getQuestionId());
+            ps.setLong(7, answer.getAttemptId());
+        })[0];
+        jdbcTemplate.batchUpdate(UPDATE_ATTEMPT, attempts, attempts.size(), (ps, answer) -> {
+            ps.setInt(1, answer.getCorrectAnswers());
+            ps.setInt(2, answer.getCorrectAnswers());
+            ps.setLong(3, answer.getAttemptId());
+        });
+
+        Map<String, Boolean> stored = new HashMap<>();
+        for (int i = 0; i < answers.size(); i++) {
+            stored.put(key(answers.get(i)), upserted[i] != 0);
+        }
+        for (GradedAnswer answer : batch) {
+            if (stored.get(key(answer))) {
+                eventPublisher.publishEvent(new UserAnswerGradedEvent(answer.getUserId(), answer.getAttemptId(),
+                    answer.getQuestionId(), answer.getPreviousCorrect(), answer.isCorrect(),
+                    answer.getPreviousAnswer(), answer.getUserAnswer()));
+            }
+        }
+    }
+
+    private static String key(GradedAnswer answer) {
+        return answer.getAttemptId() + ":" + answer.getQuestionId();
+    }
+}
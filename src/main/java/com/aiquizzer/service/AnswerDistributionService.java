@@ -0,0 +1,613 @@
+package com.aiquizzer.service;
+
+import com.aiquizzer.datasource.DataSourceRouting;
+import com.aiquizzer.dto.AnswerDistributionDto;
+import com.aiquizzer.dto.AnswerDto;
+import com.aiquizzer.dto.QuestionDto;
+import com.aiquizzer.event.QuizChangedEvent;
+import com.aiquizzer.event.UserAnswerGradedEvent;
+import com.aiquizzer.model.User;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-question answer distributions, keyed by the normalized answer. Changes are counted in
+ * striped counters and flushed on an interval as increments to the {@code answer_distribution}
+ * rows, so every instance adds its own changes and none overwrites another's. Each attempt counts
+ * once per question: a resubmission moves its count from the replaced answer to the new one.
+ * Reads combine the stored counts, re-read every {@code refresh-interval-ms}, with the changes not
+ * flushed yet, and never scan {@code user_answers} once the question is seeded.
+ * <p>
+ * A question is seeded from {@code user_answers} on its first read, in one transaction that locks
+ * the question's answers and creates its {@code answer_distribution_seeds} row. Before it commits,
+ * a transaction that wrote answers reads the seed rows of their questions with a shared lock. A
+ * writer that got to the answers first is waited for by the seed, so its answers are in the seed
+ * and it finds no seed row; a later writer waits for the seed, finds its row, and counts its
+ * answers as changes to that seed. Each answer is counted once whichever instance wrote it, and
+ * changes to a seed dropped since are never written.
+ */
+@Service
+public class AnswerDistributionService {
+
+    private static final Logger log = LoggerFactory.getLogger(AnswerDistributionService.class);
+
+    // Bucket for answers beyond max-distinct-answers; never a normalized answer, which is non-blank
+    private static final String OTHER_KEY = "";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    // Nothing is written once the seed was dropped, with its question or by evictQuiz
+    private static final String ADD_TO_KEY =
+        "UPDATE answer_distribution d JOIN answer_distribution_seeds s ON s.question_id = d.question_id " +
+        "SET d.answer_count = d.answer_count + ?, d.updated_at = ? WHERE s.id = ? AND d.answer_key = ?";
+
+    // Whether a key still gets a row of its own is decided by the stored rows, so every instance buckets it alike
+    private static final String ADD_KEY =
+        "INSERT INTO answer_distribution (question_id, answer_key, answer_count, updated_at) " +
+        "SELECT s.question_id, ?, ?, ? FROM answer_distribution_seeds s WHERE s.id = ? " +
+        "AND (SELECT COUNT(*) FROM answer_distribution d WHERE d.question_id = s.question_id AND d.answer_key <> '') < ? " +
+        "ON DUPLICATE KEY UPDATE answer_count = answer_count + VALUES(answer_count), updated_at = VALUES(updated_at)";
+
+    @Autowired
+    private QuizService quizService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${quizzer.answer-distribution.max-distinct-answers:50}")
+    private int maxDistinctAnswers;
+    @Value("${quizzer.answer-distribution.refresh-interval-ms:60000}")
+    private long refreshIntervalMillis;
+
+    private final TransactionTemplate seedTransaction;
+    private final TransactionTemplate flushTransaction;
+    private final Map<Long, QuestionCounters> counters = new ConcurrentHashMap<>();
+    // Binds a transaction's AnswerChanges to it
+    private final Object changesKey = new Object();
+
+    public AnswerDistributionService(PlatformTransactionManager transactionManager) {
+        // Never part of a caller's transaction, so the answers are locked no longer than the seed takes
+        this.seedTransaction = new TransactionTemplate(transactionManager);
+        this.seedTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // A failed flush rolls back whole, so its deltas can be put back without counting any twice
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    // Empty unless the user owns the quiz and the question belongs to it
+    public Optional<AnswerDistributionDto> getDistribution(Long quizId, Long questionId, User user) {
+        Optional<QuestionDto> question = quizService.getQuizDetail(quizId)
+            .filter(quiz -> quizService.isQuizOwner(quizId, user))
+            .flatMap(quiz -> quiz.getQuestions().stream().filter(q -> q.getId().equals(questionId)).findFirst());
+        if (question.isEmpty()) {
+            return Optional.empty();
+        }
+        QuestionCounters questionCounters = counters.get(questionId);
+        AnswerDistributionDto distribution = questionCounters != null
+            ? questionCounters.snapshot(question.get(), refreshIntervalMillis) : null;
+        boolean seeded = false;
+        while (distribution == null) {
+            long generation = questionCounters != null ? questionCounters.generation.get() : 0;
+            // Counts read from a lagging replica would miss the last flushes
+            Stored stored = DataSourceRouting.onPrimary(() -> loadStored(questionId));
+            if (stored == null) {
+                if (seeded) {
+                    return Optional.empty();
+                }
+                seed(questionId);
+                seeded = true;
+                continue;
+            }
+            if (questionCounters == null) {
+                questionCounters = counters.computeIfAbsent(questionId, id -> new QuestionCounters(maxDistinctAnswers));
+            }
+            // A flush in between moved counted changes into the rows after they were read; read them again
+            if (questionCounters.setStored(stored, generation)) {
+                distribution = questionCounters.snapshot(question.get(), refreshIntervalMillis);
+            }
+        }
+        return Optional.of(distribution);
+    }
+
+    /**
+     * Drops the seeds and stored counts of the quiz's questions after answers were removed behind
+     * them; each question is seeded again from {@code user_answers} on its next read. Changes not
+     * flushed yet belong to the dropped seeds and are never written.
+     */
+    public void evictQuiz(Long quizId) {
+        List<Long> questionIds = jdbcTemplate.queryForList("SELECT id FROM questions WHERE quiz_id = ?", Long.class, quizId);
+        if (questionIds.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource parameters = new MapSqlParameterSource("ids", questionIds);
+        flushTransaction.executeWithoutResult(status -> {
+            namedParameterJdbcTemplate.update("DELETE FROM answer_distribution_seeds WHERE question_id IN (:ids)", parameters);
+            namedParameterJdbcTemplate.update("DELETE FROM answer_distribution WHERE question_id IN (:ids)", parameters);
+        });
+        for (Long questionId : questionIds) {
+            QuestionCounters questionCounters = counters.get(questionId);
+            if (questionCounters != null) {
+                questionCounters.clearStored();
+            }
+        }
+    }
+
+    @TransactionalEventListener
+    public void onQuizChanged(QuizChangedEvent event) {
+        // Seeds and stored rows go with the questions when DeletionPurger removes them
+        if (event.getType() == QuizChangedEvent.Type.DELETED) {
+            counters.keySet().removeAll(
+                jdbcTemplate.queryForList("SELECT id FROM questions WHERE quiz_id = ?", Long.class, event.getQuizId()));
+        }
+    }
+
+    // In the writing transaction, which checks its questions' seeds just before it commits
+    @EventListener
+    public void onUserAnswerGraded(UserAnswerGradedEvent event) {
+        String key = keyOf(event.getUserAnswer());
+        String previousKey = keyOf(event.getPreviousAnswer());
+        if (Objects.equals(key, previousKey)) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            log.warn("Answer to question {} graded outside a transaction, not counted in its distribution", event.getQuestionId());
+            return;
+        }
+        AnswerChanges changes = (AnswerChanges) TransactionSynchronizationManager.getResource(changesKey);
+        if (changes == null) {
+            changes = new AnswerChanges();
+            TransactionSynchronizationManager.bindResource(changesKey, changes);
+            TransactionSynchronizationManager.registerSynchronization(changes);
+        }
+        changes.add(event.getQuestionId(), previousKey, key);
+    }
+
+    @Scheduled(fixedDelayString = "${quizzer.answer-distribution.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        Map<Long, Map<Long, Map<String, Long>>> deltas = new HashMap<>();
+        counters.forEach((questionId, questionCounters) -> {
+            if (questionCounters.dirty) {
+                deltas.put(questionId, questionCounters.drain());
+            }
+        });
+        List<KeyDelta> changes = new ArrayList<>();
+        deltas.values().forEach(bySeed -> bySeed.forEach((seedId, byKey) -> byKey.forEach((key, delta) -> {
+            if (delta != 0) {
+                changes.add(new KeyDelta(seedId, key, delta));
+            }
+        })));
+        if (changes.isEmpty()) {
+            return;
+        }
+        // The same order on every instance, so concurrent flushes lock rows without deadlocking
+        changes.sort(Comparator.comparingLong((KeyDelta change) -> change.seedId).thenComparing(change -> change.key));
+
+        try {
+            flushTransaction.executeWithoutResult(status -> write(changes, LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush answer distributions for {} questions, will retry", deltas.size(), e);
+            deltas.forEach((questionId, delta) -> {
+                QuestionCounters questionCounters = counters.get(questionId);
+                if (questionCounters != null) {
+                    questionCounters.restore(delta);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void write(List<KeyDelta> changes, LocalDateTime now) {
+        List<Object[]> rows = new ArrayList<>();
+        for (KeyDelta change : changes) {
+            rows.add(new Object[] { change.delta, now, change.seedId, change.key });
+        }
+        int[] updated = jdbcTemplate.batchUpdate(ADD_TO_KEY, rows);
+
+        // Keys without a row get one while there is room; removals from them were counted as other answers
+        List<KeyDelta> newKeys = new ArrayList<>();
+        List<KeyDelta> others = new ArrayList<>();
+        for (int i = 0; i < changes.size(); i++) {
+            if (updated[i] == 0) {
+                (changes.get(i).delta > 0 ? newKeys : others).add(changes.get(i));
+            }
+        }
+        if (!newKeys.isEmpty()) {
+            rows.clear();
+            for (KeyDelta change : newKeys) {
+                rows.add(new Object[] { change.key, change.delta, now, change.seedId, maxDistinctAnswers });
+            }
+            int[] inserted = jdbcTemplate.batchUpdate(ADD_KEY, rows);
+            for (int i = 0; i < newKeys.size(); i++) {
+                if (inserted[i] == 0) {
+                    others.add(newKeys.get(i));
+                }
+            }
+        }
+        if (!others.isEmpty()) {
+            // Nothing is written for a seed dropped since
+            rows.clear();
+            for (KeyDelta change : others) {
+                rows.add(new Object[] { change.delta, now, change.seedId, OTHER_KEY });
+            }
+            jdbcTemplate.batchUpdate(ADD_TO_KEY, rows);
+        }
+    }
+
+    // Null until the question is seeded; one statement, so the rows always belong to the seed read with them
+    private Stored loadStored(Long questionId) {
+        List<Stored> found = new ArrayList<>(1);
+        jdbcTemplate.query(
+            "SELECT s.id, d.answer_key, d.answer_count FROM answer_distribution_seeds s " +
+            "LEFT JOIN answer_distribution d ON d.question_id = s.question_id WHERE s.question_id = ?",
+            rs -> {
+                if (found.isEmpty()) {
+                    found.add(new Stored(rs.getLong(1)));
+                }
+                String key = rs.getString(2);
+                if (OTHER_KEY.equals(key)) {
+                    found.get(0).other = rs.getLong(3);
+                } else if (key != null) {
+                    found.get(0).counts.put(key, rs.getLong(3));
+                }
+            },
+            questionId);
+        if (found.isEmpty()) {
+            return null;
+        }
+        Stored stored = found.get(0);
+        stored.loadedAt = System.currentTimeMillis();
+        return stored;
+    }
+
+    private void seed(Long questionId) {
+        try {
+            seedTransaction.executeWithoutResult(status -> {
+                Map<String, Long> counts = new HashMap<>();
+                // A locking read: waits for the transactions that wrote the question's answers first and holds off later ones
+                jdbcTemplate.query("SELECT user_answer, COUNT(*) FROM user_answers WHERE question_id = ? AND user_answer IS NOT NULL " +
+                        "GROUP BY user_answer FOR SHARE",
+                    rs -> {
+                        String key = keyOf(rs.getString(1));
+                        if (key != null) {
+                            counts.merge(key, rs.getLong(2), Long::sum);
+                        }
+                    },
+                    questionId);
+                LocalDateTime now = LocalDateTime.now();
+                if (jdbcTemplate.update("INSERT INTO answer_distribution_seeds (question_id, seeded_at) SELECT id, ? FROM questions WHERE id = ?",
+                        now, questionId) == 0) {
+                    return;
+                }
+
+                // The most frequent answers get rows of their own
+                List<Map.Entry<String, Long>> entries = new ArrayList<>(counts.entrySet());
+                entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+                List<Object[]> rows = new ArrayList<>();
+                long other = 0;
+                for (Map.Entry<String, Long> entry : entries) {
+                    if (rows.size() < maxDistinctAnswers) {
+                        rows.add(new Object[] { questionId, entry.getKey(), entry.getValue(), now });
+                    } else {
+                        other += entry.getValue();
+                    }
+                }
+                rows.add(new Object[] { questionId, OTHER_KEY, other, now });
+                jdbcTemplate.batchUpdate(
+                    "INSERT INTO answer_distribution (question_id, answer_key, answer_count, updated_at) VALUES (?, ?, ?, ?)", rows);
+            });
+        } catch (DuplicateKeyException e) {
+            log.debug("Question {} was seeded by a concurrent read", questionId);
+        }
+    }
+
+    // Trimmed and lower-cased like UserAnswer.isCorrect compares; null for a blank answer
+    private static String keyOf(String answer) {
+        if (answer == null || answer.isBlank()) {
+            return null;
+        }
+        String key = answer.trim().toLowerCase(Locale.ROOT);
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    /**
+     * The answers one transaction changed. Counted after it commits, against the seeds it found
+     * under a shared lock just before; answers to a question without a seed are in the seed its
+     * next read takes from {@code user_answers}.
+     */
+    private class AnswerChanges implements TransactionSynchronization {
+
+        private final List<AnswerChange> changes = new ArrayList<>();
+        private final Map<Long, Long> seedIds = new HashMap<>();
+
+        void add(Long questionId, String previousKey, String key) {
+            changes.add(new AnswerChange(questionId, previousKey, key));
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(changesKey);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(changesKey, this);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // Answers still held by the persistence context are written, and their rows locked, before the seeds are read
+            if (entityManager.isJoinedToTransaction()) {
+                entityManager.flush();
+            }
+            Set<Long> questionIds = new HashSet<>();
+            for (AnswerChange change : changes) {
+                questionIds.add(change.questionId);
+            }
+            namedParameterJdbcTemplate.query(
+                "SELECT question_id, id FROM answer_distribution_seeds WHERE question_id IN (:ids) FOR SHARE",
+                new MapSqlParameterSource("ids", questionIds),
+                rs -> {
+                    seedIds.put(rs.getLong(1), rs.getLong(2));
+                });
+        }
+
+        @Override
+        public void afterCommit() {
+            for (AnswerChange change : changes) {
+                Long seedId = seedIds.get(change.questionId);
+                if (seedId != null) {
+                    counters.computeIfAbsent(change.questionId, id -> new QuestionCounters(maxDistinctAnswers))
+                        .add(seedId, change.previousKey, change.key);
+                }
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(changesKey);
+        }
+    }
+
+    private static class AnswerChange {
+
+        final Long questionId;
+        final String previousKey;
+        final String key;
+
+        AnswerChange(Long questionId, String previousKey, String key) {
+            this.questionId = questionId;
+            this.previousKey = previousKey;
+            this.key = key;
+        }
+    }
+
+    private static class KeyDelta {
+
+        final long seedId;
+        final String key;
+        final long delta;
+
+        KeyDelta(long seedId, String key, long delta) {
+            this.seedId = seedId;
+            this.key = key;
+            this.delta = delta;
+        }
+    }
+
+    // Stored counts of a question under one seed
+    private static class Stored {
+
+        final long seedId;
+        final Map<String, Long> counts = new HashMap<>();
+        long other;
+        long loadedAt;
+
+        Stored(long seedId) {
+            this.seedId = seedId;
+        }
+
+        // Buckets a key the way write does, as far as the rows held here tell
+        void add(String key, long delta, int maxDistinct) {
+            Long count = counts.get(key);
+            if (count != null) {
+                counts.put(key, count + delta);
+            } else if (delta > 0 && counts.size() < maxDistinct) {
+                counts.put(key, delta);
+            } else {
+                other += delta;
+            }
+        }
+
+        Stored copy() {
+            Stored copy = new Stored(seedId);
+            copy.counts.putAll(counts);
+            copy.other = other;
+            copy.loadedAt = loadedAt;
+            return copy;
+        }
+    }
+
+    private static class QuestionCounters {
+
+        // Changes count under the read lock; flushes drain them and move them into stored under the write lock
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final int maxDistinct;
+        // Changes not flushed yet, by seed id and answer key
+        private Map<Long, Map<String, LongAdder>> pending = new ConcurrentHashMap<>();
+        // Bumped by every drain and restore, so a load racing a flush is not kept
+        private final AtomicLong generation = new AtomicLong();
+        // Stored counts including every drained change; null until loaded
+        private Stored stored;
+        private volatile boolean dirty;
+
+        QuestionCounters(int maxDistinct) {
+            this.maxDistinct = maxDistinct;
+        }
+
+        void add(long seedId, String previousKey, String key) {
+            lock.readLock().lock();
+            try {
+                Map<String, LongAdder> changes = pending.computeIfAbsent(seedId, id -> new ConcurrentHashMap<>());
+                if (previousKey != null) {
+                    changes.computeIfAbsent(previousKey, k -> new LongAdder()).decrement();
+                }
+                if (key != null) {
+                    changes.computeIfAbsent(key, k -> new LongAdder()).increment();
+                }
+                dirty = true;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        Map<Long, Map<String, Long>> drain() {
+            lock.writeLock().lock();
+            try {
+                dirty = false;
+                Map<Long, Map<String, Long>> deltas = new HashMap<>();
+                pending.forEach((seedId, changes) -> {
+                    Map<String, Long> sums = new HashMap<>();
+                    changes.forEach((key, count) -> sums.put(key, count.sum()));
+                    deltas.put(seedId, sums);
+                });
+                pending = new ConcurrentHashMap<>();
+                Map<String, Long> current = stored != null ? deltas.get(stored.seedId) : null;
+                if (current != null) {
+                    current.forEach((key, delta) -> stored.add(key, delta, maxDistinct));
+                }
+                generation.incrementAndGet();
+                return deltas;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void restore(Map<Long, Map<String, Long>> deltas) {
+            lock.writeLock().lock();
+            try {
+                deltas.forEach((seedId, sums) -> {
+                    Map<String, LongAdder> changes = pending.computeIfAbsent(seedId, id -> new ConcurrentHashMap<>());
+                    sums.forEach((key, delta) -> changes.computeIfAbsent(key, k -> new LongAdder()).add(delta));
+                });
+                // Stored already had the deltas added when they were drained
+                stored = null;
+                generation.incrementAndGet();
+                dirty = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        boolean setStored(Stored loaded, long expectedGeneration) {
+            lock.writeLock().lock();
+            try {
+                if (generation.get() != expectedGeneration) {
+                    return false;
+                }
+                stored = loaded;
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void clearStored() {
+            lock.writeLock().lock();
+            try {
+                stored = null;
+                generation.incrementAndGet();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // Null when the stored counts are not loaded, or were loaded more than maxAgeMillis ago and may miss other instances' flushes
+        AnswerDistributionDto snapshot(QuestionDto question, long maxAgeMillis) {
+            Stored view;
+            lock.readLock().lock();
+            try {
+                if (stored == null || System.currentTimeMillis() - stored.loadedAt >= maxAgeMillis) {
+                    return null;
+                }
+                view = stored.copy();
+                Map<String, LongAdder> changes = pending.get(view.seedId);
+                if (changes != null) {
+                    changes.forEach((key, count) -> view.add(key, count.sum(), maxDistinct));
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            List<AnswerDistributionDto.Entry> entries = new ArrayList<>();
+            Set<String> optionKeys = new HashSet<>();
+            long total = 0;
+            List<AnswerDto> options = question.getAnswers() != null ? question.getAnswers() : List.of();
+            for (AnswerDto option : options) {
+                String key = keyOf(option.getText());
+                if (key == null || !optionKeys.add(key)) {
+                    continue;
+                }
+                long count = Math.max(0, view.counts.getOrDefault(key, 0L));
+                total += count;
+                entries.add(new AnswerDistributionDto.Entry(option.getText(), count,
+                    Boolean.TRUE.equals(option.getIsCorrect()), true));
+            }
+
+            String correctKey = keyOf(question.getCorrectAnswer());
+            List<AnswerDistributionDto.Entry> given = new ArrayList<>();
+            for (Map.Entry<String, Long> entry : view.counts.entrySet()) {
+                long count = entry.getValue();
+                if (optionKeys.contains(entry.getKey()) || count <= 0) {
+                    continue;
+                }
+                total += count;
+                given.add(new AnswerDistributionDto.Entry(entry.getKey(), count, entry.getKey().equals(correctKey), false));
+            }
+            given.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+            entries.addAll(given);
+
+            long otherCount = Math.max(0, view.other);
+            return new AnswerDistributionDto(question.getId(), total + otherCount, entries, otherCount);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.aiquizzer.service;
+
+import com.aiquizzer.dto.GradedAnswer;
+import com.aiquizzer.journal.AnswerJournal;
+import com.aiquizzer.model.AttemptStatus;
+import com.aiquizzer.model.Question;
+import com.aiquizzer.model.QuizAttempt;
+import com.aiquizzer.model.User;
+import com.aiquizzer.model.UserAnswer;
+import com.aiquizzer.repository.QuizAttemptRepository;
+import com.aiquizzer.repository.UserAnswerRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind path for answer submissions, enabled with
+ * {@code quizzer.answers.write-behind.enabled}. An answer to an in-progress attempt is graded
+ * against per-attempt state held in memory and acknowledged once it is synced to the
+ * {@link AnswerJournal}; a scheduled writer moves journaled answers into {@code user_answers}
+ * with batched upserts. The journal checkpoint advances in the same transaction, and on start
+ * every answer above it is replayed before requests are served.
+ *
+ * <p>Anything that scores or closes an attempt calls {@link #drain} first, so the attempt's
+ * answers are in the database before it is read. Because the state and the journal are local,
+ * an attempt's submissions must all reach the same instance.
+ */
+@Service
+@ConditionalOnProperty(prefix = "quizzer.answers.write-behind", name = "enabled", havingValue = "true")
+public class AnswerWriteBehind implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AnswerWriteBehind.class);
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+    @Autowired
+    private UserAnswerRepository userAnswerRepository;
+    @Autowired
+    private AnswerBatchWriter answerBatchWriter;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${quizzer.attempts.submission-grace:PT2S}")
+    private Duration submissionGrace;
+
+    @Value("${quizzer.answers.write-behind.batch-size:1000}")
+    private int batchSize;
+
+    private final AnswerJournal journal;
+    private final TransactionTemplate writeTransaction;
+    private final Cache<Long, AttemptState> states;
+    private final Queue<GradedAnswer> queue = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // Taken off the queue but not committed yet; guarded by flushLock
+    private final List<GradedAnswer> unflushed = new ArrayList<>();
+    private volatile boolean running;
+
+    public AnswerWriteBehind(PlatformTransactionManager transactionManager,
+                             @Value("${quizzer.answers.write-behind.journal-directory:./data/answer-journal}") String journalDirectory,
+                             @Value("${quizzer.answers.write-behind.segment-bytes:67108864}") int segmentBytes,
+                             @Value("${quizzer.answers.write-behind.state-idle-timeout:PT2H}") Duration stateIdleTimeout) {
+        this.journal = new AnswerJournal(Paths.get(journalDirectory), segmentBytes);
+        // Commits on its own even when a drain runs inside a caller's transaction
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.states = Caffeine.newBuilder()
+            .expireAfterAccess(stateIdleTimeout)
+            .build();
+    }
+
+    public UserAnswer submit(Long attemptId, Long questionId, String userAnswer, User user) {
+        if (!running) {
+            throw new RuntimeException("Answer journal is not available");
+        }
+        AttemptState state = getState(attemptId);
+        state.lock.lock();
+        try {
+            if (state.closed) {
+                throw new RuntimeException("Quiz attempt is not in progress");
+            }
+            if (!state.userId.equals(user.getId())) {
+                throw new RuntimeException("Access denied");
+            }
+            LocalDateTime now = LocalDateTime.now();
+            if (state.deadlineAt != null && now.minus(submissionGrace).isAfter(state.deadlineAt)) {
+                throw new RuntimeException("Quiz attempt time limit exceeded");
+            }
+            Question question = state.questions.get(questionId);
+            if (question == null) {
+                throw new RuntimeException("Question not found in this quiz");
+            }
+
+            UserAnswer answer = new UserAnswer(user, question, null, userAnswer);
+            answer.checkAnswer();
+            answer.setAnsweredAt(now);
+            Boolean previousCorrect = state.answers.put(questionId, answer.getIsCorrect());
+            String previousAnswer = state.answerTexts.put(questionId, userAnswer);
+            if (Boolean.TRUE.equals(previousCorrect)) {
+                state.correctAnswers--;
+            }
+            if (answer.getIsCorrect()) {
+                state.correctAnswers++;
+            }
+
+            GradedAnswer record = new GradedAnswer(0, attemptId, user.getId(), questionId, userAnswer,
+                answer.getIsCorrect(), previousCorrect, previousAnswer, answer.getPointsEarned(), now, state.correctAnswers);
+            journal.append(record, queue::add);
+            journal.awaitDurable(record.getSequence());
+            return answer;
+        } catch (IOException e) {
+            // The answer may still be replayed; drop the state so the next submission reloads it
+            states.invalidate(attemptId);
+            throw new UncheckedIOException(e);
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting answers for the attempt and writes everything journaled so far. The closed
+     * state stays in place until the caller's transaction ends, so a submission arriving before the
+     * caller locks and closes the attempt is rejected instead of being acknowledged and left out of
+     * the score. Afterwards the state is dropped; the next submission reloads it under the row lock
+     * and sees whatever the caller committed.
+     */
+    public void drain(Long attemptId) {
+        // A closed placeholder also covers an attempt with no state here yet
+        AttemptState state = states.asMap().computeIfAbsent(attemptId, id -> AttemptState.closedPlaceholder());
+        state.lock.lock();
+        try {
+            state.closed = true;
+        } finally {
+            state.lock.unlock();
+        }
+        try {
+            flush();
+        } finally {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        states.asMap().remove(attemptId, state);
+                    }
+                });
+            } else {
+                states.asMap().remove(attemptId, state);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${quizzer.answers.write-behind.flush-interval-ms:200}")
+    public void scheduledFlush() {
+        if (running) {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.warn("Answer write-behind flush failed, will retry", e);
+            }
+        }
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            GradedAnswer next;
+            while ((next = queue.poll()) != null) {
+                unflushed.add(next);
+            }
+            long checkpoint = -1;
+            while (!unflushed.isEmpty()) {
+                List<GradedAnswer> batch = unflushed.subList(0, Math.min(batchSize, unflushed.size()));
+                write(batch);
+                checkpoint = batch.get(batch.size() - 1).getSequence();
+                batch.clear();
+            }
+            if (checkpoint >= 0) {
+                journal.truncate(checkpoint);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Answers in sequence order; one transaction per batch, which also advances the checkpoint
+    private void write(List<GradedAnswer> batch) {
+        writeTransaction.executeWithoutResult(status -> {
+            answerBatchWriter.write(batch);
+            jdbcTemplate.update("UPDATE answer_journal_checkpoint SET sequence = ? WHERE id = 1",
+                batch.get(batch.size() - 1).getSequence());
+        });
+    }
+
+    private AttemptState getState(Long attemptId) {
+        AttemptState state = states.getIfPresent(attemptId);
+        if (state != null) {
+            return state;
+        }
+        // Loaded outside the cache's compute lock, which would pin a virtual thread's carrier
+        AttemptState loaded = loadState(attemptId);
+        AttemptState existing = states.asMap().putIfAbsent(attemptId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    // Locks the row so a completion committing concurrently is seen before answers are accepted
+    private AttemptState loadState(Long attemptId) {
+        QuizAttempt attempt = quizAttemptRepository.findByIdForUpdate(attemptId)
+            .orElseThrow(() -> new RuntimeException("Quiz attempt not found"));
+        AttemptState state = new AttemptState(attempt.getUser().getId(), attempt.getDeadlineAt());
+        state.closed = attempt.getStatus() != AttemptStatus.IN_PROGRESS;
+        for (Question question : attempt.getQuiz().getQuestions()) {
+            state.questions.put(question.getId(), question);
+        }
+        for (UserAnswer answer : userAnswerRepository.findByQuizAttempt(attempt)) {
+            state.answers.put(answer.getQuestion().getId(), answer.getIsCorrect());
+            state.answerTexts.put(answer.getQuestion().getId(), answer.getUserAnswer());
+            if (Boolean.TRUE.equals(answer.getIsCorrect())) {
+                state.correctAnswers++;
+            }
+        }
+        return state;
+    }
+
+    @Override
+    public void start() {
+        try {
+            Long checkpoint = jdbcTemplate.queryForObject("SELECT sequence FROM answer_journal_checkpoint WHERE id = 1", Long.class);
+            queue.addAll(journal.open(checkpoint != null ? checkpoint : 0));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the answer journal", e);
+        }
+        // Replayed answers reach the database before any new submission is accepted
+        flush();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            flush();
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Before the web server starts and after it stops
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private static class AttemptState {
+
+        final ReentrantLock lock = new ReentrantLock();
+        final Long userId;
+        final LocalDateTime deadlineAt;
+        final Map<Long, Question> questions = new HashMap<>();
+        // Question id to whether its latest answer is correct
+        final Map<Long, Boolean> answers = new HashMap<>();
+        final Map<Long, String> answerTexts = new HashMap<>();
+        int correctAnswers;
+        boolean closed;
+
+        AttemptState(Long userId, LocalDateTime deadlineAt) {
+            this.userId = userId;
+            this.deadlineAt = deadlineAt;
+        }
+
+        // Rejects every submission; never reaches the user check
+        static AttemptState closedPlaceholder() {
+            AttemptState state = new AttemptState(null, null);
+            state.closed = true;
+            return state;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.aiquizzer.service;
+
+import com.aiquizzer.event.QuizAttemptEvent;
+import com.aiquizzer.model.AttemptStatus;
+import com.aiquizzer.repository.QuizAttemptRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Enforces attempt time limits. Every in-progress attempt with a deadline has a timer on a
+ * {@link HashedWheelTimer}; when it fires the attempt is scored and completed with the answers
+ * submitted in time. Timers are rebuilt from {@code quiz_attempts.deadline_at} on start, and a
+ * deadline that passed while the application was down fires on the first tick.
+ */
+@Service
+public class AttemptDeadlineService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttemptDeadlineService.class);
+
+    @Autowired
+    private QuizAttemptService quizAttemptService;
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Value("${quizzer.attempts.rebuild-batch-size:1000}")
+    private int rebuildBatchSize;
+
+    private final HashedWheelTimer<Long> timer;
+
+    public AttemptDeadlineService(MeterRegistry meterRegistry,
+                                  @Value("${quizzer.attempts.timer.tick-ms:1000}") long tickMillis,
+                                  @Value("${quizzer.attempts.timer.wheel-size:512}") int wheelSize) {
+        this.timer = new HashedWheelTimer<>("attempt-deadlines", tickMillis, wheelSize, this::onExpired);
+        Gauge.builder("quizzer.attempts.deadlines.pending", timer, HashedWheelTimer::size)
+            .description("In-progress attempts with a pending deadline timer")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        timer.start();
+        long afterId = 0;
+        int scheduled = 0;
+        while (true) {
+            List<Object[]> batch = quizAttemptRepository.findInProgressDeadlines(afterId, PageRequest.of(0, rebuildBatchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (Object[] row : batch) {
+                schedule((Long) row[0], (LocalDateTime) row[1]);
+            }
+            scheduled += batch.size();
+            afterId = (Long) batch.get(batch.size() - 1)[0];
+        }
+        log.info("Attempt deadline timers rebuilt for {} attempts", scheduled);
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.stop();
+    }
+
+    @TransactionalEventListener
+    public void onQuizAttemptEvent(QuizAttemptEvent event) {
+        if (event.getStatus() == AttemptStatus.IN_PROGRESS) {
+            if (event.getDeadlineAt() != null) {
+                schedule(event.getAttemptId(), event.getDeadlineAt());
+            }
+        } else if (event.getPreviousStatus() == AttemptStatus.IN_PROGRESS) {
+            timer.cancel(event.getAttemptId());
+        }
+    }
+
+    private void schedule(Long attemptId, LocalDateTime deadlineAt) {
+        timer.schedule(attemptId, deadlineAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    // Runs on the wheel's thread; the transactions go to the task executor so the wheel keeps ticking
+    private void onExpired(List<Long> attemptIds) {
+        taskExecutor.execute(() -> {
+            for (Long attemptId : attemptIds) {
+                try {
+                    quizAttemptService.expireAttempt(attemptId);
+                } catch (RuntimeException e) {
+                    log.warn("Could not expire quiz attempt {}", attemptId, e);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,196 @@
+package com.aiquizzer.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Removes soft-deleted quizzes and users together with everything that references them. Each
+ * table is cleared with set-based {@code DELETE ... LIMIT} statements, one short transaction per
+ * chunk, children before parents so the foreign keys hold between chunks. Statements go through
+ * JDBC rather than Hibernate so that no second-level cache region is invalidated by the purge.
+ */
+@Service
+public class DeletionPurger {
+
+    private static final Logger log = LoggerFactory.getLogger(DeletionPurger.class);
+
+    // Archived answers stay in their segment until AnswerArchiver rewrites it; the condition is appended
+    private static final String TOMBSTONE_ARCHIVED_ATTEMPTS =
+        "INSERT IGNORE INTO answer_archive_purged_attempts (attempt_id, purged_at) SELECT id, :now FROM quiz_attempts WHERE ";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    @Autowired
+    private QuizLeaderboardService quizLeaderboardService;
+    @Autowired
+    private QuizStatisticsService quizStatisticsService;
+    @Autowired
+    private AnswerDistributionService answerDistributionService;
+
+    @Value("${quizzer.purge.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${quizzer.purge.max-entities-per-run:100}")
+    private int maxEntitiesPerRun;
+
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer runTimer;
+    private final AtomicLong pendingQuizzes = new AtomicLong();
+    private final AtomicLong pendingUsers = new AtomicLong();
+    private final Map<String, Counter> deletedRows = new ConcurrentHashMap<>();
+
+    public DeletionPurger(MeterRegistry meterRegistry, PlatformTransactionManager transactionManager) {
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.runTimer = Timer.builder("quizzer.purge.run")
+            .description("Time spent per purge run")
+            .register(meterRegistry);
+        Gauge.builder("quizzer.purge.pending", pendingQuizzes, AtomicLong::get)
+            .tag("entity", "quiz")
+            .description("Soft-deleted rows waiting to be purged")
+            .register(meterRegistry);
+        Gauge.builder("quizzer.purge.pending", pendingUsers, AtomicLong::get)
+            .tag("entity", "user")
+            .description("Soft-deleted rows waiting to be purged")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${quizzer.purge.interval-ms:30000}",
+               fixedDelayString = "${quizzer.purge.interval-ms:30000}")
+    public void purge() {
+        runTimer.record(() -> {
+            try {
+                // Quizzes first: a user row can only go once the quizzes it owns are gone
+                for (Long quizId : findDeleted("quizzes")) {
+                    purgeQuiz(quizId);
+                }
+                for (Long userId : findDeleted("users")) {
+                    purgeUser(userId);
+                }
+                pendingQuizzes.set(countDeleted("quizzes"));
+                pendingUsers.set(countDeleted("users"));
+            } catch (RuntimeException e) {
+                log.warn("Purge run failed, will retry on the next run", e);
+            }
+        });
+    }
+
+    void purgeQuiz(long quizId) {
+        deleteInChunks("user_answers",
+            "DELETE FROM user_answers WHERE quiz_attempt_id IN (SELECT id FROM quiz_attempts WHERE quiz_id = ?) LIMIT ?", quizId);
+        deleteInChunks("user_answers",
+            "DELETE FROM user_answers WHERE question_id IN (SELECT id FROM questions WHERE quiz_id = ?) LIMIT ?", quizId);
+        deleteInChunks("answers",
+            "DELETE FROM answers WHERE question_id IN (SELECT id FROM questions WHERE quiz_id = ?) LIMIT ?", quizId);
+        deleteInChunks("answer_distribution",
+            "DELETE FROM answer_distribution WHERE question_id IN (SELECT id FROM questions WHERE quiz_id = ?) LIMIT ?", quizId);
+        deleteInChunks("answer_distribution_seeds",
+            "DELETE FROM answer_distribution_seeds WHERE question_id IN (SELECT id FROM questions WHERE quiz_id = ?) LIMIT ?", quizId);
+        deleteInChunks("questions", "DELETE FROM questions WHERE quiz_id = ? LIMIT ?", quizId);
+        // After the questions, so the item analysis job cannot add a row back
+        deleteInChunks("question_statistics", "DELETE FROM question_statistics WHERE quiz_id = ? LIMIT ?", quizId);
+        // Before the attempts go, so archived answers to the quiz are still found by them
+        namedParameterJdbcTemplate.update(TOMBSTONE_ARCHIVED_ATTEMPTS + "quiz_id = :quizId AND answers_archived_at IS NOT NULL",
+            new MapSqlParameterSource("quizId", quizId).addValue("now", LocalDateTime.now()));
+        deleteInChunks("quiz_attempts", "DELETE FROM quiz_attempts WHERE quiz_id = ? LIMIT ?", quizId);
+        record("quiz_score_bands", jdbcTemplate.update("DELETE FROM quiz_score_bands WHERE quiz_id = ?", quizId));
+        record("quiz_statistics", jdbcTemplate.update("DELETE FROM quiz_statistics WHERE quiz_id = ?", quizId));
+        record("quizzes", jdbcTemplate.update("DELETE FROM quizzes WHERE id = ? AND deleted_at IS NOT NULL", quizId));
+    }
+
+    void purgeUser(long userId) {
+        // Attempts on other users' quizzes change those quizzes' boards and counters
+        List<Long> attemptedQuizIds = jdbcTemplate.queryForList(
+            "SELECT DISTINCT quiz_id FROM quiz_attempts WHERE user_id = ?", Long.class, userId);
+
+        deleteInChunks("user_answers", "DELETE FROM user_answers WHERE user_id = ? LIMIT ?", userId);
+        deleteInChunks("user_answers",
+            "DELETE FROM user_answers WHERE quiz_attempt_id IN (SELECT id FROM quiz_attempts WHERE user_id = ?) LIMIT ?", userId);
+        deleteAttemptsInChunks(userId);
+        for (Long quizId : attemptedQuizIds) {
+            quizLeaderboardService.evict(quizId);
+            quizStatisticsService.evict(quizId);
+            answerDistributionService.evictQuiz(quizId);
+        }
+
+        Long remainingQuizzes = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM quizzes WHERE user_id = ?", Long.class, userId);
+        if (remainingQuizzes != null && remainingQuizzes > 0) {
+            // Quizzes created after the delete request, or not purged yet; retried on the next run
+            return;
+        }
+        deleteInChunks("user_topic_statistics", "DELETE FROM user_topic_statistics WHERE user_id = ? LIMIT ?", userId);
+        record("user_statistics", jdbcTemplate.update("DELETE FROM user_statistics WHERE user_id = ?", userId));
+        record("users", jdbcTemplate.update("DELETE FROM users WHERE id = ? AND deleted_at IS NOT NULL", userId));
+    }
+
+    private List<Long> findDeleted(String table) {
+        return jdbcTemplate.queryForList(
+            "SELECT id FROM " + table + " WHERE deleted_at IS NOT NULL ORDER BY deleted_at LIMIT ?", Long.class, maxEntitiesPerRun);
+    }
+
+    private long countDeleted(String table) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE deleted_at IS NOT NULL", Long.class);
+        return count != null ? count : 0;
+    }
+
+    private void deleteInChunks(String table, String sql, long id) {
+        int deleted;
+        do {
+            // Each statement commits on its own, so locks are held for one chunk at a time
+            deleted = jdbcTemplate.update(sql, id, chunkSize);
+            record(table, deleted);
+        } while (deleted == chunkSize);
+    }
+
+    // Each chunk leaves the quiz statistics in the transaction that deletes it, so no attempt is taken out twice or kept
+    private void deleteAttemptsInChunks(long userId) {
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> {
+                List<Long> attemptIds = jdbcTemplate.queryForList(
+                    "SELECT id FROM quiz_attempts WHERE user_id = ? LIMIT ? FOR UPDATE", Long.class, userId, chunkSize);
+                if (attemptIds.isEmpty()) {
+                    return 0;
+                }
+                quizStatisticsService.subtractAttempts(attemptIds);
+                MapSqlParameterSource ids = new MapSqlParameterSource("ids", attemptIds);
+                namedParameterJdbcTemplate.update(TOMBSTONE_ARCHIVED_ATTEMPTS + "id IN (:ids) AND answers_archived_at IS NOT NULL",
+                    ids.addValue("now", LocalDateTime.now()));
+                return namedParameterJdbcTemplate.update("DELETE FROM quiz_attempts WHERE id IN (:ids)", ids);
+            });
+            record("quiz_attempts", deleted);
+        } while (deleted == chunkSize);
+    }
+
+    private void record(String table, int rows) {
+        if (rows > 0) {
+            deletedRows.computeIfAbsent(table, key -> Counter.builder("quizzer.purge.rows")
+                    .tag("table", key)
+                    .description("Rows removed by the background purge")
+                    .register(meterRegistry))
+                .increment(rows);
+        }
+    }
+}
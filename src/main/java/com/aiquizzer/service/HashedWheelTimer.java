@@ -0,0 +1,176 @@
+package com.aiquizzer.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel keyed by an id. Scheduling and cancelling are O(1) and allocate one small
+ * object, so hundreds of thousands of pending deadlines cost a few megabytes and no threads.
+ * A single worker advances the wheel once per tick and hands the keys that expired during the
+ * tick to {@code onExpired} in one batch; deadlines fire up to one tick late, never early.
+ *
+ * <p>Only the worker touches the buckets. Other threads add timeouts to a queue the worker drains
+ * each tick and cancel by flagging, so no lock is shared between callers and the worker.
+ */
+public class HashedWheelTimer<K> {
+
+    private static final Logger log = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    // Bounds the work done per tick when a burst of timeouts is scheduled at once
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickMillis;
+    private final int mask;
+    private final List<Timeout<K>>[] wheel;
+    private final Queue<Timeout<K>> pending = new ConcurrentLinkedQueue<>();
+    private final Map<K, Timeout<K>> timeouts = new ConcurrentHashMap<>();
+    private final Consumer<List<K>> onExpired;
+    private final Thread worker;
+
+    private volatile boolean running;
+    private long startMillis;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public HashedWheelTimer(String name, long tickMillis, int wheelSize, Consumer<List<K>> onExpired) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.wheel = new List[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new ArrayList<>();
+        }
+        this.onExpired = onExpired;
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+    }
+
+    public synchronized void start() {
+        if (!running) {
+            startMillis = System.currentTimeMillis();
+            running = true;
+            worker.start();
+        }
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    /**
+     * Schedules {@code key} to expire at {@code deadlineMillis} (epoch millis), replacing any
+     * deadline already pending for it. A deadline in the past expires on the next tick.
+     */
+    public void schedule(K key, long deadlineMillis) {
+        Timeout<K> timeout = new Timeout<>(key, deadlineMillis);
+        Timeout<K> previous = timeouts.put(key, timeout);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        pending.add(timeout);
+    }
+
+    public void cancel(K key) {
+        Timeout<K> timeout = timeouts.remove(key);
+        if (timeout != null) {
+            timeout.cancelled = true;
+        }
+    }
+
+    public int size() {
+        return timeouts.size();
+    }
+
+    private void run() {
+        while (running) {
+            long tickDeadline = startMillis + (tick + 1) * tickMillis;
+            long sleepMillis = tickDeadline - System.currentTimeMillis();
+            if (sleepMillis > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        return;
+                    }
+                    continue;
+                }
+            }
+            transferPending();
+            List<K> expired = expireBucket(wheel[(int) (tick & mask)]);
+            tick++;
+            if (!expired.isEmpty()) {
+                try {
+                    onExpired.accept(expired);
+                } catch (RuntimeException e) {
+                    log.error("Expiry callback failed for {} timeouts", expired.size(), e);
+                }
+            }
+        }
+    }
+
+    private void transferPending() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout<K> timeout = pending.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.cancelled) {
+                continue;
+            }
+            // Bucket n is processed at the end of its tick, so floor division never fires early;
+            // a deadline that already passed goes into the current bucket
+            long ticks = Math.max(0, timeout.deadlineMillis - startMillis) / tickMillis;
+            long target = Math.max(ticks, tick);
+            timeout.remainingRounds = (target - tick) / wheel.length;
+            wheel[(int) (target & mask)].add(timeout);
+        }
+    }
+
+    private List<K> expireBucket(List<Timeout<K>> bucket) {
+        List<K> expired = new ArrayList<>();
+        int kept = 0;
+        for (int i = 0; i < bucket.size(); i++) {
+            Timeout<K> timeout = bucket.get(i);
+            if (timeout.cancelled) {
+                continue;
+            }
+            if (timeout.remainingRounds <= 0) {
+                // Only the current timeout for the key fires; a replaced one was flagged above
+                if (timeouts.remove(timeout.key, timeout)) {
+                    expired.add(timeout.key);
+                }
+                continue;
+            }
+            timeout.remainingRounds--;
+            bucket.set(kept++, timeout);
+        }
+        bucket.subList(kept, bucket.size()).clear();
+        return expired;
+    }
+
+    private static class Timeout<K> {
+
+        final K key;
+        final long deadlineMillis;
+        long remainingRounds;
+        volatile boolean cancelled;
+
+        Timeout(K key, long deadlineMillis) {
+            this.key = key;
+            this.deadlineMillis = deadlineMillis;
+        }
+    }
+}
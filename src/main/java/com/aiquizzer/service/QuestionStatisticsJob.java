@@ -0,0 +1,269 @@
+package com.aiquizzer.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Incremental item analysis. Walks completed attempts past a high-water mark in chunks, streams
+ * each chunk's answers through a forward-only cursor, and adds the per-question sums to
+ * {@code question_statistics} in the transaction that advances the mark, so every attempt is
+ * counted once. Only the sums of one chunk are held in memory.
+ *
+ * <p>Attempts completed within {@code quizzer.item-analysis.settle-time} are left for a later run,
+ * so one whose transaction commits after a later-stamped attempt is not skipped.
+ */
+@Component
+public class QuestionStatisticsJob {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionStatisticsJob.class);
+
+    // Answers of one chunk in attempt order, then answer order, so per-answer time can be derived
+    private static final String CHUNK_ANSWERS =
+        "SELECT ua.quiz_attempt_id, ua.question_id, ua.is_correct, ua.time_taken_seconds, ua.answered_at, " +
+        "qa.quiz_id, qa.started_at, qa.correct_answers, qa.total_questions " +
+        "FROM quiz_attempts qa JOIN user_answers ua ON ua.quiz_attempt_id = qa.id " +
+        "WHERE qa.status = 'COMPLETED' AND qa.completed_at < ? " +
+        "AND (qa.completed_at > ? OR (qa.completed_at = ? AND qa.id > ?)) " +
+        "AND (qa.completed_at < ? OR (qa.completed_at = ? AND qa.id <= ?)) " +
+        "ORDER BY qa.completed_at, qa.id, ua.answered_at, ua.id";
+
+    private static final String ADD_STATISTICS =
+        "INSERT INTO question_statistics (question_id, quiz_id, responses, correct_responses, scored_responses, " +
+        "scored_correct_responses, rest_score_sum, rest_score_square_sum, correct_rest_score_sum, time_taken_sum, " +
+        "timed_responses, updated_at) " +
+        "SELECT id, quiz_id, ?, ?, ?, ?, ?, ?, ?, ?, ?, ? FROM questions WHERE id = ? " +
+        "ON DUPLICATE KEY UPDATE responses = responses + VALUES(responses), " +
+        "correct_responses = correct_responses + VALUES(correct_responses), " +
+        "scored_responses = scored_responses + VALUES(scored_responses), " +
+        "scored_correct_responses = scored_correct_responses + VALUES(scored_correct_responses), " +
+        "rest_score_sum = rest_score_sum + VALUES(rest_score_sum), " +
+        "rest_score_square_sum = rest_score_square_sum + VALUES(rest_score_square_sum), " +
+        "correct_rest_score_sum = correct_rest_score_sum + VALUES(correct_rest_score_sum), " +
+        "time_taken_sum = time_taken_sum + VALUES(time_taken_sum), " +
+        "timed_responses = timed_responses + VALUES(timed_responses), updated_at = VALUES(updated_at)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${quizzer.item-analysis.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${quizzer.item-analysis.max-chunks-per-run:100}")
+    private int maxChunksPerRun;
+
+    @Value("${quizzer.item-analysis.settle-time:PT10M}")
+    private Duration settleTime;
+
+    private final Counter analyzedAnswers;
+    private final Timer runTimer;
+
+    public QuestionStatisticsJob(MeterRegistry meterRegistry) {
+        this.analyzedAnswers = Counter.builder("quizzer.item-analysis.answers")
+            .description("Answers added to question statistics")
+            .register(meterRegistry);
+        this.runTimer = Timer.builder("quizzer.item-analysis.run")
+            .description("Duration of an item analysis run")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${quizzer.item-analysis.interval-ms:300000}",
+               fixedDelayString = "${quizzer.item-analysis.interval-ms:300000}")
+    public void run() {
+        runTimer.record(() -> {
+            LocalDateTime cutoff = LocalDateTime.now().minus(settleTime);
+            try {
+                for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+                    if (!analyzeChunk(cutoff)) {
+                        break;
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Item analysis run failed, will retry on the next run", e);
+            }
+        });
+    }
+
+    // Returns whether a full chunk was analyzed, i.e. more attempts may be waiting
+    private boolean analyzeChunk(LocalDateTime cutoff) {
+        Mark from = jdbcTemplate.queryForObject(
+            "SELECT completed_at, attempt_id FROM question_statistics_checkpoint WHERE id = 1",
+            (rs, rowNum) -> Mark.from(rs));
+        // Before any attempt; completed_at is never null for a completed attempt
+        LocalDateTime fromTime = from.completedAt != null ? from.completedAt : LocalDateTime.of(1970, 1, 1, 0, 0);
+
+        List<Mark> attempts = jdbcTemplate.query(
+            "SELECT completed_at, id FROM quiz_attempts WHERE status = 'COMPLETED' AND completed_at < ? " +
+            "AND (completed_at > ? OR (completed_at = ? AND id > ?)) ORDER BY completed_at, id LIMIT ?",
+            (rs, rowNum) -> Mark.from(rs), cutoff, fromTime, fromTime, from.attemptId, chunkSize);
+        if (attempts.isEmpty()) {
+            return false;
+        }
+        Mark to = attempts.get(attempts.size() - 1);
+
+        Map<Long, ItemSums> sums = new HashMap<>();
+        long[] answers = new long[1];
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(CHUNK_ANSWERS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Streams rows one at a time with MySQL Connector/J instead of buffering the result
+            statement.setFetchSize(Integer.MIN_VALUE);
+            statement.setObject(1, cutoff);
+            statement.setObject(2, fromTime);
+            statement.setObject(3, fromTime);
+            statement.setLong(4, from.attemptId);
+            statement.setObject(5, to.completedAt);
+            statement.setObject(6, to.completedAt);
+            statement.setLong(7, to.attemptId);
+            return statement;
+        }, new ChunkHandler(sums, answers));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(sums.size());
+        sums.forEach((questionId, s) -> rows.add(new Object[] {
+            s.responses, s.correct, s.scored, s.scoredCorrect, s.restSum, s.restSquareSum, s.correctRestSum,
+            s.timeSum, s.timed, now, questionId }));
+
+        Boolean advanced = transactionTemplate.execute(status -> {
+            // Another instance that analyzed this chunk first has moved the mark
+            Mark current = jdbcTemplate.queryForObject(
+                "SELECT completed_at, attempt_id FROM question_statistics_checkpoint WHERE id = 1 FOR UPDATE",
+                (rs, rowNum) -> Mark.from(rs));
+            if (!from.equals(current)) {
+                return false;
+            }
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(ADD_STATISTICS, rows);
+            }
+            jdbcTemplate.update("UPDATE question_statistics_checkpoint SET completed_at = ?, attempt_id = ? WHERE id = 1",
+                to.completedAt, to.attemptId);
+            return true;
+        });
+        if (!Boolean.TRUE.equals(advanced)) {
+            return false;
+        }
+        analyzedAnswers.increment(answers[0]);
+        return attempts.size() == chunkSize;
+    }
+
+    private static class ChunkHandler implements RowCallbackHandler {
+
+        private final Map<Long, ItemSums> sums;
+        private final long[] answers;
+        private long attemptId = -1;
+        private LocalDateTime previousAnsweredAt;
+
+        ChunkHandler(Map<Long, ItemSums> sums, long[] answers) {
+            this.sums = sums;
+            this.answers = answers;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long rowAttemptId = rs.getLong("quiz_attempt_id");
+            LocalDateTime answeredAt = rs.getObject("answered_at", LocalDateTime.class);
+            if (rowAttemptId != attemptId) {
+                attemptId = rowAttemptId;
+                previousAnsweredAt = rs.getObject("started_at", LocalDateTime.class);
+            }
+            boolean correct = rs.getBoolean("is_correct");
+            long timeTaken = rs.getLong("time_taken_seconds");
+            boolean timed = !rs.wasNull();
+            // Untimed answers are taken as the time since the attempt's previous answer, or its start
+            if (!timed && answeredAt != null && previousAnsweredAt != null && !answeredAt.isBefore(previousAnsweredAt)) {
+                timeTaken = Duration.between(previousAnsweredAt, answeredAt).getSeconds();
+                timed = true;
+            }
+            if (answeredAt != null) {
+                previousAnsweredAt = answeredAt;
+            }
+
+            ItemSums s = sums.computeIfAbsent(rs.getLong("question_id"), id -> new ItemSums());
+            s.responses++;
+            if (correct) {
+                s.correct++;
+            }
+            int totalQuestions = rs.getInt("total_questions");
+            if (totalQuestions > 1) {
+                // The attempt's score without this question, so the item does not correlate with itself
+                double rest = (rs.getInt("correct_answers") - (correct ? 1 : 0)) * 100.0 / (totalQuestions - 1);
+                s.scored++;
+                s.restSum += rest;
+                s.restSquareSum += rest * rest;
+                if (correct) {
+                    s.scoredCorrect++;
+                    s.correctRestSum += rest;
+                }
+            }
+            if (timed) {
+                s.timeSum += timeTaken;
+                s.timed++;
+            }
+            answers[0]++;
+        }
+    }
+
+    private static class ItemSums {
+        long responses;
+        long correct;
+        long scored;
+        long scoredCorrect;
+        double restSum;
+        double restSquareSum;
+        double correctRestSum;
+        long timeSum;
+        long timed;
+    }
+
+    private static class Mark {
+
+        final LocalDateTime completedAt;
+        final long attemptId;
+
+        Mark(LocalDateTime completedAt, long attemptId) {
+            this.completedAt = completedAt;
+            this.attemptId = attemptId;
+        }
+
+        static Mark from(ResultSet rs) throws SQLException {
+            Timestamp completedAt = rs.getTimestamp(1);
+            return new Mark(completedAt != null ? completedAt.toLocalDateTime() : null, rs.getLong(2));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Mark)) {
+                return false;
+            }
+            Mark other = (Mark) o;
+            return attemptId == other.attemptId && Objects.equals(completedAt, other.completedAt);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(completedAt, attemptId);
+        }
+    }
+}
@@ -1,19 +1,38 @@
 package com.aiquizzer.service;
 
+import com.aiquizzer.archive.AnswerArchive;
+import com.aiquizzer.archive.ArchivedAnswer;
+import com.aiquizzer.dto.AnswerReviewDto;
+import com.aiquizzer.dto.CursorSlice;
+import com.aiquizzer.dto.KeysetCursor;
+import com.aiquizzer.dto.LeaderboardEntry;
+import com.aiquizzer.event.QuizAttemptEvent;
+import com.aiquizzer.event.UserAnswerGradedEvent;
 import com.aiquizzer.model.*;
+import com.aiquizzer.repository.QuestionRepository;
 import com.aiquizzer.repository.QuizAttemptRepository;
 import com.aiquizzer.repository.QuizRepository;
 import com.aiquizzer.repository.UserAnswerRepository;
 import com.aiquizzer.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -25,6 +44,23 @@ public class QuizAttemptService {
     private UserAnswerRepository userAnswerRepository;
     @Autowired
     private QuizRepository quizRepository;
+    @Autowired
+    private QuestionRepository questionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private AnswerArchive answerArchive;
+    @Autowired
+    private QuizLeaderboardService quizLeaderboardService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired(required = false)
+    private AnswerWriteBehind answerWriteBehind;
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${quizzer.attempts.submission-grace:PT2S}")
+    private Duration submissionGrace;
     
     public QuizAttempt startQuizAttempt(Long quizId, User user) {
         Optional<Quiz> quizOpt = quizRepository.findById(quizId);
@@ -39,15 +75,69 @@ public class QuizAttemptService {
             .findInProgressAttemptByUserAndQuiz(user, quiz);
         
         if (existingAttempt.isPresent()) {
-            return existingAttempt.get();
+            QuizAttempt existing = existingAttempt.get();
+            if (!existing.isPastDeadline(LocalDateTime.now())) {
+                return existing;
+            }
+            // Its timer has not fired yet. Expire it as the timer would, under the row lock, so only one of them closes it;
+            // detached first, or the locked read would hand back this unlocked copy
+            entityManager.detach(existing);
+            expireAttempt(existing.getId());
         }
         
         QuizAttempt attempt = new QuizAttempt(user, quiz);
-        return quizAttemptRepository.save(attempt);
+        Duration timeLimit = timeLimitOf(quiz);
+        if (timeLimit != null) {
+            LocalDateTime now = LocalDateTime.now();
+            attempt.setStartedAt(now);
+            attempt.setDeadlineAt(now.plus(timeLimit));
+        }
+        attempt = quizAttemptRepository.save(attempt);
+        eventPublisher.publishEvent(QuizAttemptEvent.of(attempt, null));
+        return attempt;
     }
     
+    // The room paces its questions, so the attempt has no deadline of its own; a solo attempt in progress is abandoned
+    public QuizAttempt startRoomAttempt(Long quizId, User user) {
+        Quiz quiz = quizRepository.findById(quizId)
+            .orElseThrow(() -> new RuntimeException("Quiz not found"));
+
+        Optional<QuizAttempt> existingAttempt = quizAttemptRepository.findInProgressAttemptByUserAndQuiz(user, quiz);
+        if (existingAttempt.isPresent()) {
+            // Detached first, or the locked read would hand back this unlocked copy; a concurrent submit may have completed it
+            QuizAttempt existing = existingAttempt.get();
+            entityManager.detach(existing);
+            drainWrittenBehindAnswers(existing.getId());
+            quizAttemptRepository.findByIdForUpdate(existing.getId())
+                .filter(attempt -> attempt.getStatus() == AttemptStatus.IN_PROGRESS)
+                .ifPresent(this::abandon);
+        }
+
+        QuizAttempt attempt = quizAttemptRepository.save(new QuizAttempt(user, quiz));
+        eventPublisher.publishEvent(QuizAttemptEvent.of(attempt, null));
+        return attempt;
+    }
+
+    // Completes the attempts of a finished room; their answers have already been written
+    public void completeRoomAttempts(List<Long> attemptIds) {
+        for (Long attemptId : attemptIds) {
+            quizAttemptRepository.findByIdForUpdate(attemptId)
+                .filter(attempt -> attempt.getStatus() == AttemptStatus.IN_PROGRESS)
+                .ifPresent(attempt -> {
+                    attempt.completeAttempt();
+                    attempt.calculateScore();
+                    QuizAttempt savedAttempt = quizAttemptRepository.save(attempt);
+                    eventPublisher.publishEvent(QuizAttemptEvent.of(savedAttempt, AttemptStatus.IN_PROGRESS));
+                });
+        }
+    }
+
     public UserAnswer submitAnswer(Long attemptId, Long questionId, String userAnswer, User user) {
-        Optional<QuizAttempt> attemptOpt = quizAttemptRepository.findById(attemptId);
+        if (answerWriteBehind != null) {
+            return answerWriteBehind.submit(attemptId, questionId, userAnswer, user);
+        }
+        
+        Optional<QuizAttempt> attemptOpt = quizAttemptRepository.findByIdForUpdate(attemptId);
         if (attemptOpt.isEmpty()) {
             throw new RuntimeException("Quiz attempt not found");
         }
@@ -55,7 +145,7 @@ public class QuizAttemptService {
         QuizAttempt attempt = attemptOpt.get();
         
         // Verify the attempt belongs to the user
-        if (!attempt.getUser().equals(user)) {
+        if (!attempt.getUser().getId().equals(user.getId())) {
             throw new RuntimeException("Access denied");
         }
         
@@ -64,6 +154,11 @@ public class QuizAttemptService {
             throw new RuntimeException("Quiz attempt is not in progress");
         }
         
+        // Allows for the request's own latency; the deadline timer completes the attempt shortly after
+        if (attempt.isPastDeadline(LocalDateTime.now().minus(submissionGrace))) {
+            throw new RuntimeException("Quiz attempt time limit exceeded");
+        }
+        
         // Check if answer already exists
         Optional<UserAnswer> existingAnswer = userAnswerRepository
             .findByQuizAttemptAndQuestion(attempt, attempt.getQuiz().getQuestions().stream()
@@ -72,8 +167,12 @@ public class QuizAttemptService {
                 .orElseThrow(() -> new RuntimeException("Question not found in this quiz")));
         
         UserAnswer answer;
+        Boolean previousCorrect = null;
+        String previousAnswer = null;
         if (existingAnswer.isPresent()) {
             answer = existingAnswer.get();
+            previousCorrect = answer.getIsCorrect();
+            previousAnswer = answer.getUserAnswer();
             answer.setUserAnswer(userAnswer);
         } else {
             Question question = attempt.getQuiz().getQuestions().stream()
@@ -92,11 +191,16 @@ public class QuizAttemptService {
         // Update attempt statistics
         updateAttemptStatistics(attempt);
         
+        eventPublisher.publishEvent(new UserAnswerGradedEvent(
+            user.getId(), attempt.getId(), savedAnswer.getQuestion().getId(), previousCorrect, savedAnswer.getIsCorrect(),
+            previousAnswer, savedAnswer.getUserAnswer()));
+        
         return savedAnswer;
     }
     
     public QuizAttempt completeQuizAttempt(Long attemptId, User user) {
-        Optional<QuizAttempt> attemptOpt = quizAttemptRepository.findById(attemptId);
+        drainWrittenBehindAnswers(attemptId);
+        Optional<QuizAttempt> attemptOpt = quizAttemptRepository.findByIdForUpdate(attemptId);
         if (!attemptOpt.isPresent()) {
             throw new RuntimeException("Quiz attempt not found");
         }
@@ -104,7 +208,7 @@ public class QuizAttemptService {
         QuizAttempt attempt = attemptOpt.get();
         
         // Verify the attempt belongs to the user
-        if (!attempt.getUser().equals(user)) {
+        if (!attempt.getUser().getId().equals(user.getId())) {
             throw new RuntimeException("Access denied");
         }
         
@@ -117,11 +221,14 @@ public class QuizAttemptService {
         attempt.completeAttempt();
         attempt.calculateScore();
         
-        return quizAttemptRepository.save(attempt);
+        QuizAttempt savedAttempt = quizAttemptRepository.save(attempt);
+        eventPublisher.publishEvent(QuizAttemptEvent.of(savedAttempt, AttemptStatus.IN_PROGRESS));
+        return savedAttempt;
     }
     
     public QuizAttempt abandonQuizAttempt(Long attemptId, User user) {
-        Optional<QuizAttempt> attemptOpt = quizAttemptRepository.findById(attemptId);
+        drainWrittenBehindAnswers(attemptId);
+        Optional<QuizAttempt> attemptOpt = quizAttemptRepository.findByIdForUpdate(attemptId);
         if (!attemptOpt.isPresent()) {
             throw new RuntimeException("Quiz attempt not found");
         }
@@ -129,77 +236,226 @@ public class QuizAttemptService {
         QuizAttempt attempt = attemptOpt.get();
         
         // Verify the attempt belongs to the user
-        if (!attempt.getUser().equals(user)) {
+        if (!attempt.getUser().getId().equals(user.getId())) {
             throw new RuntimeException("Access denied");
         }
         
-        // Abandon the attempt
+        // A completed or expired attempt keeps its result
+        if (attempt.getStatus() != AttemptStatus.IN_PROGRESS) {
+            throw new RuntimeException("Quiz attempt is not in progress");
+        }
+        
+        return abandon(attempt);
+    }
+    
+    // The attempt must be locked and in progress
+    private QuizAttempt abandon(QuizAttempt attempt) {
         attempt.setStatus(AttemptStatus.ABANDONED);
         attempt.setCompletedAt(LocalDateTime.now());
         
-        return quizAttemptRepository.save(attempt);
+        QuizAttempt savedAttempt = quizAttemptRepository.save(attempt);
+        eventPublisher.publishEvent(QuizAttemptEvent.of(savedAttempt, AttemptStatus.IN_PROGRESS));
+        return savedAttempt;
     }
     
+    // Called when an attempt's deadline passes; the row lock orders it against a concurrent submit or complete
+    public void expireAttempt(Long attemptId) {
+        drainWrittenBehindAnswers(attemptId);
+        quizAttemptRepository.findByIdForUpdate(attemptId)
+            .filter(attempt -> attempt.getStatus() == AttemptStatus.IN_PROGRESS)
+            .filter(attempt -> attempt.isPastDeadline(LocalDateTime.now()))
+            .ifPresent(this::expire);
+    }
+    
+    // Scores the attempt with the answers submitted before the deadline
+    private void expire(QuizAttempt attempt) {
+        if (answerWriteBehind != null) {
+            // The entity may have been read before its written-behind answers were drained
+            attempt.setCorrectAnswers((int) userAnswerRepository.countCorrectAnswersByQuizAttempt(attempt));
+        }
+        // Not the deadline: an attempt expired after downtime would land behind the item analysis mark
+        attempt.completeAfterDeadline();
+        attempt.calculateScore();
+        
+        QuizAttempt savedAttempt = quizAttemptRepository.save(attempt);
+        eventPublisher.publishEvent(QuizAttemptEvent.of(savedAttempt, AttemptStatus.IN_PROGRESS));
+    }
+    
+    /**
+     * Times out the given untimed attempts if they are still in progress and started before the
+     * cutoff, publishing an event for each like any other status change. Written-behind answers
+     * are drained first, so no answer is acknowledged for an attempt that is already closed.
+     */
+    public int timeOutStaleAttempts(List<Long> attemptIds, LocalDateTime cutoff) {
+        attemptIds.forEach(this::drainWrittenBehindAnswers);
+        List<QuizAttempt> attempts = quizAttemptRepository.findAllByIdForUpdate(attemptIds).stream()
+            .filter(attempt -> attempt.getStatus() == AttemptStatus.IN_PROGRESS)
+            .filter(attempt -> attempt.getDeadlineAt() == null && attempt.getStartedAt().isBefore(cutoff))
+            .collect(Collectors.toList());
+        // Loaded in one query, so the events' usernames don't initialize the user proxies one by one
+        userRepository.findAllById(attempts.stream().map(attempt -> attempt.getUser().getId()).collect(Collectors.toSet()));
+        LocalDateTime now = LocalDateTime.now();
+        for (QuizAttempt attempt : attempts) {
+            attempt.setStatus(AttemptStatus.TIMED_OUT);
+            attempt.setCompletedAt(now);
+            QuizAttempt savedAttempt = quizAttemptRepository.save(attempt);
+            eventPublisher.publishEvent(QuizAttemptEvent.of(savedAttempt, AttemptStatus.IN_PROGRESS));
+        }
+        return attempts.size();
+    }
+    
+    // Must run before the attempt row is locked: the drain updates that row from its own transaction
+    private void drainWrittenBehindAnswers(Long attemptId) {
+        if (answerWriteBehind != null) {
+            answerWriteBehind.drain(attemptId);
+        }
+    }
+    
+    // The quiz's limit, or the sum of its questions' limits when every question has one
+    private Duration timeLimitOf(Quiz quiz) {
+        if (quiz.getTimeLimitMinutes() != null && quiz.getTimeLimitMinutes() > 0) {
+            return Duration.ofMinutes(quiz.getTimeLimitMinutes());
+        }
+        List<Question> questions = quiz.getQuestions();
+        if (questions.isEmpty() || questions.stream().anyMatch(q -> q.getTimeLimitSeconds() == null || q.getTimeLimitSeconds() <= 0)) {
+            return null;
+        }
+        return Duration.ofSeconds(questions.stream().mapToLong(Question::getTimeLimitSeconds).sum());
+    }
+    
+    @Transactional(readOnly = true)
     public Optional<QuizAttempt> getQuizAttemptById(Long id) {
         return quizAttemptRepository.findById(id);
     }
     
+    // Empty unless the attempt belongs to the user
+    @Transactional(readOnly = true)
+    public Optional<QuizAttempt> getQuizAttemptForUser(Long id, User user) {
+        return quizAttemptRepository.findById(id)
+            .filter(attempt -> attempt.getUser().getId().equals(user.getId()));
+    }
+    
+    @Transactional(readOnly = true)
     public List<QuizAttempt> getQuizAttemptsByUser(User user) {
         return quizAttemptRepository.findByUser(user);
     }
     
+    @Transactional(readOnly = true)
     public Page<QuizAttempt> getQuizAttemptsByUser(User user, Pageable pageable) {
         return quizAttemptRepository.findByUserOrderByStartedAtDesc(user, pageable);
     }
     
+    @Transactional(readOnly = true)
+    public CursorSlice<QuizAttempt> getQuizAttemptsByUser(User user, KeysetCursor after, boolean newestFirst, int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<QuizAttempt> rows;
+        if (newestFirst) {
+            rows = after == null
+                ? quizAttemptRepository.findByUserNewestFirst(user, limit)
+                : quizAttemptRepository.findByUserNewestFirstAfter(user, after.getTimestamp(), after.getId(), limit);
+        } else {
+            rows = after == null
+                ? quizAttemptRepository.findByUserOldestFirst(user, limit)
+                : quizAttemptRepository.findByUserOldestFirstAfter(user, after.getTimestamp(), after.getId(), limit);
+        }
+        return CursorSlice.of(rows, size, attempt -> new KeysetCursor(attempt.getStartedAt(), attempt.getId()));
+    }
+    
+    @Transactional(readOnly = true)
     public List<QuizAttempt> getQuizAttemptsByQuiz(Quiz quiz) {
         return quizAttemptRepository.findByQuiz(quiz);
     }
     
+    @Transactional(readOnly = true)
     public List<QuizAttempt> getQuizAttemptsByUserAndQuiz(User user, Quiz quiz) {
         return quizAttemptRepository.findByUserAndQuiz(user, quiz);
     }
     
+    @Transactional(readOnly = true)
     public List<QuizAttempt> getQuizAttemptsByStatus(AttemptStatus status) {
         return quizAttemptRepository.findByStatus(status);
     }
     
+    @Transactional(readOnly = true)
     public List<QuizAttempt> getQuizAttemptsByUserAndStatus(User user, AttemptStatus status) {
         return quizAttemptRepository.findByUserAndStatusOrderByStartedAtDesc(user, status);
     }
     
+    @Transactional(readOnly = true)
     public List<QuizAttempt> getTopScoresByQuiz(Quiz quiz) {
         return quizAttemptRepository.findByQuizOrderByScoreDesc(quiz);
     }
     
+    @Transactional(readOnly = true)
+    public List<LeaderboardEntry> getLeaderboard(Quiz quiz, int page, int size) {
+        return quizLeaderboardService.getTopEntries(quiz, page, size);
+    }
+    
+    // Runs on the primary: it may seed the in-memory board after reading the best score
+    public Optional<LeaderboardEntry> getLeaderboardEntryForUser(User user, Quiz quiz) {
+        Double bestScore = quizAttemptRepository.findBestScoreByUserAndQuiz(user, quiz);
+        if (bestScore == null) {
+            return Optional.empty();
+        }
+        
+        long rank = quizLeaderboardService.getRank(quiz, bestScore);
+        return Optional.of(new LeaderboardEntry(rank, null, user.getId(), user.getUsername(), bestScore, null, null));
+    }
+    
+    @Transactional(readOnly = true)
     public Double getAverageScoreByQuiz(Quiz quiz) {
         return quizAttemptRepository.findAverageScoreByQuiz(quiz);
     }
     
+    @Transactional(readOnly = true)
     public long getAttemptCountByQuiz(Quiz quiz) {
         return quizAttemptRepository.countByQuiz(quiz);
     }
     
+    @Transactional(readOnly = true)
     public long getAttemptCountByUser(User user) {
         return quizAttemptRepository.countByUser(user);
     }
     
+    @Transactional(readOnly = true)
     public long getCompletedAttemptCountByQuiz(Quiz quiz) {
         return quizAttemptRepository.countCompletedAttemptsByQuiz(quiz);
     }
     
+    @Transactional(readOnly = true)
     public List<UserAnswer> getUserAnswersByAttempt(QuizAttempt attempt) {
         return userAnswerRepository.findByQuizAttemptOrderByAnsweredAtAsc(attempt);
     }
     
+    @Transactional(readOnly = true)
+    public List<AnswerReviewDto> getAnswerReview(QuizAttempt attempt) {
+        if (attempt.getAnswersArchivedAt() != null) {
+            List<ArchivedAnswer> archived = answerArchive.findByAttemptId(attempt.getId());
+            Map<Long, Question> questions = questionRepository.findAllById(archived.stream()
+                    .map(ArchivedAnswer::getQuestionId)
+                    .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Question::getId, Function.identity()));
+            return archived.stream()
+                .map(answer -> AnswerReviewDto.from(answer, questions.get(answer.getQuestionId())))
+                .collect(Collectors.toList());
+        }
+        return userAnswerRepository.findWithQuestionByQuizAttempt(attempt).stream()
+            .map(AnswerReviewDto::from)
+            .collect(Collectors.toList());
+    }
+    
+    @Transactional(readOnly = true)
     public List<UserAnswer> getUserAnswersByUser(User user) {
         return userAnswerRepository.findByUser(user);
     }
     
-    public List<UserAnswer> getCorrectAnswersByUser(User user) {
-        return userAnswerRepository.findCorrectAnswersByUser(user);
+    @Transactional(readOnly = true)
+    public Slice<UserAnswer> getCorrectAnswersByUser(User user, Pageable pageable) {
+        return userAnswerRepository.findCorrectAnswersByUser(user, pageable);
     }
     
+    @Transactional(readOnly = true)
     public long getCorrectAnswerCountByUser(User user) {
         return userAnswerRepository.countCorrectAnswersByUser(user);
     }
@@ -217,7 +473,15 @@ public class QuizAttemptService {
         quizAttemptRepository.save(attempt);
     }
 
+    @Transactional(readOnly = true)
     public UserAnswer getById(Long id){
-        return userAnswerRepository.findById(id).orElse(null);
+        return userAnswerRepository.findWithQuestionById(id).orElse(null);
+    }
+
+    // Empty unless the answer was given by the user; answers not yet written or already archived are not found
+    @Transactional(readOnly = true)
+    public Optional<UserAnswer> getAnswerForUser(Long id, User user) {
+        return userAnswerRepository.findWithQuestionById(id)
+            .filter(answer -> answer.getUser().getId().equals(user.getId()));
     }
 }
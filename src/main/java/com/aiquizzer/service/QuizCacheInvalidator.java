@@ -0,0 +1,46 @@
+package com.aiquizzer.service;
+
+import com.aiquizzer.event.QuizChangedEvent;
+import com.aiquizzer.model.Quiz;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps quiz content caches in step with committed changes. Hibernate refreshes cached entities it
+ * writes itself, but questions are saved and deleted through their own repository, so the cached
+ * inverse {@code Quiz.questions} collection has to be dropped explicitly. The second-level cache is
+ * cleared before the content version moves on, so payloads built for the new version never see
+ * stale rows.
+ */
+@Component
+public class QuizCacheInvalidator {
+
+    private static final String QUESTIONS_ROLE = Quiz.class.getName() + ".questions";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private QuizContentVersions quizContentVersions;
+    @Autowired
+    private QuizPayloadCache quizPayloadCache;
+
+    // Last among quiz change listeners so a new version is only visible once read models are updated
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onQuizChanged(QuizChangedEvent event) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictCollectionData(QUESTIONS_ROLE, event.getQuizId());
+        if (event.getType() == QuizChangedEvent.Type.UPDATED || event.getType() == QuizChangedEvent.Type.DELETED) {
+            cache.evictEntityData(Quiz.class, event.getQuizId());
+        }
+        
+        quizContentVersions.bump(event.getQuizId());
+        quizPayloadCache.invalidate(event.getQuizId());
+    }
+}
@@ -0,0 +1,183 @@
+package com.aiquizzer.service;
+
+import com.aiquizzer.datasource.DataSourceRouting;
+import com.aiquizzer.dto.TopicCountDto;
+import com.aiquizzer.event.QuizChangedEvent;
+import com.aiquizzer.event.UserChangedEvent;
+import com.aiquizzer.model.DifficultyLevel;
+import com.aiquizzer.repository.QuizRepository;
+import com.aiquizzer.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Public-quiz counts per topic and difficulty plus global quiz and user totals, kept in memory
+ * and moved by committed {@link QuizChangedEvent}s and {@link UserChangedEvent}s. Reads are
+ * served from an immutable snapshot republished on every change. A periodic rebuild from the
+ * database corrects any drift from changes that raced the previous rebuild.
+ */
+@Service
+public class QuizCatalogRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizCatalogRegistry.class);
+
+    private static final DifficultyLevel[] DIFFICULTIES = DifficultyLevel.values();
+
+    @Autowired
+    private QuizRepository quizRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    // Guarded by this; counts are indexed by difficulty ordinal
+    private final Map<String, long[]> countsByTopic = new TreeMap<>();
+    private long publicQuizzes;
+
+    private final AtomicLong users = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleBuild() {
+        taskExecutor.execute(this::rebuild);
+    }
+
+    @Scheduled(initialDelayString = "${quizzer.catalog.rebuild-interval-ms:600000}",
+               fixedDelayString = "${quizzer.catalog.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        try {
+            List<Object[]> rows = DataSourceRouting.onPrimary(quizRepository::countPublicQuizzesGroupedByTopicAndDifficulty);
+            long userCount = DataSourceRouting.onPrimary(userRepository::countAllUsers);
+            synchronized (this) {
+                countsByTopic.clear();
+                publicQuizzes = 0;
+                for (Object[] row : rows) {
+                    add((String) row[0], (DifficultyLevel) row[1], ((Number) row[2]).longValue());
+                }
+                users.set(userCount);
+                publish();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to rebuild quiz catalog registry", e);
+        }
+    }
+
+    public List<String> getTopics() {
+        return snapshot().topics;
+    }
+
+    public List<TopicCountDto> getTopicCounts() {
+        return snapshot().topicCounts;
+    }
+
+    public int getTopicCount() {
+        return snapshot().topics.size();
+    }
+
+    public long getPublicQuizCount() {
+        return snapshot().publicQuizzes;
+    }
+
+    public long getUserCount() {
+        snapshot();
+        return users.get();
+    }
+
+    // Ahead of QuizCacheInvalidator, which moves the catalog version clients revalidate against
+    @Order(0)
+    @TransactionalEventListener
+    public void onQuizChanged(QuizChangedEvent event) {
+        int delta = (event.isPublicAfter() ? 1 : 0) - (event.isPublicBefore() ? 1 : 0);
+        if (delta == 0) {
+            return;
+        }
+        synchronized (this) {
+            // Not loaded yet; the first load reads the committed change from the database
+            if (snapshot == null) {
+                return;
+            }
+            add(event.getTopic(), event.getDifficulty(), delta);
+            publish();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getType() == UserChangedEvent.Type.CREATED) {
+            users.incrementAndGet();
+        } else if (event.getType() == UserChangedEvent.Type.DELETED) {
+            users.decrementAndGet();
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            rebuild();
+            current = snapshot;
+            if (current == null) {
+                throw new RuntimeException("Quiz catalog is not available");
+            }
+        }
+        return current;
+    }
+
+    private void add(String topic, DifficultyLevel difficulty, long count) {
+        long[] counts = countsByTopic.computeIfAbsent(topic, t -> new long[DIFFICULTIES.length + 1]);
+        counts[difficulty.ordinal()] += count;
+        // Last slot holds the topic total
+        counts[DIFFICULTIES.length] += count;
+        if (counts[DIFFICULTIES.length] <= 0) {
+            countsByTopic.remove(topic);
+        }
+        publicQuizzes += count;
+    }
+
+    private void publish() {
+        List<String> topics = new ArrayList<>(countsByTopic.size());
+        List<TopicCountDto> topicCounts = new ArrayList<>(countsByTopic.size());
+        for (Map.Entry<String, long[]> entry : countsByTopic.entrySet()) {
+            long[] counts = entry.getValue();
+            Map<DifficultyLevel, Long> difficulties = new EnumMap<>(DifficultyLevel.class);
+            for (DifficultyLevel difficulty : DIFFICULTIES) {
+                if (counts[difficulty.ordinal()] > 0) {
+                    difficulties.put(difficulty, counts[difficulty.ordinal()]);
+                }
+            }
+            topics.add(entry.getKey());
+            topicCounts.add(new TopicCountDto(entry.getKey(), counts[DIFFICULTIES.length], difficulties));
+        }
+        snapshot = new Snapshot(Collections.unmodifiableList(topics), Collections.unmodifiableList(topicCounts), publicQuizzes);
+    }
+
+    private static class Snapshot {
+
+        private final List<String> topics;
+        private final List<TopicCountDto> topicCounts;
+        private final long publicQuizzes;
+
+        Snapshot(List<String> topics, List<TopicCountDto> topicCounts, long publicQuizzes) {
+            this.topics = topics;
+            this.topicCounts = topicCounts;
+            this.publicQuizzes = publicQuizzes;
+        }
+    }
+}
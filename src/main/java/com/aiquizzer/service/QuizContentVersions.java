@@ -0,0 +1,58 @@
+package com.aiquizzer.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Process-local content version per quiz, bumped after every committed change to the quiz or
+ * its questions, plus a catalog version covering public listings and topics. Caches key their
+ * entries by the version so a bump retires all of them at once, and the stamps double as
+ * validators for conditional requests.
+ */
+@Component
+public class QuizContentVersions {
+
+    // Versions restart with the process; the start time keeps validators from an earlier run from matching
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Stamp initial = stamp("q", 0, System.currentTimeMillis());
+
+    private final Map<Long, Stamp> versions = new ConcurrentHashMap<>();
+    private final AtomicReference<Stamp> catalog = new AtomicReference<>(stamp("c", 0, initial.getLastModified()));
+
+    public long current(Long quizId) {
+        return quizStamp(quizId).getVersion();
+    }
+
+    public Stamp quizStamp(Long quizId) {
+        return versions.getOrDefault(quizId, initial);
+    }
+
+    public Stamp catalogStamp() {
+        return catalog.get();
+    }
+
+    public void bump(Long quizId) {
+        long now = System.currentTimeMillis();
+        versions.compute(quizId, (id, stamp) -> stamp("q", (stamp != null ? stamp.getVersion() : 0) + 1, now));
+        catalog.updateAndGet(stamp -> stamp("c", stamp.getVersion() + 1, now));
+    }
+
+    private Stamp stamp(String scope, long version, long lastModified) {
+        // Weak: the same version is served both plain and gzip-encoded
+        String etag = "W/\"" + scope + "-" + epoch + "-" + version + "\"";
+        return new Stamp(version, lastModified, etag);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Stamp {
+        private final long version;
+        private final long lastModified;
+        private final String etag;
+    }
+}
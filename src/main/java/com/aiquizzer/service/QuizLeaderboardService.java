@@ -0,0 +1,291 @@
+package com.aiquizzer.service;
+
+import com.aiquizzer.datasource.DataSourceRouting;
+import com.aiquizzer.dto.LeaderboardEntry;
+import com.aiquizzer.event.QuizAttemptEvent;
+import com.aiquizzer.event.QuizChangedEvent;
+import com.aiquizzer.model.AttemptStatus;
+import com.aiquizzer.model.Quiz;
+import com.aiquizzer.repository.QuizAttemptRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory per-quiz leaderboard. Each board keeps the best {@code capacity} completed attempts
+ * in a skip list for paging, plus a Fenwick tree over score buckets so the rank of any score
+ * can be answered in O(log n) without touching the database. Boards idle for
+ * {@code quizzer.leaderboard.idle-timeout} are dropped and loaded again on their next read.
+ */
+@Service
+public class QuizLeaderboardService {
+
+    // Scores are percentages; ranks are resolved to 0.1 of a point
+    private static final int SCORE_BUCKETS = 1001;
+
+    private static final Comparator<LeaderboardEntry> ENTRY_ORDER = Comparator
+        .comparing(LeaderboardEntry::getScore, Comparator.reverseOrder())
+        .thenComparing(LeaderboardEntry::getCompletedAt, Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder()))
+        .thenComparing(LeaderboardEntry::getAttemptId);
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @Value("${quizzer.leaderboard.capacity:100}")
+    private int capacity;
+
+    private final Cache<Long, Leaderboard> leaderboards;
+    private final TransactionTemplate snapshotTransaction;
+
+    public QuizLeaderboardService(PlatformTransactionManager transactionManager,
+                                  @Value("${quizzer.leaderboard.idle-timeout:PT30M}") Duration idleTimeout,
+                                  @Value("${quizzer.leaderboard.max-boards:10000}") long maxBoards) {
+        // A board's counts, top list and changed attempts are read from one snapshot, on a connection of its own
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+        this.leaderboards = Caffeine.newBuilder()
+            .expireAfterAccess(idleTimeout)
+            .maximumSize(maxBoards)
+            .build();
+    }
+
+    /**
+     * Returns a page of the best completed attempts. Each entry carries the same competition rank
+     * {@link #getRank} gives its score, so attempts tied to 0.1 of a point share a rank.
+     */
+    public List<LeaderboardEntry> getTopEntries(Quiz quiz, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, capacity));
+        long offset = (long) Math.max(page, 0) * pageSize;
+
+        if (offset >= capacity) {
+            return new ArrayList<>();
+        }
+        return getLeaderboard(quiz).page(offset, pageSize);
+    }
+
+    /**
+     * Returns the 1-based competition rank a completed attempt with the given score holds,
+     * i.e. one more than the number of completed attempts that scored strictly higher.
+     */
+    public long getRank(Quiz quiz, double score) {
+        return getLeaderboard(quiz).rankOf(score);
+    }
+
+    public void evict(Long quizId) {
+        leaderboards.invalidate(quizId);
+    }
+
+    @TransactionalEventListener
+    public void onQuizChanged(QuizChangedEvent event) {
+        if (event.getType() == QuizChangedEvent.Type.DELETED) {
+            evict(event.getQuizId());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onQuizAttemptEvent(QuizAttemptEvent event) {
+        // Boards that are not loaded yet will pick the attempt up from the database
+        Leaderboard leaderboard = leaderboards.getIfPresent(event.getQuizId());
+        if (leaderboard == null) {
+            return;
+        }
+
+        if (event.getStatus() == AttemptStatus.COMPLETED && event.getPreviousStatus() != AttemptStatus.COMPLETED) {
+            if (event.getScore() != null) {
+                leaderboard.add(LeaderboardEntry.from(event));
+            }
+        } else if (event.getPreviousStatus() == AttemptStatus.COMPLETED && event.getStatus() != AttemptStatus.COMPLETED) {
+            leaderboard.remove(event.getAttemptId());
+        }
+    }
+
+    private Leaderboard getLeaderboard(Quiz quiz) {
+        while (true) {
+            Leaderboard leaderboard = leaderboards.getIfPresent(quiz.getId());
+            if (leaderboard != null && leaderboard.stale) {
+                // An entry left the bounded top list while lower attempts were not in memory
+                leaderboards.asMap().remove(quiz.getId(), leaderboard);
+                leaderboard = null;
+            }
+            if (leaderboard == null) {
+                // Registered before loading so attempts changing meanwhile are held back, not counted twice.
+                // Loaded outside the map's compute: a query under its bin lock pins a virtual thread's carrier
+                Leaderboard created = new Leaderboard(capacity);
+                Leaderboard existing = leaderboards.asMap().putIfAbsent(quiz.getId(), created);
+                if (existing == null) {
+                    load(quiz, created);
+                    return created;
+                }
+                leaderboard = existing;
+            }
+            try {
+                leaderboard.loaded.join();
+                return leaderboard;
+            } catch (CompletionException e) {
+                // Its loader failed and dropped it; try loading again
+            }
+        }
+    }
+
+    private void load(Quiz quiz, Leaderboard leaderboard) {
+        try {
+            // Attempts committed before the board existed are only seen here, so a lagging replica won't do
+            DataSourceRouting.onPrimary(() -> snapshotTransaction.execute(status -> {
+                List<Object[]> completedScores = quizAttemptRepository.findCompletedScoresByQuiz(quiz);
+                List<LeaderboardEntry> topEntries = quizAttemptRepository.findTopCompletedByQuiz(quiz, PageRequest.of(0, capacity)).stream()
+                    .map(LeaderboardEntry::from)
+                    .collect(Collectors.toList());
+                leaderboard.publish(completedScores, topEntries);
+                return null;
+            }));
+            leaderboard.loaded.complete(null);
+        } catch (RuntimeException e) {
+            leaderboards.asMap().remove(quiz.getId(), leaderboard);
+            leaderboard.loaded.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static int bucketOf(double score) {
+        double clamped = Math.max(0.0, Math.min(100.0, score));
+        return (int) Math.round(clamped * 10);
+    }
+
+    static class Leaderboard {
+
+        private final int capacity;
+        private final ConcurrentSkipListSet<LeaderboardEntry> top = new ConcurrentSkipListSet<>(ENTRY_ORDER);
+        private final Map<Long, LeaderboardEntry> topByAttempt = new HashMap<>();
+        // Every counted attempt, so an event the snapshot already holds is not counted again
+        private final Map<Long, Double> countedScores = new HashMap<>();
+        private final long[] tree = new long[SCORE_BUCKETS + 1];
+        final CompletableFuture<Void> loaded = new CompletableFuture<>();
+        // Attempts completed, or no longer completed when null, while loading
+        private final Map<Long, LeaderboardEntry> changedWhileLoading = new LinkedHashMap<>();
+        private boolean loading = true;
+        volatile boolean stale;
+
+        Leaderboard(int capacity) {
+            this.capacity = capacity;
+        }
+
+        synchronized void add(LeaderboardEntry entry) {
+            if (loading) {
+                changedWhileLoading.put(entry.getAttemptId(), entry);
+                return;
+            }
+            if (countedScores.putIfAbsent(entry.getAttemptId(), entry.getScore()) != null) {
+                return;
+            }
+            addCount(entry.getScore(), 1);
+            addTop(entry);
+        }
+
+        synchronized void remove(Long attemptId) {
+            if (loading) {
+                changedWhileLoading.put(attemptId, null);
+                return;
+            }
+            Double score = countedScores.remove(attemptId);
+            if (score == null) {
+                return;
+            }
+            addCount(score, -1);
+            LeaderboardEntry entry = topByAttempt.remove(attemptId);
+            if (entry != null) {
+                top.remove(entry);
+                // An attempt that only lives in the database may now belong in the top list
+                if (countedScores.size() > topByAttempt.size()) {
+                    stale = true;
+                }
+            }
+        }
+
+        /**
+         * Fills the board from a snapshot of {@code (attempt id, score)} rows and its best entries,
+         * then applies what changed while loading. Changes the snapshot already holds are no-ops,
+         * like any later event for an attempt counted or removed before.
+         */
+        synchronized void publish(List<Object[]> completedScores, List<LeaderboardEntry> topEntries) {
+            for (Object[] row : completedScores) {
+                if (countedScores.putIfAbsent((Long) row[0], (Double) row[1]) == null) {
+                    addCount((Double) row[1], 1);
+                }
+            }
+            topEntries.forEach(this::addTop);
+            loading = false;
+            changedWhileLoading.forEach((attemptId, entry) -> {
+                if (entry != null) {
+                    add(entry);
+                } else {
+                    remove(attemptId);
+                }
+            });
+            changedWhileLoading.clear();
+        }
+
+        synchronized List<LeaderboardEntry> page(long offset, int pageSize) {
+            List<LeaderboardEntry> entries = new ArrayList<>(pageSize);
+            long position = 0;
+            for (LeaderboardEntry entry : top) {
+                if (position++ < offset) {
+                    continue;
+                }
+                entries.add(entry.withRank(rankOf(entry.getScore())));
+                if (entries.size() == pageSize) {
+                    break;
+                }
+            }
+            return entries;
+        }
+
+        synchronized long rankOf(double score) {
+            long atOrBelow = 0;
+            for (int i = bucketOf(score) + 1; i > 0; i -= i & -i) {
+                atOrBelow += tree[i];
+            }
+            return countedScores.size() - atOrBelow + 1;
+        }
+
+        private void addCount(double score, long count) {
+            for (int i = bucketOf(score) + 1; i < tree.length; i += i & -i) {
+                tree[i] += count;
+            }
+        }
+
+        private void addTop(LeaderboardEntry entry) {
+            if (topByAttempt.putIfAbsent(entry.getAttemptId(), entry) != null) {
+                return;
+            }
+            top.add(entry);
+            if (topByAttempt.size() > capacity) {
+                LeaderboardEntry last = top.pollLast();
+                if (last != null) {
+                    topByAttempt.remove(last.getAttemptId());
+                }
+            }
+        }
+    }
+}
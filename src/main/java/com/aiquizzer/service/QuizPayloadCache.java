@@ -0,0 +1,134 @@
+package com.aiquizzer.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ready-to-send JSON for quiz read endpoints, keyed by quiz, view and content version.
+ * Concurrent misses for the same key share one in-flight load.
+ */
+@Service
+public class QuizPayloadCache {
+
+    // DETAIL and QUESTIONS carry the answer keys and are for the quiz's owner only
+    public enum View {
+        DETAIL,
+        PUBLIC_DETAIL,
+        QUESTIONS,
+        PUBLIC_QUESTIONS
+    }
+
+    @Autowired
+    private QuizService quizService;
+    @Autowired
+    private QuizContentVersions quizContentVersions;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AsyncCache<Key, Payload> cache;
+    private final int gzipMinBytes;
+
+    public QuizPayloadCache(@Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                            @Value("${quizzer.payload-cache.max-bytes:67108864}") long maxBytes,
+                            @Value("${quizzer.payload-cache.gzip-min-bytes:1024}") int gzipMinBytes) {
+        this.gzipMinBytes = gzipMinBytes;
+        this.cache = Caffeine.newBuilder()
+            .executor(taskExecutor)
+            .maximumWeight(maxBytes)
+            .weigher((Key key, Payload payload) -> payload.size())
+            .buildAsync();
+    }
+
+    public Optional<Payload> get(Long quizId, View view) {
+        Key key = new Key(quizId, view, quizContentVersions.current(quizId));
+        CompletableFuture<Payload> payload = cache.get(key, (k, executor) -> CompletableFuture.supplyAsync(() -> load(k), executor));
+        return Optional.ofNullable(payload.join());
+    }
+
+    public void invalidate(Long quizId) {
+        cache.synchronous().asMap().keySet().removeIf(key -> key.getQuizId().equals(quizId));
+    }
+
+    // Returns null for a missing quiz so nothing is cached for it
+    private Payload load(Key key) {
+        Optional<?> body;
+        switch (key.getView()) {
+            case DETAIL:
+                body = quizService.getQuizDetail(key.getQuizId());
+                break;
+            case PUBLIC_DETAIL:
+                body = quizService.getPublicQuizDetail(key.getQuizId());
+                break;
+            case QUESTIONS:
+                body = quizService.getQuizQuestions(key.getQuizId());
+                break;
+            default:
+                body = quizService.getPublicQuizQuestions(key.getQuizId());
+                break;
+        }
+        if (body.isEmpty()) {
+            return null;
+        }
+        
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body.get());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize quiz " + key.getQuizId(), e);
+        }
+        return new Payload(json, json.length >= gzipMinBytes ? gzip(json) : null);
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class Key {
+        private final Long quizId;
+        private final View view;
+        private final long version;
+    }
+
+    @Getter
+    public static class Payload {
+
+        private final byte[] json;
+        // Null when the body is too small to be worth compressing
+        private final byte[] gzip;
+
+        Payload(byte[] json, byte[] gzip) {
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        int size() {
+            return json.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+}
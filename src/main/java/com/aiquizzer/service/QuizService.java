@@ -1,18 +1,48 @@
 package com.aiquizzer.service;
 
+import com.aiquizzer.dto.AnswerDto;
+import com.aiquizzer.dto.CursorSlice;
+import com.aiquizzer.dto.KeysetCursor;
+import com.aiquizzer.dto.PublicAnswerDto;
+import com.aiquizzer.dto.PublicQuestionDto;
+import com.aiquizzer.dto.PublicQuizDetailDto;
+import com.aiquizzer.dto.QuestionDto;
+import com.aiquizzer.dto.QuestionStatisticsDto;
+import com.aiquizzer.dto.QuestionSummaryDto;
+import com.aiquizzer.dto.QuizDetailDto;
+import com.aiquizzer.dto.QuizSummaryDto;
+import com.aiquizzer.dto.TopicCountDto;
+import com.aiquizzer.event.QuizChangedEvent;
 import com.aiquizzer.model.*;
 import com.aiquizzer.repository.AnswerRepository;
 import com.aiquizzer.repository.QuestionRepository;
+import com.aiquizzer.repository.QuestionStatisticsRepository;
 import com.aiquizzer.repository.QuizRepository;
 import com.aiquizzer.repository.UserRepository;
+import com.aiquizzer.search.QuestionSearchIndex;
+import com.aiquizzer.search.QuizSearchIndex;
+import com.aiquizzer.search.TrigramIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -24,13 +54,67 @@ public class QuizService {
     private QuestionRepository questionRepository;
     @Autowired
     private AIQuizGenerationService aiQuizGenerationService;
+    @Autowired
+    private QuizSearchIndex quizSearchIndex;
+    @Autowired
+    private QuestionSearchIndex questionSearchIndex;
+    @Autowired
+    private QuizCatalogRegistry quizCatalogRegistry;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private QuestionStatisticsRepository questionStatisticsRepository;
+    
+    @Value("${quizzer.item-analysis.min-responses:30}")
+    private long reviewMinResponses;
+    
+    @Value("${quizzer.item-analysis.min-p-value:0.2}")
+    private double reviewMinPValue;
+    
+    @Value("${quizzer.item-analysis.max-p-value:0.95}")
+    private double reviewMaxPValue;
+    
+    @Value("${quizzer.item-analysis.min-discrimination:0.2}")
+    private double reviewMinDiscrimination;
     
 
     
+    // The LLM calls run outside any transaction so a slow completion never holds a pooled connection
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Quiz createQuiz(String title, String description, String topic,
                            DifficultyLevel difficulty, User user,
                            int numberOfQuestions, QuestionType questionType) {
         
+        // Generate questions using AI
+        List<Question> generatedQuestions = aiQuizGenerationService.generateQuestions(
+            topic, difficulty, numberOfQuestions, questionType
+        );
+
+        return transactionTemplate.execute(status -> persistQuiz(title, description, topic, difficulty, user,
+            numberOfQuestions, generatedQuestions));
+    }
+    
+    // Stores a quiz whose content was generated by the caller, e.g. on the reactive endpoints
+    public Quiz saveGeneratedQuiz(String title, String description, String topic, DifficultyLevel difficulty,
+                                  User user, int numberOfQuestions, List<Question> generatedQuestions) {
+        return persistQuiz(title, description, topic, difficulty, user, numberOfQuestions, generatedQuestions);
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Quiz createQuizWithAI(String topic, DifficultyLevel difficulty, User user, 
+                                int numberOfQuestions, QuestionType questionType) {
+        
+        // Generate title and description using AI
+        String title = aiQuizGenerationService.generateQuizTitle(topic, difficulty);
+        String description = aiQuizGenerationService.generateQuizDescription(topic, difficulty, numberOfQuestions);
+
+        return createQuiz(title, description, topic, difficulty, user, numberOfQuestions, questionType);
+    }
+    
+    private Quiz persistQuiz(String title, String description, String topic, DifficultyLevel difficulty,
+                             User user, int numberOfQuestions, List<Question> generatedQuestions) {
         Quiz quiz = new Quiz();
         quiz.setTitle(title);
         quiz.setDescription(description);
@@ -41,11 +125,6 @@ public class QuizService {
         quiz.setIsPublic(false);
         
         Quiz savedQuiz = quizRepository.save(quiz);
-        // Generate questions using AI
-        List<Question> generatedQuestions = aiQuizGenerationService.generateQuestions(
-            topic, difficulty, numberOfQuestions, questionType
-        );
-
         for (Question question : generatedQuestions) {
             question.setQuiz(savedQuiz);
             // Ensure each answer knows its question
@@ -57,75 +136,142 @@ public class QuizService {
             questionRepository.save(question); // saves question and all answers
         }
         
+        eventPublisher.publishEvent(QuizChangedEvent.of(savedQuiz, QuizChangedEvent.Type.CREATED, false));
         return savedQuiz;
     }
     
-    public Quiz createQuizWithAI(String topic, DifficultyLevel difficulty, User user, 
-                                int numberOfQuestions, QuestionType questionType) {
-        
-        // Generate title and description using AI
-        String title = aiQuizGenerationService.generateQuizTitle(topic, difficulty);
-        String description = aiQuizGenerationService.generateQuizDescription(topic, difficulty, numberOfQuestions);
-
-        return createQuiz(title, description, topic, difficulty, user, numberOfQuestions, questionType);
-    }
-    
+    @Transactional(readOnly = true)
     public Optional<Quiz> getQuizById(Long id) {
         return quizRepository.findById(id);
     }
     
+    // Quiz, questions and answers are served from the second-level cache once warm
+    @Transactional(readOnly = true)
+    public Optional<QuizDetailDto> getQuizDetail(Long id) {
+        return quizRepository.findById(id).map(this::toDetail);
+    }
+    
+    // Without answer keys, for anyone but the owner; a private quiz's id finds nothing
+    @Transactional(readOnly = true)
+    public Optional<PublicQuizDetailDto> getPublicQuizDetail(Long id) {
+        return quizRepository.findById(id)
+            .filter(quiz -> Boolean.TRUE.equals(quiz.getIsPublic()))
+            .map(quiz -> PublicQuizDetailDto.from(quiz, toPublicQuestionDtos(quiz.getQuestions())));
+    }
+    
+    @Transactional(readOnly = true)
     public Optional<Quiz> getQuizByIdAndUser(Long id, User user) {
         return quizRepository.findByIdAndUser(id, user);
     }
     
+    @Transactional(readOnly = true)
     public Optional<Quiz> getPublicQuizById(Long id) {
         return quizRepository.findByIdAndIsPublicTrue(id);
     }
     
+    @Transactional(readOnly = true)
     public List<Quiz> getQuizzesByUser(User user) {
         return quizRepository.findByUser(user);
     }
     
+    @Transactional(readOnly = true)
     public Page<Quiz> getQuizzesByUser(User user, Pageable pageable) {
         return quizRepository.findByUserOrderByCreatedAt(user, pageable);
     }
     
+    @Transactional(readOnly = true)
     public List<Quiz> getPublicQuizzes() {
         return quizRepository.findByIsPublicTrue();
     }
     
-    public Page<Quiz> getPublicQuizzes(Pageable pageable) {
-        return quizRepository.findPublicQuizzesOrderByCreatedAt(pageable);
+    @Transactional(readOnly = true)
+    public Page<QuizSummaryDto> getPublicQuizzes(Pageable pageable) {
+        return quizRepository.findPublicQuizzesOrderByCreatedAt(pageable).map(QuizSummaryDto::from);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorSlice<QuizSummaryDto> getPublicQuizzes(KeysetCursor after, boolean newestFirst, int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Quiz> rows;
+        if (newestFirst) {
+            rows = after == null
+                ? quizRepository.findPublicQuizzesNewestFirst(limit)
+                : quizRepository.findPublicQuizzesNewestFirstAfter(after.getTimestamp(), after.getId(), limit);
+        } else {
+            rows = after == null
+                ? quizRepository.findPublicQuizzesOldestFirst(limit)
+                : quizRepository.findPublicQuizzesOldestFirstAfter(after.getTimestamp(), after.getId(), limit);
+        }
+        return CursorSlice.of(rows, size, quiz -> new KeysetCursor(quiz.getCreatedAt(), quiz.getId()))
+            .map(QuizSummaryDto::from);
     }
     
-    public Page<Quiz> searchPublicQuizzes(String keyword, Pageable pageable) {
-        return quizRepository.findPublicQuizzesByKeyword(keyword, pageable);
+    @Transactional(readOnly = true)
+    public Page<QuizSummaryDto> searchPublicQuizzes(String keyword, Pageable pageable) {
+        Optional<QuizSearchIndex.SearchResult> result = quizSearchIndex.search(
+            keyword, (int) pageable.getOffset(), pageable.getPageSize());
+        if (result.isEmpty()) {
+            return quizRepository.findPublicQuizzesByKeyword(keyword, pageable).map(QuizSummaryDto::from);
+        }
+        
+        // Load the ranked page and keep the index order; hits are checked again, the index may lag a visibility change
+        List<Long> quizIds = result.get().getQuizIds();
+        Map<Long, Quiz> quizzesById = quizRepository.findAllById(quizIds).stream()
+            .filter(quiz -> Boolean.TRUE.equals(quiz.getIsPublic()))
+            .collect(Collectors.toMap(Quiz::getId, Function.identity()));
+        List<QuizSummaryDto> quizzes = quizIds.stream()
+            .map(quizzesById::get)
+            .filter(Objects::nonNull)
+            .map(QuizSummaryDto::from)
+            .collect(Collectors.toList());
+        return new PageImpl<>(quizzes, pageable, result.get().getTotalHits());
     }
     
-    public List<Quiz> getQuizzesByTopic(String topic) {
-        return quizRepository.findByTopic(topic);
+    @Transactional(readOnly = true)
+    public List<QuizSummaryDto> getQuizzesByTopic(String topic) {
+        return quizRepository.findByTopic(topic).stream()
+            .map(QuizSummaryDto::from)
+            .collect(Collectors.toList());
     }
     
-    public List<Quiz> getQuizzesByDifficulty(DifficultyLevel difficulty) {
-        return quizRepository.findByDifficulty(difficulty);
+    @Transactional(readOnly = true)
+    public List<QuizSummaryDto> getQuizzesByDifficulty(DifficultyLevel difficulty) {
+        return quizRepository.findByDifficulty(difficulty).stream()
+            .map(QuizSummaryDto::from)
+            .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public List<Quiz> getQuizzesByTopicAndDifficulty(String topic, DifficultyLevel difficulty) {
         return quizRepository.findByTopicAndDifficulty(topic, difficulty);
     }
     
+    @Transactional(readOnly = true)
     public List<String> getAvailableTopics() {
-        return quizRepository.findDistinctTopics();
+        return quizCatalogRegistry.getTopics();
+    }
+    
+    @Transactional(readOnly = true)
+    public List<TopicCountDto> getTopicCounts() {
+        return quizCatalogRegistry.getTopicCounts();
+    }
+    
+    @Transactional(readOnly = true)
+    public int getTopicCount() {
+        return quizCatalogRegistry.getTopicCount();
     }
     
     public Quiz updateQuiz(Long id, String title, String description, Boolean isPublic, User user) {
         Optional<Quiz> quizOpt = quizRepository.findByIdAndUser(id, user);
         if (quizOpt.isPresent()) {
             Quiz quiz = quizOpt.get();
+            boolean wasPublic = Boolean.TRUE.equals(quiz.getIsPublic());
             if (title != null) quiz.setTitle(title);
             if (description != null) quiz.setDescription(description);
             if (isPublic != null) quiz.setIsPublic(isPublic);
-            return quizRepository.save(quiz);
+            Quiz savedQuiz = quizRepository.save(quiz);
+            eventPublisher.publishEvent(QuizChangedEvent.of(savedQuiz, QuizChangedEvent.Type.UPDATED, wasPublic));
+            return savedQuiz;
         }
         throw new RuntimeException("Quiz not found or access denied");
     }
@@ -133,23 +279,65 @@ public class QuizService {
     public void deleteQuiz(Long id, User user) {
         Optional<Quiz> quizOpt = quizRepository.findByIdAndUser(id, user);
         if (quizOpt.isPresent()) {
-            quizRepository.delete(quizOpt.get());
+            Quiz quiz = quizOpt.get();
+            // Hidden from now on; questions, answers and attempts are removed by DeletionPurger
+            quiz.setDeletedAt(LocalDateTime.now());
+            eventPublisher.publishEvent(QuizChangedEvent.of(quiz, QuizChangedEvent.Type.DELETED, Boolean.TRUE.equals(quiz.getIsPublic())));
         } else {
             throw new RuntimeException("Quiz not found or access denied");
         }
     }
     
+    @Transactional(readOnly = true)
     public List<Question> getQuestionsByQuiz(Quiz quiz) {
         return questionRepository.findByQuizOrderById(quiz);
     }
     
+    @Transactional(readOnly = true)
+    public Optional<List<QuestionDto>> getQuizQuestions(Long quizId) {
+        return quizRepository.findById(quizId).map(quiz -> toQuestionDtos(questionRepository.findByQuizOrderById(quiz)));
+    }
+    
+    // Without answer keys, for anyone but the owner; a private quiz's id finds nothing
+    @Transactional(readOnly = true)
+    public Optional<List<PublicQuestionDto>> getPublicQuizQuestions(Long quizId) {
+        return quizRepository.findById(quizId)
+            .filter(quiz -> Boolean.TRUE.equals(quiz.getIsPublic()))
+            .map(quiz -> toPublicQuestionDtos(questionRepository.findByQuizOrderById(quiz)));
+    }
+    
+    // Questions of public quizzes only, without answer keys; a private quiz's id finds nothing
+    @Transactional(readOnly = true)
+    public Slice<QuestionSummaryDto> searchQuestions(String keyword, Long quizId, Pageable pageable) {
+        Optional<TrigramIndex.SearchResult> result = questionSearchIndex.search(
+            keyword, quizId, (int) pageable.getOffset(), pageable.getPageSize());
+        if (result.isEmpty()) {
+            Slice<Question> slice = quizId == null
+                ? questionRepository.findPublicByContentContaining(keyword, pageable)
+                : questionRepository.findPublicByQuizIdAndContentContaining(quizId, keyword, pageable);
+            return slice.map(QuestionSummaryDto::from);
+        }
+        
+        List<Long> questionIds = result.get().getIds();
+        Map<Long, Question> questionsById = questionIds.isEmpty() ? Map.of() : questionRepository.findPublicByIdIn(questionIds).stream()
+            .collect(Collectors.toMap(Question::getId, Function.identity()));
+        List<QuestionSummaryDto> questions = questionIds.stream()
+            .map(questionsById::get)
+            .filter(Objects::nonNull)
+            .map(QuestionSummaryDto::from)
+            .collect(Collectors.toList());
+        boolean hasNext = pageable.getOffset() + pageable.getPageSize() < result.get().getTotalHits();
+        return new SliceImpl<>(questions, pageable, hasNext);
+    }
+    
     public Question addQuestionToQuiz(Long quizId, String content, String correctAnswer, 
                                     QuestionType questionType, User user) {
         Optional<Quiz> quizOpt = quizRepository.findByIdAndUser(quizId, user);
         if (quizOpt.isPresent()) {
             Quiz quiz = quizOpt.get();
-            Question question = new Question(content, correctAnswer, questionType, quiz);
-            return questionRepository.save(question);
+            Question question = questionRepository.save(new Question(content, correctAnswer, questionType, quiz));
+            eventPublisher.publishEvent(QuizChangedEvent.of(quiz, QuizChangedEvent.Type.QUESTIONS_CHANGED, Boolean.TRUE.equals(quiz.getIsPublic())));
+            return question;
         }
         throw new RuntimeException("Quiz not found or access denied");
     }
@@ -158,8 +346,10 @@ public class QuizService {
         Optional<Question> questionOpt = questionRepository.findById(questionId);
         if (questionOpt.isPresent()) {
             Question question = questionOpt.get();
-            if (question.getQuiz().getUser().equals(user)) {
+            if (question.getQuiz().getUser().getId().equals(user.getId())) {
+                Quiz quiz = question.getQuiz();
                 questionRepository.delete(question);
+                eventPublisher.publishEvent(QuizChangedEvent.of(quiz, QuizChangedEvent.Type.QUESTIONS_CHANGED, Boolean.TRUE.equals(quiz.getIsPublic())));
             } else {
                 throw new RuntimeException("Access denied");
             }
@@ -168,15 +358,70 @@ public class QuizService {
         }
     }
     
+    @Transactional(readOnly = true)
     public long getQuizCountByUser(User user) {
         return quizRepository.countByUser(user);
     }
     
+    @Transactional(readOnly = true)
     public long getPublicQuizCount() {
-        return quizRepository.countPublicQuizzes();
+        return quizCatalogRegistry.getPublicQuizCount();
     }
     
+    // From the second-level cache once warm, like isVisibleTo
+    @Transactional(readOnly = true)
     public boolean isQuizOwner(Long quizId, User user) {
-        return quizRepository.findByIdAndUser(quizId, user).isPresent();
+        return user != null && quizRepository.findById(quizId)
+            .filter(quiz -> quiz.getUser().getId().equals(user.getId()))
+            .isPresent();
+    }
+    
+    // Public quizzes, and private ones to their owner; a null user sees public ones only. From the second-level cache once warm
+    @Transactional(readOnly = true)
+    public boolean isVisibleTo(Long quizId, User user) {
+        return quizRepository.findById(quizId)
+            .filter(quiz -> Boolean.TRUE.equals(quiz.getIsPublic())
+                || (user != null && quiz.getUser().getId().equals(user.getId())))
+            .isPresent();
+    }
+    
+    // Item analysis from the last QuestionStatisticsJob run; empty unless the user owns the quiz
+    @Transactional(readOnly = true)
+    public Optional<List<QuestionStatisticsDto>> getQuestionStatistics(Long quizId, User user) {
+        return quizRepository.findByIdAndUser(quizId, user).map(quiz -> questionStatisticsRepository.findByQuizId(quizId).stream()
+            .map(statistics -> QuestionStatisticsDto.from(statistics, needsReview(statistics)))
+            .collect(Collectors.toList()));
+    }
+    
+    // Too hard, too easy, or not separating strong from weak attempts; a negative index often means a wrong answer key
+    private boolean needsReview(QuestionStatistics statistics) {
+        if (statistics.getResponses() < reviewMinResponses) {
+            return false;
+        }
+        Double pValue = statistics.getPValue();
+        Double discrimination = statistics.getDiscrimination();
+        return pValue < reviewMinPValue || pValue > reviewMaxPValue
+            || (discrimination != null && discrimination < reviewMinDiscrimination);
+    }
+    
+    private QuizDetailDto toDetail(Quiz quiz) {
+        return QuizDetailDto.from(quiz, toQuestionDtos(quiz.getQuestions()));
+    }
+    
+    // Answer collections come from the cache, or are loaded in batches for cold questions
+    private List<QuestionDto> toQuestionDtos(List<Question> questions) {
+        return questions.stream()
+            .map(question -> QuestionDto.from(question, question.getAnswers().stream()
+                .map(AnswerDto::from)
+                .collect(Collectors.toList())))
+            .collect(Collectors.toList());
+    }
+    
+    private List<PublicQuestionDto> toPublicQuestionDtos(List<Question> questions) {
+        return questions.stream()
+            .map(question -> PublicQuestionDto.from(question, question.getAnswers().stream()
+                .map(PublicAnswerDto::from)
+                .collect(Collectors.toList())))
+            .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,417 @@
+package com.aiquizzer.service;
+
+import com.aiquizzer.datasource.DataSourceRouting;
+import com.aiquizzer.dto.QuizStatisticsDto;
+import com.aiquizzer.event.QuizAttemptEvent;
+import com.aiquizzer.event.QuizChangedEvent;
+import com.aiquizzer.model.AttemptStatus;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-quiz attempt statistics. Attempt changes are counted in striped counters and flushed on an
+ * interval as increments to the {@code quiz_statistics} and {@code quiz_score_bands} rows, so
+ * every instance adds its own changes and none overwrites another's. Reads combine the stored
+ * totals, re-read every {@code refresh-interval-ms}, with the changes not flushed yet, and never
+ * aggregate {@code quiz_attempts}.
+ */
+@Service
+public class QuizStatisticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizStatisticsService.class);
+
+    private static final int HISTOGRAM_BUCKETS = 10;
+
+    // Soft-deleted quizzes take no more changes; their rows go in DeletionPurger
+    private static final String ADD_TOTALS =
+        "INSERT INTO quiz_statistics (quiz_id, total_attempts, completed_attempts, abandoned_attempts, score_sum, updated_at) " +
+        "SELECT id, ?, ?, ?, ?, ? FROM quizzes WHERE id = ? AND deleted_at IS NULL " +
+        "ON DUPLICATE KEY UPDATE total_attempts = total_attempts + VALUES(total_attempts), " +
+        "completed_attempts = completed_attempts + VALUES(completed_attempts), " +
+        "abandoned_attempts = abandoned_attempts + VALUES(abandoned_attempts), " +
+        "score_sum = score_sum + VALUES(score_sum), updated_at = VALUES(updated_at)";
+
+    private static final String ADD_BAND =
+        "INSERT INTO quiz_score_bands (quiz_id, band, attempts) " +
+        "SELECT id, ?, ? FROM quizzes WHERE id = ? AND deleted_at IS NULL " +
+        "ON DUPLICATE KEY UPDATE attempts = attempts + VALUES(attempts)";
+
+    // The band expression matches bucketOf
+    private static final String SUBTRACT_TOTALS =
+        "INSERT INTO quiz_statistics (quiz_id, total_attempts, completed_attempts, abandoned_attempts, score_sum, updated_at) " +
+        "SELECT quiz_id, -COUNT(*), -SUM(status = 'COMPLETED'), -SUM(status = 'ABANDONED'), " +
+        "-COALESCE(SUM(CASE WHEN status = 'COMPLETED' THEN score END), 0), NOW(6) " +
+        "FROM quiz_attempts WHERE id IN (:ids) GROUP BY quiz_id " +
+        "ON DUPLICATE KEY UPDATE total_attempts = total_attempts + VALUES(total_attempts), " +
+        "completed_attempts = completed_attempts + VALUES(completed_attempts), " +
+        "abandoned_attempts = abandoned_attempts + VALUES(abandoned_attempts), " +
+        "score_sum = score_sum + VALUES(score_sum), updated_at = VALUES(updated_at)";
+
+    private static final String SUBTRACT_BANDS =
+        "INSERT INTO quiz_score_bands (quiz_id, band, attempts) " +
+        "SELECT quiz_id, LEAST(9, GREATEST(0, FLOOR(score / 10))) AS score_band, -COUNT(*) " +
+        "FROM quiz_attempts WHERE id IN (:ids) AND status = 'COMPLETED' AND score IS NOT NULL " +
+        "GROUP BY quiz_id, score_band " +
+        "ON DUPLICATE KEY UPDATE attempts = attempts + VALUES(attempts)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Value("${quizzer.quiz-stats.refresh-interval-ms:60000}")
+    private long refreshIntervalMillis;
+
+    private final TransactionTemplate flushTransaction;
+    private final Map<Long, QuizCounters> counters = new ConcurrentHashMap<>();
+
+    public QuizStatisticsService(PlatformTransactionManager transactionManager) {
+        // A failed flush rolls back whole, so its deltas can be put back without counting any twice
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    public Optional<QuizStatisticsDto> getStatistics(Long quizId) {
+        QuizCounters quizCounters = counters.get(quizId);
+        QuizStatisticsDto statistics = quizCounters != null ? quizCounters.snapshot(quizId, refreshIntervalMillis) : null;
+        while (statistics == null) {
+            long generation = quizCounters != null ? quizCounters.generation.get() : 0;
+            // Totals read from a lagging replica would miss the last flushes
+            Totals stored = DataSourceRouting.onPrimary(() -> loadStored(quizId));
+            if (stored == null) {
+                return Optional.empty();
+            }
+            if (quizCounters == null) {
+                quizCounters = counters.computeIfAbsent(quizId, id -> new QuizCounters());
+            }
+            // A flush in between moved counted changes into the row after it was read; read it again
+            if (quizCounters.setStored(stored, generation)) {
+                statistics = quizCounters.snapshot(quizId, refreshIntervalMillis);
+            }
+        }
+        return Optional.of(statistics);
+    }
+
+    /**
+     * Drops the stored totals held for the quiz after its rows were changed behind the counters,
+     * so the next read loads them again. Changes not flushed yet are kept.
+     */
+    public void evict(Long quizId) {
+        QuizCounters quizCounters = counters.get(quizId);
+        if (quizCounters != null) {
+            quizCounters.clearStored();
+        }
+    }
+
+    /**
+     * Takes the given attempts out of their quizzes' stored statistics. Called in the transaction
+     * that deletes them, so each attempt leaves the totals exactly when it leaves
+     * {@code quiz_attempts}; a change to one of them still waiting to be flushed is then added
+     * on top and cancels out.
+     */
+    public void subtractAttempts(Collection<Long> attemptIds) {
+        if (attemptIds.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource parameters = new MapSqlParameterSource("ids", attemptIds);
+        namedParameterJdbcTemplate.update(SUBTRACT_BANDS, parameters);
+        namedParameterJdbcTemplate.update(SUBTRACT_TOTALS, parameters);
+    }
+
+    @TransactionalEventListener
+    public void onQuizChanged(QuizChangedEvent event) {
+        // The stored rows go with the quiz when DeletionPurger removes it
+        if (event.getType() == QuizChangedEvent.Type.DELETED) {
+            counters.remove(event.getQuizId());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onQuizAttemptEvent(QuizAttemptEvent event) {
+        // Counted as a change whatever the stored totals hold, so loading them can never count it twice
+        counters.computeIfAbsent(event.getQuizId(), id -> new QuizCounters()).apply(event);
+    }
+
+    @Scheduled(fixedDelayString = "${quizzer.quiz-stats.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        Map<Long, Totals> deltas = new HashMap<>();
+        counters.forEach((quizId, quizCounters) -> {
+            if (quizCounters.dirty) {
+                deltas.put(quizId, quizCounters.drain());
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Long> quizIds = new ArrayList<>(deltas.keySet());
+        List<Object[]> totals = new ArrayList<>();
+        List<Object[]> bands = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Long quizId : quizIds) {
+            Totals delta = deltas.get(quizId);
+            totals.add(new Object[] { delta.totalAttempts, delta.completedAttempts, delta.abandonedAttempts,
+                delta.scoreSum, now, quizId });
+            for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+                if (delta.histogram[i] != 0) {
+                    bands.add(new Object[] { i, delta.histogram[i], quizId });
+                }
+            }
+        }
+
+        int[] updated;
+        try {
+            updated = flushTransaction.execute(status -> {
+                if (!bands.isEmpty()) {
+                    jdbcTemplate.batchUpdate(ADD_BAND, bands);
+                }
+                return jdbcTemplate.batchUpdate(ADD_TOTALS, totals);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush statistics for {} quizzes, will retry", quizIds.size(), e);
+            deltas.forEach((quizId, delta) -> {
+                QuizCounters quizCounters = counters.get(quizId);
+                if (quizCounters != null) {
+                    quizCounters.restore(delta);
+                }
+            });
+            return;
+        }
+        // Nothing is written once the quiz was deleted
+        Set<Long> deleted = new HashSet<>();
+        for (int i = 0; i < quizIds.size(); i++) {
+            if (updated[i] == 0) {
+                deleted.add(quizIds.get(i));
+            }
+        }
+        counters.keySet().removeAll(deleted);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // Null when the quiz does not exist or was deleted; zeros until its first change is flushed
+    private Totals loadStored(Long quizId) {
+        List<Totals> rows = jdbcTemplate.query(
+            "SELECT qs.total_attempts, qs.completed_attempts, qs.abandoned_attempts, qs.score_sum " +
+            "FROM quizzes q LEFT JOIN quiz_statistics qs ON qs.quiz_id = q.id WHERE q.id = ? AND q.deleted_at IS NULL",
+            (rs, rowNum) -> {
+                Totals totals = new Totals();
+                totals.totalAttempts = rs.getLong(1);
+                totals.completedAttempts = rs.getLong(2);
+                totals.abandonedAttempts = rs.getLong(3);
+                totals.scoreSum = rs.getDouble(4);
+                return totals;
+            },
+            quizId);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Totals totals = rows.get(0);
+        jdbcTemplate.query("SELECT band, attempts FROM quiz_score_bands WHERE quiz_id = ?",
+            rs -> {
+                int band = rs.getInt(1);
+                if (band >= 0 && band < HISTOGRAM_BUCKETS) {
+                    totals.histogram[band] = rs.getLong(2);
+                }
+            },
+            quizId);
+        totals.loadedAt = System.currentTimeMillis();
+        return totals;
+    }
+
+    private static int bucketOf(double score) {
+        return Math.max(0, Math.min(HISTOGRAM_BUCKETS - 1, (int) (score / (100.0 / HISTOGRAM_BUCKETS))));
+    }
+
+    // Stored totals of a quiz, or changes to them
+    private static class Totals {
+
+        long totalAttempts;
+        long completedAttempts;
+        long abandonedAttempts;
+        double scoreSum;
+        final long[] histogram = new long[HISTOGRAM_BUCKETS];
+        long loadedAt;
+
+        Totals plus(Totals delta) {
+            Totals sum = new Totals();
+            sum.totalAttempts = totalAttempts + delta.totalAttempts;
+            sum.completedAttempts = completedAttempts + delta.completedAttempts;
+            sum.abandonedAttempts = abandonedAttempts + delta.abandonedAttempts;
+            sum.scoreSum = scoreSum + delta.scoreSum;
+            for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+                sum.histogram[i] = histogram[i] + delta.histogram[i];
+            }
+            sum.loadedAt = loadedAt;
+            return sum;
+        }
+    }
+
+    private static class QuizCounters {
+
+        // Changes count under the read lock; flushes drain them and move them into stored under the write lock
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final LongAdder totalAttempts = new LongAdder();
+        private final LongAdder completedAttempts = new LongAdder();
+        private final LongAdder abandonedAttempts = new LongAdder();
+        private final DoubleAdder scoreSum = new DoubleAdder();
+        private final LongAdder[] histogram = new LongAdder[HISTOGRAM_BUCKETS];
+        // Bumped by every drain and restore, so a load racing a flush is not kept
+        private final AtomicLong generation = new AtomicLong();
+        // Stored totals including every drained change; null until loaded
+        private Totals stored;
+        private volatile boolean dirty;
+
+        QuizCounters() {
+            for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+
+        void apply(QuizAttemptEvent event) {
+            lock.readLock().lock();
+            try {
+                if (event.getPreviousStatus() == null) {
+                    totalAttempts.increment();
+                }
+                if (event.getStatus() == AttemptStatus.COMPLETED && event.getPreviousStatus() != AttemptStatus.COMPLETED) {
+                    completedAttempts.increment();
+                    if (event.getScore() != null) {
+                        scoreSum.add(event.getScore());
+                        histogram[bucketOf(event.getScore())].increment();
+                    }
+                }
+                if (event.getStatus() == AttemptStatus.ABANDONED && event.getPreviousStatus() != AttemptStatus.ABANDONED) {
+                    abandonedAttempts.increment();
+                    if (event.getPreviousStatus() == AttemptStatus.COMPLETED) {
+                        completedAttempts.decrement();
+                        if (event.getScore() != null) {
+                            scoreSum.add(-event.getScore());
+                            histogram[bucketOf(event.getScore())].decrement();
+                        }
+                    }
+                }
+                dirty = true;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        Totals drain() {
+            lock.writeLock().lock();
+            try {
+                dirty = false;
+                Totals delta = new Totals();
+                delta.totalAttempts = totalAttempts.sumThenReset();
+                delta.completedAttempts = completedAttempts.sumThenReset();
+                delta.abandonedAttempts = abandonedAttempts.sumThenReset();
+                delta.scoreSum = scoreSum.sumThenReset();
+                for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+                    delta.histogram[i] = histogram[i].sumThenReset();
+                }
+                if (stored != null) {
+                    stored = stored.plus(delta);
+                }
+                generation.incrementAndGet();
+                return delta;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void restore(Totals delta) {
+            lock.writeLock().lock();
+            try {
+                totalAttempts.add(delta.totalAttempts);
+                completedAttempts.add(delta.completedAttempts);
+                abandonedAttempts.add(delta.abandonedAttempts);
+                scoreSum.add(delta.scoreSum);
+                for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+                    histogram[i].add(delta.histogram[i]);
+                }
+                // Stored already had the delta added when it was drained
+                stored = null;
+                generation.incrementAndGet();
+                dirty = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        boolean setStored(Totals loaded, long expectedGeneration) {
+            lock.writeLock().lock();
+            try {
+                if (generation.get() != expectedGeneration) {
+                    return false;
+                }
+                stored = loaded;
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void clearStored() {
+            lock.writeLock().lock();
+            try {
+                stored = null;
+                generation.incrementAndGet();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // Null when the stored totals are not loaded, or were loaded more than maxAgeMillis ago and may miss other instances' flushes
+        QuizStatisticsDto snapshot(Long quizId, long maxAgeMillis) {
+            lock.readLock().lock();
+            try {
+                Totals base = stored;
+                if (base == null || System.currentTimeMillis() - base.loadedAt >= maxAgeMillis) {
+                    return null;
+                }
+                long[] bands = new long[HISTOGRAM_BUCKETS];
+                long scored = 0;
+                for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+                    bands[i] = base.histogram[i] + histogram[i].sum();
+                    scored += bands[i];
+                }
+                double sum = base.scoreSum + scoreSum.sum();
+                Double averageScore = scored > 0 ? sum / scored : null;
+                return new QuizStatisticsDto(quizId, base.totalAttempts + totalAttempts.sum(),
+                    base.completedAttempts + completedAttempts.sum(), base.abandonedAttempts + abandonedAttempts.sum(),
+                    averageScore, bands);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
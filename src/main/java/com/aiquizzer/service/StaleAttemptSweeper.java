@@ -0,0 +1,76 @@
+package com.aiquizzer.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Marks untimed attempts that stayed in progress longer than {@code quizzer.attempts.stale-after}
+ * as {@code TIMED_OUT}, in batches of at most {@code sweep-batch-size} attempts, one transaction
+ * per batch. Each attempt goes through {@link QuizAttemptService#timeOutStaleAttempts}, which
+ * closes its written-behind answers and publishes the status change like any other. Timed
+ * attempts are left to {@link AttemptDeadlineService}.
+ */
+@Component
+public class StaleAttemptSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(StaleAttemptSweeper.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private QuizAttemptService quizAttemptService;
+
+    @Value("${quizzer.attempts.stale-after:P1D}")
+    private Duration staleAfter;
+
+    @Value("${quizzer.attempts.sweep-batch-size:1000}")
+    private int batchSize;
+
+    private final Counter expired;
+
+    public StaleAttemptSweeper(MeterRegistry meterRegistry) {
+        this.expired = Counter.builder("quizzer.attempts.expired")
+            .description("Stale in-progress attempts marked as timed out")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${quizzer.attempts.sweep-interval-ms:300000}",
+               fixedDelayString = "${quizzer.attempts.sweep-interval-ms:300000}")
+    public void sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(staleAfter);
+        long afterId = 0;
+        int total = 0;
+        while (true) {
+            List<Long> attemptIds = jdbcTemplate.queryForList(
+                "SELECT id FROM quiz_attempts WHERE status = 'IN_PROGRESS' AND deadline_at IS NULL AND started_at < ? " +
+                "AND id > ? ORDER BY id LIMIT ?",
+                Long.class, cutoff, afterId, batchSize);
+            if (attemptIds.isEmpty()) {
+                break;
+            }
+            try {
+                int timedOut = quizAttemptService.timeOutStaleAttempts(attemptIds, cutoff);
+                total += timedOut;
+                expired.increment(timedOut);
+            } catch (RuntimeException e) {
+                // Picked up again on the next run
+                log.warn("Failed to time out {} stale quiz attempts", attemptIds.size(), e);
+            }
+            afterId = attemptIds.get(attemptIds.size() - 1);
+        }
+        if (total > 0) {
+            log.info("Marked {} stale quiz attempts as timed out", total);
+        }
+    }
+}
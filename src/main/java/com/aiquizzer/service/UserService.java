@@ -1,14 +1,29 @@
 package com.aiquizzer.service;
 
+import com.aiquizzer.event.QuizChangedEvent;
+import com.aiquizzer.event.UserChangedEvent;
+import com.aiquizzer.model.Quiz;
 import com.aiquizzer.model.User;
+import com.aiquizzer.repository.QuizRepository;
 import com.aiquizzer.repository.UserRepository;
+import com.aiquizzer.search.TrigramIndex;
+import com.aiquizzer.search.UserSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -17,7 +32,17 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
     @Autowired
+    private QuizRepository quizRepository;
+    @Autowired
     private PasswordEncoder passwordEncoder;
+    @Autowired
+    private UserStatisticsService userStatisticsService;
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+    @Autowired
+    private QuizCatalogRegistry quizCatalogRegistry;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     
 
     
@@ -30,24 +55,44 @@ public class UserService {
             throw new RuntimeException("Email already exists");
         }
         
-        User user = new User(username, email, passwordEncoder.encode(password));
-        return userRepository.save(user);
+        User user = userRepository.save(new User(username, email, passwordEncoder.encode(password)));
+        userStatisticsService.createStatistics(user.getId());
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), UserChangedEvent.Type.CREATED));
+        return user;
     }
     
+    @Transactional(readOnly = true)
     public Optional<User> getUserById(Long id) {
         return userRepository.findById(id);
     }
     
+    @Transactional(readOnly = true)
     public Optional<User> getUserByUsername(String username) {
         return userRepository.findByUsername(username);
     }
     
+    @Transactional(readOnly = true)
     public Optional<User> getUserByEmail(String email) {
         return userRepository.findByEmail(email);
     }
     
-    public List<User> searchUsers(String keyword) {
-        return userRepository.findByUsernameOrEmailContaining(keyword);
+    @Transactional(readOnly = true)
+    public Slice<User> searchUsers(String keyword, Pageable pageable) {
+        Optional<TrigramIndex.SearchResult> result = userSearchIndex.search(
+            keyword, (int) pageable.getOffset(), pageable.getPageSize());
+        if (result.isEmpty()) {
+            return userRepository.findByUsernameContaining(keyword, pageable);
+        }
+        
+        List<Long> userIds = result.get().getIds();
+        Map<Long, User> usersById = userRepository.findAllById(userIds).stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<User> users = userIds.stream()
+            .map(usersById::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+        boolean hasNext = pageable.getOffset() + pageable.getPageSize() < result.get().getTotalHits();
+        return new SliceImpl<>(users, pageable, hasNext);
     }
     
     public User updateUser(Long id, String username, String email, String password) {
@@ -76,29 +121,44 @@ public class UserService {
                 user.setPassword(passwordEncoder.encode(password));
             }
             
-            return userRepository.save(user);
+            User savedUser = userRepository.save(user);
+            eventPublisher.publishEvent(new UserChangedEvent(savedUser.getId(), UserChangedEvent.Type.UPDATED));
+            return savedUser;
         }
         throw new RuntimeException("User not found");
     }
     
     public void deleteUser(Long id) {
-        if (userRepository.existsById(id)) {
-            userRepository.deleteById(id);
+        Optional<User> userOpt = userRepository.findById(id);
+        if (userOpt.isPresent()) {
+            User user = userOpt.get();
+            LocalDateTime now = LocalDateTime.now();
+            // The user and their quizzes are hidden now; DeletionPurger removes the rows behind them
+            for (Quiz quiz : quizRepository.findByUser(user)) {
+                quiz.setDeletedAt(now);
+                eventPublisher.publishEvent(QuizChangedEvent.of(quiz, QuizChangedEvent.Type.DELETED, Boolean.TRUE.equals(quiz.getIsPublic())));
+            }
+            user.setDeletedAt(now);
+            userStatisticsService.deleteStatistics(id);
+            eventPublisher.publishEvent(new UserChangedEvent(id, UserChangedEvent.Type.DELETED));
         } else {
             throw new RuntimeException("User not found");
         }
     }
     
+    @Transactional(readOnly = true)
     public boolean existsByUsername(String username) {
         return userRepository.existsByUsername(username);
     }
     
+    @Transactional(readOnly = true)
     public boolean existsByEmail(String email) {
         return userRepository.existsByEmail(email);
     }
     
+    @Transactional(readOnly = true)
     public long getUserCount() {
-        return userRepository.countAllUsers();
+        return quizCatalogRegistry.getUserCount();
     }
     
     public boolean validatePassword(String rawPassword, String encodedPassword) {
@@ -0,0 +1,75 @@
+package com.aiquizzer.service;
+
+import com.aiquizzer.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Creates statistics rows for existing users in id-ordered batches after startup, so the
+ * dashboard never has to fall back to aggregating a user's full history on a request.
+ */
+@Component
+public class UserStatisticsBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStatisticsBackfill.class);
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserStatisticsService userStatisticsService;
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Value("${quizzer.user-stats.backfill.enabled:true}")
+    private boolean enabled;
+    @Value("${quizzer.user-stats.backfill.batch-size:500}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBackfill() {
+        if (enabled) {
+            taskExecutor.execute(this::backfillAll);
+        }
+    }
+
+    public void backfillAll() {
+        long afterId = 0;
+        int backfilled = 0;
+        while (true) {
+            List<Long> userIds = userRepository.findIdsWithoutStatistics(afterId, PageRequest.of(0, batchSize));
+            if (userIds.isEmpty()) {
+                break;
+            }
+
+            try {
+                backfilled += userStatisticsService.backfill(userIds);
+            } catch (DataAccessException e) {
+                // A live update raced us for some of these users; retry them one at a time
+                for (Long userId : userIds) {
+                    try {
+                        backfilled += userStatisticsService.backfill(Collections.singletonList(userId));
+                    } catch (DataAccessException ignored) {
+                        log.debug("Skipping statistics backfill for user {}", userId);
+                    }
+                }
+            }
+            afterId = userIds.get(userIds.size() - 1);
+        }
+        if (backfilled > 0) {
+            log.info("Backfilled statistics for {} users", backfilled);
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.aiquizzer.service;
+
+import com.aiquizzer.archive.AnswerArchive;
+import com.aiquizzer.datasource.DataSourceRouting;
+import com.aiquizzer.dto.UserStatisticsDto;
+import com.aiquizzer.event.QuizAttemptEvent;
+import com.aiquizzer.event.UserAnswerGradedEvent;
+import com.aiquizzer.model.AttemptStatus;
+import com.aiquizzer.model.DifficultyLevel;
+import com.aiquizzer.model.Quiz;
+import com.aiquizzer.model.UserStatistics;
+import com.aiquizzer.model.UserTopicStatistics;
+import com.aiquizzer.repository.QuizAttemptRepository;
+import com.aiquizzer.repository.QuizRepository;
+import com.aiquizzer.repository.UserAnswerRepository;
+import com.aiquizzer.repository.UserStatisticsRepository;
+import com.aiquizzer.repository.UserTopicStatisticsRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-user dashboard statistics. Counters are updated with atomic increments inside the
+ * transaction that grades an answer or changes an attempt, and assembled views are served
+ * from a bounded cache that is invalidated after commit. Rows are created at registration;
+ * users from before the statistics existed get theirs from {@link #backfill}, which always runs
+ * in a transaction of its own.
+ */
+@Service
+public class UserStatisticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStatisticsService.class);
+
+    private static final int INVALIDATION_STRIPES = 64;
+
+    @Autowired
+    private UserStatisticsRepository userStatisticsRepository;
+    @Autowired
+    private UserTopicStatisticsRepository userTopicStatisticsRepository;
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+    @Autowired
+    private UserAnswerRepository userAnswerRepository;
+    @Autowired
+    private QuizRepository quizRepository;
+    @Autowired
+    private AnswerArchive answerArchive;
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    private final Cache<Long, UserStatisticsDto> cache;
+    private final AtomicLongArray invalidations = new AtomicLongArray(INVALIDATION_STRIPES);
+    private final TransactionTemplate loadTransaction;
+    private final TransactionTemplate backfillTransaction;
+
+    public UserStatisticsService(@Value("${quizzer.user-stats.cache-size:10000}") long cacheSize,
+                                 PlatformTransactionManager transactionManager) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(cacheSize)
+            .build();
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setReadOnly(true);
+        this.backfillTransaction = new TransactionTemplate(transactionManager);
+        this.backfillTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public UserStatisticsDto getStatistics(Long userId) {
+        UserStatisticsDto cached = cache.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Loaded outside Cache.get, whose compute lock would pin a virtual thread's carrier for the queries
+        long generation = invalidations.get(stripeOf(userId));
+        // On the primary: a lagging replica could miss the row a backfill just created
+        UserStatisticsDto statistics = DataSourceRouting.onPrimary(() -> loadTransaction.execute(status -> loadStatistics(userId)));
+        if (statistics == null) {
+            backfill(Collections.singletonList(userId));
+            statistics = DataSourceRouting.onPrimary(() -> loadTransaction.execute(status -> loadStatistics(userId)));
+            if (statistics == null) {
+                // The user is gone
+                statistics = emptyStatistics(userId);
+            }
+        }
+        cache.asMap().putIfAbsent(userId, statistics);
+        if (invalidations.get(stripeOf(userId)) != generation) {
+            // Invalidated mid-load: the view may predate the change, so don't keep it
+            cache.asMap().remove(userId, statistics);
+        }
+        return statistics;
+    }
+
+    @EventListener
+    public void onQuizAttemptEvent(QuizAttemptEvent event) {
+        if (event.getUserId() == null) {
+            return;
+        }
+
+        long started = event.getPreviousStatus() == null ? 1 : 0;
+        long completed = 0;
+        if (event.getStatus() == AttemptStatus.COMPLETED && event.getPreviousStatus() != AttemptStatus.COMPLETED) {
+            completed = 1;
+        } else if (event.getPreviousStatus() == AttemptStatus.COMPLETED && event.getStatus() != AttemptStatus.COMPLETED) {
+            completed = -1;
+        }
+        if (started == 0 && completed == 0) {
+            return;
+        }
+
+        if (userStatisticsRepository.incrementAttempts(event.getUserId(), started, completed, LocalDateTime.now()) == 0) {
+            // No row yet: the backfill counts this change once it has committed
+            backfillAfterCommit(event.getUserId());
+            return;
+        }
+
+        if (completed != 0) {
+            Optional<Quiz> quizOpt = quizRepository.findById(event.getQuizId());
+            if (quizOpt.isPresent()) {
+                Quiz quiz = quizOpt.get();
+                double score = event.getScore() != null ? event.getScore() : 0.0;
+                if (completed > 0) {
+                    userTopicStatisticsRepository.addCompleted(
+                        event.getUserId(), quiz.getTopic(), quiz.getDifficulty().name(), completed, score);
+                } else {
+                    userTopicStatisticsRepository.incrementCompleted(
+                        event.getUserId(), quiz.getTopic(), quiz.getDifficulty(), completed, completed * score);
+                }
+            }
+        }
+    }
+
+    @EventListener
+    public void onUserAnswerGraded(UserAnswerGradedEvent event) {
+        if (event.getUserId() == null) {
+            return;
+        }
+
+        long answered = event.getPreviousCorrect() == null ? 1 : 0;
+        long correct = (event.isCorrect() ? 1 : 0) - (Boolean.TRUE.equals(event.getPreviousCorrect()) ? 1 : 0);
+        int updated = userStatisticsRepository.recordAnswer(
+            event.getUserId(), answered, correct, event.isCorrect() ? 1 : 0, LocalDateTime.now());
+        if (updated == 0) {
+            backfillAfterCommit(event.getUserId());
+        }
+    }
+
+    @TransactionalEventListener
+    public void evictOnQuizAttemptEvent(QuizAttemptEvent event) {
+        if (event.getUserId() != null) {
+            invalidate(event.getUserId());
+        }
+    }
+
+    @TransactionalEventListener
+    public void evictOnUserAnswerGraded(UserAnswerGradedEvent event) {
+        if (event.getUserId() != null) {
+            invalidate(event.getUserId());
+        }
+    }
+
+    // Registration gives every new user a row, so none of their changes ever needs a backfill
+    @Transactional
+    public void createStatistics(Long userId) {
+        entityManager.persist(new UserStatistics(userId));
+    }
+
+    /**
+     * Builds statistics rows for users that do not have one yet from their existing attempts and
+     * answers, in a new transaction. Streaks cannot be reconstructed and start at zero.
+     * <p>
+     * The rows are inserted before anything is read. An insert waits for transactions whose
+     * increment found no row, so their changes are in what is read next; increments that come
+     * later wait for the row and are not in it. Each change is counted once either way.
+     */
+    public int backfill(Collection<Long> userIds) {
+        Integer created = backfillTransaction.execute(status -> createFromHistory(userIds));
+        return created != null ? created : 0;
+    }
+
+    private int createFromHistory(Collection<Long> userIds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> pending = new ArrayList<>();
+        for (Long userId : userIds) {
+            if (userStatisticsRepository.insertIfAbsent(userId, now) > 0) {
+                pending.add(userId);
+            }
+        }
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        Map<Long, UserStatistics> statistics = new LinkedHashMap<>();
+        for (UserStatistics userStatistics : userStatisticsRepository.findAllById(pending)) {
+            statistics.put(userStatistics.getUserId(), userStatistics);
+        }
+
+        for (Object[] row : quizAttemptRepository.countByUserIdsGroupedByStatus(pending)) {
+            UserStatistics userStatistics = statistics.get((Long) row[0]);
+            long count = ((Number) row[2]).longValue();
+            userStatistics.setTotalAttempts(userStatistics.getTotalAttempts() + count);
+            if (row[1] == AttemptStatus.COMPLETED) {
+                userStatistics.setCompletedAttempts(userStatistics.getCompletedAttempts() + count);
+            }
+        }
+        for (Object[] row : userAnswerRepository.countAnswersByUserIds(pending)) {
+            UserStatistics userStatistics = statistics.get((Long) row[0]);
+            userStatistics.setAnsweredQuestions(((Number) row[1]).longValue());
+            userStatistics.setCorrectAnswers(row[2] != null ? ((Number) row[2]).longValue() : 0L);
+        }
+        // Answers of old attempts live in the archive rather than user_answers
+        answerArchive.countAnswersByUserIds(pending).forEach((userId, counts) -> {
+            UserStatistics userStatistics = statistics.get(userId);
+            userStatistics.setAnsweredQuestions(userStatistics.getAnsweredQuestions() + counts[0]);
+            userStatistics.setCorrectAnswers(userStatistics.getCorrectAnswers() + counts[1]);
+        });
+
+        List<UserTopicStatistics> topics = new ArrayList<>();
+        for (Object[] row : quizAttemptRepository.summarizeCompletedByUserIdsGroupedByTopicAndDifficulty(pending)) {
+            topics.add(new UserTopicStatistics((Long) row[0], (String) row[1], (DifficultyLevel) row[2],
+                ((Number) row[3]).longValue(), row[4] != null ? ((Number) row[4]).doubleValue() : 0.0));
+        }
+
+        // The rows were inserted above and are updated on commit
+        userTopicStatisticsRepository.saveAll(topics);
+        statistics.keySet().forEach(this::invalidate);
+        return statistics.size();
+    }
+
+    private void backfillAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            taskExecutor.execute(() -> backfillQuietly(userId));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                taskExecutor.execute(() -> backfillQuietly(userId));
+            }
+        });
+    }
+
+    private void backfillQuietly(Long userId) {
+        try {
+            backfill(Collections.singletonList(userId));
+        } catch (DataAccessException e) {
+            // A concurrent backfill for the same user; UserStatisticsBackfill retries on the next start
+            log.debug("Statistics backfill for user {} failed", userId, e);
+        }
+    }
+
+    @Transactional
+    public void deleteStatistics(Long userId) {
+        userTopicStatisticsRepository.deleteByUserId(userId);
+        if (userStatisticsRepository.existsById(userId)) {
+            userStatisticsRepository.deleteById(userId);
+        }
+        invalidate(userId);
+    }
+
+    private void invalidate(Long userId) {
+        invalidations.incrementAndGet(stripeOf(userId));
+        cache.invalidate(userId);
+    }
+
+    private static int stripeOf(Long userId) {
+        return (int) (userId & (INVALIDATION_STRIPES - 1));
+    }
+
+    private UserStatisticsDto emptyStatistics(Long userId) {
+        UserStatistics statistics = new UserStatistics(userId);
+        return new UserStatisticsDto(userId, statistics.getTotalAttempts(), statistics.getCompletedAttempts(),
+            statistics.getAnsweredQuestions(), statistics.getCorrectAnswers(), statistics.getCurrentStreak(),
+            statistics.getBestStreak(), null, new ArrayList<>(), new EnumMap<>(DifficultyLevel.class));
+    }
+
+    // Null when the user has no row yet
+    private UserStatisticsDto loadStatistics(Long userId) {
+        Optional<UserStatistics> statisticsOpt = userStatisticsRepository.findById(userId);
+        if (statisticsOpt.isEmpty()) {
+            return null;
+        }
+        UserStatistics statistics = statisticsOpt.get();
+
+        Map<String, long[]> topicTotals = new LinkedHashMap<>();
+        Map<DifficultyLevel, double[]> difficultyTotals = new EnumMap<>(DifficultyLevel.class);
+        Map<String, double[]> topicScores = new LinkedHashMap<>();
+        for (UserTopicStatistics topic : userTopicStatisticsRepository.findByUserId(userId)) {
+            topicTotals.computeIfAbsent(topic.getTopic(), key -> new long[1])[0] += topic.getCompletedAttempts();
+            topicScores.computeIfAbsent(topic.getTopic(), key -> new double[1])[0] += topic.getScoreSum();
+            double[] difficulty = difficultyTotals.computeIfAbsent(topic.getDifficulty(), key -> new double[2]);
+            difficulty[0] += topic.getCompletedAttempts();
+            difficulty[1] += topic.getScoreSum();
+        }
+
+        List<UserStatisticsDto.ScoreSummary> topics = new ArrayList<>();
+        topicTotals.forEach((topic, completed) -> topics.add(
+            new UserStatisticsDto.ScoreSummary(topic, completed[0], average(topicScores.get(topic)[0], completed[0]))));
+        Map<DifficultyLevel, UserStatisticsDto.ScoreSummary> difficulties = new EnumMap<>(DifficultyLevel.class);
+        difficultyTotals.forEach((difficulty, totals) -> difficulties.put(difficulty,
+            new UserStatisticsDto.ScoreSummary(difficulty.name(), (long) totals[0], average(totals[1], (long) totals[0]))));
+
+        return new UserStatisticsDto(
+            userId,
+            statistics.getTotalAttempts(),
+            statistics.getCompletedAttempts(),
+            statistics.getAnsweredQuestions(),
+            statistics.getCorrectAnswers(),
+            statistics.getCurrentStreak(),
+            statistics.getBestStreak(),
+            statistics.getLastActivityAt(),
+            topics,
+            difficulties
+        );
+    }
+
+    private static Double average(double sum, long count) {
+        return count > 0 ? sum / count : null;
+    }
+}
@@ -0,0 +1,29 @@
+-- QuizStatisticsService flushes increments instead of totals, so instances no longer overwrite each
+-- other's counts. The score histogram moves from a comma separated column to one row per 10-point
+-- band that can be incremented in place.
+
+CREATE TABLE IF NOT EXISTS quiz_score_bands (
+    quiz_id BIGINT NOT NULL,
+    band INTEGER NOT NULL,
+    attempts BIGINT NOT NULL,
+    PRIMARY KEY (quiz_id, band)
+) ENGINE = InnoDB;
+
+-- Totals written by earlier versions may have lost updates; rebuild them from quiz_attempts once,
+-- before any instance counts. From here on a quiz without a row has had no flushed change.
+DELETE FROM quiz_statistics;
+
+INSERT INTO quiz_statistics (quiz_id, total_attempts, completed_attempts, abandoned_attempts, score_sum, updated_at)
+SELECT quiz_id, COUNT(*), SUM(status = 'COMPLETED'), SUM(status = 'ABANDONED'),
+       COALESCE(SUM(CASE WHEN status = 'COMPLETED' THEN score END), 0), NOW(6)
+FROM quiz_attempts
+GROUP BY quiz_id;
+
+-- Same bands as QuizStatisticsService.bucketOf
+INSERT INTO quiz_score_bands (quiz_id, band, attempts)
+SELECT quiz_id, LEAST(9, GREATEST(0, FLOOR(score / 10))) AS score_band, COUNT(*)
+FROM quiz_attempts
+WHERE status = 'COMPLETED' AND score IS NOT NULL
+GROUP BY quiz_id, score_band;
+
+ALTER TABLE quiz_statistics DROP COLUMN score_histogram;
@@ -0,0 +1,8 @@
+-- QuizAttemptRepository.findTopCompletedByQuiz orders by score DESC, completed_at ASC, id ASC.
+-- The V2 index keeps score ascending, so MySQL still sorted every completed attempt of the quiz
+-- to take the top entries. With the directions matching, the top N are the first N index entries.
+-- It keeps covering countCompletedAttemptsByQuizGroupedByScore, findAverageScoreByQuiz and
+-- countCompletedAttemptsByQuiz. Created before the old one is dropped, so quiz_id stays indexed.
+CREATE INDEX idx_quiz_attempts_quiz_status_score_desc ON quiz_attempts (quiz_id, status, score DESC, completed_at, id);
+
+DROP INDEX idx_quiz_attempts_quiz_status_score ON quiz_attempts;
@@ -0,0 +1,15 @@
+-- AnswerDistributionService flushes increments instead of counts, so instances no longer overwrite
+-- each other's counts. A question's counts are seeded once from user_answers on its first read;
+-- its row here is created in the same transaction and marks which increments the seed already
+-- holds. Rows go with their question in DeletionPurger.
+
+CREATE TABLE IF NOT EXISTS answer_distribution_seeds (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    question_id BIGINT NOT NULL,
+    seeded_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_answer_distribution_seeds_question UNIQUE (question_id)
+) ENGINE = InnoDB;
+
+-- Counts written by earlier versions may have lost updates; every question is seeded again
+DELETE FROM answer_distribution;
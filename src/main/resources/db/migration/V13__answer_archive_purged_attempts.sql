@@ -0,0 +1,13 @@
+-- Archived attempts removed by DeletionPurger. Their answers stay in segment files until
+-- AnswerArchiver rewrites those segments without them; reads skip them in the meantime. Rows are
+-- kept for a while after compaction, until every instance has dropped the old segment.
+
+CREATE TABLE IF NOT EXISTS answer_archive_purged_attempts (
+    attempt_id BIGINT NOT NULL,
+    purged_at DATETIME(6) NOT NULL,
+    compacted_at DATETIME(6) NULL,
+    PRIMARY KEY (attempt_id)
+) ENGINE = InnoDB;
+
+-- AnswerArchiver.compact
+CREATE INDEX idx_answer_archive_purged_attempts_compacted ON answer_archive_purged_attempts (compacted_at);
@@ -0,0 +1,122 @@
+-- Baseline schema matching the JPA mappings. IF NOT EXISTS lets it run against databases
+-- that were previously created by ddl-auto.
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    username VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS quizzes (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    title VARCHAR(255) NOT NULL,
+    description TEXT,
+    topic VARCHAR(255) NOT NULL,
+    difficulty ENUM('EASY', 'MEDIUM', 'HARD', 'EXPERT') NOT NULL,
+    total_questions INTEGER,
+    time_limit_minutes INTEGER,
+    is_public BIT,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_quizzes_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS questions (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    content TEXT NOT NULL,
+    correct_answer VARCHAR(255) NOT NULL,
+    explanation TEXT,
+    question_type ENUM('MULTIPLE_CHOICE', 'TRUE_FALSE', 'SHORT_ANSWER', 'ESSAY', 'FILL_IN_BLANK') NOT NULL,
+    points INTEGER,
+    time_limit_seconds INTEGER,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    quiz_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_questions_quiz FOREIGN KEY (quiz_id) REFERENCES quizzes (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS answers (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    text TEXT NOT NULL,
+    is_correct BIT,
+    order_index INTEGER,
+    question_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_answers_question FOREIGN KEY (question_id) REFERENCES questions (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS quiz_attempts (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    started_at DATETIME(6),
+    completed_at DATETIME(6),
+    score FLOAT(53),
+    total_questions INTEGER,
+    correct_answers INTEGER,
+    time_taken_seconds BIGINT,
+    status ENUM('IN_PROGRESS', 'COMPLETED', 'ABANDONED', 'TIMED_OUT'),
+    user_id BIGINT NOT NULL,
+    quiz_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_quiz_attempts_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_quiz_attempts_quiz FOREIGN KEY (quiz_id) REFERENCES quizzes (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS user_answers (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_answer TEXT,
+    is_correct BIT,
+    points_earned INTEGER,
+    time_taken_seconds BIGINT,
+    answered_at DATETIME(6),
+    user_id BIGINT NOT NULL,
+    question_id BIGINT NOT NULL,
+    quiz_attempt_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_user_answers_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_answers_question FOREIGN KEY (question_id) REFERENCES questions (id),
+    CONSTRAINT fk_user_answers_quiz_attempt FOREIGN KEY (quiz_attempt_id) REFERENCES quiz_attempts (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS quiz_statistics (
+    quiz_id BIGINT NOT NULL,
+    total_attempts BIGINT NOT NULL,
+    completed_attempts BIGINT NOT NULL,
+    abandoned_attempts BIGINT NOT NULL,
+    score_sum FLOAT(53) NOT NULL,
+    score_histogram VARCHAR(500),
+    updated_at DATETIME(6),
+    PRIMARY KEY (quiz_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS user_statistics (
+    user_id BIGINT NOT NULL,
+    total_attempts BIGINT NOT NULL,
+    completed_attempts BIGINT NOT NULL,
+    answered_questions BIGINT NOT NULL,
+    correct_answers BIGINT NOT NULL,
+    current_streak INTEGER NOT NULL,
+    best_streak INTEGER NOT NULL,
+    last_activity_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (user_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS user_topic_statistics (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    topic VARCHAR(100) NOT NULL,
+    difficulty ENUM('EASY', 'MEDIUM', 'HARD', 'EXPERT') NOT NULL,
+    completed_attempts BIGINT NOT NULL,
+    score_sum FLOAT(53) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_topic_statistics UNIQUE (user_id, topic, difficulty)
+) ENGINE = InnoDB;
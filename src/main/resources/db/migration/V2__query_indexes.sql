@@ -0,0 +1,59 @@
+-- Composite indexes for the hot repository queries. Each index names the queries it serves.
+
+-- QuizRepository.findPublicQuizzesOrderByCreatedAt, findPublicQuizzesNewestFirst*/OldestFirst*
+CREATE INDEX idx_quizzes_public_created ON quizzes (is_public, created_at, id);
+
+-- QuizRepository.findDistinctTopics
+CREATE INDEX idx_quizzes_public_topic ON quizzes (is_public, topic);
+
+-- QuizRepository.findByUserOrderByCreatedAt, countByUser, findByUserAndIsPublic
+CREATE INDEX idx_quizzes_user_created ON quizzes (user_id, created_at);
+
+-- QuizRepository.findByTopic, findByTopicAndDifficulty
+CREATE INDEX idx_quizzes_topic_difficulty ON quizzes (topic, difficulty);
+
+-- QuizRepository.findByDifficulty
+CREATE INDEX idx_quizzes_difficulty ON quizzes (difficulty);
+
+-- QuizAttemptRepository.findInProgressAttemptByUserAndQuiz, findBestScoreByUserAndQuiz (covering)
+CREATE INDEX idx_quiz_attempts_user_quiz_status ON quiz_attempts (user_id, quiz_id, status, score);
+
+-- QuizAttemptRepository.findByUserAndQuizOrderByStartedAtDesc
+CREATE INDEX idx_quiz_attempts_user_quiz_started ON quiz_attempts (user_id, quiz_id, started_at);
+
+-- QuizAttemptRepository.findByUserOrderByStartedAtDesc, findByUserNewestFirst*/OldestFirst*, countByUser
+CREATE INDEX idx_quiz_attempts_user_started ON quiz_attempts (user_id, started_at, id);
+
+-- QuizAttemptRepository.findByUserAndStatusOrderByStartedAtDesc, countByUserIdsGroupedByStatus
+CREATE INDEX idx_quiz_attempts_user_status_started ON quiz_attempts (user_id, status, started_at);
+
+-- QuizAttemptRepository.findTopCompletedByQuiz, countCompletedAttemptsByQuizGroupedByScore,
+-- findAverageScoreByQuiz, countCompletedAttemptsByQuiz, summarizeByQuizIdGroupedByStatus (covering)
+CREATE INDEX idx_quiz_attempts_quiz_status_score ON quiz_attempts (quiz_id, status, score, completed_at);
+
+-- QuizAttemptRepository.findByQuizOrderByScoreDesc, countByQuiz
+CREATE INDEX idx_quiz_attempts_quiz_score ON quiz_attempts (quiz_id, score);
+
+-- UserAnswerRepository.findByQuizAttemptAndQuestion, countAnswersByQuizAttempt; one answer per question per attempt.
+-- Older rows could hold repeated submissions, so keep only the most recent before enforcing uniqueness.
+DELETE older FROM user_answers older
+    JOIN user_answers newer
+      ON newer.quiz_attempt_id = older.quiz_attempt_id
+     AND newer.question_id = older.question_id
+     AND newer.id > older.id;
+CREATE UNIQUE INDEX uk_user_answers_attempt_question ON user_answers (quiz_attempt_id, question_id);
+
+-- UserAnswerRepository.findByQuizAttemptOrderByAnsweredAtAsc, countCorrectAnswersByQuizAttempt, sumPointsEarnedByQuizAttempt
+CREATE INDEX idx_user_answers_attempt_answered ON user_answers (quiz_attempt_id, answered_at);
+
+-- UserAnswerRepository.findCorrectAnswersByUser, countCorrectAnswersByUser, countAnswersByUserIds
+CREATE INDEX idx_user_answers_user_correct_answered ON user_answers (user_id, is_correct, answered_at);
+
+-- UserAnswerRepository.findByUserAndQuestion
+CREATE INDEX idx_user_answers_user_question ON user_answers (user_id, question_id);
+
+-- AnswerRepository.findByQuestionOrderByOrderIndexAsc
+CREATE INDEX idx_answers_question_order ON answers (question_id, order_index);
+
+-- QuestionRepository.findByQuizOrderByIdAsc, findByQuizAndQuestionType
+CREATE INDEX idx_questions_quiz_type ON questions (quiz_id, question_type);
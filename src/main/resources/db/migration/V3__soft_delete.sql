@@ -0,0 +1,9 @@
+-- Soft delete: rows are hidden by @SQLRestriction as soon as deleted_at is set, and their
+-- descendants are removed later in bounded chunks by DeletionPurger.
+
+ALTER TABLE quizzes ADD COLUMN deleted_at DATETIME(6) NULL;
+ALTER TABLE users ADD COLUMN deleted_at DATETIME(6) NULL;
+
+-- DeletionPurger.findDeletedQuizIds, findDeletedUserIds
+CREATE INDEX idx_quizzes_deleted_at ON quizzes (deleted_at);
+CREATE INDEX idx_users_deleted_at ON users (deleted_at);
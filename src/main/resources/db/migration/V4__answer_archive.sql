@@ -0,0 +1,20 @@
+-- Answers of finished attempts older than quizzer.archive.older-than are moved out of user_answers
+-- into compressed segment files by AnswerArchiver. A segment is only live once its row here commits
+-- together with the answers_archived_at stamp and the delete, so a file left by a failed run is ignored.
+
+CREATE TABLE IF NOT EXISTS answer_archive_segments (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    file_name VARCHAR(255) NOT NULL,
+    min_attempt_id BIGINT NOT NULL,
+    max_attempt_id BIGINT NOT NULL,
+    attempt_count INTEGER NOT NULL,
+    answer_count INTEGER NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_answer_archive_segments_file UNIQUE (file_name)
+) ENGINE = InnoDB;
+
+ALTER TABLE quiz_attempts ADD COLUMN answers_archived_at DATETIME(6) NULL;
+
+-- AnswerArchiver.findArchivableAttemptIds
+CREATE INDEX idx_quiz_attempts_archive ON quiz_attempts (answers_archived_at, completed_at);
@@ -0,0 +1,10 @@
+-- Time limits: an attempt on a timed quiz carries its deadline, which AttemptDeadlineService
+-- enforces from an in-memory timer wheel rebuilt from this column on start.
+
+ALTER TABLE quiz_attempts ADD COLUMN deadline_at DATETIME(6) NULL;
+
+-- QuizAttemptRepository.findInProgressDeadlines
+CREATE INDEX idx_quiz_attempts_status_deadline ON quiz_attempts (status, deadline_at, id);
+
+-- StaleAttemptSweeper.sweep, QuizAttemptRepository.findByStatus
+CREATE INDEX idx_quiz_attempts_status_started ON quiz_attempts (status, started_at);
@@ -0,0 +1,11 @@
+-- Write-behind answers: the highest journal sequence whose answers are in user_answers. It is
+-- advanced in the same transaction that writes them, so replay after a crash applies each
+-- journaled answer exactly once.
+
+CREATE TABLE IF NOT EXISTS answer_journal_checkpoint (
+    id INTEGER NOT NULL,
+    sequence BIGINT NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+INSERT INTO answer_journal_checkpoint (id, sequence) VALUES (1, 0);
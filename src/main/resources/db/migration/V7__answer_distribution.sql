@@ -0,0 +1,11 @@
+-- Per-question answer counts flushed by AnswerDistributionService. answer_key is the trimmed,
+-- lower-cased answer, compared byte for byte; the empty key collects answers beyond
+-- quizzer.answer-distribution.max-distinct-answers. Rows go with their question in DeletionPurger.
+
+CREATE TABLE IF NOT EXISTS answer_distribution (
+    question_id BIGINT NOT NULL,
+    answer_key VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL,
+    answer_count BIGINT NOT NULL,
+    updated_at DATETIME(6),
+    PRIMARY KEY (question_id, answer_key)
+) ENGINE = InnoDB;
@@ -0,0 +1,36 @@
+-- Item analysis per question, accumulated by QuestionStatisticsJob from completed attempts. The
+-- sums are the sufficient statistics for the p-value and the point-biserial correlation between
+-- answering correctly and the rest of the attempt's score, so each run only adds new attempts.
+
+CREATE TABLE IF NOT EXISTS question_statistics (
+    question_id BIGINT NOT NULL,
+    quiz_id BIGINT NOT NULL,
+    responses BIGINT NOT NULL,
+    correct_responses BIGINT NOT NULL,
+    -- Responses in attempts with more than one question, which have a rest score
+    scored_responses BIGINT NOT NULL,
+    scored_correct_responses BIGINT NOT NULL,
+    rest_score_sum FLOAT(53) NOT NULL,
+    rest_score_square_sum FLOAT(53) NOT NULL,
+    correct_rest_score_sum FLOAT(53) NOT NULL,
+    time_taken_sum BIGINT NOT NULL,
+    timed_responses BIGINT NOT NULL,
+    updated_at DATETIME(6),
+    PRIMARY KEY (question_id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_question_statistics_quiz ON question_statistics (quiz_id);
+
+-- The last completed attempt, by (completed_at, id), whose answers are in question_statistics.
+-- It advances in the same transaction as the sums.
+CREATE TABLE IF NOT EXISTS question_statistics_checkpoint (
+    id INTEGER NOT NULL,
+    completed_at DATETIME(6),
+    attempt_id BIGINT NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+INSERT INTO question_statistics_checkpoint (id, completed_at, attempt_id) VALUES (1, NULL, 0);
+
+-- QuestionStatisticsJob walks completed attempts in (completed_at, id) order
+CREATE INDEX idx_quiz_attempts_status_completed ON quiz_attempts (status, completed_at, id);
@@ -0,0 +1,3 @@
+-- Keyset pages of a quiz's attempts by start time, read by AttemptExporter.
+
+CREATE INDEX idx_quiz_attempts_quiz_started ON quiz_attempts (quiz_id, started_at, id);
@@ -0,0 +1,18 @@
+package com.aiquizzer;
+
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Base for tests that need the production schema and query planner: a MySQL container per test
+ * class, migrated by Flyway. Skipped where Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class MySqlContainerTest {
+
+    @Container
+    @ServiceConnection
+    protected static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+}
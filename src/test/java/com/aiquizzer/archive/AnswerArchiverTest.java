@@ -0,0 +1,222 @@
+package com.aiquizzer.archive;
+
+import com.aiquizzer.MySqlContainerTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Archiving and compaction against the migrated schema and a segment directory of its own. Answers
+ * moved into segments must read back as they were stored, each attempt in exactly one registered
+ * segment; purged attempts must be skipped at once and dropped from their segment's rewrite.
+ * Segments hold two attempts, so a run writes several.
+ */
+@DataJpaTest(properties = {"quizzer.archive.older-than=PT1H", "quizzer.archive.attempts-per-segment=2"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AnswerArchive.class, AnswerArchiver.class, AnswerArchiverTest.Metrics.class})
+class AnswerArchiverTest extends MySqlContainerTest {
+
+    @TempDir
+    static Path directory;
+
+    @Autowired
+    private AnswerArchive answerArchive;
+    @Autowired
+    private AnswerArchiver answerArchiver;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    private long userId;
+    private long quizId;
+    private List<Long> questionIds;
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @DynamicPropertySource
+    static void archiveDirectory(DynamicPropertyRegistry registry) {
+        registry.add("quizzer.archive.directory", () -> directory.toString());
+    }
+
+    @BeforeEach
+    void seed() {
+        Long seededUserId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users WHERE username = 'archive'", Long.class);
+        if (seededUserId == null) {
+            jdbcTemplate.update("INSERT INTO users (username, email, password, created_at) VALUES ('archive', 'archive@example.test', 'x', NOW(6))");
+            seededUserId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'archive'", Long.class);
+            jdbcTemplate.update("INSERT INTO quizzes (title, topic, difficulty, is_public, created_at, user_id) " +
+                "VALUES ('Archive', 'Archiving', 'EASY', 1, NOW(6), ?)", seededUserId);
+            long seededQuizId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM quizzes", Long.class);
+            jdbcTemplate.update("INSERT INTO questions (content, correct_answer, question_type, created_at, quiz_id) " +
+                "VALUES ('First', 'A', 'MULTIPLE_CHOICE', NOW(6), ?), ('Second', 'B', 'MULTIPLE_CHOICE', NOW(6), ?)",
+                seededQuizId, seededQuizId);
+        }
+        userId = seededUserId;
+        quizId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM quizzes", Long.class);
+        questionIds = jdbcTemplate.queryForList("SELECT id FROM questions WHERE quiz_id = ? ORDER BY id", Long.class, quizId);
+    }
+
+    @Test
+    void archivedAnswersReadBackAsTheyWereStored() {
+        List<Long> old = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            old.add(attempt("COMPLETED", 2));
+        }
+        long unanswered = attempt("ABANDONED", 0);
+        long recent = attempt("COMPLETED", 0);
+        jdbcTemplate.update("UPDATE quiz_attempts SET completed_at = ? WHERE id = ?", LocalDateTime.now(), recent);
+        answer(recent, "Not yet", true);
+        long inProgress = attempt("IN_PROGRESS", 1);
+        Map<Long, List<ArchivedAnswer>> stored = new HashMap<>();
+        for (long attemptId : old) {
+            stored.put(attemptId, jdbcTemplate.query("SELECT id, question_id, user_answer, is_correct, points_earned, " +
+                "time_taken_seconds, answered_at FROM user_answers WHERE quiz_attempt_id = ? ORDER BY answered_at, id", (rs, rowNum) -> {
+                    boolean isCorrect = rs.getBoolean("is_correct");
+                    return new ArchivedAnswer(rs.getLong("id"), attemptId, userId, rs.getLong("question_id"), rs.getString("user_answer"),
+                        rs.wasNull() ? null : isCorrect, rs.getObject("points_earned", Integer.class),
+                        rs.getObject("time_taken_seconds", Long.class), rs.getObject("answered_at", LocalDateTime.class));
+                }, attemptId));
+        }
+
+        answerArchiver.archive();
+
+        for (long attemptId : old) {
+            assertThat(answerArchive.findByAttemptId(attemptId)).hasSize(2).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(stored.get(attemptId));
+            assertThat(count("SELECT COUNT(*) FROM user_answers WHERE quiz_attempt_id = ?", attemptId)).isZero();
+            assertThat(registeredSegmentsContaining(attemptId)).isOne();
+        }
+        // Stamped too, so no later run picks it up again
+        assertThat(count("SELECT COUNT(*) FROM quiz_attempts WHERE id = ? AND answers_archived_at IS NOT NULL", unanswered)).isOne();
+        assertThat(count("SELECT COUNT(*) FROM user_answers WHERE quiz_attempt_id = ?", recent)).isOne();
+        assertThat(count("SELECT COUNT(*) FROM user_answers WHERE quiz_attempt_id = ?", inProgress)).isOne();
+        assertThat(count("SELECT COUNT(*) FROM quiz_attempts WHERE id IN (?, ?) AND answers_archived_at IS NULL", recent, inProgress))
+            .isEqualTo(2);
+
+        long segments = count("SELECT COUNT(*) FROM answer_archive_segments");
+        answerArchiver.archive();
+        assertThat(count("SELECT COUNT(*) FROM answer_archive_segments")).isEqualTo(segments);
+    }
+
+    @Test
+    void purgedAttemptsAreSkippedAndDroppedWhenTheirSegmentIsRewritten() throws IOException {
+        long purged = attempt("COMPLETED", 2);
+        long kept = attempt("COMPLETED", 2);
+        answerArchiver.archive();
+        String segmentFile = jdbcTemplate.queryForObject(
+            "SELECT file_name FROM answer_archive_segments WHERE min_attempt_id <= ? AND max_attempt_id >= ?", String.class, purged, purged);
+        List<ArchivedAnswer> keptAnswers = answerArchive.findByAttemptId(kept);
+
+        // As DeletionPurger leaves it
+        jdbcTemplate.update("INSERT INTO answer_archive_purged_attempts (attempt_id, purged_at) VALUES (?, NOW(6))", purged);
+        jdbcTemplate.update("DELETE FROM quiz_attempts WHERE id = ?", purged);
+        Map<Long, long[]> counts = answerArchive.countAnswersByUserIds(List.of(userId));
+        long[] before = counts.get(userId).clone();
+
+        answerArchiver.archive();
+
+        assertThat(answerArchive.findByAttemptId(purged)).isEmpty();
+        assertThat(answerArchive.findByAttemptId(kept)).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(keptAnswers);
+        assertThat(registeredSegmentsContaining(kept)).isOne();
+        assertThat(count("SELECT COUNT(*) FROM answer_archive_segments WHERE file_name = ?", segmentFile)).isZero();
+        assertThat(Files.exists(directory.resolve(segmentFile))).isFalse();
+        assertThat(count("SELECT COUNT(*) FROM answer_archive_purged_attempts WHERE attempt_id = ? AND compacted_at IS NOT NULL", purged))
+            .isOne();
+        // Skipped before the rewrite and gone after it: the count does not change
+        assertThat(answerArchive.countAnswersByUserIds(List.of(userId)).get(userId)).containsExactly(before);
+    }
+
+    @Test
+    void loadingOpensRegisteredSegmentsAndRemovesTheRest() throws IOException {
+        long attemptId = attempt("COMPLETED", 1);
+        answerArchiver.archive();
+        // Left by a run whose transaction never committed
+        Path stray = directory.resolve(AnswerArchive.fileName(1, 1, 0));
+        AnswerSegment.write(stray, List.of(1L), List.of());
+
+        // As another instance starting on the same directory
+        AnswerArchive restarted = new AnswerArchive(directory.toString(), 16);
+        beanFactory.autowireBean(restarted);
+        restarted.load();
+
+        assertThat(Files.exists(stray)).isFalse();
+        assertThat(restarted.getSegmentCount()).isEqualTo(count("SELECT COUNT(*) FROM answer_archive_segments"));
+        assertThat(restarted.findByAttemptId(attemptId)).usingRecursiveFieldByFieldElementComparator()
+            .containsExactlyElementsOf(answerArchive.findByAttemptId(attemptId));
+    }
+
+    // Finished two hours ago, old enough to archive; the cutoff is taken from this clock too
+    private long attempt(String status, int answers) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO quiz_attempts (started_at, completed_at, score, total_questions, correct_answers, status, " +
+            "user_id, quiz_id) VALUES (?, ?, 50, 2, 1, ?, ?, ?)",
+            now.minusHours(3), "IN_PROGRESS".equals(status) ? null : now.minusHours(2), status, userId, quizId);
+        long attemptId = count("SELECT MAX(id) FROM quiz_attempts");
+        for (int i = 0; i < answers; i++) {
+            answer(attemptId, i == 0 ? "Première" : null, i == 0 ? Boolean.TRUE : null);
+        }
+        return attemptId;
+    }
+
+    private void answer(long attemptId, String text, Boolean correct) {
+        int index = (int) count("SELECT COUNT(*) FROM user_answers WHERE quiz_attempt_id = ?", attemptId);
+        jdbcTemplate.update("INSERT INTO user_answers (user_answer, is_correct, points_earned, time_taken_seconds, answered_at, " +
+            "user_id, question_id, quiz_attempt_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+            text, correct, correct != null ? 1 : null, correct != null ? 20L : null,
+            LocalDateTime.now().minusHours(2).plusSeconds(index), userId, questionIds.get(index % questionIds.size()), attemptId);
+    }
+
+    private long registeredSegmentsContaining(long attemptId) {
+        long registered = 0;
+        for (String fileName : jdbcTemplate.queryForList(
+                "SELECT file_name FROM answer_archive_segments WHERE min_attempt_id <= ? AND max_attempt_id >= ?",
+                String.class, attemptId, attemptId)) {
+            try {
+                if (AnswerSegment.open(directory.resolve(fileName)).contains(attemptId)) {
+                    registered++;
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return registered;
+    }
+
+    private long count(String sql, Object... args) {
+        Long value = jdbcTemplate.queryForObject(sql, Long.class, args);
+        return value != null ? value : 0;
+    }
+}
@@ -0,0 +1,94 @@
+package com.aiquizzer.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The segment file format on its own: every column must read back exactly as written, nulls and
+ * out-of-order values included, and attempts without answers must still count as archived.
+ */
+class AnswerSegmentTest {
+
+    private static final LocalDateTime ANSWERED_AT = LocalDateTime.of(2026, 3, 1, 9, 30, 15, 123_456_000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void everyColumnReadsBackAsWritten() throws IOException {
+        List<ArchivedAnswer> answers = List.of(
+            new ArchivedAnswer(900L, 10L, 7L, 100L, "Paris", true, 1, 12L, ANSWERED_AT),
+            // Ids and times out of order, nulls in every nullable column
+            new ArchivedAnswer(5L, 10L, 7L, 101L, null, null, null, null, null),
+            new ArchivedAnswer(901L, 10L, 7L, 102L, "", false, 0, 0L, ANSWERED_AT.minusYears(60)),
+            new ArchivedAnswer(950L, 30L, 8L, 100L, "Zürich — 東京", true, 2, 3L, ANSWERED_AT.plusNanos(1_000)));
+        AnswerSegment segment = write(List.of(10L, 20L, 30L), answers);
+
+        Map<Long, List<ArchivedAnswer>> read = segment.readAll();
+
+        assertThat(read).containsOnlyKeys(10L, 20L, 30L);
+        assertThat(read.get(20L)).isEmpty();
+        assertThat(read.get(10L)).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(answers.subList(0, 3));
+        assertThat(read.get(30L)).usingRecursiveFieldByFieldElementComparator().containsExactly(answers.get(3));
+        assertThat(segment.getRowCount()).isEqualTo(4);
+        assertThat(segment.getAttemptCount()).isEqualTo(3);
+    }
+
+    @Test
+    void attemptsWithoutAnswersAreContainedAndGapsAreNot() throws IOException {
+        AnswerSegment segment = write(List.of(10L, 20L, 30L),
+            List.of(new ArchivedAnswer(1L, 30L, 7L, 100L, "A", true, 1, 1L, ANSWERED_AT)));
+
+        assertThat(segment.getMinAttemptId()).isEqualTo(10L);
+        assertThat(segment.getMaxAttemptId()).isEqualTo(30L);
+        assertThat(segment.contains(20L)).isTrue();
+        assertThat(segment.contains(15L)).isFalse();
+        assertThat(segment.contains(31L)).isFalse();
+    }
+
+    @Test
+    void countsOnlyTheGivenUsersAndSkipsExcludedAttempts() throws IOException {
+        AnswerSegment segment = write(List.of(10L, 20L), List.of(
+            new ArchivedAnswer(1L, 10L, 7L, 100L, "A", true, 1, null, ANSWERED_AT),
+            new ArchivedAnswer(2L, 10L, 7L, 101L, "B", false, 0, null, ANSWERED_AT),
+            new ArchivedAnswer(3L, 10L, 8L, 100L, "A", true, 1, null, ANSWERED_AT),
+            new ArchivedAnswer(4L, 20L, 7L, 100L, "A", true, 1, null, ANSWERED_AT),
+            new ArchivedAnswer(5L, 20L, 7L, 101L, null, null, null, null, ANSWERED_AT)));
+
+        Map<Long, long[]> counts = new HashMap<>();
+        segment.countAnswersByUser(Set.of(7L), Set.of(), counts);
+        assertThat(counts).containsOnlyKeys(7L);
+        assertThat(counts.get(7L)).containsExactly(4, 2);
+
+        counts.clear();
+        segment.countAnswersByUser(Set.of(7L, 8L), Set.of(20L), counts);
+        assertThat(counts.get(7L)).containsExactly(2, 1);
+        assertThat(counts.get(8L)).containsExactly(1, 1);
+    }
+
+    @Test
+    void answersMustBeGroupedByTheGivenAttempts() {
+        List<ArchivedAnswer> answers = List.of(
+            new ArchivedAnswer(1L, 20L, 7L, 100L, "A", true, 1, null, ANSWERED_AT),
+            new ArchivedAnswer(2L, 10L, 7L, 100L, "A", true, 1, null, ANSWERED_AT));
+
+        assertThatThrownBy(() -> write(List.of(10L, 20L), answers)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private AnswerSegment write(List<Long> attemptIds, List<ArchivedAnswer> answers) throws IOException {
+        Path path = directory.resolve(AnswerArchive.fileName(attemptIds.get(0), attemptIds.get(attemptIds.size() - 1), 0));
+        AnswerSegment.write(path, attemptIds, answers);
+        return AnswerSegment.open(path);
+    }
+}
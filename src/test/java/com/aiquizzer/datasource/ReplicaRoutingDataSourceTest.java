@@ -0,0 +1,167 @@
+package com.aiquizzer.datasource;
+
+import com.aiquizzer.MySqlContainerTest;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes between two schemas of one MySQL container, standing in for the primary and a replica,
+ * wired as ReadReplicaConfig wires them. Each schema's name tells which one a transaction read.
+ * The replica's lag is read from a table the test sets.
+ */
+class ReplicaRoutingDataSourceTest extends MySqlContainerTest {
+
+    private static final String REPLICA_SCHEMA = "replica";
+    private static final long MAX_LAG_MILLIS = 1000;
+
+    private static DataSource primary;
+    private static DataSource replica;
+
+    private ReplicaLagMonitor lagMonitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeAll
+    static void createReplicaSchema() {
+        DataSource root = new DriverManagerDataSource(MYSQL.getJdbcUrl(), "root", MYSQL.getPassword());
+        new JdbcTemplate(root).execute("CREATE DATABASE IF NOT EXISTS " + REPLICA_SCHEMA);
+        new JdbcTemplate(root).execute("GRANT ALL ON " + REPLICA_SCHEMA + ".* TO '" + MYSQL.getUsername() + "'@'%'");
+
+        primary = new DriverManagerDataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+        replica = new DriverManagerDataSource(
+            MYSQL.getJdbcUrl().replace("/" + MYSQL.getDatabaseName(), "/" + REPLICA_SCHEMA), MYSQL.getUsername(), MYSQL.getPassword());
+        for (DataSource dataSource : new DataSource[] {primary, replica}) {
+            new JdbcTemplate(dataSource).execute("CREATE TABLE IF NOT EXISTS writes (id BIGINT AUTO_INCREMENT PRIMARY KEY)");
+        }
+        new JdbcTemplate(replica).execute("CREATE TABLE IF NOT EXISTS replica_lag (seconds BIGINT)");
+    }
+
+    @BeforeEach
+    void wire() {
+        lagMonitor = new ReplicaLagMonitor(replica, "SELECT seconds FROM replica_lag", MAX_LAG_MILLIS);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, lagMonitor);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        setReplicaLag(0L);
+        startRequest(new MockHttpServletRequest());
+    }
+
+    @AfterEach
+    void endRequest() {
+        DataSourceRouting.clear();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void readOnlyTransactionsOfRequestsReadTheReplica() {
+        assertThat(readOnly.execute(status -> database())).isEqualTo(REPLICA_SCHEMA);
+        assertThat(readWrite.execute(status -> database())).isEqualTo(MYSQL.getDatabaseName());
+
+        // Background loads seed read models, so they read the primary
+        RequestContextHolder.resetRequestAttributes();
+        assertThat(readOnly.execute(status -> database())).isEqualTo(MYSQL.getDatabaseName());
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhileTheReplicaLags() {
+        setReplicaLag(5L);
+        assertThat(readOnly.execute(status -> database())).isEqualTo(MYSQL.getDatabaseName());
+
+        // Replication stopped
+        setReplicaLag(null);
+        assertThat(readOnly.execute(status -> database())).isEqualTo(MYSQL.getDatabaseName());
+
+        setReplicaLag(MAX_LAG_MILLIS / 1000);
+        assertThat(readOnly.execute(status -> database())).isEqualTo(REPLICA_SCHEMA);
+    }
+
+    @Test
+    void aCommittedWritePinsTheRestOfTheRequestAndTheClientsNextRequests() {
+        MockHttpServletResponse response = startRequest(new MockHttpServletRequest());
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("INSERT INTO writes () VALUES ()"));
+
+        assertThat(readOnly.execute(status -> database())).isEqualTo(MYSQL.getDatabaseName());
+        Cookie pin = response.getCookie(DataSourceRouting.PIN_COOKIE);
+        assertThat(pin).isNotNull();
+        assertThat(Long.parseLong(pin.getValue())).isGreaterThan(System.currentTimeMillis());
+
+        // The next request from the same client, until the cookie's time passes
+        assertThat(readThroughFilter(pin)).isEqualTo(MYSQL.getDatabaseName());
+        assertThat(readThroughFilter(new Cookie(DataSourceRouting.PIN_COOKIE, Long.toString(System.currentTimeMillis() - 1))))
+            .isEqualTo(REPLICA_SCHEMA);
+    }
+
+    @Test
+    void aRolledBackWriteDoesNotPin() {
+        MockHttpServletResponse response = startRequest(new MockHttpServletRequest());
+        readWrite.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO writes () VALUES ()");
+            status.setRollbackOnly();
+        });
+
+        assertThat(readOnly.execute(status -> database())).isEqualTo(REPLICA_SCHEMA);
+        assertThat(response.getCookie(DataSourceRouting.PIN_COOKIE)).isNull();
+    }
+
+    // Runs one read-only transaction inside ReadYourWritesFilter, as a request carrying the cookie would
+    private String readThroughFilter(Cookie cookie) {
+        DataSourceRouting.clear();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(cookie);
+        MockHttpServletResponse response = startRequest(request);
+
+        AtomicReference<String> database = new AtomicReference<>();
+        FilterChain chain = (filteredRequest, filteredResponse) -> database.set(readOnly.execute(status -> database()));
+        try {
+            new ReadYourWritesFilter(5000).doFilter(request, response, chain);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        // The pin ends with the request
+        assertThat(DataSourceRouting.isPinnedToPrimary()).isFalse();
+        return database.get();
+    }
+
+    private static MockHttpServletResponse startRequest(MockHttpServletRequest request) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        return response;
+    }
+
+    private String database() {
+        return jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+    }
+
+    private void setReplicaLag(Long seconds) {
+        JdbcTemplate replicaJdbc = new JdbcTemplate(replica);
+        replicaJdbc.update("DELETE FROM replica_lag");
+        replicaJdbc.update("INSERT INTO replica_lag (seconds) VALUES (?)", seconds);
+        lagMonitor.check();
+    }
+}
@@ -0,0 +1,199 @@
+package com.aiquizzer.journal;
+
+import com.aiquizzer.dto.GradedAnswer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The journal on its own: every acknowledged answer replays after a restart exactly once, in
+ * sequence order and with every field as appended, only above the checkpoint it is opened with; a
+ * torn record ends its segment's replay without losing the segments after it.
+ */
+class AnswerJournalTest {
+
+    private static final LocalDateTime ANSWERED_AT = LocalDateTime.of(2026, 5, 4, 10, 15, 30, 654_321_000);
+
+    @TempDir
+    Path directory;
+
+    private final List<AnswerJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void close() {
+        opened.forEach(AnswerJournal::close);
+    }
+
+    @Test
+    void appendedAnswersReplayInOrderWithEveryField() throws IOException {
+        AnswerJournal journal = open(4096);
+        assertThat(journal.open(0)).isEmpty();
+        List<GradedAnswer> appended = List.of(
+            answer(1, 10, "Paris", true, null, null),
+            answer(1, 11, null, false, Boolean.TRUE, "Rome"),
+            answer(2, 10, "Zürich — 東京", false, Boolean.FALSE, ""),
+            answer(1, 10, "paris ", true, Boolean.TRUE, "Paris"));
+        List<GradedAnswer> seen = new ArrayList<>();
+        for (GradedAnswer answer : appended) {
+            journal.append(answer, seen::add);
+            journal.awaitDurable(answer.getSequence());
+        }
+        journal.close();
+
+        assertThat(seen).extracting(GradedAnswer::getSequence).containsExactly(1L, 2L, 3L, 4L);
+        List<GradedAnswer> replayed = reopen(4096, 0);
+        assertThat(replayed).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(appended);
+    }
+
+    @Test
+    void onlyAnswersAboveTheCheckpointReplayAndSequencesContinue() throws IOException {
+        AnswerJournal journal = open(4096);
+        journal.open(0);
+        for (int i = 0; i < 5; i++) {
+            appendDurably(journal, answer(1, i, "A", true, null, null));
+        }
+        journal.close();
+
+        AnswerJournal reopened = open(4096);
+        assertThat(reopened.open(3)).extracting(GradedAnswer::getSequence).containsExactly(4L, 5L);
+        GradedAnswer next = answer(1, 9, "B", false, null, null);
+        appendDurably(reopened, next);
+        assertThat(next.getSequence()).isEqualTo(6);
+        reopened.close();
+
+        assertThat(reopen(4096, 5)).extracting(GradedAnswer::getSequence).containsExactly(6L);
+    }
+
+    @Test
+    void concurrentAppendersEachGetADurableSequenceOfTheirOwn() throws Exception {
+        AnswerJournal journal = open(1 << 20);
+        journal.open(0);
+        List<Long> sequences = Collections.synchronizedList(new ArrayList<>());
+        try (ExecutorService appenders = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> appended = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                long questionId = i;
+                appended.add(appenders.submit(() -> {
+                    GradedAnswer answer = answer(questionId % 7, questionId, "A", true, null, null);
+                    appendDurably(journal, answer);
+                    sequences.add(answer.getSequence());
+                    return null;
+                }));
+            }
+            for (Future<?> future : appended) {
+                future.get();
+            }
+        }
+        journal.close();
+
+        assertThat(sequences).hasSize(500).doesNotHaveDuplicates().allMatch(sequence -> sequence >= 1 && sequence <= 500);
+        assertThat(reopen(1 << 20, 0)).extracting(GradedAnswer::getSequence).isSorted().hasSize(500);
+    }
+
+    @Test
+    void fullSegmentsRollAndTruncationDropsOnlyCheckpointedOnes() throws IOException {
+        // A few records per segment
+        AnswerJournal journal = open(256);
+        journal.open(0);
+        for (int i = 0; i < 20; i++) {
+            appendDurably(journal, answer(1, i, "A", true, null, null));
+        }
+        long segments = segmentCount();
+        assertThat(segments).isGreaterThan(3);
+
+        journal.truncate(10);
+
+        assertThat(segmentCount()).isLessThan(segments);
+        journal.close();
+        // Whatever the truncation kept, nothing above the checkpoint was lost
+        assertThat(reopen(256, 10)).extracting(GradedAnswer::getSequence)
+            .containsExactly(11L, 12L, 13L, 14L, 15L, 16L, 17L, 18L, 19L, 20L);
+    }
+
+    @Test
+    void aTornRecordEndsItsSegmentsReplayButNotTheNextSegments() throws IOException {
+        AnswerJournal journal = open(4096);
+        journal.open(0);
+        for (int i = 0; i < 3; i++) {
+            appendDurably(journal, answer(1, i, "A", true, null, null));
+        }
+        journal.close();
+        // Records of text "A" and no replaced text are 8 + 59 bytes; flip a byte in the third one's body
+        Path segment = segments().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(2 * 67 + 8 + 20);
+            int value = file.read();
+            file.seek(2 * 67 + 8 + 20);
+            file.write(value ^ 0xFF);
+        }
+
+        AnswerJournal reopened = open(4096);
+        assertThat(reopened.open(0)).extracting(GradedAnswer::getSequence).containsExactly(1L, 2L);
+        // The torn answer was never acknowledged, so its sequence is handed out again
+        GradedAnswer next = answer(1, 9, "B", false, null, null);
+        appendDurably(reopened, next);
+        assertThat(next.getSequence()).isEqualTo(3);
+        reopened.close();
+
+        assertThat(reopen(4096, 0)).extracting(GradedAnswer::getQuestionId).containsExactly(0L, 1L, 9L);
+    }
+
+    @Test
+    void aClosedJournalRefusesAppendsAndOversizedAnswersAreRejected() throws IOException {
+        AnswerJournal journal = open(128);
+        journal.open(0);
+        assertThatThrownBy(() -> journal.append(answer(1, 1, "x".repeat(200), true, null, null), answer -> { }))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        journal.close();
+        assertThatThrownBy(() -> journal.append(answer(1, 1, "A", true, null, null), answer -> { }))
+            .isInstanceOf(IOException.class);
+    }
+
+    private AnswerJournal open(int segmentBytes) {
+        AnswerJournal journal = new AnswerJournal(directory, segmentBytes);
+        opened.add(journal);
+        return journal;
+    }
+
+    private List<GradedAnswer> reopen(int segmentBytes, long checkpoint) throws IOException {
+        return open(segmentBytes).open(checkpoint);
+    }
+
+    private static void appendDurably(AnswerJournal journal, GradedAnswer answer) throws IOException {
+        journal.append(answer, appended -> { });
+        journal.awaitDurable(answer.getSequence());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private long segmentCount() throws IOException {
+        return segments().size();
+    }
+
+    private static GradedAnswer answer(long attemptId, long questionId, String text, boolean correct,
+                                       Boolean previousCorrect, String previousText) {
+        return new GradedAnswer(0, attemptId, 7, questionId, text, correct, previousCorrect, previousText,
+            correct ? 1 : 0, ANSWERED_AT.plusSeconds(questionId), correct ? 1 : 0);
+    }
+}
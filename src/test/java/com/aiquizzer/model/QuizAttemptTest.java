@@ -0,0 +1,65 @@
+package com.aiquizzer.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Completing an attempt on its own. An attempt completed after its deadline is stamped with the
+ * time it is actually completed, however late, while its time taken stops at the deadline.
+ */
+class QuizAttemptTest {
+
+    @Test
+    void anAttemptCompletedAfterItsDeadlineIsStampedNowWithTimeTakenStoppingAtTheDeadline() {
+        LocalDateTime startedAt = LocalDateTime.now().minusHours(3);
+        QuizAttempt attempt = attempt(startedAt, startedAt.plusMinutes(10));
+        LocalDateTime before = LocalDateTime.now();
+
+        attempt.completeAfterDeadline();
+
+        assertThat(attempt.getStatus()).isEqualTo(AttemptStatus.COMPLETED);
+        assertThat(attempt.getCompletedAt()).isAfterOrEqualTo(before).isBeforeOrEqualTo(LocalDateTime.now());
+        assertThat(attempt.getTimeTakenSeconds()).isEqualTo(600);
+    }
+
+    @Test
+    void anAttemptCompletedBeforeItsDeadlineTakesTheTimeUntilItIsCompleted() {
+        LocalDateTime startedAt = LocalDateTime.now().minusMinutes(2);
+        QuizAttempt attempt = attempt(startedAt, startedAt.plusMinutes(10));
+
+        attempt.completeAfterDeadline();
+
+        assertThat(attempt.getStatus()).isEqualTo(AttemptStatus.COMPLETED);
+        assertThat(attempt.getTimeTakenSeconds()).isBetween(119L, 121L);
+    }
+
+    @Test
+    void anAttemptWithoutADeadlineCompletesAsUsual() {
+        LocalDateTime startedAt = LocalDateTime.now().minusHours(1);
+        QuizAttempt attempt = attempt(startedAt, null);
+
+        attempt.completeAfterDeadline();
+
+        assertThat(attempt.getStatus()).isEqualTo(AttemptStatus.COMPLETED);
+        assertThat(attempt.getTimeTakenSeconds()).isBetween(3599L, 3601L);
+    }
+
+    @Test
+    void onlyATimeAfterTheDeadlineIsPastIt() {
+        LocalDateTime deadlineAt = LocalDateTime.now();
+
+        assertThat(attempt(deadlineAt.minusMinutes(5), deadlineAt).isPastDeadline(deadlineAt)).isFalse();
+        assertThat(attempt(deadlineAt.minusMinutes(5), deadlineAt).isPastDeadline(deadlineAt.plusNanos(1000))).isTrue();
+        assertThat(attempt(deadlineAt.minusMinutes(5), null).isPastDeadline(deadlineAt.plusYears(1))).isFalse();
+    }
+
+    private static QuizAttempt attempt(LocalDateTime startedAt, LocalDateTime deadlineAt) {
+        QuizAttempt attempt = new QuizAttempt();
+        attempt.setStartedAt(startedAt);
+        attempt.setDeadlineAt(deadlineAt);
+        return attempt;
+    }
+}
@@ -0,0 +1,81 @@
+package com.aiquizzer.repository;
+
+import com.aiquizzer.MySqlContainerTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the plans of the leaderboard queries against the migrated schema, so an index change
+ * that brings back a sort of every completed attempt fails here rather than in production.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class QuizAttemptRepositoryExplainTest extends MySqlContainerTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long quizId;
+
+    // Once per container; the tests only read
+    @BeforeEach
+    void seed() {
+        Long seededQuizId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM quizzes", Long.class);
+        if (seededQuizId != null) {
+            quizId = seededQuizId;
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO users (username, email, password, created_at) VALUES ('explain', 'explain@example.test', 'x', NOW(6))");
+        long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'explain'", Long.class);
+        for (int i = 0; i < 2; i++) {
+            jdbcTemplate.update("INSERT INTO quizzes (title, topic, difficulty, is_public, created_at, user_id) " +
+                "VALUES ('Explain', 'Plans', 'EASY', 1, NOW(6), ?)", userId);
+        }
+        quizId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM quizzes", Long.class);
+        // A thousand attempts per quiz, a quarter of them not completed
+        jdbcTemplate.update(
+            "INSERT INTO quiz_attempts (started_at, completed_at, score, total_questions, correct_answers, status, user_id, quiz_id) " +
+            "WITH RECURSIVE n (i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 1000) " +
+            "SELECT NOW(6) - INTERVAL i MINUTE, NOW(6) - INTERVAL i SECOND, i % 101, 10, i % 11, " +
+            "IF(i % 4 = 0, 'IN_PROGRESS', 'COMPLETED'), ?, q.id FROM n CROSS JOIN quizzes q",
+            userId);
+        jdbcTemplate.execute("ANALYZE TABLE quiz_attempts");
+    }
+
+    @Test
+    void topCompletedReadsTheLeaderboardIndexInOrder() {
+        // findTopCompletedByQuiz; its fetch join reads users by primary key per row
+        Map<String, Object> plan = explain(
+            "SELECT qa.id FROM quiz_attempts qa WHERE qa.quiz_id = ? AND qa.status = 'COMPLETED' AND qa.score IS NOT NULL " +
+            "ORDER BY qa.score DESC, qa.completed_at ASC, qa.id ASC LIMIT 10");
+
+        assertThat(plan.get("key")).isEqualTo("idx_quiz_attempts_quiz_status_score_desc");
+        assertThat(String.valueOf(plan.get("Extra"))).doesNotContain("filesort");
+    }
+
+    @Test
+    void completedScoresAreCoveredByTheLeaderboardIndex() {
+        // findCompletedScoresByQuiz, which seeds the leaderboard's rank counts; the index carries the primary key
+        Map<String, Object> plan = explain(
+            "SELECT qa.id, qa.score FROM quiz_attempts qa WHERE qa.quiz_id = ? AND qa.status = 'COMPLETED' " +
+            "AND qa.score IS NOT NULL");
+
+        assertThat(plan.get("key")).isEqualTo("idx_quiz_attempts_quiz_status_score_desc");
+        assertThat(String.valueOf(plan.get("Extra"))).contains("Using index").doesNotContain("filesort").doesNotContain("temporary");
+    }
+
+    private Map<String, Object> explain(String sql) {
+        return jdbcTemplate.queryForList("EXPLAIN " + sql, quizId).get(0);
+    }
+}
@@ -0,0 +1,246 @@
+package com.aiquizzer.service;
+
+import com.aiquizzer.MySqlContainerTest;
+import com.aiquizzer.dto.AnswerDistributionDto;
+import com.aiquizzer.dto.GradedAnswer;
+import com.aiquizzer.dto.QuestionDto;
+import com.aiquizzer.dto.QuizDetailDto;
+import com.aiquizzer.journal.AnswerJournal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Answer distributions against the migrated schema, with answers written the way the
+ * write-behind path writes them. Whatever happens between a seed and a read, a distribution must
+ * equal what seeding from {@code user_answers} would give: answers committed after the seed count
+ * once, a resubmission moves its count, a failed flush counts nothing twice, and an answer
+ * replayed from the journal after a crash is counted exactly like the submission it replays.
+ * The scheduled flush is an hour apart, so each test decides when counts are written.
+ */
+@DataJpaTest(properties = "quizzer.answer-distribution.flush-interval-ms=3600000")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AnswerDistributionService.class, AnswerBatchWriter.class})
+class AnswerDistributionServiceTest extends MySqlContainerTest {
+
+    @TempDir
+    Path journalDirectory;
+
+    @Autowired
+    private AnswerDistributionService answerDistributionService;
+    @Autowired
+    private AnswerBatchWriter answerBatchWriter;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private QuizService quizService;
+
+    private long userId;
+    private long quizId;
+    private long questionId;
+
+    @BeforeEach
+    void seed() {
+        Long seededUserId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users WHERE username = 'distribution'", Long.class);
+        if (seededUserId == null) {
+            jdbcTemplate.update("INSERT INTO users (username, email, password, created_at) " +
+                "VALUES ('distribution', 'distribution@example.test', 'x', NOW(6))");
+            seededUserId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'distribution'", Long.class);
+        }
+        userId = seededUserId;
+        jdbcTemplate.update("INSERT INTO quizzes (title, topic, difficulty, is_public, created_at, user_id) " +
+            "VALUES ('Distribution', 'Capitals', 'EASY', 1, NOW(6), ?)", userId);
+        quizId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM quizzes", Long.class);
+        jdbcTemplate.update("INSERT INTO questions (content, correct_answer, question_type, points, created_at, quiz_id) " +
+            "VALUES ('Capital of France?', 'Paris', 'SHORT_ANSWER', 1, NOW(6), ?)", quizId);
+        questionId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM questions", Long.class);
+
+        QuestionDto question = new QuestionDto();
+        question.setId(questionId);
+        question.setCorrectAnswer("Paris");
+        question.setAnswers(List.of());
+        QuizDetailDto quiz = new QuizDetailDto();
+        quiz.setId(quizId);
+        quiz.setQuestions(List.of(question));
+        when(quizService.getQuizDetail(quizId)).thenReturn(Optional.of(quiz));
+        when(quizService.isQuizOwner(eq(quizId), any())).thenReturn(true);
+    }
+
+    @Test
+    void answersCommittedAfterTheSeedCountOnceAndResubmissionsMoveTheirCount() {
+        long first = answered("Paris");
+        answered(" paris ");
+        long third = answered("Rome");
+        assertThat(distribution()).isEqualTo(Map.of("paris", 2L, "rome", 1L));
+
+        long fourth = attempt();
+        write(graded(fourth, "Lyon", null));
+        write(graded(third, "Paris", "Rome"));
+        // Rolled back, so never counted
+        transactionTemplate.executeWithoutResult(status -> {
+            answerBatchWriter.write(List.of(graded(first, "Nice", "Paris")));
+            status.setRollbackOnly();
+        });
+
+        Map<String, Long> expected = Map.of("paris", 3L, "lyon", 1L);
+        assertThat(distribution()).isEqualTo(expected);
+        answerDistributionService.flush();
+        answerDistributionService.flush();
+        assertThat(stored()).isEqualTo(expected);
+        assertThat(distribution()).isEqualTo(expected).isEqualTo(fromUserAnswers());
+    }
+
+    @Test
+    void aReplayedResubmissionMovesItsCountInsteadOfAddingOne() throws IOException {
+        long attemptId = attempt();
+        assertThat(distribution()).isEmpty();
+        AnswerJournal journal = new AnswerJournal(journalDirectory, 4096);
+        journal.open(0);
+        GradedAnswer submitted = graded(attemptId, "Paris", null);
+        appendDurably(journal, submitted);
+        write(submitted);
+        // Acknowledged, then lost with the instance before the writer committed it
+        appendDurably(journal, graded(attemptId, "Rome", "Paris"));
+        journal.close();
+
+        AnswerJournal reopened = new AnswerJournal(journalDirectory, 4096);
+        try {
+            List<GradedAnswer> replayed = reopened.open(submitted.getSequence());
+            assertThat(replayed).singleElement().extracting(GradedAnswer::getPreviousAnswer).isEqualTo("Paris");
+            write(replayed.toArray(new GradedAnswer[0]));
+        } finally {
+            reopened.close();
+        }
+
+        assertThat(distribution()).isEqualTo(Map.of("rome", 1L));
+        answerDistributionService.flush();
+        assertThat(stored()).isEqualTo(Map.of("rome", 1L)).isEqualTo(fromUserAnswers());
+    }
+
+    @Test
+    void aFailedFlushIsRetriedWithoutCountingAnyChangeTwice() {
+        answered("Paris");
+        assertThat(distribution()).isEqualTo(Map.of("paris", 1L));
+        write(graded(attempt(), "Rome", null));
+
+        // The flush's updates fail without their table and roll back whole
+        jdbcTemplate.execute("RENAME TABLE answer_distribution TO answer_distribution_away");
+        try {
+            answerDistributionService.flush();
+        } finally {
+            jdbcTemplate.execute("RENAME TABLE answer_distribution_away TO answer_distribution");
+        }
+        assertThat(stored()).isEqualTo(Map.of("paris", 1L));
+        assertThat(distribution()).isEqualTo(Map.of("paris", 1L, "rome", 1L));
+
+        write(graded(attempt(), "rome", null));
+        answerDistributionService.flush();
+
+        assertThat(stored()).isEqualTo(Map.of("paris", 1L, "rome", 2L)).isEqualTo(fromUserAnswers());
+        assertThat(distribution()).isEqualTo(Map.of("paris", 1L, "rome", 2L));
+    }
+
+    @Test
+    void changesToAnEvictedSeedAreDroppedAndTheQuestionIsSeededAgain() {
+        answered("Paris");
+        assertThat(distribution()).isEqualTo(Map.of("paris", 1L));
+        // Counted against the first seed but not flushed yet
+        write(graded(attempt(), "Rome", null));
+
+        answerDistributionService.evictQuiz(quizId);
+
+        // The new seed already has the answer from user_answers
+        assertThat(distribution()).isEqualTo(Map.of("paris", 1L, "rome", 1L));
+        answerDistributionService.flush();
+        assertThat(stored()).isEqualTo(Map.of("paris", 1L, "rome", 1L)).isEqualTo(fromUserAnswers());
+    }
+
+    private Map<String, Long> distribution() {
+        AnswerDistributionDto distribution = answerDistributionService.getDistribution(quizId, questionId, null).orElseThrow();
+        Map<String, Long> counts = new HashMap<>();
+        for (AnswerDistributionDto.Entry entry : distribution.getAnswers()) {
+            counts.put(entry.getAnswer(), entry.getCount());
+        }
+        assertThat(distribution.getOtherAnswers()).isZero();
+        assertThat(distribution.getTotalAnswers()).isEqualTo(counts.values().stream().mapToLong(Long::longValue).sum());
+        return counts;
+    }
+
+    private Map<String, Long> stored() {
+        Map<String, Long> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT answer_key, answer_count FROM answer_distribution WHERE question_id = ? " +
+                "AND answer_key <> '' AND answer_count > 0",
+            rs -> {
+                counts.put(rs.getString(1), rs.getLong(2));
+            },
+            questionId);
+        return counts;
+    }
+
+    // What a seed would count now
+    private Map<String, Long> fromUserAnswers() {
+        Map<String, Long> counts = new HashMap<>();
+        for (String answer : jdbcTemplate.queryForList("SELECT user_answer FROM user_answers WHERE question_id = ?",
+                String.class, questionId)) {
+            counts.merge(answer.trim().toLowerCase(Locale.ROOT), 1L, Long::sum);
+        }
+        return counts;
+    }
+
+    private long attempt() {
+        jdbcTemplate.update("INSERT INTO quiz_attempts (started_at, total_questions, correct_answers, status, user_id, quiz_id) " +
+            "VALUES (NOW(6), 1, 0, 'IN_PROGRESS', ?, ?)", userId, quizId);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM quiz_attempts", Long.class);
+    }
+
+    // Stored before the question is seeded
+    private long answered(String answer) {
+        long attemptId = attempt();
+        jdbcTemplate.update("INSERT INTO user_answers (user_answer, is_correct, points_earned, answered_at, user_id, question_id, " +
+            "quiz_attempt_id) VALUES (?, 0, 0, NOW(6), ?, ?, ?)", answer, userId, questionId, attemptId);
+        return attemptId;
+    }
+
+    private GradedAnswer graded(long attemptId, String answer, String previousAnswer) {
+        boolean correct = "paris".equalsIgnoreCase(answer.trim());
+        Boolean previousCorrect = previousAnswer != null ? "paris".equalsIgnoreCase(previousAnswer.trim()) : null;
+        return new GradedAnswer(0, attemptId, userId, questionId, answer, correct, previousCorrect, previousAnswer,
+            correct ? 1 : 0, LocalDateTime.now(), correct ? 1 : 0);
+    }
+
+    private void write(GradedAnswer... answers) {
+        transactionTemplate.executeWithoutResult(status -> answerBatchWriter.write(List.of(answers)));
+    }
+
+    private static void appendDurably(AnswerJournal journal, GradedAnswer answer) throws IOException {
+        journal.append(answer, appended -> { });
+        journal.awaitDurable(answer.getSequence());
+    }
+}
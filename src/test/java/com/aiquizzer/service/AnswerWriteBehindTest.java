@@ -0,0 +1,188 @@
+package com.aiquizzer.service;
+
+import com.aiquizzer.MySqlContainerTest;
+import com.aiquizzer.model.User;
+import com.aiquizzer.model.UserAnswer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The write-behind path against the migrated schema and a journal directory of its own, with
+ * scheduled flushes an hour apart so each test decides when answers are written. An acknowledged
+ * answer reaches {@code user_answers} exactly once, whether by a flush, a drain or a replay after a
+ * crash that lost the write; a drained attempt takes no more answers until the caller's
+ * transaction ends.
+ */
+@DataJpaTest(properties = {"quizzer.answers.write-behind.enabled=true", "quizzer.answers.write-behind.segment-bytes=65536",
+    "quizzer.answers.write-behind.flush-interval-ms=3600000"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AnswerWriteBehind.class, AnswerBatchWriter.class})
+class AnswerWriteBehindTest extends MySqlContainerTest {
+
+    @TempDir
+    static Path directory;
+
+    @Autowired
+    private AnswerWriteBehind answerWriteBehind;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    private User user;
+    private long quizId;
+    private List<Long> questionIds;
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) {
+        registry.add("quizzer.answers.write-behind.journal-directory", () -> directory.toString());
+    }
+
+    @BeforeEach
+    void seed() {
+        Long userId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users WHERE username = 'write-behind'", Long.class);
+        if (userId == null) {
+            jdbcTemplate.update("INSERT INTO users (username, email, password, created_at) " +
+                "VALUES ('write-behind', 'write-behind@example.test', 'x', NOW(6))");
+            userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'write-behind'", Long.class);
+        }
+        user = new User();
+        user.setId(userId);
+        jdbcTemplate.update("INSERT INTO quizzes (title, topic, difficulty, is_public, created_at, user_id) " +
+            "VALUES ('Write-behind', 'Journaling', 'EASY', 1, NOW(6), ?)", userId);
+        quizId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM quizzes", Long.class);
+        jdbcTemplate.update("INSERT INTO questions (content, correct_answer, question_type, points, created_at, quiz_id) " +
+            "VALUES ('First', 'A', 'MULTIPLE_CHOICE', 1, NOW(6), ?), ('Second', 'B', 'MULTIPLE_CHOICE', 1, NOW(6), ?)",
+            quizId, quizId);
+        questionIds = jdbcTemplate.queryForList("SELECT id FROM questions WHERE quiz_id = ? ORDER BY id", Long.class, quizId);
+    }
+
+    @Test
+    void acknowledgedAnswersAreWrittenByTheNextFlushWithTheLatestPerQuestion() {
+        long attemptId = attempt();
+
+        assertThat(submit(attemptId, 0, "A").getIsCorrect()).isTrue();
+        assertThat(submit(attemptId, 1, "C").getIsCorrect()).isFalse();
+        // Replaces the first answer, which no longer counts
+        assertThat(submit(attemptId, 0, "D").getIsCorrect()).isFalse();
+        assertThat(submit(attemptId, 1, "b").getIsCorrect()).isTrue();
+        assertThat(answers(attemptId)).isZero();
+
+        answerWriteBehind.flush();
+
+        assertThat(answers(attemptId)).isEqualTo(2);
+        assertThat(storedAnswer(attemptId, 0)).isEqualTo("D");
+        assertThat(storedAnswer(attemptId, 1)).isEqualTo("b");
+        assertThat(jdbcTemplate.queryForObject("SELECT correct_answers FROM quiz_attempts WHERE id = ?", Integer.class, attemptId))
+            .isOne();
+        assertThat(jdbcTemplate.queryForObject("SELECT score FROM quiz_attempts WHERE id = ?", Double.class, attemptId))
+            .isEqualTo(50.0);
+        long checkpoint = checkpoint();
+
+        answerWriteBehind.flush();
+        assertThat(checkpoint()).isEqualTo(checkpoint);
+    }
+
+    @Test
+    void aDrainedAttemptIsWrittenAndRefusesAnswersUntilTheCallersTransactionEnds() {
+        long attemptId = attempt();
+        submit(attemptId, 0, "A");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            answerWriteBehind.drain(attemptId);
+            assertThat(answers(attemptId)).isOne();
+            assertThatThrownBy(() -> answerWriteBehind.submit(attemptId, questionIds.get(1), "B", user))
+                .hasMessage("Quiz attempt is not in progress");
+            // As the caller closing the attempt under its row lock
+            jdbcTemplate.update("UPDATE quiz_attempts SET status = 'COMPLETED', completed_at = NOW(6) WHERE id = ?", attemptId);
+        });
+
+        // Reloaded from the committed row
+        assertThatThrownBy(() -> submit(attemptId, 1, "B")).hasMessage("Quiz attempt is not in progress");
+        assertThat(answers(attemptId)).isOne();
+    }
+
+    @Test
+    @DirtiesContext
+    void answersLostWithTheirWriteAreReplayedOnceOnRestart() {
+        long flushed = attempt();
+        submit(flushed, 0, "A");
+        answerWriteBehind.flush();
+        long checkpoint = checkpoint();
+        long lost = attempt();
+        submit(lost, 0, "A");
+        submit(lost, 1, "C");
+
+        // A crash before the writer committed: the answers are only in the journal
+        answerWriteBehind.stop();
+        jdbcTemplate.update("DELETE FROM user_answers WHERE quiz_attempt_id = ?", lost);
+        jdbcTemplate.update("UPDATE quiz_attempts SET correct_answers = 0, score = NULL WHERE id = ?", lost);
+        jdbcTemplate.update("UPDATE answer_journal_checkpoint SET sequence = ? WHERE id = 1", checkpoint);
+        // Written before the checkpoint, so a replay must not bring it back
+        jdbcTemplate.update("DELETE FROM user_answers WHERE quiz_attempt_id = ?", flushed);
+
+        AnswerWriteBehind restarted = new AnswerWriteBehind(transactionManager, directory.toString(), 65536, Duration.ofHours(2));
+        beanFactory.autowireBean(restarted);
+        restarted.start();
+        try {
+            assertThat(answers(lost)).isEqualTo(2);
+            assertThat(storedAnswer(lost, 1)).isEqualTo("C");
+            assertThat(jdbcTemplate.queryForObject("SELECT correct_answers FROM quiz_attempts WHERE id = ?", Integer.class, lost))
+                .isOne();
+            assertThat(answers(flushed)).isZero();
+            assertThat(checkpoint()).isEqualTo(checkpoint + 2);
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    // Answers must be submitted in a transaction: the attempt's state is loaded under its row lock
+    private UserAnswer submit(long attemptId, int question, String answer) {
+        return transactionTemplate.execute(status -> answerWriteBehind.submit(attemptId, questionIds.get(question), answer, user));
+    }
+
+    private long attempt() {
+        jdbcTemplate.update("INSERT INTO quiz_attempts (started_at, total_questions, correct_answers, status, user_id, quiz_id) " +
+            "VALUES (NOW(6), 2, 0, 'IN_PROGRESS', ?, ?)", user.getId(), quizId);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM quiz_attempts", Long.class);
+    }
+
+    private long answers(long attemptId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_answers WHERE quiz_attempt_id = ?", Long.class, attemptId);
+    }
+
+    private String storedAnswer(long attemptId, int question) {
+        return jdbcTemplate.queryForObject("SELECT user_answer FROM user_answers WHERE quiz_attempt_id = ? AND question_id = ?",
+            String.class, attemptId, questionIds.get(question));
+    }
+
+    private long checkpoint() {
+        return jdbcTemplate.queryForObject("SELECT sequence FROM answer_journal_checkpoint WHERE id = 1", Long.class);
+    }
+}
@@ -0,0 +1,228 @@
+package com.aiquizzer.service;
+
+import com.aiquizzer.MySqlContainerTest;
+import com.aiquizzer.archive.AnswerArchive;
+import com.aiquizzer.event.QuizAttemptEvent;
+import com.aiquizzer.model.AttemptStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Deadline expiry against the migrated schema, with a fast wheel. An attempt is expired only
+ * under its row lock and only if it is still in progress and past its deadline once the lock is
+ * held, so a submit that holds the lock first always wins; its time taken stops at the deadline.
+ */
+@DataJpaTest(properties = "quizzer.attempts.timer.tick-ms=20")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RecordApplicationEvents
+@Import({AttemptDeadlineService.class, QuizAttemptService.class, AttemptDeadlineServiceTest.Config.class})
+class AttemptDeadlineServiceTest extends MySqlContainerTest {
+
+    private static final long HOLD_MILLIS = 500;
+
+    @Autowired
+    private AttemptDeadlineService attemptDeadlineService;
+    @Autowired
+    private QuizAttemptService quizAttemptService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ApplicationEvents events;
+
+    @MockBean
+    private AnswerArchive answerArchive;
+    @MockBean
+    private QuizLeaderboardService quizLeaderboardService;
+
+    private long userId;
+    private long quizId;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        // Expires on the wheel's thread, so a test can wait for the row alone
+        @Bean
+        TaskExecutor applicationTaskExecutor() {
+            return new SyncTaskExecutor();
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        Long seededUserId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users WHERE username = 'deadlines'", Long.class);
+        if (seededUserId == null) {
+            jdbcTemplate.update("INSERT INTO users (username, email, password, created_at) " +
+                "VALUES ('deadlines', 'deadlines@example.test', 'x', NOW(6))");
+            seededUserId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'deadlines'", Long.class);
+        }
+        userId = seededUserId;
+        jdbcTemplate.update("INSERT INTO quizzes (title, topic, difficulty, is_public, created_at, user_id, time_limit_minutes) " +
+            "VALUES ('Deadlines', 'Timing', 'EASY', 1, NOW(6), ?, 5)", userId);
+        quizId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM quizzes", Long.class);
+    }
+
+    @Test
+    void anAttemptPastItsDeadlineIsScoredWithTimeTakenStoppingAtTheDeadline() {
+        LocalDateTime startedAt = LocalDateTime.now().minusMinutes(10).truncatedTo(ChronoUnit.SECONDS);
+        long attemptId = attempt(startedAt, startedAt.plusMinutes(5));
+
+        quizAttemptService.expireAttempt(attemptId);
+
+        Map<String, Object> row = row(attemptId);
+        assertThat(row.get("status")).isEqualTo("COMPLETED");
+        assertThat(((Number) row.get("score")).doubleValue()).isEqualTo(50.0);
+        assertThat(((Number) row.get("time_taken_seconds")).longValue()).isEqualTo(300);
+        // Stamped when it was expired, not at the deadline
+        assertThat(completedAt(attemptId)).isAfter(startedAt.plusMinutes(9));
+        assertThat(events.stream(QuizAttemptEvent.class)).singleElement().satisfies(event -> {
+            assertThat(event.getAttemptId()).isEqualTo(attemptId);
+            assertThat(event.getPreviousStatus()).isEqualTo(AttemptStatus.IN_PROGRESS);
+            assertThat(event.getStatus()).isEqualTo(AttemptStatus.COMPLETED);
+        });
+    }
+
+    @Test
+    void anAttemptWhoseDeadlineHasNotPassedIsLeftInProgress() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long attemptId = attempt(startedAt, startedAt.plusMinutes(5));
+
+        quizAttemptService.expireAttempt(attemptId);
+
+        assertThat(row(attemptId).get("status")).isEqualTo("IN_PROGRESS");
+        assertThat(events.stream(QuizAttemptEvent.class)).isEmpty();
+    }
+
+    @Test
+    void expiryWaitsForTheRowLockAndLeavesASubmitThatHeldItFirst() throws Exception {
+        LocalDateTime startedAt = LocalDateTime.now().minusMinutes(10);
+        long attemptId = attempt(startedAt, startedAt.plusMinutes(5));
+        CountDownLatch locked = new CountDownLatch(1);
+        // As a submit that locked the row just before the deadline and completes it
+        CompletableFuture<Void> submit = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT id FROM quiz_attempts WHERE id = ? FOR UPDATE", Long.class, attemptId);
+            locked.countDown();
+            sleep(HOLD_MILLIS);
+            jdbcTemplate.update("UPDATE quiz_attempts SET status = 'COMPLETED', completed_at = ?, score = 100, " +
+                "correct_answers = 2 WHERE id = ?", startedAt.plusMinutes(4), attemptId);
+        }));
+        assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+        long expiringAt = System.nanoTime();
+        quizAttemptService.expireAttempt(attemptId);
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - expiringAt);
+        submit.get(10, TimeUnit.SECONDS);
+
+        assertThat(waitedMillis).isGreaterThanOrEqualTo(HOLD_MILLIS / 2);
+        Map<String, Object> row = row(attemptId);
+        assertThat(row.get("status")).isEqualTo("COMPLETED");
+        assertThat(((Number) row.get("score")).doubleValue()).isEqualTo(100.0);
+        assertThat(events.stream(QuizAttemptEvent.class)).isEmpty();
+    }
+
+    @Test
+    void aScheduledDeadlineFiresOnlyOnceItHasPassed() throws InterruptedException {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime deadlineAt = startedAt.plusNanos(TimeUnit.MILLISECONDS.toNanos(HOLD_MILLIS));
+        long attemptId = attempt(startedAt, deadlineAt);
+
+        attemptDeadlineService.onQuizAttemptEvent(new QuizAttemptEvent(attemptId, quizId, userId, "deadlines",
+            null, AttemptStatus.IN_PROGRESS, null, null, null, deadlineAt));
+        assertThat(row(attemptId).get("status")).isEqualTo("IN_PROGRESS");
+
+        awaitStatus(attemptId, "COMPLETED");
+        assertThat(completedAt(attemptId)).isAfterOrEqualTo(deadlineAt);
+    }
+
+    @Test
+    void aFinishedAttemptsTimerIsCancelled() throws InterruptedException {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime deadlineAt = startedAt.plusNanos(TimeUnit.MILLISECONDS.toNanos(HOLD_MILLIS));
+        long attemptId = attempt(startedAt, deadlineAt);
+        double pending = pending();
+
+        attemptDeadlineService.onQuizAttemptEvent(new QuizAttemptEvent(attemptId, quizId, userId, "deadlines",
+            null, AttemptStatus.IN_PROGRESS, null, null, null, deadlineAt));
+        assertThat(pending()).isEqualTo(pending + 1);
+        attemptDeadlineService.onQuizAttemptEvent(new QuizAttemptEvent(attemptId, quizId, userId, "deadlines",
+            AttemptStatus.IN_PROGRESS, AttemptStatus.ABANDONED, null, LocalDateTime.now(), null, deadlineAt));
+        assertThat(pending()).isEqualTo(pending);
+
+        // Left in progress: only a timer that was not cancelled could complete it
+        Thread.sleep(2 * HOLD_MILLIS);
+        assertThat(row(attemptId).get("status")).isEqualTo("IN_PROGRESS");
+    }
+
+    // One of two questions answered correctly
+    private long attempt(LocalDateTime startedAt, LocalDateTime deadlineAt) {
+        jdbcTemplate.update("INSERT INTO quiz_attempts (started_at, deadline_at, total_questions, correct_answers, status, " +
+            "user_id, quiz_id) VALUES (?, ?, 2, 1, 'IN_PROGRESS', ?, ?)", startedAt, deadlineAt, userId, quizId);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM quiz_attempts", Long.class);
+    }
+
+    private Map<String, Object> row(long attemptId) {
+        return jdbcTemplate.queryForMap("SELECT status, score, time_taken_seconds FROM quiz_attempts WHERE id = ?", attemptId);
+    }
+
+    private LocalDateTime completedAt(long attemptId) {
+        return jdbcTemplate.queryForObject("SELECT completed_at FROM quiz_attempts WHERE id = ?", LocalDateTime.class, attemptId);
+    }
+
+    private double pending() {
+        return meterRegistry.get("quizzer.attempts.deadlines.pending").gauge().value();
+    }
+
+    private void awaitStatus(long attemptId, String status) throws InterruptedException {
+        long giveUpAt = System.currentTimeMillis() + 10_000;
+        while (!status.equals(row(attemptId).get("status"))) {
+            if (System.currentTimeMillis() > giveUpAt) {
+                fail("Attempt " + attemptId + " never became " + status);
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
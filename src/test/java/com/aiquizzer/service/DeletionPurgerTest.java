@@ -0,0 +1,212 @@
+package com.aiquizzer.service;
+
+import com.aiquizzer.MySqlContainerTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The purge against the migrated schema, with chunks small enough that every table takes several:
+ * a soft-deleted quiz or user must leave no row behind that references it, in any table, and must
+ * not take anything that belongs to someone else. Foreign keys make an out-of-order delete fail here.
+ */
+@DataJpaTest(properties = "quizzer.purge.chunk-size=2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({DeletionPurger.class, QuizStatisticsService.class, DeletionPurgerTest.Metrics.class})
+class DeletionPurgerTest extends MySqlContainerTest {
+
+    private static final AtomicInteger NAMES = new AtomicInteger();
+
+    @Autowired
+    private DeletionPurger deletionPurger;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private QuizLeaderboardService quizLeaderboardService;
+    @MockBean
+    private AnswerDistributionService answerDistributionService;
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Test
+    void aDeletedQuizGoesWithEverythingThatReferencesIt() {
+        long owner = user();
+        long taker = user();
+        long quiz = quiz(owner);
+        long kept = quiz(owner);
+        List<Long> questions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            questions.add(question(quiz));
+        }
+        long keptQuestion = question(kept);
+        List<Long> attempts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            long attempt = attempt(taker, quiz, 60.0);
+            attempts.add(attempt);
+            for (long question : questions) {
+                userAnswer(attempt, taker, question);
+            }
+        }
+        userAnswer(attempt(taker, kept, 60.0), taker, keptQuestion);
+        for (long question : questions) {
+            jdbcTemplate.update("INSERT INTO answer_distribution (question_id, answer_key, answer_count) VALUES (?, 'a', 5)", question);
+            jdbcTemplate.update("INSERT INTO answer_distribution_seeds (question_id, seeded_at) VALUES (?, NOW(6))", question);
+            jdbcTemplate.update("INSERT INTO question_statistics (question_id, quiz_id, responses, correct_responses, " +
+                "scored_responses, scored_correct_responses, rest_score_sum, rest_score_square_sum, correct_rest_score_sum, " +
+                "time_taken_sum, timed_responses) VALUES (?, ?, 5, 5, 5, 5, 0, 0, 0, 0, 0)", question, quiz);
+        }
+        jdbcTemplate.update("INSERT INTO quiz_statistics (quiz_id, total_attempts, completed_attempts, abandoned_attempts, score_sum) " +
+            "VALUES (?, 5, 5, 0, 300)", quiz);
+        jdbcTemplate.update("INSERT INTO quiz_score_bands (quiz_id, band, attempts) VALUES (?, 6, 5)", quiz);
+        // Its answers live in a segment file now
+        long archived = attempts.get(0);
+        jdbcTemplate.update("DELETE FROM user_answers WHERE quiz_attempt_id = ?", archived);
+        jdbcTemplate.update("UPDATE quiz_attempts SET answers_archived_at = NOW(6) WHERE id = ?", archived);
+
+        softDelete("quizzes", quiz);
+        deletionPurger.purge();
+
+        assertThat(count("SELECT COUNT(*) FROM quizzes WHERE id = ?", quiz)).isZero();
+        assertThat(count("SELECT COUNT(*) FROM questions WHERE quiz_id = ?", quiz)).isZero();
+        assertThat(count("SELECT COUNT(*) FROM quiz_attempts WHERE quiz_id = ?", quiz)).isZero();
+        assertThat(count("SELECT COUNT(*) FROM quiz_statistics WHERE quiz_id = ?", quiz)).isZero();
+        assertThat(count("SELECT COUNT(*) FROM quiz_score_bands WHERE quiz_id = ?", quiz)).isZero();
+        assertThat(count("SELECT COUNT(*) FROM question_statistics WHERE quiz_id = ?", quiz)).isZero();
+        for (long question : questions) {
+            assertThat(count("SELECT COUNT(*) FROM answers WHERE question_id = ?", question)).isZero();
+            assertThat(count("SELECT COUNT(*) FROM user_answers WHERE question_id = ?", question)).isZero();
+            assertThat(count("SELECT COUNT(*) FROM answer_distribution WHERE question_id = ?", question)).isZero();
+            assertThat(count("SELECT COUNT(*) FROM answer_distribution_seeds WHERE question_id = ?", question)).isZero();
+        }
+        // Reads of the archive skip it until its segment is rewritten
+        assertThat(count("SELECT COUNT(*) FROM answer_archive_purged_attempts WHERE attempt_id = ?", archived)).isOne();
+
+        assertThat(count("SELECT COUNT(*) FROM quizzes WHERE id = ?", kept)).isOne();
+        assertThat(count("SELECT COUNT(*) FROM answers WHERE question_id = ?", keptQuestion)).isEqualTo(2);
+        assertThat(count("SELECT COUNT(*) FROM user_answers WHERE question_id = ?", keptQuestion)).isOne();
+        assertThat(count("SELECT COUNT(*) FROM users WHERE id IN (?, ?)", owner, taker)).isEqualTo(2);
+    }
+
+    @Test
+    void aDeletedUsersAttemptsLeaveOtherUsersQuizzesAndTheirStatistics() {
+        long author = user();
+        long leaver = user();
+        long quiz = quiz(author);
+        long question = question(quiz);
+        for (int i = 0; i < 3; i++) {
+            userAnswer(attempt(leaver, quiz, 50.0), leaver, question);
+        }
+        long authorAttempt = attempt(author, quiz, 100.0);
+        userAnswer(authorAttempt, author, question);
+        jdbcTemplate.update("INSERT INTO quiz_statistics (quiz_id, total_attempts, completed_attempts, abandoned_attempts, score_sum) " +
+            "VALUES (?, 4, 4, 0, 250)", quiz);
+        jdbcTemplate.update("INSERT INTO quiz_score_bands (quiz_id, band, attempts) VALUES (?, 5, 3), (?, 9, 1)", quiz, quiz);
+        jdbcTemplate.update("INSERT INTO user_statistics (user_id, total_attempts, completed_attempts, answered_questions, " +
+            "correct_answers, current_streak, best_streak) VALUES (?, 3, 3, 3, 3, 3, 3)", leaver);
+        jdbcTemplate.update("INSERT INTO user_topic_statistics (user_id, topic, difficulty, completed_attempts, score_sum) " +
+            "VALUES (?, 'Purging', 'EASY', 3, 150)", leaver);
+
+        softDelete("users", leaver);
+        deletionPurger.purge();
+
+        assertThat(count("SELECT COUNT(*) FROM users WHERE id = ?", leaver)).isZero();
+        assertThat(count("SELECT COUNT(*) FROM quiz_attempts WHERE user_id = ?", leaver)).isZero();
+        assertThat(count("SELECT COUNT(*) FROM user_answers WHERE user_id = ?", leaver)).isZero();
+        assertThat(count("SELECT COUNT(*) FROM user_statistics WHERE user_id = ?", leaver)).isZero();
+        assertThat(count("SELECT COUNT(*) FROM user_topic_statistics WHERE user_id = ?", leaver)).isZero();
+
+        // The quiz's totals lose exactly the attempts that went
+        assertThat(count("SELECT total_attempts FROM quiz_statistics WHERE quiz_id = ?", quiz)).isOne();
+        assertThat(count("SELECT completed_attempts FROM quiz_statistics WHERE quiz_id = ?", quiz)).isOne();
+        assertThat(jdbcTemplate.queryForObject("SELECT score_sum FROM quiz_statistics WHERE quiz_id = ?", Double.class, quiz))
+            .isEqualTo(100.0);
+        assertThat(count("SELECT attempts FROM quiz_score_bands WHERE quiz_id = ? AND band = 5", quiz)).isZero();
+        assertThat(count("SELECT attempts FROM quiz_score_bands WHERE quiz_id = ? AND band = 9", quiz)).isOne();
+        assertThat(count("SELECT COUNT(*) FROM user_answers WHERE quiz_attempt_id = ?", authorAttempt)).isOne();
+        verify(quizLeaderboardService).evict(quiz);
+        verify(answerDistributionService).evictQuiz(quiz);
+    }
+
+    @Test
+    void aDeletedUserWhoStillOwnsAQuizIsKeptUntilTheQuizIsPurged() {
+        long user = user();
+        long quiz = quiz(user);
+        question(quiz);
+        softDelete("users", user);
+
+        deletionPurger.purge();
+        assertThat(count("SELECT COUNT(*) FROM users WHERE id = ?", user)).isOne();
+
+        softDelete("quizzes", quiz);
+        deletionPurger.purge();
+        assertThat(count("SELECT COUNT(*) FROM quizzes WHERE id = ?", quiz)).isZero();
+        assertThat(count("SELECT COUNT(*) FROM users WHERE id = ?", user)).isZero();
+    }
+
+    private long user() {
+        String name = "purge" + NAMES.incrementAndGet();
+        jdbcTemplate.update("INSERT INTO users (username, email, password, created_at) VALUES (?, ?, 'x', NOW(6))",
+            name, name + "@example.test");
+        return count("SELECT id FROM users WHERE username = ?", name);
+    }
+
+    private long quiz(long userId) {
+        jdbcTemplate.update("INSERT INTO quizzes (title, topic, difficulty, is_public, created_at, user_id) " +
+            "VALUES ('Purge', 'Purging', 'EASY', 1, NOW(6), ?)", userId);
+        return count("SELECT MAX(id) FROM quizzes");
+    }
+
+    private long question(long quizId) {
+        jdbcTemplate.update("INSERT INTO questions (content, correct_answer, question_type, created_at, quiz_id) " +
+            "VALUES ('Gone?', 'A', 'MULTIPLE_CHOICE', NOW(6), ?)", quizId);
+        long questionId = count("SELECT MAX(id) FROM questions");
+        jdbcTemplate.update("INSERT INTO answers (text, is_correct, order_index, question_id) VALUES ('A', 1, 1, ?), ('B', 0, 2, ?)",
+            questionId, questionId);
+        return questionId;
+    }
+
+    private long attempt(long userId, long quizId, double score) {
+        jdbcTemplate.update("INSERT INTO quiz_attempts (started_at, completed_at, score, total_questions, correct_answers, status, " +
+            "user_id, quiz_id) VALUES (NOW(6) - INTERVAL 1 HOUR, NOW(6), ?, 1, 1, 'COMPLETED', ?, ?)", score, userId, quizId);
+        return count("SELECT MAX(id) FROM quiz_attempts");
+    }
+
+    private void userAnswer(long attemptId, long userId, long questionId) {
+        jdbcTemplate.update("INSERT INTO user_answers (user_answer, is_correct, points_earned, answered_at, user_id, question_id, " +
+            "quiz_attempt_id) VALUES ('A', 1, 1, NOW(6), ?, ?, ?)", userId, questionId, attemptId);
+    }
+
+    private void softDelete(String table, long id) {
+        jdbcTemplate.update("UPDATE " + table + " SET deleted_at = NOW(6) WHERE id = ?", id);
+    }
+
+    private long count(String sql, Object... args) {
+        Long value = jdbcTemplate.queryForObject(sql, Long.class, args);
+        return value != null ? value : 0;
+    }
+}
@@ -0,0 +1,126 @@
+package com.aiquizzer.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The wheel on its own, with a tick short enough and a wheel small enough that deadlines span
+ * several rotations: a key fires once, never before its deadline and about a tick after it, and
+ * a replaced or cancelled deadline does not fire at all.
+ */
+class HashedWheelTimerTest {
+
+    private static final long TICK_MILLIS = 20;
+    // Generous for a loaded build machine; the wheel itself adds at most one tick
+    private static final long LATE_MILLIS = TICK_MILLIS + 250;
+
+    private final BlockingQueue<Fired> fired = new LinkedBlockingQueue<>();
+    private HashedWheelTimer<Long> timer;
+
+    private record Fired(long key, long atMillis) {
+    }
+
+    @AfterEach
+    void stop() {
+        if (timer != null) {
+            timer.stop();
+        }
+    }
+
+    @Test
+    void keysFireOnceAtOrJustAfterTheirDeadlineAcrossRotations() throws InterruptedException {
+        start(keys -> keys.forEach(this::record));
+        long now = System.currentTimeMillis();
+        // One rotation is four ticks, 80 ms
+        long[] delays = {30, 70, 150, 330};
+        for (int i = 0; i < delays.length; i++) {
+            timer.schedule((long) i, now + delays[i]);
+        }
+
+        for (int i = 0; i < delays.length; i++) {
+            Fired next = fired.poll(2, TimeUnit.SECONDS);
+            assertThat(next).isNotNull();
+            assertThat(next.key()).isEqualTo(i);
+            assertThat(next.atMillis()).isBetween(now + delays[i], now + delays[i] + LATE_MILLIS);
+        }
+        assertThat(fired.poll(200, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(timer.size()).isZero();
+    }
+
+    @Test
+    void reschedulingReplacesThePendingDeadline() throws InterruptedException {
+        start(keys -> keys.forEach(this::record));
+        long now = System.currentTimeMillis();
+        timer.schedule(1L, now + 40);
+        timer.schedule(1L, now + 200);
+        assertThat(timer.size()).isOne();
+
+        Fired next = fired.poll(2, TimeUnit.SECONDS);
+        assertThat(next).isNotNull();
+        assertThat(next.atMillis()).isGreaterThanOrEqualTo(now + 200);
+        assertThat(fired.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void cancelledKeysDoNotFire() throws InterruptedException {
+        start(keys -> keys.forEach(this::record));
+        long now = System.currentTimeMillis();
+        timer.schedule(1L, now + 40);
+        timer.schedule(2L, now + 60);
+        timer.cancel(1L);
+
+        Fired next = fired.poll(2, TimeUnit.SECONDS);
+        assertThat(next).isNotNull();
+        assertThat(next.key()).isEqualTo(2L);
+        assertThat(fired.poll(200, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(timer.size()).isZero();
+    }
+
+    @Test
+    void aDeadlineThatAlreadyPassedFiresOnTheNextTick() throws InterruptedException {
+        start(keys -> keys.forEach(this::record));
+        long now = System.currentTimeMillis();
+        timer.schedule(1L, now - TimeUnit.HOURS.toMillis(1));
+
+        Fired next = fired.poll(2, TimeUnit.SECONDS);
+        assertThat(next).isNotNull();
+        assertThat(next.atMillis()).isLessThanOrEqualTo(now + LATE_MILLIS);
+    }
+
+    @Test
+    void aFailingCallbackDoesNotStopTheWheel() throws InterruptedException {
+        AtomicBoolean failed = new AtomicBoolean();
+        start(keys -> {
+            if (failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("First batch fails");
+            }
+            keys.forEach(this::record);
+        });
+        long now = System.currentTimeMillis();
+        timer.schedule(1L, now);
+        timer.schedule(2L, now + 100);
+
+        Fired next = fired.poll(2, TimeUnit.SECONDS);
+        assertThat(failed).isTrue();
+        assertThat(next).isNotNull();
+        assertThat(next.key()).isEqualTo(2L);
+    }
+
+    private void start(Consumer<List<Long>> onExpired) {
+        timer = new HashedWheelTimer<>("test-wheel", TICK_MILLIS, 4, onExpired);
+        timer.start();
+    }
+
+    private void record(long key) {
+        fired.add(new Fired(key, System.currentTimeMillis()));
+    }
+}
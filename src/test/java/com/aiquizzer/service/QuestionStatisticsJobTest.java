@@ -0,0 +1,180 @@
+package com.aiquizzer.service;
+
+import com.aiquizzer.MySqlContainerTest;
+import com.aiquizzer.archive.AnswerArchive;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Item analysis against the migrated schema, in chunks of two attempts with no settle time and
+ * runs an hour apart, so each test decides when attempts are analyzed. Every completed attempt's
+ * answers are added to {@code question_statistics} exactly once, however many chunks and runs it
+ * takes, and an attempt expired long after its deadline is still ahead of the mark. Each test
+ * analyzes from the start and asserts only its own quiz's questions.
+ */
+@DataJpaTest(properties = {"quizzer.item-analysis.chunk-size=2", "quizzer.item-analysis.settle-time=PT0S",
+    "quizzer.item-analysis.interval-ms=3600000"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({QuestionStatisticsJob.class, QuizAttemptService.class, QuestionStatisticsJobTest.Metrics.class})
+class QuestionStatisticsJobTest extends MySqlContainerTest {
+
+    private static final String STATISTICS = "SELECT responses, correct_responses, scored_responses, " +
+        "scored_correct_responses, rest_score_sum, rest_score_square_sum, correct_rest_score_sum, time_taken_sum, " +
+        "timed_responses FROM question_statistics WHERE question_id = ?";
+
+    @Autowired
+    private QuestionStatisticsJob questionStatisticsJob;
+    @Autowired
+    private QuizAttemptService quizAttemptService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private AnswerArchive answerArchive;
+    @MockBean
+    private QuizLeaderboardService quizLeaderboardService;
+
+    private long userId;
+    private long quizId;
+    private List<Long> questionIds;
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        Long seededUserId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users WHERE username = 'item-analysis'", Long.class);
+        if (seededUserId == null) {
+            jdbcTemplate.update("INSERT INTO users (username, email, password, created_at) " +
+                "VALUES ('item-analysis', 'item-analysis@example.test', 'x', NOW(6))");
+            seededUserId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'item-analysis'", Long.class);
+        }
+        userId = seededUserId;
+        jdbcTemplate.update("INSERT INTO quizzes (title, topic, difficulty, is_public, created_at, user_id, time_limit_minutes) " +
+            "VALUES ('Item analysis', 'Statistics', 'EASY', 1, NOW(6), ?, 10)", userId);
+        quizId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM quizzes", Long.class);
+        jdbcTemplate.update("INSERT INTO questions (content, correct_answer, question_type, points, created_at, quiz_id) " +
+            "VALUES ('First', 'A', 'MULTIPLE_CHOICE', 1, NOW(6), ?), ('Second', 'B', 'MULTIPLE_CHOICE', 1, NOW(6), ?)",
+            quizId, quizId);
+        questionIds = jdbcTemplate.queryForList("SELECT id FROM questions WHERE quiz_id = ? ORDER BY id", Long.class, quizId);
+        // Attempts analyzed before are counted again, but only into questions no other test asserts on
+        jdbcTemplate.update("UPDATE question_statistics_checkpoint SET completed_at = NULL, attempt_id = 0 WHERE id = 1");
+    }
+
+    @Test
+    void completedAttemptsAreAddedOnceAcrossChunksAndRuns() {
+        LocalDateTime base = LocalDateTime.now().minusHours(1).truncatedTo(ChronoUnit.SECONDS);
+        long both = attempt("COMPLETED", base, base.plusMinutes(5), 2);
+        answer(both, 0, true, 10L, base.plusSeconds(10));
+        answer(both, 1, true, 20L, base.plusSeconds(30));
+        // Untimed answers take the time since the attempt's previous answer, or its start
+        long second = attempt("COMPLETED", base, base.plusMinutes(6), 1);
+        answer(second, 0, false, null, base.plusSeconds(30));
+        answer(second, 1, true, null, base.plusSeconds(45));
+        // Completed at the same time, so ordered by id
+        long none = attempt("COMPLETED", base, base.plusMinutes(6), 0);
+        answer(none, 0, false, null, base.plusSeconds(40));
+        answer(none, 1, false, 5L, base.plusSeconds(50));
+        // Never counted
+        answer(attempt("IN_PROGRESS", base, null, 2), 0, true, 10L, base.plusSeconds(10));
+        answer(attempt("ABANDONED", base, base.plusMinutes(5), 1), 1, true, 10L, base.plusSeconds(10));
+
+        analyze();
+
+        // Rest scores are the attempt's score without the question: 100, 100 and 0 for the first
+        assertThat(statistics(0)).isEqualTo(Map.of("responses", 3L, "correct_responses", 1L, "scored_responses", 3L,
+            "scored_correct_responses", 1L, "rest_score_sum", 200.0, "rest_score_square_sum", 20000.0,
+            "correct_rest_score_sum", 100.0, "time_taken_sum", 80L, "timed_responses", 3L));
+        // 100, 0 and 0 for the second
+        assertThat(statistics(1)).isEqualTo(Map.of("responses", 3L, "correct_responses", 2L, "scored_responses", 3L,
+            "scored_correct_responses", 2L, "rest_score_sum", 100.0, "rest_score_square_sum", 10000.0,
+            "correct_rest_score_sum", 100.0, "time_taken_sum", 40L, "timed_responses", 3L));
+        Map<String, Object> mark = checkpoint();
+
+        analyze();
+
+        assertThat(checkpoint()).isEqualTo(mark);
+        assertThat(statistics(0)).containsEntry("responses", 3L);
+        assertThat(statistics(1)).containsEntry("responses", 3L);
+    }
+
+    @Test
+    void anAttemptExpiredLongAfterItsDeadlineIsStillAnalyzed() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        long earlier = attempt("COMPLETED", now.minusHours(1).minusMinutes(5), now.minusHours(1), 1);
+        answer(earlier, 0, true, 30L, now.minusHours(1).minusMinutes(4));
+        // Its deadline passed before the attempt the mark moves to
+        LocalDateTime startedAt = now.minusHours(3);
+        long expired = attempt("IN_PROGRESS", startedAt, null, 1);
+        jdbcTemplate.update("UPDATE quiz_attempts SET deadline_at = ? WHERE id = ?", startedAt.plusMinutes(10), expired);
+        answer(expired, 1, true, null, startedAt.plusMinutes(2));
+        analyze();
+        assertThat(statistics(0)).containsEntry("responses", 1L);
+        assertThat(jdbcTemplate.queryForList("SELECT question_id FROM question_statistics WHERE question_id = ?",
+            Long.class, questionIds.get(1))).isEmpty();
+
+        quizAttemptService.expireAttempt(expired);
+        analyze();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT time_taken_seconds FROM quiz_attempts WHERE id = ?", Long.class, expired))
+            .isEqualTo(600);
+        assertThat(statistics(1)).containsEntry("responses", 1L).containsEntry("correct_responses", 1L)
+            .containsEntry("time_taken_sum", 120L).containsEntry("timed_responses", 1L);
+        assertThat(statistics(0)).containsEntry("responses", 1L);
+    }
+
+    // Runs until the mark stops moving, however many attempts earlier tests left behind
+    private void analyze() {
+        Map<String, Object> mark;
+        do {
+            mark = checkpoint();
+            questionStatisticsJob.run();
+        } while (!mark.equals(checkpoint()));
+    }
+
+    private Map<String, Object> checkpoint() {
+        return jdbcTemplate.queryForMap("SELECT completed_at, attempt_id FROM question_statistics_checkpoint WHERE id = 1");
+    }
+
+    private Map<String, Object> statistics(int question) {
+        return jdbcTemplate.queryForMap(STATISTICS, questionIds.get(question));
+    }
+
+    // Two questions, completedAt set only for finished attempts
+    private long attempt(String status, LocalDateTime startedAt, LocalDateTime completedAt, int correctAnswers) {
+        jdbcTemplate.update("INSERT INTO quiz_attempts (started_at, completed_at, total_questions, correct_answers, status, " +
+            "user_id, quiz_id) VALUES (?, ?, 2, ?, ?, ?, ?)", startedAt, completedAt, correctAnswers, status, userId, quizId);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM quiz_attempts", Long.class);
+    }
+
+    private void answer(long attemptId, int question, boolean correct, Long timeTakenSeconds, LocalDateTime answeredAt) {
+        jdbcTemplate.update("INSERT INTO user_answers (user_answer, is_correct, points_earned, time_taken_seconds, answered_at, " +
+            "user_id, question_id, quiz_attempt_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", correct ? "A" : "C", correct,
+            correct ? 1 : 0, timeTakenSeconds, answeredAt, userId, questionIds.get(question), attemptId);
+    }
+}
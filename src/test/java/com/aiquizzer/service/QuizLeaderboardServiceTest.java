@@ -0,0 +1,95 @@
+package com.aiquizzer.service;
+
+import com.aiquizzer.dto.LeaderboardEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The in-memory board on its own: rank resolution, the stale mark that forces a reload, and how
+ * attempt events are reconciled with the snapshot a board is loaded from.
+ */
+class QuizLeaderboardServiceTest {
+
+    private static final LocalDateTime COMPLETED_AT = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @Test
+    void scoresTiedToATenthOfAPointShareACompetitionRank() {
+        QuizLeaderboardService.Leaderboard board = new QuizLeaderboardService.Leaderboard(10);
+        publish(board, 10, entry(1, 90.0), entry(2, 85.04), entry(3, 85.01), entry(4, 80.0));
+
+        assertThat(board.page(0, 10)).extracting(LeaderboardEntry::getRank).containsExactly(1L, 2L, 2L, 4L);
+        assertThat(board.rankOf(85.02)).isEqualTo(2);
+        assertThat(board.rankOf(80.0)).isEqualTo(4);
+        assertThat(board.rankOf(100.0)).isEqualTo(1);
+    }
+
+    @Test
+    void removingATopEntryMarksTheBoardStaleWhenLowerAttemptsAreNotInMemory() {
+        QuizLeaderboardService.Leaderboard board = new QuizLeaderboardService.Leaderboard(2);
+        publish(board, 2, entry(1, 90.0), entry(2, 80.0), entry(3, 70.0));
+
+        board.remove(3L);
+        assertThat(board.stale).isFalse();
+
+        board.add(entry(4, 60.0));
+        board.remove(1L);
+        assertThat(board.stale).isTrue();
+        assertThat(board.rankOf(80.0)).isEqualTo(1);
+    }
+
+    @Test
+    void changesWhileLoadingAreReconciledWithTheSnapshot() {
+        QuizLeaderboardService.Leaderboard board = new QuizLeaderboardService.Leaderboard(10);
+        // Committed before the snapshot: already in it
+        board.add(entry(2, 80.0));
+        // Committed after the snapshot
+        board.add(entry(5, 95.0));
+        board.remove(3L);
+        // Completed after the snapshot, then reopened: ends up not counted
+        board.add(entry(6, 50.0));
+        board.remove(6L);
+
+        publish(board, 10, entry(1, 90.0), entry(2, 80.0), entry(3, 70.0));
+
+        assertThat(board.page(0, 10)).extracting(LeaderboardEntry::getAttemptId).containsExactly(5L, 1L, 2L);
+        assertThat(board.rankOf(0.0)).isEqualTo(4);
+    }
+
+    @Test
+    void eventsAfterPublishForAttemptsInTheSnapshotAreNotCountedAgain() {
+        QuizLeaderboardService.Leaderboard board = new QuizLeaderboardService.Leaderboard(1);
+        // Attempt 3 is counted but outside the top list
+        publish(board, 1, entry(1, 90.0), entry(2, 80.0), entry(3, 70.0));
+
+        board.add(entry(3, 70.0));
+        board.add(entry(1, 90.0));
+        board.remove(99L);
+
+        assertThat(board.rankOf(0.0)).isEqualTo(4);
+        assertThat(board.rankOf(70.0)).isEqualTo(3);
+
+        board.remove(3L);
+        board.remove(3L);
+        assertThat(board.rankOf(0.0)).isEqualTo(3);
+        assertThat(board.stale).isFalse();
+    }
+
+    // Loads the board as QuizLeaderboardService does: every completed score, and the best entries
+    private static void publish(QuizLeaderboardService.Leaderboard board, int capacity, LeaderboardEntry... entries) {
+        List<Object[]> completedScores = new ArrayList<>();
+        for (LeaderboardEntry entry : entries) {
+            completedScores.add(new Object[] {entry.getAttemptId(), entry.getScore()});
+        }
+        List<LeaderboardEntry> top = List.of(entries).subList(0, Math.min(capacity, entries.length));
+        board.publish(completedScores, top);
+    }
+
+    private static LeaderboardEntry entry(long attemptId, double score) {
+        return new LeaderboardEntry(null, attemptId, attemptId, "user" + attemptId, score, COMPLETED_AT, 60L);
+    }
+}
@@ -0,0 +1,189 @@
+package com.aiquizzer.service;
+
+import com.aiquizzer.MySqlContainerTest;
+import com.aiquizzer.dto.QuizStatisticsDto;
+import com.aiquizzer.event.QuizAttemptEvent;
+import com.aiquizzer.model.AttemptStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The quiz statistics read model against the migrated schema: every counted change must reach the
+ * stored rows exactly once, whether its flush succeeds or fails and is retried, and reads must
+ * count it once on either side of its flush.
+ * Each test counts for a quiz of its own, since the service's counters live as long as the context.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(QuizStatisticsService.class)
+class QuizStatisticsServiceTest extends MySqlContainerTest {
+
+    @Autowired
+    private QuizStatisticsService quizStatisticsService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long userId;
+    private long quizId;
+    private long nextAttemptId = 1;
+
+    @BeforeEach
+    void seed() {
+        Long seededUserId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users WHERE username = 'statistics'", Long.class);
+        if (seededUserId == null) {
+            jdbcTemplate.update("INSERT INTO users (username, email, password, created_at) " +
+                "VALUES ('statistics', 'statistics@example.test', 'x', NOW(6))");
+            seededUserId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'statistics'", Long.class);
+        }
+        userId = seededUserId;
+        jdbcTemplate.update("INSERT INTO quizzes (title, topic, difficulty, is_public, created_at, user_id) " +
+            "VALUES ('Statistics', 'Counting', 'EASY', 1, NOW(6), ?)", userId);
+        quizId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM quizzes", Long.class);
+    }
+
+    @Test
+    void flushedChangesAreAddedOnceAndNotAgainByTheNextFlush() {
+        started();
+        completed(75.0);
+        started();
+        abandoned();
+
+        quizStatisticsService.flush();
+        quizStatisticsService.flush();
+
+        assertStored(2, 1, 1, 75.0);
+        assertThat(band(7)).isEqualTo(1);
+    }
+
+    @Test
+    void readsCountPendingChangesOnceBeforeAndAfterTheirFlush() {
+        started();
+        completed(40.0);
+        // Loads the stored zeros and adds the pending changes
+        assertThat(statistics().getCompletedAttempts()).isEqualTo(1);
+
+        started();
+        completed(60.0);
+        quizStatisticsService.flush();
+
+        // Drained changes moved into the held totals, not counted in both
+        QuizStatisticsDto statistics = statistics();
+        assertThat(statistics.getTotalAttempts()).isEqualTo(2);
+        assertThat(statistics.getCompletedAttempts()).isEqualTo(2);
+        assertThat(statistics.getAverageScore()).isEqualTo(50.0);
+        assertThat(statistics.getScoreHistogram()[4]).isEqualTo(1);
+        assertThat(statistics.getScoreHistogram()[6]).isEqualTo(1);
+        assertStored(2, 2, 0, 100.0);
+    }
+
+    @Test
+    void aFailedFlushIsRetriedWithItsChangesCountedOnce() {
+        started();
+        completed(90.0);
+        statistics();
+
+        // The bands go first in the flush's transaction; without their table it rolls back whole
+        jdbcTemplate.execute("RENAME TABLE quiz_score_bands TO quiz_score_bands_away");
+        try {
+            quizStatisticsService.flush();
+        } finally {
+            jdbcTemplate.execute("RENAME TABLE quiz_score_bands_away TO quiz_score_bands");
+        }
+        assertThat(storedRow()).isEmpty();
+        // Restored changes are pending again, and the held totals that had them are dropped
+        assertThat(statistics().getCompletedAttempts()).isEqualTo(1);
+
+        started();
+        quizStatisticsService.flush();
+
+        assertStored(2, 1, 0, 90.0);
+        assertThat(band(9)).isEqualTo(1);
+        assertThat(statistics().getTotalAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    void reopeningACompletedAttemptTakesItsScoreBackOut() {
+        long attemptId = started();
+        completed(attemptId, 80.0);
+        quizStatisticsService.flush();
+
+        quizStatisticsService.onQuizAttemptEvent(event(attemptId, AttemptStatus.COMPLETED, AttemptStatus.ABANDONED, 80.0));
+        quizStatisticsService.flush();
+
+        assertStored(1, 0, 1, 0.0);
+        assertThat(band(8)).isZero();
+    }
+
+    @Test
+    void changesToADeletedQuizAreDropped() {
+        started();
+        jdbcTemplate.update("UPDATE quizzes SET deleted_at = NOW(6) WHERE id = ?", quizId);
+
+        quizStatisticsService.flush();
+        quizStatisticsService.flush();
+
+        assertThat(storedRow()).isEmpty();
+        assertThat(quizStatisticsService.getStatistics(quizId)).isEmpty();
+    }
+
+    private long started() {
+        long attemptId = nextAttemptId++;
+        quizStatisticsService.onQuizAttemptEvent(event(attemptId, null, AttemptStatus.IN_PROGRESS, null));
+        return attemptId;
+    }
+
+    private void completed(double score) {
+        completed(nextAttemptId - 1, score);
+    }
+
+    private void completed(long attemptId, double score) {
+        quizStatisticsService.onQuizAttemptEvent(event(attemptId, AttemptStatus.IN_PROGRESS, AttemptStatus.COMPLETED, score));
+    }
+
+    private void abandoned() {
+        quizStatisticsService.onQuizAttemptEvent(event(nextAttemptId - 1, AttemptStatus.IN_PROGRESS, AttemptStatus.ABANDONED, null));
+    }
+
+    private QuizAttemptEvent event(long attemptId, AttemptStatus previousStatus, AttemptStatus status, Double score) {
+        return new QuizAttemptEvent(attemptId, quizId, userId, "statistics", previousStatus, status, score,
+            status == AttemptStatus.IN_PROGRESS ? null : LocalDateTime.now(), null, null);
+    }
+
+    private QuizStatisticsDto statistics() {
+        return quizStatisticsService.getStatistics(quizId).orElseThrow();
+    }
+
+    private List<Map<String, Object>> storedRow() {
+        return jdbcTemplate.queryForList("SELECT total_attempts, completed_attempts, abandoned_attempts, score_sum " +
+            "FROM quiz_statistics WHERE quiz_id = ?", quizId);
+    }
+
+    private void assertStored(long total, long completed, long abandoned, double scoreSum) {
+        assertThat(storedRow()).singleElement().satisfies(row -> {
+            assertThat(((Number) row.get("total_attempts")).longValue()).isEqualTo(total);
+            assertThat(((Number) row.get("completed_attempts")).longValue()).isEqualTo(completed);
+            assertThat(((Number) row.get("abandoned_attempts")).longValue()).isEqualTo(abandoned);
+            assertThat(((Number) row.get("score_sum")).doubleValue()).isEqualTo(scoreSum);
+        });
+    }
+
+    private long band(int band) {
+        Long attempts = jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(attempts), 0) FROM quiz_score_bands WHERE quiz_id = ? AND band = ?", Long.class, quizId, band);
+        return attempts;
+    }
+}
@@ -0,0 +1,219 @@
+package com.aiquizzer.service;
+
+import com.aiquizzer.MySqlContainerTest;
+import com.aiquizzer.archive.AnswerArchive;
+import com.aiquizzer.dto.AnswerReviewDto;
+import com.aiquizzer.dto.QuestionDto;
+import com.aiquizzer.dto.QuizDetailDto;
+import com.aiquizzer.model.QuizAttempt;
+import com.aiquizzer.model.User;
+import com.aiquizzer.repository.QuizAttemptRepository;
+import com.aiquizzer.search.QuestionSearchIndex;
+import com.aiquizzer.search.QuizSearchIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Counts the SQL statements behind the quiz and attempt read endpoints, so a DTO mapping that
+ * walks a lazy association again, or a fetch plan that goes back to one query per row, fails here.
+ * Ownership checks are counted too: they compare ids and must not load the owning user. Counts are
+ * taken with a cold second-level cache unless the test says otherwise.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({QuizService.class, QuizAttemptService.class})
+class ServiceStatementCountTest extends MySqlContainerTest {
+
+    private static final int QUESTIONS = 5;
+    private static final int ANSWERS_PER_QUESTION = 4;
+
+    @Autowired
+    private QuizService quizService;
+    @Autowired
+    private QuizAttemptService quizAttemptService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private AIQuizGenerationService aiQuizGenerationService;
+    @MockBean
+    private QuizSearchIndex quizSearchIndex;
+    @MockBean
+    private QuestionSearchIndex questionSearchIndex;
+    @MockBean
+    private QuizCatalogRegistry quizCatalogRegistry;
+    @MockBean
+    private AnswerArchive answerArchive;
+    @MockBean
+    private QuizLeaderboardService quizLeaderboardService;
+
+    private long ownerId;
+    private long strangerId;
+    private long quizId;
+    private long attemptId;
+
+    // Once per container; the tests only read
+    @BeforeEach
+    void seed() {
+        Long seededQuizId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM quizzes WHERE title = 'Statements'", Long.class);
+        if (seededQuizId == null) {
+            jdbcTemplate.update("INSERT INTO users (username, email, password, created_at) VALUES " +
+                "('statements', 'statements@example.test', 'x', NOW(6)), ('stranger', 'stranger@example.test', 'x', NOW(6))");
+            long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'statements'", Long.class);
+            jdbcTemplate.update("INSERT INTO quizzes (title, topic, difficulty, is_public, created_at, user_id) " +
+                "VALUES ('Statements', 'Queries', 'EASY', 0, NOW(6), ?)", userId);
+            seededQuizId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM quizzes WHERE title = 'Statements'", Long.class);
+            jdbcTemplate.update(
+                "INSERT INTO questions (content, correct_answer, question_type, created_at, quiz_id) " +
+                "WITH RECURSIVE n (i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < ?) " +
+                "SELECT CONCAT('Question ', i), 'A', 'MULTIPLE_CHOICE', NOW(6), ? FROM n",
+                QUESTIONS, seededQuizId);
+            jdbcTemplate.update(
+                "INSERT INTO answers (text, is_correct, order_index, question_id) " +
+                "WITH RECURSIVE n (i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < ?) " +
+                "SELECT CHAR(64 + i), i = 1, i, q.id FROM n CROSS JOIN questions q WHERE q.quiz_id = ?",
+                ANSWERS_PER_QUESTION, seededQuizId);
+            // One reviewed attempt among many, so a mapping that reaches quiz.quizAttempts shows up in the count
+            jdbcTemplate.update(
+                "INSERT INTO quiz_attempts (started_at, completed_at, score, total_questions, correct_answers, status, user_id, quiz_id) " +
+                "WITH RECURSIVE n (i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 50) " +
+                "SELECT NOW(6) - INTERVAL i HOUR, NOW(6) - INTERVAL i MINUTE, 100, ?, ?, 'COMPLETED', ?, ? FROM n",
+                QUESTIONS, QUESTIONS, userId, seededQuizId);
+            jdbcTemplate.update(
+                "INSERT INTO user_answers (user_answer, is_correct, points_earned, answered_at, user_id, question_id, quiz_attempt_id) " +
+                "SELECT 'A', 1, 1, NOW(6), a.user_id, q.id, a.id FROM quiz_attempts a JOIN questions q ON q.quiz_id = a.quiz_id " +
+                "WHERE a.quiz_id = ?",
+                seededQuizId);
+        }
+        quizId = seededQuizId;
+        ownerId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'statements'", Long.class);
+        strangerId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'stranger'", Long.class);
+        attemptId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM quiz_attempts WHERE quiz_id = ?", Long.class, quizId);
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void quizDetailLoadsQuestionsAndAnswersInThreeStatements() {
+        // The quiz, its questions, and every question's answers in one batch
+        QuizDetailDto detail = countStatements(3, () -> quizService.getQuizDetail(quizId).orElseThrow());
+
+        assertThat(detail.getQuestions()).hasSize(QUESTIONS)
+            .allSatisfy(question -> assertThat(question.getAnswers()).hasSize(ANSWERS_PER_QUESTION));
+    }
+
+    @Test
+    void warmQuizDetailIsServedFromTheSecondLevelCache() {
+        quizService.getQuizDetail(quizId);
+
+        countStatements(0, () -> quizService.getQuizDetail(quizId).orElseThrow());
+    }
+
+    @Test
+    void quizQuestionsLoadAnswersInOneBatch() {
+        List<QuestionDto> questions = countStatements(3, () -> quizService.getQuizQuestions(quizId).orElseThrow());
+
+        assertThat(questions).hasSize(QUESTIONS)
+            .allSatisfy(question -> assertThat(question.getAnswers()).hasSize(ANSWERS_PER_QUESTION));
+    }
+
+    @Test
+    void answerReviewJoinsQuestionsToAnswers() {
+        // The attempt, then its answers with their questions
+        List<AnswerReviewDto> review = countStatements(2, () -> {
+            QuizAttempt attempt = quizAttemptService.getQuizAttemptForUser(attemptId, user(ownerId)).orElseThrow();
+            return quizAttemptService.getAnswerReview(attempt);
+        });
+
+        assertThat(review).hasSize(QUESTIONS).allSatisfy(answer -> assertThat(answer.getCorrectAnswer()).isEqualTo("A"));
+    }
+
+    @Test
+    void attemptOwnershipIsCheckedWithoutLoadingTheUser() {
+        assertThat(countStatements(1, () -> quizAttemptService.getQuizAttemptForUser(attemptId, user(ownerId)))).isPresent();
+        assertThat(countStatements(1, () -> quizAttemptService.getQuizAttemptForUser(attemptId, user(strangerId)))).isEmpty();
+    }
+
+    @Test
+    void answerOwnershipIsCheckedWithoutLoadingTheUser() {
+        long answerId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM user_answers WHERE quiz_attempt_id = ?", Long.class, attemptId);
+
+        // The answer with its question; the user stays a proxy
+        assertThat(countStatements(1, () -> quizAttemptService.getAnswerForUser(answerId, user(ownerId)))).isPresent();
+        assertThat(countStatements(1, () -> quizAttemptService.getAnswerForUser(answerId, user(strangerId)))).isEmpty();
+    }
+
+    @Test
+    void quizVisibilityIsCheckedWithoutLoadingTheOwner() {
+        assertThat(countStatements(1, () -> quizService.isVisibleTo(quizId, user(ownerId)))).isTrue();
+        // The quiz is cached now; its owner is still only an id
+        assertThat(countStatements(0, () -> quizService.isVisibleTo(quizId, user(strangerId)))).isFalse();
+        assertThat(countStatements(0, () -> quizService.isVisibleTo(quizId, null))).isFalse();
+    }
+
+    @Test
+    void questionDeletionByAnotherUserLoadsOnlyTheQuestionAndItsQuiz() {
+        long questionId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM questions WHERE quiz_id = ?", Long.class, quizId);
+
+        Throwable denied = countStatements(2, () -> catchThrowable(() -> quizService.deleteQuestion(questionId, user(strangerId))));
+
+        assertThat(denied).hasMessage("Access denied");
+    }
+
+    @Test
+    void entityIdentityReadsNoAssociations() {
+        transactionTemplate.executeWithoutResult(status -> {
+            QuizAttempt attempt = quizAttemptRepository.findById(attemptId).orElseThrow();
+            QuizAttempt detached = new QuizAttempt();
+            detached.setId(attemptId);
+
+            countStatements(0, () -> {
+                // The detached user compares ids with the proxy, as ownership checks by equals would
+                assertThat(user(ownerId)).isEqualTo(attempt.getUser());
+                assertThat(user(strangerId)).isNotEqualTo(attempt.getUser());
+                assertThat(Set.of(attempt)).contains(detached);
+                return attempt.hashCode();
+            });
+        });
+    }
+
+    private <T> T countStatements(long expected, Supplier<T> call) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        T result = call.get();
+        assertThat(statistics.getPrepareStatementCount()).as("SQL statements").isEqualTo(expected);
+        return result;
+    }
+
+    // As CurrentUser.toUser builds it: detached, id only
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
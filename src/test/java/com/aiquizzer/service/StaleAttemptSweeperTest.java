@@ -0,0 +1,147 @@
+package com.aiquizzer.service;
+
+import com.aiquizzer.MySqlContainerTest;
+import com.aiquizzer.archive.AnswerArchive;
+import com.aiquizzer.event.QuizAttemptEvent;
+import com.aiquizzer.model.AttemptStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The sweep against the migrated schema. Only untimed attempts in progress for longer than
+ * {@code stale-after} are timed out, and each only under its row lock: an attempt completed by a
+ * transaction that held the lock while the sweep was choosing its batch is left completed.
+ */
+@DataJpaTest(properties = {"quizzer.attempts.stale-after=PT1H", "quizzer.attempts.sweep-batch-size=2"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RecordApplicationEvents
+@Import({StaleAttemptSweeper.class, QuizAttemptService.class, StaleAttemptSweeperTest.Metrics.class})
+class StaleAttemptSweeperTest extends MySqlContainerTest {
+
+    private static final long HOLD_MILLIS = 500;
+
+    @Autowired
+    private StaleAttemptSweeper staleAttemptSweeper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ApplicationEvents events;
+
+    @MockBean
+    private AnswerArchive answerArchive;
+    @MockBean
+    private QuizLeaderboardService quizLeaderboardService;
+
+    private long userId;
+    private long quizId;
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        Long seededUserId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users WHERE username = 'sweeper'", Long.class);
+        if (seededUserId == null) {
+            jdbcTemplate.update("INSERT INTO users (username, email, password, created_at) " +
+                "VALUES ('sweeper', 'sweeper@example.test', 'x', NOW(6))");
+            seededUserId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'sweeper'", Long.class);
+        }
+        userId = seededUserId;
+        jdbcTemplate.update("INSERT INTO quizzes (title, topic, difficulty, is_public, created_at, user_id) " +
+            "VALUES ('Sweeper', 'Sweeping', 'EASY', 1, NOW(6), ?)", userId);
+        quizId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM quizzes", Long.class);
+    }
+
+    @Test
+    void onlyStaleUntimedAttemptsAreTimedOut() {
+        LocalDateTime now = LocalDateTime.now();
+        // More than one batch
+        long stale = attempt(now.minusHours(2), null);
+        long alsoStale = attempt(now.minusDays(3), null);
+        long thirdStale = attempt(now.minusHours(5), null);
+        long fresh = attempt(now.minusMinutes(30), null);
+        long timed = attempt(now.minusHours(2), now.minusHours(1));
+
+        staleAttemptSweeper.sweep();
+
+        for (long attemptId : new long[] {stale, alsoStale, thirdStale}) {
+            assertThat(status(attemptId)).isEqualTo("TIMED_OUT");
+            assertThat(events.stream(QuizAttemptEvent.class).filter(event -> event.getAttemptId() == attemptId))
+                .singleElement().satisfies(event -> {
+                    assertThat(event.getPreviousStatus()).isEqualTo(AttemptStatus.IN_PROGRESS);
+                    assertThat(event.getStatus()).isEqualTo(AttemptStatus.TIMED_OUT);
+                    assertThat(event.getCompletedAt()).isNotNull();
+                });
+        }
+        // Left to the deadline timer
+        assertThat(status(timed)).isEqualTo("IN_PROGRESS");
+        assertThat(status(fresh)).isEqualTo("IN_PROGRESS");
+    }
+
+    @Test
+    void anAttemptCompletedUnderTheRowLockIsNotTimedOut() throws Exception {
+        long attemptId = attempt(LocalDateTime.now().minusHours(2), null);
+        CountDownLatch locked = new CountDownLatch(1);
+        // As a submit that locked the row before the sweep and completes it
+        CompletableFuture<Void> submit = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT id FROM quiz_attempts WHERE id = ? FOR UPDATE", Long.class, attemptId);
+            locked.countDown();
+            try {
+                Thread.sleep(HOLD_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            jdbcTemplate.update("UPDATE quiz_attempts SET status = 'COMPLETED', completed_at = ?, score = 100 WHERE id = ?",
+                LocalDateTime.now(), attemptId);
+        }));
+        assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // Chooses the attempt while it is still in progress, then waits for its lock
+        staleAttemptSweeper.sweep();
+        submit.get(10, TimeUnit.SECONDS);
+
+        assertThat(status(attemptId)).isEqualTo("COMPLETED");
+        assertThat(events.stream(QuizAttemptEvent.class).filter(event -> event.getAttemptId() == attemptId)).isEmpty();
+    }
+
+    private long attempt(LocalDateTime startedAt, LocalDateTime deadlineAt) {
+        jdbcTemplate.update("INSERT INTO quiz_attempts (started_at, deadline_at, total_questions, correct_answers, status, " +
+            "user_id, quiz_id) VALUES (?, ?, 2, 0, 'IN_PROGRESS', ?, ?)", startedAt, deadlineAt, userId, quizId);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM quiz_attempts", Long.class);
+    }
+
+    private String status(long attemptId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM quiz_attempts WHERE id = ?", String.class, attemptId);
+    }
+}
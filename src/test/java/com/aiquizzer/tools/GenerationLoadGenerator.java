@@ -0,0 +1,202 @@
+package com.aiquizzer.tools;
+
+import com.aiquizzer.AiQuizzerApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load generator for blocking AI quiz generation, comparing platform and virtual request threads
+ * against a stubbed model:
+ *
+ * <pre>
+ * java ... com.aiquizzer.tools.GenerationLoadGenerator username password [concurrency] [requests] [model-delay-ms]
+ * </pre>
+ *
+ * Starts an OpenAI-compatible stub that answers every completion after {@code model-delay-ms},
+ * then starts the application twice on a random port pointed at it, with
+ * {@code spring.threads.virtual.enabled} off and then on, and sends {@code requests}
+ * {@code POST /quizzes/ai-generate} requests, {@code concurrency} at a time, to each. Prints
+ * throughput and latency for each run. The application connects to the database configured for it
+ * as usual, and the user must already exist there.
+ */
+public class GenerationLoadGenerator {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static final String STUB_QUESTION = "{\"question\": \"Which option is the stub's?\", "
+        + "\"options\": [\"Option A\", \"Option B\", \"Option C\", \"Option D\"], "
+        + "\"correctAnswer\": \"A\", \"explanation\": \"The stub always answers A.\"}";
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final String username;
+    private final String password;
+
+    GenerationLoadGenerator(String username, String password) {
+        this.username = username;
+        this.password = password;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: GenerationLoadGenerator <username> <password> [concurrency] [requests] [model-delay-ms]");
+            System.exit(2);
+        }
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int requests = args.length > 3 ? Integer.parseInt(args[3]) : 5000;
+        long modelDelayMillis = args.length > 4 ? Long.parseLong(args[4]) : 500;
+
+        HttpServer model = startStubModel(modelDelayMillis);
+        try {
+            GenerationLoadGenerator generator = new GenerationLoadGenerator(args[0], args[1]);
+            String modelUrl = "http://localhost:" + model.getAddress().getPort();
+            for (boolean virtual : new boolean[] {false, true}) {
+                generator.run(virtual, modelUrl, concurrency, requests);
+            }
+        } finally {
+            model.stop(0);
+        }
+    }
+
+    void run(boolean virtualThreads, String modelUrl, int concurrency, int requests) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AiQuizzerApplication.class)
+                .properties(
+                    "server.port=0",
+                    "spring.threads.virtual.enabled=" + virtualThreads,
+                    "spring.ai.openai.base-url=" + modelUrl,
+                    "spring.ai.openai.api-key=stub",
+                    "logging.level.org.springframework.ai=WARN")
+                .run()) {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port + context.getEnvironment().getProperty("server.servlet.context-path", "");
+            String token = token(baseUrl);
+            String body = JSON.writeValueAsString(Map.of(
+                "topic", "Load testing", "difficulty", "EASY", "numberOfQuestions", 5, "questionType", "MULTIPLE_CHOICE"));
+
+            List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+            AtomicLong failures = new AtomicLong();
+            long startedAt = System.currentTimeMillis();
+            try (ExecutorService clients = Executors.newFixedThreadPool(concurrency, Thread.ofVirtual().factory())) {
+                List<Future<?>> sent = new ArrayList<>();
+                for (int i = 0; i < requests; i++) {
+                    sent.add(clients.submit(() -> {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/quizzes/ai-generate"))
+                            .header("Authorization", "Bearer " + token)
+                            .header("Content-Type", "application/json")
+                            .timeout(Duration.ofMinutes(5))
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build();
+                        long requestedAt = System.nanoTime();
+                        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 300) {
+                            failures.incrementAndGet();
+                            return null;
+                        }
+                        latencies.add((System.nanoTime() - requestedAt) / 1_000_000);
+                        return null;
+                    }));
+                }
+                for (Future<?> future : sent) {
+                    try {
+                        future.get();
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            }
+            long elapsed = System.currentTimeMillis() - startedAt;
+            report(virtualThreads ? "virtual threads" : "platform threads", elapsed, requests, failures.get(), latencies);
+        }
+    }
+
+    // Answers every chat completion after the delay: questions for the question prompt, a line of text otherwise
+    private static HttpServer startStubModel(long delayMillis) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", exchange -> {
+            try (exchange) {
+                String prompt = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                Thread.sleep(delayMillis);
+                String content = prompt.contains("questions about")
+                    ? "[" + String.join(", ", Collections.nCopies(5, STUB_QUESTION)) + "]"
+                    : "Stub text";
+                respond(exchange, content);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static void respond(HttpExchange exchange, String content) throws IOException {
+        byte[] body = JSON.writeValueAsBytes(Map.of(
+            "id", "stub",
+            "object", "chat.completion",
+            "created", 0,
+            "model", "stub",
+            "choices", List.of(Map.of(
+                "index", 0,
+                "message", Map.of("role", "assistant", "content", content),
+                "finish_reason", "stop")),
+            "usage", Map.of("prompt_tokens", 1, "completion_tokens", 1, "total_tokens", 2)));
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void report(String label, long elapsedMillis, int requests, long failures, List<Long> latencies) {
+        List<Long> sorted;
+        synchronized (latencies) {
+            sorted = new ArrayList<>(latencies);
+        }
+        Collections.sort(sorted);
+        System.out.printf("%s: %d requests in %d ms (%.1f/s), %d failed%n", label, requests, elapsedMillis,
+            requests * 1000.0 / Math.max(1, elapsedMillis), failures);
+        System.out.printf("  latency ms: p50 %d, p95 %d, p99 %d, max %d%n",
+            percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99), percentile(sorted, 100));
+    }
+
+    private static long percentile(List<Long> sorted, int percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    private String token(String baseUrl) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/token"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(JSON.writeValueAsString(Map.of("username", username, "password", password))))
+            .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("POST /auth/token returned " + response.statusCode());
+        }
+        return JSON.readTree(response.body()).get("accessToken").asText();
+    }
+}
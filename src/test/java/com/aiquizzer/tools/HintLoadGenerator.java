@@ -0,0 +1,138 @@
+package com.aiquizzer.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load generator comparing the blocking and the streaming hint endpoints, run against a started
+ * server:
+ *
+ * <pre>
+ * java ... com.aiquizzer.tools.HintLoadGenerator http://localhost:8080/api username password user-answer-id [concurrency] [requests]
+ * </pre>
+ *
+ * Sends {@code requests} hint requests for one of the user's answers, {@code concurrency} at a
+ * time, first to {@code POST /quiz-attempts/{id}} and then to
+ * {@code POST /reactive/quiz-attempts/{id}/hint}. Prints throughput, time to first byte and total
+ * latency for each. The answer must already be written to {@code user_answers}, not archived.
+ */
+public class HintLoadGenerator {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final String baseUrl;
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    HintLoadGenerator(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("Usage: HintLoadGenerator <base-url> <username> <password> <user-answer-id> [concurrency] [requests]");
+            System.exit(2);
+        }
+        int concurrency = args.length > 4 ? Integer.parseInt(args[4]) : 50;
+        int requests = args.length > 5 ? Integer.parseInt(args[5]) : 500;
+        HintLoadGenerator generator = new HintLoadGenerator(args[0]);
+        String token = generator.token(args[1], args[2]);
+        long userAnswerId = Long.parseLong(args[3]);
+        generator.run("blocking", "/quiz-attempts/" + userAnswerId, token, concurrency, requests);
+        generator.run("streaming", "/reactive/quiz-attempts/" + userAnswerId + "/hint", token, concurrency, requests);
+    }
+
+    void run(String label, String path, String token, int concurrency, int requests) throws Exception {
+        List<Long> firstBytes = Collections.synchronizedList(new ArrayList<>());
+        List<Long> totals = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong failures = new AtomicLong();
+        long startedAt = System.currentTimeMillis();
+        try (ExecutorService clients = Executors.newFixedThreadPool(concurrency, Thread.ofVirtual().factory())) {
+            List<Future<?>> sent = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                sent.add(clients.submit(() -> {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                        .header("Authorization", "Bearer " + token)
+                        .POST(HttpRequest.BodyPublishers.noBody())
+                        .build();
+                    long requestedAt = System.nanoTime();
+                    HttpResponse<InputStream> response = http.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                    try (InputStream body = response.body()) {
+                        // The first read returns once the first chunk of the body has arrived
+                        int first = body.read();
+                        long firstByteAt = System.nanoTime();
+                        body.transferTo(OutputStream.nullOutputStream());
+                        if (response.statusCode() >= 300 || first < 0) {
+                            failures.incrementAndGet();
+                            return null;
+                        }
+                        firstBytes.add((firstByteAt - requestedAt) / 1_000_000);
+                        totals.add((System.nanoTime() - requestedAt) / 1_000_000);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : sent) {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                }
+            }
+        }
+        long elapsed = System.currentTimeMillis() - startedAt;
+        report(label, elapsed, requests, failures.get(), firstBytes, totals);
+    }
+
+    private static void report(String label, long elapsedMillis, int requests, long failures, List<Long> firstBytes, List<Long> totals) {
+        List<Long> first;
+        List<Long> total;
+        synchronized (firstBytes) {
+            first = new ArrayList<>(firstBytes);
+        }
+        synchronized (totals) {
+            total = new ArrayList<>(totals);
+        }
+        Collections.sort(first);
+        Collections.sort(total);
+        System.out.printf("%s: %d requests in %d ms (%.1f/s), %d failed%n", label, requests, elapsedMillis,
+            requests * 1000.0 / Math.max(1, elapsedMillis), failures);
+        System.out.printf("  first byte ms: p50 %d, p95 %d, p99 %d, max %d%n",
+            percentile(first, 50), percentile(first, 95), percentile(first, 99), percentile(first, 100));
+        System.out.printf("  total ms: p50 %d, p95 %d, p99 %d, max %d%n",
+            percentile(total, 50), percentile(total, 95), percentile(total, 99), percentile(total, 100));
+    }
+
+    private static long percentile(List<Long> sorted, int percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    private String token(String username, String password) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/token"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(JSON.writeValueAsString(Map.of("username", username, "password", password))))
+            .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("POST /auth/token returned " + response.statusCode());
+        }
+        return JSON.readTree(response.body()).get("accessToken").asText();
+    }
+}
@@ -0,0 +1,250 @@
+package com.aiquizzer.tools;
+
+import com.aiquizzer.controller.QuizRoomController;
+import com.aiquizzer.dto.RoomEventDto;
+import com.aiquizzer.room.QuizRoom;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Load generator for live quiz rooms, run against a started server:
+ *
+ * <pre>
+ * java ... com.aiquizzer.tools.RoomLoadGenerator http://localhost:8080/api host-user host-password quiz-id [participants] [max-answer-delay-ms]
+ * </pre>
+ *
+ * Registers {@code participants} throwaway users, joins them to a new room for the quiz, connects
+ * each over STOMP, starts the room as the host and answers every question after a random delay.
+ * Prints answer acknowledgement latency, how far apart the participants received each broadcast,
+ * and the number of leaderboard messages.
+ */
+public class RoomLoadGenerator {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final String baseUrl;
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final List<Long> ackLatencies = Collections.synchronizedList(new ArrayList<>());
+    // Question index to the receive time of its QUESTION event at each participant
+    private final Map<Integer, List<Long>> questionReceipts = new ConcurrentHashMap<>();
+    private final AtomicLong answersSent = new AtomicLong();
+    private final AtomicLong answersRejected = new AtomicLong();
+    private final AtomicLong leaderboards = new AtomicLong();
+
+    RoomLoadGenerator(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("Usage: RoomLoadGenerator <base-url> <host-username> <host-password> <quiz-id> [participants] [max-answer-delay-ms]");
+            System.exit(2);
+        }
+        int participants = args.length > 4 ? Integer.parseInt(args[4]) : 200;
+        long maxDelayMillis = args.length > 5 ? Long.parseLong(args[5]) : 5000;
+        new RoomLoadGenerator(args[0]).run(args[1], args[2], Long.parseLong(args[3]), participants, maxDelayMillis);
+    }
+
+    void run(String hostUsername, String hostPassword, long quizId, int participants, long maxDelayMillis) throws Exception {
+        String hostToken = token(hostUsername, hostPassword);
+        String code = post("/rooms", hostToken, Map.of("quizId", quizId)).get("code").asText();
+        System.out.printf("Room %s created for quiz %d%n", code, quizId);
+
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        List<String> tokens = new ArrayList<>();
+        try (ExecutorService setup = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> joined = new ArrayList<>();
+            for (int i = 0; i < participants; i++) {
+                String username = "load-" + run + "-" + i;
+                joined.add(setup.submit(() -> {
+                    post("/users/register", null, Map.of("username", username, "email", username + "@example.test", "password", "load-" + run));
+                    String participantToken = token(username, "load-" + run);
+                    post("/rooms/" + code + "/join", participantToken, Map.of());
+                    return participantToken;
+                }));
+            }
+            for (Future<String> future : joined) {
+                tokens.add(future.get());
+            }
+        }
+        System.out.printf("%d participants joined%n", tokens.size());
+
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(4);
+        scheduler.initialize();
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        stompClient.setTaskScheduler(scheduler);
+
+        CountDownLatch finished = new CountDownLatch(tokens.size());
+        List<StompSession> sessions = new ArrayList<>();
+        String wsUrl = baseUrl.replaceFirst("^http", "ws") + "/ws";
+        for (String participantToken : tokens) {
+            StompHeaders connectHeaders = new StompHeaders();
+            connectHeaders.add("Authorization", "Bearer " + participantToken);
+            sessions.add(stompClient.connectAsync(wsUrl, new WebSocketHttpHeaders(), connectHeaders,
+                new Participant(code, scheduler, maxDelayMillis, finished)).get(30, TimeUnit.SECONDS));
+        }
+        System.out.printf("%d STOMP sessions connected%n", sessions.size());
+
+        long startedAt = System.currentTimeMillis();
+        post("/rooms/" + code + "/start", hostToken, Map.of());
+        boolean complete = finished.await(1, TimeUnit.HOURS);
+        long elapsed = System.currentTimeMillis() - startedAt;
+
+        sessions.forEach(StompSession::disconnect);
+        scheduler.shutdown();
+        report(complete, elapsed);
+    }
+
+    private void report(boolean complete, long elapsedMillis) {
+        System.out.printf("Room %s in %d ms%n", complete ? "finished" : "did not finish", elapsedMillis);
+        System.out.printf("Answers sent %d, rejected %d, leaderboard messages received %d%n",
+            answersSent.get(), answersRejected.get(), leaderboards.get());
+        List<Long> latencies;
+        synchronized (ackLatencies) {
+            latencies = new ArrayList<>(ackLatencies);
+        }
+        Collections.sort(latencies);
+        System.out.printf("Answer ack latency ms: p50 %d, p95 %d, p99 %d, max %d%n",
+            percentile(latencies, 50), percentile(latencies, 95), percentile(latencies, 99), percentile(latencies, 100));
+        questionReceipts.forEach((index, receipts) -> {
+            List<Long> sorted = new ArrayList<>(receipts);
+            Collections.sort(sorted);
+            long first = sorted.get(0);
+            System.out.printf("Question %d reached %d participants, spread ms: p95 %d, max %d%n", index, sorted.size(),
+                percentile(sorted, 95) - first, sorted.get(sorted.size() - 1) - first);
+        });
+    }
+
+    private static long percentile(List<Long> sorted, int percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    private String token(String username, String password) throws Exception {
+        return post("/auth/token", null, Map.of("username", username, "password", password)).get("accessToken").asText();
+    }
+
+    private JsonNode post(String path, String token, Object body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(JSON.writeValueAsString(body)));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("POST " + path + " returned " + response.statusCode());
+        }
+        return response.body().isEmpty() ? JSON.createObjectNode() : JSON.readTree(response.body());
+    }
+
+    private class Participant extends StompSessionHandlerAdapter {
+
+        private final String code;
+        private final ThreadPoolTaskScheduler scheduler;
+        private final long maxDelayMillis;
+        private final CountDownLatch finished;
+        // Question id to the time its answer was sent
+        private final Map<Long, Long> pending = new ConcurrentHashMap<>();
+
+        Participant(String code, ThreadPoolTaskScheduler scheduler, long maxDelayMillis, CountDownLatch finished) {
+            this.code = code;
+            this.scheduler = scheduler;
+            this.maxDelayMillis = maxDelayMillis;
+            this.finished = finished;
+        }
+
+        @Override
+        public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+            session.subscribe("/topic/rooms/" + code, frameHandler(RoomEventDto.class, event -> onEvent(session, event)));
+            session.subscribe("/topic/rooms/" + code + "/leaderboard", frameHandler(Object.class, standings -> leaderboards.incrementAndGet()));
+            session.subscribe("/user/queue/rooms", frameHandler(QuizRoomController.RoomAnswerAck.class, this::onAck));
+        }
+
+        private void onEvent(StompSession session, RoomEventDto event) {
+            if (event.getPhase() == QuizRoom.Phase.FINISHED) {
+                finished.countDown();
+                return;
+            }
+            if (event.getPhase() != QuizRoom.Phase.QUESTION || event.getQuestion() == null) {
+                return;
+            }
+            questionReceipts.computeIfAbsent(event.getQuestionIndex(), index -> Collections.synchronizedList(new ArrayList<>()))
+                .add(System.currentTimeMillis());
+            List<String> choices = event.getQuestion().getChoices();
+            String answer = choices == null || choices.isEmpty() ? "load" : choices.get(ThreadLocalRandom.current().nextInt(choices.size()));
+            Long questionId = event.getQuestion().getId();
+            long delay = ThreadLocalRandom.current().nextLong(maxDelayMillis + 1);
+            scheduler.schedule(() -> {
+                pending.put(questionId, System.currentTimeMillis());
+                session.send("/app/rooms/" + code + "/answer", Map.of("questionId", questionId, "userAnswer", answer));
+                answersSent.incrementAndGet();
+            }, Instant.now().plusMillis(delay));
+        }
+
+        private void onAck(QuizRoomController.RoomAnswerAck ack) {
+            if (!ack.isAccepted()) {
+                answersRejected.incrementAndGet();
+                return;
+            }
+            Long sentAt = ack.getQuestionId() != null ? pending.remove(ack.getQuestionId()) : null;
+            if (sentAt != null) {
+                ackLatencies.add(System.currentTimeMillis() - sentAt);
+            }
+        }
+
+        @Override
+        public void handleTransportError(StompSession session, Throwable exception) {
+            System.err.println("Transport error: " + exception.getMessage());
+        }
+    }
+
+    private static <T> StompFrameHandler frameHandler(Class<T> type, Consumer<T> consumer) {
+        return new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return type;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void handleFrame(StompHeaders headers, Object payload) {
+                consumer.accept((T) payload);
+            }
+        };
+    }
+}